@@ -0,0 +1,120 @@
+/*
+ * jPSXdec: PlayStation 1 Media Decoder/Converter in Java
+ * Copyright (C) 2019  Michael Sabin
+ * All rights reserved.
+ *
+ * Redistribution and use of the jPSXdec code or any derivative works are
+ * permitted provided that the following conditions are met:
+ *
+ *  * Redistributions may not be sold, nor may they be used in commercial
+ *    or revenue-generating business activities.
+ *
+ *  * Redistributions that are modified from the original source must
+ *    include the complete source code, including the source code for all
+ *    components used by a binary built from the modified sources. However, as
+ *    a special exception, the source code distributed need not include
+ *    anything that is normally distributed (in either source or binary form)
+ *    with the major components (compiler, kernel, and so on) of the operating
+ *    system on which the executable runs, unless that component itself
+ *    accompanies the executable.
+ *
+ *  * Redistributions must reproduce the above copyright notice, this list
+ *    of conditions and the following disclaimer in the documentation and/or
+ *    other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package jpsxdec.adpcm;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import javax.annotation.Nonnull;
+
+/** Encodes each audio channel on its own thread.
+ * Each channel has its own {@link SoundUnitEncoder} with its own running
+ * context, so channels are independent as long as each task only touches
+ * its own channel's data. */
+class ParallelChannels {
+
+    /** Encodes one channel. */
+    interface Task {
+        void encodeChannel(int iChannel) throws IOException;
+    }
+
+    private static final ExecutorService THREADS = Executors.newCachedThreadPool(new ThreadFactory() {
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "ADPCM channel encoder");
+            t.setDaemon(true);
+            return t;
+        }
+    });
+
+    /** Runs the task for every channel, channel 0 on the current thread
+     * and the others in the background, and waits for them all to finish.
+     * Channels are encoded one after another if there is only 1 channel,
+     * 1 processor, or telemetry is being collected. */
+    public static void encode(int iChannels, @Nonnull final Task task) throws IOException {
+        if (iChannels < 2 || SoundUnitEncoder.TELEMETRY_LISTENER != null ||
+            Runtime.getRuntime().availableProcessors() < 2)
+        {
+            for (int i = 0; i < iChannels; i++) {
+                task.encodeChannel(i);
+            }
+            return;
+        }
+
+        List<Future<Void>> others = new ArrayList<Future<Void>>(iChannels - 1);
+        for (int i = 1; i < iChannels; i++) {
+            final int iChannel = i;
+            others.add(THREADS.submit(new Callable<Void>() {
+                public Void call() throws IOException {
+                    task.encodeChannel(iChannel);
+                    return null;
+                }
+            }));
+        }
+
+        try {
+            task.encodeChannel(0);
+        } finally {
+            // always wait so no channel is still running when this returns
+            for (Future<Void> other : others) {
+                try {
+                    other.get();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(ex);
+                } catch (ExecutionException ex) {
+                    Throwable cause = ex.getCause();
+                    if (cause instanceof IOException)
+                        throw (IOException) cause;
+                    if (cause instanceof RuntimeException)
+                        throw (RuntimeException) cause;
+                    if (cause instanceof Error)
+                        throw (Error) cause;
+                    throw new RuntimeException(cause);
+                }
+            }
+        }
+    }
+
+}
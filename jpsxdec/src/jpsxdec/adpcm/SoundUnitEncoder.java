@@ -101,12 +101,6 @@ public class SoundUnitEncoder {
             dblPrev2 = other.dblPrev2;
         }
 
-        /** Clone this context. */
-        public @Nonnull AdpcmEncodingContext copy() {
-            AdpcmEncodingContext c = new AdpcmEncodingContext();
-            c.update(this);
-            return c;
-        }
     }
 
     // =========================================================================
@@ -127,6 +121,14 @@ public class SoundUnitEncoder {
     /** Maximum range shift for {@link #_iAdpcmBitsPerSample}. */
     private final int _iMaxRange;
 
+    /** Scratch encoders reused for every sound unit. */
+    @Nonnull
+    private FilterRangeEncoder _trialEncoder = new FilterRangeEncoder(),
+                               _bestEncoder = new FilterRangeEncoder();
+    /** Sound parameters chosen for the previous sound unit. Tried first
+     * since neighboring sound units usually choose similar parameters. */
+    private int _iPrevFilterIndex = 0, _iPrevRange = 0;
+
 
     /** Creates an encoder to encode with the supplied filters and
      * generate ADPCM samples with the supplied bits/sample.
@@ -163,38 +165,69 @@ public class SoundUnitEncoder {
         if (asiPcmSoundUnitSamples.length != SoundUnitDecoder.SAMPLES_PER_SOUND_UNIT)
             throw new IllegalArgumentException();
 
-        FilterRangeEncoder best = null;
-        FilterRangeEncoder zeroRangeFilter = null;
+        // The result is the same as trying every filter and range and
+        // choosing the one with the smallest error, but encoding stops as
+        // soon as a sample needs clamping or the error is already worse
+        // than the best so far. Telemetry wants every result, so it
+        // still gets the full search.
+        boolean blnStopEarly = TELEMETRY_LISTENER == null;
+
+        boolean blnHaveBest = false;
+        if (blnStopEarly) {
+            // an early good result lets the rest stop sooner
+            if (!tryEncoding(_iPrevFilterIndex, _iPrevRange, asiPcmSoundUnitSamples,
+                             loggingContext, true, false))
+            {
+                blnHaveBest = true;
+            }
+        }
 
         for (int iRange = _iMaxRange; iRange >= 0; iRange--) {
             for (int iFilterIdx = 0; iFilterIdx < _filters.getCount(); iFilterIdx++) {
-
-                FilterRangeEncoder encTry = new FilterRangeEncoder(iFilterIdx, iRange,
-                                                                   _context.copy());
-
-                if (iRange == 0 && iFilterIdx == 0)
-                    zeroRangeFilter = encTry;
-
-                if (encTry.encode(asiPcmSoundUnitSamples, loggingContext))
-                    continue;
-
-                if (best == null || encTry.isBetterThan(best)) {
-                    best = encTry;
+                if (blnStopEarly && iFilterIdx == _iPrevFilterIndex && iRange == _iPrevRange)
+                    continue; // already tried
+                if (!tryEncoding(iFilterIdx, iRange, asiPcmSoundUnitSamples,
+                                 loggingContext, blnStopEarly, blnHaveBest))
+                {
+                    blnHaveBest = true;
                 }
             }
         }
 
         // only if all encoding options resulted in clamped samples
         // do we default to the 0 range, 0 filter encoding
-        if (best == null) {
+        if (!blnHaveBest) {
             LOG.log(Level.WARNING,
                     "Had to clamp encoded samples to encode {0}", loggingContext);
-            best = zeroRangeFilter;
+            _bestEncoder.reset(0, 0, _context);
+            _bestEncoder.encode(asiPcmSoundUnitSamples, loggingContext, false, null);
         }
 
-        _context.update(best.getDecodedContext());
+        _context.update(_bestEncoder.getDecodedContext());
+        _iPrevFilterIndex = _bestEncoder._iFilterIndex;
+        _iPrevRange = _bestEncoder._iRange;
 
-        return best.makeEncodedUnit();
+        return _bestEncoder.makeEncodedUnit();
+    }
+
+    /** Encodes with the given parameters, and if it is better than
+     * {@link #_bestEncoder}, it becomes the best.
+     * @return if the parameters were rejected. */
+    private boolean tryEncoding(int iFilterIdx, int iRange,
+                                @Nonnull short[] asiPcmSoundUnitSamples,
+                                @Nonnull IContextCopier loggingContext,
+                                boolean blnStopEarly, boolean blnHaveBest)
+    {
+        _trialEncoder.reset(iFilterIdx, iRange, _context);
+        if (_trialEncoder.encode(asiPcmSoundUnitSamples, loggingContext,
+                                 blnStopEarly, blnHaveBest ? _bestEncoder : null))
+            return true;
+        if (blnHaveBest && !_trialEncoder.isBetterThan(_bestEncoder))
+            return true;
+        FilterRangeEncoder swap = _bestEncoder;
+        _bestEncoder = _trialEncoder;
+        _trialEncoder = swap;
+        return false;
     }
 
     /** Encodes the PCM samples into an {@link EncodedUnit}.
@@ -214,9 +247,9 @@ public class SoundUnitEncoder {
             iRange < 0 || iRange > _iMaxRange)
             throw new IllegalArgumentException();
 
-        FilterRangeEncoder encoder = new FilterRangeEncoder(iFilterIdx, iRange,
-                                                            _context.copy());
-        if (encoder.encode(asiPcmSoundUnitSamples, loggingContext))
+        FilterRangeEncoder encoder = _trialEncoder;
+        encoder.reset(iFilterIdx, iRange, _context);
+        if (encoder.encode(asiPcmSoundUnitSamples, loggingContext, false, null))
             LOG.log(Level.WARNING,
                     "{0}: Unable to encode with Filter Index {1} Range {2} without clamping",
                     new Object[]{loggingContext, iFilterIdx, iRange});
@@ -240,19 +273,22 @@ public class SoundUnitEncoder {
         return encodeSoundUnit(asiPcmSoundUnitSamples, iFilterIdx, iRange, loggingContext);
     }
 
-    /** Encodes PCM data for a particular filter and range combination.. */
+    /** Encodes PCM data for a particular filter and range combination.
+     * Reused for every combination via {@link #reset(int, int, AdpcmEncodingContext)}. */
     private class FilterRangeEncoder {
 
         /** Filter index to use for encoding. */
-        private final int _iFilterIndex;
+        private int _iFilterIndex;
         /** Range to use for encoding. */
-        private final int _iRange;
+        private int _iRange;
+        /** Position in the full search order (highest range first, then
+         * lowest filter). Breaks ties the same way the full search does. */
+        private int _iSearchOrder;
 
         /** Local copy of the encoding context, updated during encoding.
          * The running encoding context will be updated with this context
          * if this encoded sound unit is chosen.  */
-        @Nonnull
-        private final AdpcmEncodingContext _contextSnapshot;
+        private final AdpcmEncodingContext _contextSnapshot = new AdpcmEncodingContext();
 
         /** Encoded data goes here. */
         private final byte[] _abEncodedAdpcm = new byte[SoundUnitDecoder.SAMPLES_PER_SOUND_UNIT];
@@ -267,19 +303,23 @@ public class SoundUnitEncoder {
 
 
         /** Will use the supplied sound parameters and a snapshot of the
-         * running context for encoding. */
-        private FilterRangeEncoder(int iFilterIndex, int iRange,
-                                   @Nonnull AdpcmEncodingContext contextSnapshot)
+         * running context for the next encoding. */
+        public void reset(int iFilterIndex, int iRange,
+                          @Nonnull AdpcmEncodingContext context)
         {
             _iFilterIndex = iFilterIndex;
             _iRange = iRange;
-            _contextSnapshot = contextSnapshot;
+            _iSearchOrder = (_iMaxRange - iRange) * _filters.getCount() + iFilterIndex;
+            _contextSnapshot.update(context);
+            _blnHadToClamp = false;
+            _dblMaxDelta = 0;
         }
 
         /** Checks if this sound unit provides better encoding than the supplied
          *  sound unit. The decider. */
         public boolean isBetterThan(@Nonnull FilterRangeEncoder other) {
-            return _dblMaxDelta < other._dblMaxDelta;
+            return _dblMaxDelta < other._dblMaxDelta ||
+                   (_dblMaxDelta == other._dblMaxDelta && _iSearchOrder < other._iSearchOrder);
         }
 
         /** Get the resulting context after encoding. */
@@ -290,12 +330,18 @@ public class SoundUnitEncoder {
         /** Make an {@link EncodedUnit} based of the encoding results
          * to be shared with the outside world */
         public @Nonnull EncodedUnit makeEncodedUnit() {
-            return new EncodedUnit(_iFilterIndex, _iRange, _blnHadToClamp, _abEncodedAdpcm);
+            return new EncodedUnit(_iFilterIndex, _iRange, _blnHadToClamp, _abEncodedAdpcm.clone());
         }
 
-        /** Returns if any samples were clamped. */
+        /** Returns if any samples were clamped.
+         * @param blnStopEarly Stop encoding (and return true) as soon as
+         *                     a sample is clamped, or this can't be better
+         *                     than {@code rival}.
+         * @param rival Current best encoding, or null. */
         private boolean encode(@Nonnull short[] asiPcmSoundUnitSamples,
-                               @Nonnull IContextCopier loggingContext)
+                               @Nonnull IContextCopier loggingContext,
+                               boolean blnStopEarly,
+                               @CheckForNull FilterRangeEncoder rival)
         {
             Telemetry telemetry = TELEMETRY_LISTENER == null ?
                     null
@@ -330,6 +376,8 @@ public class SoundUnitEncoder {
                     if (telemetry != null)
                         telemetry.sFailure = "Sample#"+i+"=" + lngRanged + " won't fit between " + _iEncodeMin + " and " + _iEncodeMax;
                     _blnHadToClamp = true;
+                    if (blnStopEarly)
+                        return true;
                 }
                 byte bEncoded = (byte) lngRanged;
                 _abEncodedAdpcm[i] = bEncoded;
@@ -348,8 +396,12 @@ public class SoundUnitEncoder {
                 _contextSnapshot.update(dblDecodedPcm);
 
                 double dblDelta = Math.abs(dblDecodedPcm - siPcmSample);
-                if (dblDelta > _dblMaxDelta)
+                if (dblDelta > _dblMaxDelta) {
                     _dblMaxDelta = dblDelta;
+                    // the max only grows, so once it loses it can't win
+                    if (blnStopEarly && rival != null && !isBetterThan(rival))
+                        return true;
+                }
 
                 if (telemetry != null) {
                     telemetry.ablnSampleClamped[i]       = _blnHadToClamp;
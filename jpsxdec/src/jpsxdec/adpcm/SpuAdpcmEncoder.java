@@ -199,6 +199,61 @@ public abstract class SpuAdpcmEncoder implements Closeable {
             _logContext.lngSampleFramesReadEncoded += SoundUnitDecoder.SAMPLES_PER_SOUND_UNIT;
             return true;
         }
+
+        /** Same as calling
+         * {@link #encode1SoundUnit(byte, java.io.OutputStream, byte, java.io.OutputStream)}
+         * up to {@code iCount} times, except the left and right channels
+         * are encoded at the same time. The left and right output streams
+         * must be different.
+         * @param abLeftFlagBits  Flag bits for each left Sound Unit.
+         * @param abRightFlagBits Flag bits for each right Sound Unit.
+         * @return the number of Sound Units encoded, which is less than
+         *         {@code iCount} if the source audio stream ran out. */
+        public int encodeSoundUnits(int iCount,
+                                    @Nonnull byte[] abLeftFlagBits, @Nonnull OutputStream leftSpuStream,
+                                    @Nonnull byte[] abRightFlagBits, @Nonnull OutputStream rightSpuStream)
+                throws IOException
+        {
+            final short[][][] aaasiSamples = new short[iCount][][];
+            final int[][] aaiPresets = _presetPrameters == null ? null : new int[iCount][2];
+            int iRead = 0;
+            for (; iRead < iCount && !_audioShortReader.isEof(); iRead++) {
+                aaasiSamples[iRead] = _audioShortReader.readSoundUnitSamples(SoundUnitDecoder.SAMPLES_PER_SOUND_UNIT);
+                if (aaiPresets != null) {
+                    aaiPresets[iRead][0] = _presetPrameters.read();
+                    aaiPresets[iRead][1] = _presetPrameters.read();
+                }
+            }
+
+            final int iUnits = iRead;
+            final long lngStartSampleFrame = _logContext.lngSampleFramesReadEncoded;
+            final SoundUnitEncoder[] aoEncoders = {_leftOrMonoEncoder, _rightChannel};
+            final byte[][] aabFlagBits = {abLeftFlagBits, abRightFlagBits};
+            final OutputStream[] aoStreams = {leftSpuStream, rightSpuStream};
+            ParallelChannels.encode(2, new ParallelChannels.Task() {
+                public void encodeChannel(int iChannel) throws IOException {
+                    // each channel needs its own logging context
+                    LogContext logContext = new LogContext();
+                    logContext.iChannel = iChannel;
+                    for (int i = 0; i < iUnits; i++) {
+                        logContext.lngSampleFramesReadEncoded = lngStartSampleFrame +
+                                (long)i * SoundUnitDecoder.SAMPLES_PER_SOUND_UNIT;
+                        SoundUnitEncoder.EncodedUnit encoded;
+                        if (aaiPresets == null) {
+                            encoded = aoEncoders[iChannel].encodeSoundUnit(
+                                    aaasiSamples[i][iChannel], logContext);
+                        } else {
+                            encoded = aoEncoders[iChannel].encodeSoundUnit(
+                                    aaasiSamples[i][iChannel], aaiPresets[i][iChannel], logContext);
+                        }
+                        writeSoundUnit(encoded, aabFlagBits[iChannel][i], aoStreams[iChannel]);
+                    }
+                }
+            });
+
+            _logContext.lngSampleFramesReadEncoded += (long)iUnits * SoundUnitDecoder.SAMPLES_PER_SOUND_UNIT;
+            return iUnits;
+        }
     }
 
     protected void encode1SoundUnitChannel(@Nonnull SoundUnitEncoder encoder,
@@ -215,7 +270,13 @@ public abstract class SpuAdpcmEncoder implements Closeable {
                     asiPcmSoundUnitChannelSamples,
                     _presetPrameters.read(), _logContext);
         }
+        writeSoundUnit(encoded, bFlagBits, spuStream);
+    }
 
+    private static void writeSoundUnit(@Nonnull SoundUnitEncoder.EncodedUnit encoded,
+                                       byte bFlagBits, @Nonnull OutputStream spuStream)
+            throws IOException
+    {
         spuStream.write(encoded.getSoundParameter() & 0xff);
         spuStream.write(bFlagBits & 0xff);
         for (int i = 0; i < SoundUnitDecoder.SAMPLES_PER_SOUND_UNIT; i+=2) {
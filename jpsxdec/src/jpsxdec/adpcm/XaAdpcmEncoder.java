@@ -185,45 +185,75 @@ public class XaAdpcmEncoder implements Closeable {
      * If the end of the audio stream is reached, silence will be written
      * for the remainder to the output. */
     public void encode1Sector(@Nonnull OutputStream os) throws IOException {
-        for (_logContext.iSoundGroup = 0;
-             _logContext.iSoundGroup < XaAdpcmDecoder.ADPCM_SOUND_GROUPS_PER_SECTOR;
-             _logContext.iSoundGroup++)
-        {
-            encodeSoundGroup(os);
+        final int iChannels = _aoEncoders.length;
+        int iUnitsPerGroup = _blnEncode4BitsElse8Bits ?
+                             XaAdpcmDecoder.SOUND_UNITS_IN_4_BIT_SOUND_GROUP :
+                             XaAdpcmDecoder.SOUND_UNITS_IN_8_BIT_SOUND_GROUP;
+        // sound units of each channel in each sound group
+        final int iUnitsPerChannel = iUnitsPerGroup / iChannels;
+
+        // read all the source samples (and preset parameters) for the sector
+        // up front so each channel can then be encoded on its own thread
+        final short[][][][] aaaasiSamples =
+                new short[XaAdpcmDecoder.ADPCM_SOUND_GROUPS_PER_SECTOR][iUnitsPerChannel][][];
+        final int[][] aaiPresets = _presetPrameters == null ? null :
+                new int[XaAdpcmDecoder.ADPCM_SOUND_GROUPS_PER_SECTOR][iUnitsPerGroup];
+        for (int iGroup = 0; iGroup < XaAdpcmDecoder.ADPCM_SOUND_GROUPS_PER_SECTOR; iGroup++) {
+            for (int iUnit = 0; iUnit < iUnitsPerChannel; iUnit++) {
+                aaaasiSamples[iGroup][iUnit] =
+                        _audioShortReader.readSoundUnitSamples(SoundUnitDecoder.SAMPLES_PER_SOUND_UNIT);
+                if (aaiPresets != null) {
+                    for (int iChannel = 0; iChannel < iChannels; iChannel++) {
+                        aaiPresets[iGroup][iUnit * iChannels + iChannel] = _presetPrameters.read();
+                    }
+                }
+            }
         }
-        _logContext.iSoundGroup = -1;
-        _logContext.iEncodedSectorCount++;
-    }
-    
-    private void encodeSoundGroup(@Nonnull OutputStream os) throws IOException {
-        SoundUnitEncoder.EncodedUnit[] aoEncoded;
-        if (_blnEncode4BitsElse8Bits)
-            aoEncoded = new SoundUnitEncoder.EncodedUnit[XaAdpcmDecoder.SOUND_UNITS_IN_4_BIT_SOUND_GROUP];
-        else
-            aoEncoded = new SoundUnitEncoder.EncodedUnit[XaAdpcmDecoder.SOUND_UNITS_IN_8_BIT_SOUND_GROUP];
 
-        for (_logContext.iSoundUnit = 0; _logContext.iSoundUnit < aoEncoded.length;) {
-            short[][] aasiPcmSoundUnitChannelSamples =
-                    _audioShortReader.readSoundUnitSamples(SoundUnitDecoder.SAMPLES_PER_SOUND_UNIT);
+        final SoundUnitEncoder.EncodedUnit[][] aaoEncoded =
+                new SoundUnitEncoder.EncodedUnit[XaAdpcmDecoder.ADPCM_SOUND_GROUPS_PER_SECTOR][iUnitsPerGroup];
+        final int iSector = _logContext.iEncodedSectorCount;
+        final long lngStartSampleFrame = _logContext.lngSamplesFramesRead;
 
-            for (_logContext.iChannel = 0;
-                 _logContext.iChannel < _aoEncoders.length;
-                 _logContext.iChannel++, _logContext.iSoundUnit++)
-            {
-                if (_presetPrameters == null) {
-                    aoEncoded[_logContext.iSoundUnit] = _aoEncoders[_logContext.iChannel].encodeSoundUnit(
-                                aasiPcmSoundUnitChannelSamples[_logContext.iChannel], _logContext);
-                } else {
-                    aoEncoded[_logContext.iSoundUnit] = _aoEncoders[_logContext.iChannel].encodeSoundUnit(
-                                aasiPcmSoundUnitChannelSamples[_logContext.iChannel],
-                                _presetPrameters.read(), _logContext);
+        ParallelChannels.encode(iChannels, new ParallelChannels.Task() {
+            public void encodeChannel(int iChannel) throws IOException {
+                // each channel needs its own logging context
+                LogContext logContext = new LogContext();
+                logContext.iEncodedSectorCount = iSector;
+                logContext.iChannel = iChannel;
+                SoundUnitEncoder encoder = _aoEncoders[iChannel];
+                for (int iGroup = 0; iGroup < XaAdpcmDecoder.ADPCM_SOUND_GROUPS_PER_SECTOR; iGroup++) {
+                    logContext.iSoundGroup = iGroup;
+                    for (int iUnit = 0; iUnit < iUnitsPerChannel; iUnit++) {
+                        int iSoundUnit = iUnit * iChannels + iChannel;
+                        logContext.iSoundUnit = iSoundUnit;
+                        logContext.lngSamplesFramesRead = lngStartSampleFrame +
+                                (iGroup * iUnitsPerChannel + iUnit) * SoundUnitDecoder.SAMPLES_PER_SOUND_UNIT;
+                        short[] asiSamples = aaaasiSamples[iGroup][iUnit][iChannel];
+                        if (aaiPresets == null) {
+                            aaoEncoded[iGroup][iSoundUnit] = encoder.encodeSoundUnit(asiSamples, logContext);
+                        } else {
+                            aaoEncoded[iGroup][iSoundUnit] = encoder.encodeSoundUnit(asiSamples,
+                                    aaiPresets[iGroup][iSoundUnit], logContext);
+                        }
+                    }
                 }
             }
-            _logContext.iChannel = -1;
-            _logContext.lngSamplesFramesRead += SoundUnitDecoder.SAMPLES_PER_SOUND_UNIT;
+        });
+
+        _logContext.lngSamplesFramesRead += XaAdpcmDecoder.ADPCM_SOUND_GROUPS_PER_SECTOR *
+                iUnitsPerChannel * SoundUnitDecoder.SAMPLES_PER_SOUND_UNIT;
+
+        for (SoundUnitEncoder.EncodedUnit[] aoEncoded : aaoEncoded) {
+            writeSoundGroup(aoEncoded, os);
         }
-        _logContext.iSoundUnit = -1;
+        _logContext.iEncodedSectorCount++;
+    }
 
+    private void writeSoundGroup(@Nonnull SoundUnitEncoder.EncodedUnit[] aoEncoded,
+                                 @Nonnull OutputStream os)
+            throws IOException
+    {
         // write the sound parameters and the encoded samples
         if (_blnEncode4BitsElse8Bits) {
             // aoEncoded.length == AdpcmSoundGroup.SOUND_UNITS_IN_4_BIT_SOUND_GROUP == 8
@@ -42,6 +42,8 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.Arrays;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -53,12 +55,15 @@ import jpsxdec.i18n.exception.LocalizedDeserializationFail;
 import jpsxdec.i18n.log.ProgressLogger;
 import jpsxdec.util.IO;
 import jpsxdec.util.Misc;
+import jpsxdec.util.RunStats;
 import jpsxdec.util.TaskCanceledException;
 
 /** Encapsulates the reading of a CD image (BIN/CUE, ISO), 
  * or a file containing some (possibly raw) sectors of a CD.
  * The resulting data is mostly the same.
  * This class tries to guess what type of file it is.
+ * The image may also be packed in a {@link DiscImageContainer} (e.g. ECM),
+ * in which case it is read-only.
  * <ul>
  * <li>{@link CdSector#SECTOR_SIZE_2048_ISO}
  * <li>{@link CdSector#SECTOR_SIZE_2336_BIN_NOSYNC}
@@ -71,6 +76,9 @@ public class CdFileSectorReader implements Closeable {
     private static final Logger LOG = Logger.getLogger(CdFileSectorReader.class.getName());
 
     private static final int DEFAULT_SECTOR_BUFFER_COUNT   = 16;
+    /** Sectors read at a time by {@link #copySectorsTo(int, int, boolean, FileChannel)}
+     * when the data can't be transferred directly. */
+    private static final int COPY_SECTOR_BLOCK_COUNT = 256;
 
     /** Exception if a CD file is not found or cannot be opened. */
     public static class CdFileNotFoundException extends FileNotFoundException {
@@ -160,6 +168,10 @@ public class CdFileSectorReader implements Closeable {
     private RandomAccessFile _inputFile;
     @Nonnull
     private final File _sourceFile;
+    /** If not null, the disc image is packed in this container,
+     * and is read through it instead of directly from {@link #_inputFile}. */
+    @CheckForNull
+    private final DiscImageContainer _container;
     /** Creates sectors from the data based on the type of disc image it is. */
     @Nonnull
     private final SectorFactory _sectorFactory;
@@ -167,13 +179,23 @@ public class CdFileSectorReader implements Closeable {
     private final int _iSectorCount;
 
     private int _iCachedSectorStart;
+    /** Number of valid sectors in {@link #_abBulkReadCache}. */
+    private int _iCachedSectorCount;
     private int _iSectorsToCache;
     @CheckForNull
     private byte[] _abBulkReadCache;
     private long _lngCacheFileOffset;
+    /** If not null, reads the next block of sectors in the background
+     * when sectors are being read in order. */
+    @CheckForNull
+    private SectorReadAhead _readAhead;
 
     @CheckForNull
     private DiscPatcher _patcher;
+    /** If not null, sectors are read through, and patches are written to,
+     * this overlay instead of the source file. */
+    @CheckForNull
+    private SectorOverlay _overlay;
 
     /* ---------------------------------------------------------------------- */
     /* Constructors --------------------------------------------------------- */
@@ -212,21 +234,23 @@ public class CdFileSectorReader implements Closeable {
 
             SectorFactory factory;
             try {
+                _container = DiscImageContainer.open(_inputFile);
+                ImageData imageData = new ImageData(_inputFile, _container);
 
                 try {
                     LOG.info("Attempting to identify as 2352/2448");
-                    factory = new Cd2352or2448Factory(_inputFile, true /*2352*/, true /*2448*/);
+                    factory = new Cd2352or2448Factory(imageData, true /*2352*/, true /*2448*/);
                     LOG.log(Level.INFO, "Disc type identified as {0,number,#}", factory.getRawSectorSize());
                 } catch (FileTooSmallToIdentifyException ex) {
                     try {
                         LOG.info("Attempting to identify as 2336");
-                        factory = new Cd2336Factory(_inputFile);
+                        factory = new Cd2336Factory(imageData);
                         LOG.info("Disc type identified as 2336");
                     } catch (FileTooSmallToIdentifyException ex1) {
                         LOG.info("Unknown disc type, assuming 2048");
                         // we couldn't figure out what it is
                         // assume ISO style if it's big enough
-                        long lngFileSize = _inputFile.length();
+                        long lngFileSize = imageData.length();
                         if (lngFileSize < CdSector.SECTOR_SIZE_2048_ISO) {
                             _inputFile.close();
                             throw new FileTooSmallToIdentifyException(lngFileSize);
@@ -278,18 +302,20 @@ public class CdFileSectorReader implements Closeable {
 
         boolean blnExceptionThrown = true;
         try {
+            _container = DiscImageContainer.open(_inputFile);
+            ImageData imageData = new ImageData(_inputFile, _container);
             switch (iSectorSize) {
                 case CdSector.SECTOR_SIZE_2048_ISO:
                     _sectorFactory = new Cd2048Factory();
                     break;
                 case CdSector.SECTOR_SIZE_2336_BIN_NOSYNC:
-                    _sectorFactory = new Cd2336Factory(_inputFile);
+                    _sectorFactory = new Cd2336Factory(imageData);
                     break;
                 case CdSector.SECTOR_SIZE_2352_BIN:
-                    _sectorFactory = new Cd2352or2448Factory(_inputFile, true /*2352*/, false /*2448*/);
+                    _sectorFactory = new Cd2352or2448Factory(imageData, true /*2352*/, false /*2448*/);
                     break;
                 case CdSector.SECTOR_SIZE_2448_BIN_SUBCHANNEL:
-                    _sectorFactory = new Cd2352or2448Factory(_inputFile, false /*2352*/, true /*2448*/);
+                    _sectorFactory = new Cd2352or2448Factory(imageData, false /*2352*/, true /*2448*/);
                     break;
                 default:
                     throw new IllegalArgumentException("Invalid sector size to open disc image as " + iSectorSize);
@@ -357,9 +383,18 @@ public class CdFileSectorReader implements Closeable {
 
         _iSectorsToCache = iSectorsToBuffer;
 
+        try {
+            _container = DiscImageContainer.open(_inputFile);
+        } catch (IOException ex) {
+            IO.closeSilently(_inputFile, LOG);
+            throw new CdReadException(_sourceFile, ex);
+        }
+
         int iActualSectorCount = calculateSectorCount();
 
         if (_iSectorCount != iActualSectorCount) {
+            if (_container != null)
+                _container.close();
             IO.closeSilently(_inputFile, LOG);
             throw new LocalizedDeserializationFail(I.SECTOR_COUNT_MISMATCH(_iSectorCount, iActualSectorCount));
         }
@@ -368,7 +403,8 @@ public class CdFileSectorReader implements Closeable {
 
     private int calculateSectorCount() throws CdReadException {
         try {
-            return (int)((_inputFile.length() - _sectorFactory.get1stSectorOffset())
+            long lngImageLength = _container != null ? _container.getLength() : _inputFile.length();
+            return (int)((lngImageLength - _sectorFactory.get1stSectorOffset())
                     / _sectorFactory.getRawSectorSize());
         } catch (IOException ex) {
             throw new CdReadException(_sourceFile, ex);
@@ -383,6 +419,16 @@ public class CdFileSectorReader implements Closeable {
     private static final String SERIALIZATION =
             SERIALIZATION_START + "%s|Sector size:%d|Sector count:%d|First sector offset:%d";
 
+    /** The disc image file named in a serialized disc, without opening it. */
+    public static @Nonnull File deserializeSourceFile(@Nonnull String sSerialization)
+            throws LocalizedDeserializationFail
+    {
+        String[] asValues = Misc.regex(DESERIALIZATION, sSerialization);
+        if (asValues == null || asValues.length != 5)
+            throw new LocalizedDeserializationFail(I.CD_DESERIALIZE_FAIL(sSerialization));
+        return new File(asValues[1]);
+    }
+
     public @Nonnull String serialize() {
         return String.format(SERIALIZATION,
                 _sourceFile.getPath(),
@@ -413,7 +459,16 @@ public class CdFileSectorReader implements Closeable {
     }
 
     public void close() throws IOException {
-        _inputFile.close();
+        if (_readAhead != null)
+            _readAhead.shutdown();
+        try {
+            _inputFile.close();
+        } finally {
+            if (_container != null)
+                _container.close();
+            if (_overlay != null)
+                _overlay.close();
+        }
     }
 
     //..........................................................................
@@ -433,6 +488,11 @@ public class CdFileSectorReader implements Closeable {
         return _sourceFile;
     }
 
+    /** If the disc image is packed in a container (which is read-only). */
+    public boolean isContainer() {
+        return _container != null;
+    }
+
     /** Returns the actual offset in bytes from the start of the source file
      *  to the raw start of {@code iSector}. */
     public long getFilePointer(int iSector) {
@@ -450,39 +510,175 @@ public class CdFileSectorReader implements Closeable {
 
     //..........................................................................
 
-    public @Nonnull CdSector getSector(int iSector) throws CdReadException {
+    /** Synchronized because the GUI reads sectors from more than one thread
+     * (e.g. the player and creating previews). */
+    public synchronized @Nonnull CdSector getSector(int iSector) throws CdReadException {
         if (iSector < 0 || iSector >= _iSectorCount)
             throw new IndexOutOfBoundsException("Sector "+iSector+" not in bounds of CD");
 
-        if (iSector >= _iCachedSectorStart + _iSectorsToCache || iSector < _iCachedSectorStart || _abBulkReadCache == null) {
+        if (iSector >= _iCachedSectorStart + _iCachedSectorCount || iSector < _iCachedSectorStart || _abBulkReadCache == null) {
+            // reading continues right where the cache ends
+            boolean blnSequential = _abBulkReadCache != null &&
+                                    iSector == _iCachedSectorStart + _iCachedSectorCount;
             _abBulkReadCache = null; // in case of failure, make sure we aren't left with some invalid cache
 
             _iCachedSectorStart = iSector;
             _lngCacheFileOffset = getFilePointer(iSector);
 
-            byte[] abBulkReadCache = new byte[_sectorFactory.getRawSectorSize() * _iSectorsToCache];
-            try {
-                _inputFile.seek(_lngCacheFileOffset);
-                int iBytesRead = IO.readByteArrayMax(_inputFile, abBulkReadCache, 0, abBulkReadCache.length);
-                if (iBytesRead < _sectorFactory.getRawSectorSize())
-                    throw new RuntimeException("Should have already verified this should not happen");
-            } catch (IOException ex) {
-                throw new CdReadException(_sourceFile, ex);
+            SectorReadAhead.Block block = null;
+            if (_readAhead != null) {
+                if (blnSequential)
+                    block = _readAhead.take(iSector);
+                else
+                    _readAhead.cancel(); // random access, stop reading ahead
+            }
+
+            byte[] abBulkReadCache;
+            int iCachedSectorCount;
+            if (block != null) {
+                abBulkReadCache = block.abData;
+                iCachedSectorCount = block.iSectorCount;
+            } else {
+                abBulkReadCache = new byte[_sectorFactory.getRawSectorSize() * _iSectorsToCache];
+                long lngReadStart = RunStats.startTimer();
+                try {
+                    int iBytesRead;
+                    if (_container != null) {
+                        // error correction is rebuilt by the sector only if its raw data is requested
+                        iBytesRead = _container.readMax(_lngCacheFileOffset, abBulkReadCache, 0,
+                                                        abBulkReadCache.length, false);
+                    } else {
+                        _inputFile.seek(_lngCacheFileOffset);
+                        iBytesRead = IO.readByteArrayMax(_inputFile, abBulkReadCache, 0, abBulkReadCache.length);
+                    }
+                    if (iBytesRead < _sectorFactory.getRawSectorSize())
+                        throw new RuntimeException("Should have already verified this should not happen");
+                } catch (IOException ex) {
+                    throw new CdReadException(_sourceFile, ex);
+                }
+                RunStats.discRead(lngReadStart);
+                iCachedSectorCount = Math.min(_iSectorsToCache, _iSectorCount - iSector);
             }
 
+            if (_overlay != null)
+                _overlay.overlaySectors(abBulkReadCache, iSector, iCachedSectorCount);
+
             // made sure everything is good before we save the cache
             _abBulkReadCache = abBulkReadCache;
+            _iCachedSectorCount = iCachedSectorCount;
+
+            if (_readAhead != null && blnSequential)
+                _readAhead.readAhead(iSector + iCachedSectorCount);
         }
 
         int iOffset = _sectorFactory.getRawSectorSize() * (iSector - _iCachedSectorStart);
 
-        return _sectorFactory.createSector(iSector, _abBulkReadCache, iOffset, _lngCacheFileOffset + iOffset);
+        RunStats.sectorsRead(1);
+        CdSector sector = _sectorFactory.createSector(iSector, _abBulkReadCache, iOffset, _lngCacheFileOffset + iOffset);
+        if (_container != null && (_overlay == null || !_overlay.hasSectorInRange(iSector, iSector))) {
+            sector.setSkippedErrorCorrection(
+                    _container.getSkippedErrorCorrection(_lngCacheFileOffset + iOffset,
+                                                         _sectorFactory.getRawSectorSize()));
+        }
+        return sector;
+    }
+
+    /** Writes a range of sectors (inclusive) straight to a file,
+     * bypassing the sector cache and without copying each sector's data.
+     * <p>
+     * If the data to save is contiguous in the disc image (e.g. user data of
+     * a 2048 image, or raw sectors of a 2352 image), the operating system
+     * transfers it directly. Otherwise blocks of sectors are read and the
+     * portion to save of each sector is written with a single gathering write.
+     * <p>
+     * Synchronized like {@link #getSector(int)} since both seek and read
+     * the same file.
+     * @param blnRaw write the raw sector data instead of the user data
+     * @throws CdReadException error reading the disc image (or overlay)
+     * @throws IOException error writing to {@code out} */
+    public synchronized void copySectorsTo(int iStartSector, int iEndSector, boolean blnRaw,
+                              @Nonnull FileChannel out)
+            throws CdReadException, IOException
+    {
+        if (iStartSector < 0 || iEndSector >= _iSectorCount || iStartSector > iEndSector)
+            throw new IndexOutOfBoundsException("Sectors "+iStartSector+"-"+iEndSector+" not in bounds of CD");
+
+        int iRawSectorSize = _sectorFactory.getRawSectorSize();
+        CdSector firstSector = getSector(iStartSector);
+        boolean blnContiguous = blnRaw ?
+                firstSector.getRawCdSectorSize() == iRawSectorSize :
+                firstSector.getHeaderDataSize() == 0 && firstSector.getCdUserDataSize() == iRawSectorSize;
+        if (blnContiguous && _container == null &&
+            (_overlay == null || !_overlay.hasSectorInRange(iStartSector, iEndSector)))
+        {
+            long lngPosition = getFilePointer(iStartSector);
+            long lngRemaining = (long)(iEndSector - iStartSector + 1) * iRawSectorSize;
+            FileChannel in = _inputFile.getChannel();
+            while (lngRemaining > 0) {
+                // can't tell if a failure here is from the read or the write
+                // but the write is much more likely
+                long lngTransferred = in.transferTo(lngPosition, lngRemaining, out);
+                if (lngTransferred <= 0) {
+                    // shouldn't happen since the sector count was verified
+                    throw new CdReadException(_sourceFile, new IOException("Unexpected end of disc image"));
+                }
+                lngPosition += lngTransferred;
+                lngRemaining -= lngTransferred;
+                RunStats.bytesWritten(lngTransferred);
+            }
+            RunStats.sectorsRead(iEndSector - iStartSector + 1);
+            return;
+        }
+
+        byte[] abBlock = new byte[COPY_SECTOR_BLOCK_COUNT * iRawSectorSize];
+        ByteBuffer[] aoSlices = new ByteBuffer[COPY_SECTOR_BLOCK_COUNT];
+        for (int iBlockStart = iStartSector; iBlockStart <= iEndSector; iBlockStart += COPY_SECTOR_BLOCK_COUNT) {
+            int iSectorsInBlock = Math.min(COPY_SECTOR_BLOCK_COUNT, iEndSector - iBlockStart + 1);
+            long lngFilePointer = getFilePointer(iBlockStart);
+            long lngReadStart = RunStats.startTimer();
+            try {
+                if (_container != null) {
+                    // only need error correction when saving the raw sectors
+                    _container.read(lngFilePointer, abBlock, 0, iSectorsInBlock * iRawSectorSize, blnRaw);
+                } else {
+                    _inputFile.seek(lngFilePointer);
+                    IO.readByteArray(_inputFile, abBlock, 0, iSectorsInBlock * iRawSectorSize);
+                }
+            } catch (IOException ex) {
+                throw new CdReadException(_sourceFile, ex);
+            }
+            RunStats.discRead(lngReadStart);
+            RunStats.sectorsRead(iSectorsInBlock);
+            if (_overlay != null)
+                _overlay.overlaySectors(abBlock, iBlockStart, iSectorsInBlock);
+
+            for (int i = 0; i < iSectorsInBlock; i++) {
+                int iOffset = i * iRawSectorSize;
+                if (blnRaw) {
+                    aoSlices[i] = ByteBuffer.wrap(abBlock, iOffset, firstSector.getRawCdSectorSize());
+                } else {
+                    // every sector's user data could be in a different spot
+                    CdSector sector = _sectorFactory.createSector(iBlockStart + i, abBlock, iOffset,
+                                                                  lngFilePointer + iOffset);
+                    aoSlices[i] = ByteBuffer.wrap(abBlock, iOffset + sector.getHeaderDataSize(),
+                                                  sector.getCdUserDataSize());
+                }
+            }
+            // gathering writes may not write everything at once
+            int iFirstSlice = 0;
+            while (iFirstSlice < iSectorsInBlock) {
+                RunStats.bytesWritten(out.write(aoSlices, iFirstSlice, iSectorsInBlock - iFirstSlice));
+                while (iFirstSlice < iSectorsInBlock && !aoSlices[iFirstSlice].hasRemaining())
+                    iFirstSlice++;
+            }
+        }
     }
 
     //..........................................................................
 
-    /** Will fail if CD was not opened with write access. */
-    void writeSector(int iSector, @Nonnull byte[] abSrcUserData)
+    /** Will fail if CD was not opened with write access
+     * (unless writing to an overlay). */
+    synchronized void writeSector(int iSector, @Nonnull byte[] abSrcUserData)
             throws CdReadException, CdWriteException
     {
         CdSector cdSector = getSector(iSector);
@@ -492,9 +688,30 @@ public class CdFileSectorReader implements Closeable {
         
         byte[] abRawData = cdSector.rebuildRawSector(abSrcUserData);
 
+        if (_overlay != null) {
+            // the rebuilt sector may be smaller than the raw sector size
+            // (e.g. 2448 sub-channel data), so keep whatever is after it
+            assert _abBulkReadCache != null; // was just filled by getSector()
+            int iOffset = _sectorFactory.getRawSectorSize() * (iSector - _iCachedSectorStart);
+            byte[] abFullRawSector = Arrays.copyOfRange(_abBulkReadCache, iOffset,
+                                             iOffset + _sectorFactory.getRawSectorSize());
+            System.arraycopy(abRawData, 0, abFullRawSector, 0, abRawData.length);
+            _overlay.writeSector(iSector, abFullRawSector);
+            // later reads need to see the change
+            _abBulkReadCache = null;
+            return;
+        }
+
+        if (_container != null)
+            throw new CdWriteException(_sourceFile, new IOException("Disc image container is read-only"));
+
         long lngOffset = (long)_sectorFactory.get1stSectorOffset() + 
                          (long)_sectorFactory.getRawSectorSize() * iSector;
 
+        // a block already read ahead would have the old data
+        if (_readAhead != null)
+            _readAhead.cancel();
+
         try {
             _inputFile.seek(lngOffset);
             _inputFile.write(abRawData);
@@ -519,6 +736,14 @@ public class CdFileSectorReader implements Closeable {
         return _patcher.getTempFile();
     }
 
+    /** Every sector with a pending patch, in order.
+     * @throws IllegalStateException is not currently patching. */
+    public @Nonnull int[] getPatchedSectors() {
+        if (_patcher == null)
+            throw new IllegalStateException();
+        return _patcher.getPatchedSectors();
+    }
+
     public void addPatch(int iSector, int iOffsetInSector, 
                          @Nonnull byte[] abBytesToReplace)
             throws DiscPatcher.WritePatchException
@@ -552,13 +777,57 @@ public class CdFileSectorReader implements Closeable {
         _patcher = null;
     }
 
+    /** Sends all patches to the overlay instead of the source file.
+     * Also all sectors read will include any changes in the overlay.
+     * Replaces any existing overlay (without closing it). */
+    public synchronized void setOverlay(@CheckForNull SectorOverlay overlay) {
+        _overlay = overlay;
+        _abBulkReadCache = null;
+    }
+
+    /** Reads the next {@code iSectors} sectors on a background thread
+     * whenever sectors are being read in order (e.g. indexing or saving),
+     * so waiting for the disc overlaps with processing the sectors.
+     * Reading ahead stops as soon as sectors are read out of order.
+     * Not available for disc images in a container.
+     * @param iSectors 0 to disable reading ahead (the default). */
+    public void setReadAhead(int iSectors) {
+        if (_readAhead != null) {
+            _readAhead.shutdown();
+            _readAhead = null;
+        }
+        if (iSectors > 0 && _container == null) {
+            _readAhead = new SectorReadAhead(_inputFile.getChannel(),
+                                             _sectorFactory.getRawSectorSize(),
+                                             _sectorFactory.get1stSectorOffset(),
+                                             _iSectorCount, iSectors);
+        }
+    }
+
+    /** Number of sectors read ahead, or 0 if disabled. */
+    public int getReadAhead() {
+        return _readAhead == null ? 0 : _readAhead.getBlockSectors();
+    }
+
+    public @CheckForNull SectorOverlay getOverlay() {
+        return _overlay;
+    }
+
+    /** Does nothing if patches are being written to an overlay. */
     void reopenForWriting() throws CdReopenException {
+        if (_overlay != null)
+            return;
+        if (_container != null)
+            throw new CdReopenException(_sourceFile, new IOException("Disc image container is read-only"));
+        int iReadAhead = getReadAhead();
+        setReadAhead(0);
         try {
             _inputFile.close(); // expose close exception
             _inputFile = new RandomAccessFile(_sourceFile, "rw");
         } catch (IOException ex) {
             throw new CdReopenException(_sourceFile, ex);
         }
+        setReadAhead(iReadAhead);
     }
 
     //..........................................................................
@@ -572,6 +841,32 @@ public class CdFileSectorReader implements Closeable {
     /* Sector Creator types ------------------------------------------------- */
     /* ---------------------------------------------------------------------- */
     
+    /** Reads the plain disc image to identify its type. */
+    private static class ImageData {
+        @Nonnull
+        private final RandomAccessFile _file;
+        @CheckForNull
+        private final DiscImageContainer _container;
+
+        public ImageData(@Nonnull RandomAccessFile file, @CheckForNull DiscImageContainer container) {
+            _file = file;
+            _container = container;
+        }
+
+        public long length() throws IOException {
+            return _container != null ? _container.getLength() : _file.length();
+        }
+
+        public void read(long lngPosition, @Nonnull byte[] abOut) throws IOException {
+            if (_container != null) {
+                _container.read(lngPosition, abOut, 0, abOut.length, false);
+            } else {
+                _file.seek(lngPosition);
+                IO.readByteArray(_file, abOut);
+            }
+        }
+    }
+
     private interface SectorFactory {
         @Nonnull CdSector createSector(int iSector, @Nonnull byte[] abSectorBuff, int iOffset, long lngFilePointer);
         @Nonnull ILocalizedMessage getTypeDescription();
@@ -622,7 +917,7 @@ public class CdFileSectorReader implements Closeable {
          *<p>
          *  Note: This assumes the input file has the data aligned at every 4 bytes!
          */
-        public Cd2336Factory(@Nonnull RandomAccessFile cdFile) 
+        public Cd2336Factory(@Nonnull ImageData cdFile) 
                 throws FileTooSmallToIdentifyException, IOException
         {
             long lngFileLength = cdFile.length();
@@ -670,13 +965,12 @@ public class CdFileSectorReader implements Closeable {
             throw new FileTooSmallToIdentifyException(lngFileLength);
         }
 
-        private static boolean isXaSector(@Nonnull RandomAccessFile cdFile,
+        private static boolean isXaSector(@Nonnull ImageData cdFile,
                                           long lngSectorStart,
                                           @Nonnull byte[] abReusableBuffer)
                 throws IOException
         {
-            cdFile.seek(lngSectorStart);
-            IO.readByteArray(cdFile, abReusableBuffer);
+            cdFile.read(lngSectorStart, abReusableBuffer);
             CdSector cdSector = new CdSector2336(0, abReusableBuffer, 0, lngSectorStart);
             XaAnalysis xa = XaAnalysis.analyze(cdSector, 254);
             return (xa != null && xa.iProbability == 100);
@@ -716,7 +1010,7 @@ public class CdFileSectorReader implements Closeable {
          *  the type depending on if {@code blnCheck2352} or {@code blnCheck2448}
          *  should be checked.
          */
-        public Cd2352or2448Factory(@Nonnull RandomAccessFile cdFile, boolean blnCheck2352, boolean blnCheck2448)
+        public Cd2352or2448Factory(@Nonnull ImageData cdFile, boolean blnCheck2352, boolean blnCheck2448)
                 throws FileTooSmallToIdentifyException, IOException
         {
             long lngFileLength = cdFile.length();
@@ -729,8 +1023,7 @@ public class CdFileSectorReader implements Closeable {
                  lngSectStart < Math.min(lngFileLength - abSyncHeader.length, CdSector.SECTOR_SIZE_2448_BIN_SUBCHANNEL * 2);
                  lngSectStart++)
             {
-                cdFile.seek(lngSectStart);
-                IO.readByteArray(cdFile, abSyncHeader);
+                cdFile.read(lngSectStart, abSyncHeader);
                 if (Arrays.equals(abSyncHeader, CdSectorHeader.SECTOR_SYNC_HEADER)) {
                     LOG.log(Level.FINE, "Possible sync header at {0,number,#}", lngSectStart);
                     // we think we found a sync header
@@ -749,7 +1042,7 @@ public class CdFileSectorReader implements Closeable {
         }
 
         /** Check for 10 more seek headers after the initial one just to be sure. */
-        private boolean checkMore(int iSectorSize, @Nonnull RandomAccessFile cdFile, long lngSectStart, @Nonnull byte[] abSyncHeader)
+        private boolean checkMore(int iSectorSize, @Nonnull ImageData cdFile, long lngSectStart, @Nonnull byte[] abSyncHeader)
                 throws IOException
         {
             long lngSectorsToTry = (cdFile.length()-lngSectStart-CdSectorHeader.SECTOR_SYNC_HEADER.length) /
@@ -762,8 +1055,7 @@ public class CdFileSectorReader implements Closeable {
                  lngSectorsToTry > 0;
                  lngSectorsToTry--, iOfs+=iSectorSize)
             {
-                cdFile.seek(lngSectStart + iOfs);
-                IO.readByteArray(cdFile, abSyncHeader);
+                cdFile.read(lngSectStart + iOfs, abSyncHeader);
                 if (!Arrays.equals(abSyncHeader, CdSectorHeader.SECTOR_SYNC_HEADER))
                     return false; // aw, too bad, back to the drawing board
             }
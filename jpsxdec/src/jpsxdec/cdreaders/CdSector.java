@@ -90,6 +90,11 @@ public abstract class CdSector {
     private final int _iByteStartOffset;
     /** Byte offset of this sector in the source file. */
     private final long _lngFilePointer;
+    /** If not null, the error correction in {@link #_abSectorBytes} was not
+     * regenerated when the sector was read from a {@link DiscImageContainer},
+     * so it has to be rebuilt for this type of sector when the raw data is needed. */
+    @CheckForNull
+    private Type _skippedErrorCorrection;
 
     public CdSector(int iSectorIndex, byte[] abSectorBytes, int iByteStartOffset,
                     long lngFilePointer) {
@@ -122,6 +127,10 @@ public abstract class CdSector {
 
     // .........................................................................
 
+    void setSkippedErrorCorrection(@CheckForNull Type skippedErrorCorrection) {
+        _skippedErrorCorrection = skippedErrorCorrection;
+    }
+
     public int getSectorIndexFromStart() {
         return _iSectorIndex;
     }
@@ -155,9 +164,12 @@ public abstract class CdSector {
     /** Returns a copy of the underlying sector data, with raw
      * header/footer and everything it has. */
     final public @Nonnull byte[] getRawSectorDataCopy() {
-        return Arrays.copyOfRange(_abSectorBytes,
-                                  _iByteStartOffset,
-                                  _iByteStartOffset+getRawCdSectorSize());
+        byte[] abRaw = Arrays.copyOfRange(_abSectorBytes,
+                                          _iByteStartOffset,
+                                          _iByteStartOffset+getRawCdSectorSize());
+        if (_skippedErrorCorrection != null)
+            SectorErrorCorrection.rebuildErrorCorrection(abRaw, _skippedErrorCorrection);
+        return abRaw;
     }
 
     /** Returns an InputStream of the 'user data' portion of the sector. */
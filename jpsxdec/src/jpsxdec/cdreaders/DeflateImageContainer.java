@@ -0,0 +1,350 @@
+/*
+ * jPSXdec: PlayStation 1 Media Decoder/Converter in Java
+ * Copyright (C) 2019  Michael Sabin
+ * All rights reserved.
+ *
+ * Redistribution and use of the jPSXdec code or any derivative works are
+ * permitted provided that the following conditions are met:
+ *
+ *  * Redistributions may not be sold, nor may they be used in commercial
+ *    or revenue-generating business activities.
+ *
+ *  * Redistributions that are modified from the original source must
+ *    include the complete source code, including the source code for all
+ *    components used by a binary built from the modified sources. However, as
+ *    a special exception, the source code distributed need not include
+ *    anything that is normally distributed (in either source or binary form)
+ *    with the major components (compiler, kernel, and so on) of the operating
+ *    system on which the executable runs, unless that component itself
+ *    accompanies the executable.
+ *
+ *  * Redistributions must reproduce the above copyright notice, this list
+ *    of conditions and the following disclaimer in the documentation and/or
+ *    other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jpsxdec.cdreaders;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import jpsxdec.i18n.log.ProgressLogger;
+import jpsxdec.util.IO;
+import jpsxdec.util.TaskCanceledException;
+
+/** jPSXdec's own compressed disc image format.
+ * <p>
+ * The plain disc image is split into fixed-size blocks (a group of whole
+ * sectors) that are each compressed separately with deflate. An index of
+ * where every block starts lets any part of the image be read by only
+ * decompressing the blocks that cover it. The last few blocks used are kept
+ * decompressed since sectors are usually read in order.
+ * <p>
+ * File format (all little-endian):
+ * <pre>
+ * 8 bytes  "jPSXcdz1"
+ * 4 bytes  block size (bytes of the plain image in each block)
+ * 8 bytes  size of the plain image
+ * 4 bytes  block count
+ * 8 bytes * (block count + 1)  offset of each block in this file,
+ *                              followed by the end of the last block
+ * then the blocks
+ * </pre>
+ * Every block is the block size, except the last, which is whatever is left.
+ * A block that is the same size as its plain data was not compressible and is
+ * stored as is.
+ * Use {@link #create(File, File, int, ProgressLogger)} to compress a disc image. */
+public class DeflateImageContainer extends DiscImageContainer {
+
+    private static final Logger LOG = Logger.getLogger(DeflateImageContainer.class.getName());
+
+    private static final byte[] MAGIC = { 'j','P','S','X','c','d','z','1' };
+    private static final int HEADER_SIZE = MAGIC.length + 4 + 8 + 4;
+
+    /** Number of sectors in each block when compressing. */
+    public static final int SECTORS_PER_BLOCK = 16;
+    /** Number of decompressed blocks to keep. */
+    private static final int BLOCK_CACHE_SIZE = 4;
+
+    public static boolean isDeflateImage(@Nonnull RandomAccessFile file) throws IOException {
+        if (file.length() < HEADER_SIZE)
+            return false;
+        byte[] abMagic = new byte[MAGIC.length];
+        file.seek(0);
+        IO.readByteArray(file, abMagic);
+        return Arrays.equals(abMagic, MAGIC);
+    }
+
+    // -------------------------------------------------------------------------
+
+    @Nonnull
+    private final RandomAccessFile _file;
+    private final int _iBlockSize;
+    private final long _lngLength;
+    /** Start of each block in the file, plus the end of the last block. */
+    @Nonnull
+    private final long[] _alngBlockStart;
+
+    @Nonnull
+    private final Inflater _inflater = new Inflater();
+    @Nonnull
+    private byte[] _abCompressed = new byte[0];
+    /** Most recently used decompressed blocks, in order of use. */
+    private final LinkedHashMap<Integer, byte[]> _blockCache =
+            new LinkedHashMap<Integer, byte[]>(BLOCK_CACHE_SIZE * 2, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, byte[]> eldest) {
+            return size() > BLOCK_CACHE_SIZE;
+        }
+    };
+
+    public DeflateImageContainer(@Nonnull RandomAccessFile file) throws IOException {
+        _file = file;
+
+        byte[] abHeader = new byte[HEADER_SIZE];
+        file.seek(0);
+        IO.readByteArray(file, abHeader);
+        if (!Arrays.equals(MAGIC, Arrays.copyOf(abHeader, MAGIC.length)))
+            throw new IOException("Not a compressed disc image");
+        _iBlockSize = IO.readSInt32LE(abHeader, 8);
+        _lngLength = readInt64LE(abHeader, 12);
+        int iBlockCount = IO.readSInt32LE(abHeader, 20);
+        if (_iBlockSize <= 0 || _lngLength < 0 || iBlockCount < 0 ||
+            iBlockCount != (_lngLength + _iBlockSize - 1) / _iBlockSize)
+            throw new IOException("Invalid compressed disc image header");
+
+        byte[] abIndex = new byte[(iBlockCount + 1) * 8];
+        IO.readByteArray(file, abIndex);
+        _alngBlockStart = new long[iBlockCount + 1];
+        long lngFileLength = file.length();
+        for (int i = 0; i <= iBlockCount; i++) {
+            long lngStart = readInt64LE(abIndex, i * 8);
+            if (lngStart < HEADER_SIZE + abIndex.length || lngStart > lngFileLength ||
+                (i > 0 && lngStart < _alngBlockStart[i - 1]))
+                throw new IOException("Invalid compressed disc image block index");
+            _alngBlockStart[i] = lngStart;
+        }
+
+        LOG.log(Level.INFO, "Compressed disc image with {0,number,#} blocks, {1,number,#} bytes uncompressed",
+                new Object[]{iBlockCount, _lngLength});
+    }
+
+    @Override
+    public long getLength() {
+        return _lngLength;
+    }
+
+    private int getBlockLength(int iBlock) {
+        return (int)Math.min(_iBlockSize, _lngLength - (long)iBlock * _iBlockSize);
+    }
+
+    @Override
+    public synchronized void read(long lngPosition, @Nonnull byte[] abOut, int iOutPos, int iLength,
+                                  boolean blnErrorCorrection)
+            throws EOFException, IOException
+    {
+        if (lngPosition < 0 || iLength < 0 || iOutPos < 0 || iOutPos + iLength > abOut.length)
+            throw new IndexOutOfBoundsException();
+        if (lngPosition + iLength > _lngLength)
+            throw new EOFException();
+
+        while (iLength > 0) {
+            int iBlock = (int)(lngPosition / _iBlockSize);
+            int iOffsetInBlock = (int)(lngPosition % _iBlockSize);
+            byte[] abBlock = getBlock(iBlock);
+            int iCopy = Math.min(abBlock.length - iOffsetInBlock, iLength);
+            System.arraycopy(abBlock, iOffsetInBlock, abOut, iOutPos, iCopy);
+            iOutPos += iCopy;
+            lngPosition += iCopy;
+            iLength -= iCopy;
+        }
+    }
+
+    private @Nonnull byte[] getBlock(int iBlock) throws IOException {
+        byte[] abBlock = _blockCache.get(iBlock);
+        if (abBlock != null)
+            return abBlock;
+
+        int iBlockLength = getBlockLength(iBlock);
+        int iCompressedLength = (int)(_alngBlockStart[iBlock + 1] - _alngBlockStart[iBlock]);
+        abBlock = new byte[iBlockLength];
+        _file.seek(_alngBlockStart[iBlock]);
+        if (iCompressedLength == iBlockLength) {
+            // stored as is
+            IO.readByteArray(_file, abBlock);
+        } else {
+            if (_abCompressed.length < iCompressedLength)
+                _abCompressed = new byte[iCompressedLength];
+            IO.readByteArray(_file, _abCompressed, 0, iCompressedLength);
+            _inflater.reset();
+            _inflater.setInput(_abCompressed, 0, iCompressedLength);
+            try {
+                int iInflated = 0;
+                while (iInflated < iBlockLength && !_inflater.finished()) {
+                    int i = _inflater.inflate(abBlock, iInflated, iBlockLength - iInflated);
+                    if (i == 0 && (_inflater.needsInput() || _inflater.needsDictionary()))
+                        break;
+                    iInflated += i;
+                }
+                if (iInflated != iBlockLength || !_inflater.finished())
+                    throw new IOException("Compressed disc image block " + iBlock + " is corrupted");
+            } catch (DataFormatException ex) {
+                throw new IOException("Compressed disc image block " + iBlock + " is corrupted", ex);
+            }
+        }
+        _blockCache.put(iBlock, abBlock);
+        return abBlock;
+    }
+
+    /** Nothing is removed from the disc image. */
+    @Override
+    public @CheckForNull CdSector.Type getSkippedErrorCorrection(long lngRawSectorStart,
+                                                                 int iRawSectorSize)
+    {
+        return null;
+    }
+
+    @Override
+    public synchronized void close() {
+        _inflater.end();
+        _blockCache.clear();
+    }
+
+    // -------------------------------------------------------------------------
+
+    /** Compresses a disc image (which may itself be in a container) into
+     * a new file.
+     * @param iBlockSize Bytes of the disc image in each block. Should be
+     *                   a multiple of the raw sector size. */
+    public static void create(@Nonnull File sourceFile, @Nonnull File outputFile, int iBlockSize,
+                              @Nonnull ProgressLogger pl)
+            throws CdFileSectorReader.CdFileNotFoundException,
+                   CdFileSectorReader.CdReadException,
+                   CdFileSectorReader.CdWriteException,
+                   TaskCanceledException
+    {
+        if (iBlockSize <= 0)
+            throw new IllegalArgumentException();
+
+        DiscImageSource source = new DiscImageSource(sourceFile);
+        try {
+            RandomAccessFile output;
+            try {
+                output = new RandomAccessFile(outputFile, "rw");
+            } catch (FileNotFoundException ex) {
+                throw new CdFileSectorReader.CdFileNotFoundException(outputFile, ex);
+            }
+            try {
+                create(source, iBlockSize, output, outputFile, pl);
+            } finally {
+                IO.closeSilently(output, LOG);
+            }
+        } finally {
+            IO.closeSilently(source, LOG);
+        }
+    }
+
+    private static void create(@Nonnull DiscImageSource source, int iBlockSize,
+                               @Nonnull RandomAccessFile output, @Nonnull File outputFile,
+                               @Nonnull ProgressLogger pl)
+            throws CdFileSectorReader.CdReadException,
+                   CdFileSectorReader.CdWriteException,
+                   TaskCanceledException
+    {
+        long lngLength = source.length();
+        long lngBlockCount = (lngLength + iBlockSize - 1) / iBlockSize;
+        if (lngBlockCount >= Integer.MAX_VALUE / 8)
+            throw new IllegalArgumentException("Block size too small for the disc image");
+        int iBlockCount = (int)lngBlockCount;
+
+        byte[] abHeader = new byte[HEADER_SIZE];
+        System.arraycopy(MAGIC, 0, abHeader, 0, MAGIC.length);
+        IO.writeInt32LE(abHeader, 8, iBlockSize);
+        writeInt64LE(abHeader, 12, lngLength);
+        IO.writeInt32LE(abHeader, 20, iBlockCount);
+        byte[] abIndex = new byte[(iBlockCount + 1) * 8];
+
+        byte[] abBlock = new byte[iBlockSize];
+        // deflate can make data slightly bigger, but those blocks are stored as is
+        byte[] abCompressed = new byte[iBlockSize];
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            output.setLength(0);
+            // the index is written after all the blocks are compressed
+            output.seek(HEADER_SIZE + abIndex.length);
+
+            pl.progressStart(iBlockCount);
+
+            long lngBlockStart = HEADER_SIZE + abIndex.length;
+            for (int iBlock = 0; iBlock < iBlockCount; iBlock++) {
+                int iBlockLength = (int)Math.min(iBlockSize, lngLength - (long)iBlock * iBlockSize);
+                source.read(abBlock, iBlockLength);
+
+                deflater.reset();
+                deflater.setInput(abBlock, 0, iBlockLength);
+                deflater.finish();
+                int iCompressedLength = 0;
+                while (!deflater.finished() && iCompressedLength < iBlockLength) {
+                    iCompressedLength += deflater.deflate(abCompressed, iCompressedLength,
+                                                          iBlockLength - iCompressedLength);
+                }
+
+                writeInt64LE(abIndex, iBlock * 8, lngBlockStart);
+                if (deflater.finished() && iCompressedLength < iBlockLength) {
+                    output.write(abCompressed, 0, iCompressedLength);
+                    lngBlockStart += iCompressedLength;
+                } else {
+                    output.write(abBlock, 0, iBlockLength);
+                    lngBlockStart += iBlockLength;
+                }
+
+                pl.progressUpdate(iBlock);
+            }
+            writeInt64LE(abIndex, iBlockCount * 8, lngBlockStart);
+
+            output.seek(0);
+            output.write(abHeader);
+            output.write(abIndex);
+        } catch (IOException ex) {
+            throw new CdFileSectorReader.CdWriteException(outputFile, ex);
+        } finally {
+            deflater.end();
+        }
+
+        pl.progressEnd();
+    }
+
+    private static long readInt64LE(@Nonnull byte[] ab, int i) {
+        return IO.readUInt32LE(ab, i) | (IO.readUInt32LE(ab, i + 4) << 32);
+    }
+
+    private static void writeInt64LE(@Nonnull byte[] ab, int i, long lng) {
+        IO.writeInt32LE(ab, i, lng & 0xffffffffL);
+        IO.writeInt32LE(ab, i + 4, lng >>> 32);
+    }
+
+}
@@ -0,0 +1,107 @@
+/*
+ * jPSXdec: PlayStation 1 Media Decoder/Converter in Java
+ * Copyright (C) 2019  Michael Sabin
+ * All rights reserved.
+ *
+ * Redistribution and use of the jPSXdec code or any derivative works are
+ * permitted provided that the following conditions are met:
+ *
+ *  * Redistributions may not be sold, nor may they be used in commercial
+ *    or revenue-generating business activities.
+ *
+ *  * Redistributions that are modified from the original source must
+ *    include the complete source code, including the source code for all
+ *    components used by a binary built from the modified sources. However, as
+ *    a special exception, the source code distributed need not include
+ *    anything that is normally distributed (in either source or binary form)
+ *    with the major components (compiler, kernel, and so on) of the operating
+ *    system on which the executable runs, unless that component itself
+ *    accompanies the executable.
+ *
+ *  * Redistributions must reproduce the above copyright notice, this list
+ *    of conditions and the following disclaimer in the documentation and/or
+ *    other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package jpsxdec.cdreaders;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/** A disc image stored in a file format other than the plain sectors
+ * (e.g. ECM, or {@link DeflateImageContainer}). {@link CdFileSectorReader} reads the bytes of the plain disc
+ * image through this, so everything else works the same as with the original
+ * image. Containers are read-only.
+ * <p>
+ * Some formats don't store the sector error correction (EDC/ECC) and
+ * regenerate it when unpacking. Since it is only needed when the raw sectors
+ * are used, it is only regenerated when requested. */
+public abstract class DiscImageContainer {
+
+    /** Checks the start of the file for any of the known container formats.
+     * @return the container, or null if the file is not a known container
+     *         (i.e. it is probably a plain disc image). */
+    public static @CheckForNull DiscImageContainer open(@Nonnull RandomAccessFile file)
+            throws IOException
+    {
+        if (EcmImageContainer.isEcm(file))
+            return new EcmImageContainer(file);
+        if (DeflateImageContainer.isDeflateImage(file))
+            return new DeflateImageContainer(file);
+        return null;
+    }
+
+    /** Size of the plain disc image in bytes. */
+    abstract public long getLength();
+
+    /** Reads bytes of the plain disc image.
+     * @param blnErrorCorrection If false, error correction the container
+     *                           doesn't store may be left as 0.
+     *                           See {@link #getSkippedErrorCorrection(long, int)}.
+     * @throws EOFException if reading beyond the end of the image. */
+    abstract public void read(long lngPosition, @Nonnull byte[] abOut, int iOutPos, int iLength,
+                              boolean blnErrorCorrection)
+            throws EOFException, IOException;
+
+    /** If the error correction of the raw sector starting at the position
+     * is left as 0 when read without error correction,
+     * returns the type of sector that needs it rebuilt, otherwise null. */
+    abstract public @CheckForNull CdSector.Type getSkippedErrorCorrection(long lngRawSectorStart,
+                                                                          int iRawSectorSize);
+
+    /** Reads bytes of the plain disc image, stopping at the end of the image.
+     * @return the number of bytes read. */
+    public int readMax(long lngPosition, @Nonnull byte[] abOut, int iOutPos, int iLength,
+                       boolean blnErrorCorrection)
+            throws IOException
+    {
+        long lngRemaining = getLength() - lngPosition;
+        if (lngRemaining <= 0)
+            return 0;
+        if (iLength > lngRemaining)
+            iLength = (int)lngRemaining;
+        read(lngPosition, abOut, iOutPos, iLength, blnErrorCorrection);
+        return iLength;
+    }
+
+    /** Releases any resources held by the container.
+     * Does not close the underlying file. */
+    public void close() {
+    }
+
+}
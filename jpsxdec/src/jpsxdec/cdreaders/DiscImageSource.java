@@ -0,0 +1,118 @@
+/*
+ * jPSXdec: PlayStation 1 Media Decoder/Converter in Java
+ * Copyright (C) 2019  Michael Sabin
+ * All rights reserved.
+ *
+ * Redistribution and use of the jPSXdec code or any derivative works are
+ * permitted provided that the following conditions are met:
+ *
+ *  * Redistributions may not be sold, nor may they be used in commercial
+ *    or revenue-generating business activities.
+ *
+ *  * Redistributions that are modified from the original source must
+ *    include the complete source code, including the source code for all
+ *    components used by a binary built from the modified sources. However, as
+ *    a special exception, the source code distributed need not include
+ *    anything that is normally distributed (in either source or binary form)
+ *    with the major components (compiler, kernel, and so on) of the operating
+ *    system on which the executable runs, unless that component itself
+ *    accompanies the executable.
+ *
+ *  * Redistributions must reproduce the above copyright notice, this list
+ *    of conditions and the following disclaimer in the documentation and/or
+ *    other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jpsxdec.cdreaders;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.logging.Logger;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import jpsxdec.util.IO;
+
+/** Reads a whole disc image sequentially from the start, through its
+ * {@link DiscImageContainer} if it has one. Used when writing out a new
+ * copy of the disc image. */
+class DiscImageSource implements Closeable {
+
+    private static final Logger LOG = Logger.getLogger(DiscImageSource.class.getName());
+
+    @Nonnull
+    private final File _sourceFile;
+    @Nonnull
+    private final RandomAccessFile _file;
+    @CheckForNull
+    private final DiscImageContainer _container;
+    private long _lngPosition = 0;
+
+    public DiscImageSource(@Nonnull File sourceFile)
+            throws CdFileSectorReader.CdFileNotFoundException, CdFileSectorReader.CdReadException
+    {
+        _sourceFile = sourceFile;
+        try {
+            _file = new RandomAccessFile(sourceFile, "r");
+        } catch (FileNotFoundException ex) {
+            throw new CdFileSectorReader.CdFileNotFoundException(sourceFile, ex);
+        }
+        boolean blnExceptionThrown = true;
+        try {
+            _container = DiscImageContainer.open(_file);
+            _file.seek(0);
+            blnExceptionThrown = false;
+        } catch (IOException ex) {
+            throw new CdFileSectorReader.CdReadException(sourceFile, ex);
+        } finally {
+            if (blnExceptionThrown)
+                IO.closeSilently(_file, LOG);
+        }
+    }
+
+    /** Size of the plain disc image. */
+    public long length() throws CdFileSectorReader.CdReadException {
+        try {
+            return _container != null ? _container.getLength() : _file.length();
+        } catch (IOException ex) {
+            throw new CdFileSectorReader.CdReadException(_sourceFile, ex);
+        }
+    }
+
+    /** Reads the next bytes of the plain disc image, including any
+     * error correction the container doesn't store. */
+    public void read(@Nonnull byte[] abBuffer, int iLength) throws CdFileSectorReader.CdReadException {
+        try {
+            if (_container != null)
+                _container.read(_lngPosition, abBuffer, 0, iLength, true);
+            else
+                IO.readByteArray(_file, abBuffer, 0, iLength);
+        } catch (IOException ex) {
+            throw new CdFileSectorReader.CdReadException(_sourceFile, ex);
+        }
+        _lngPosition += iLength;
+    }
+
+    public void close() throws IOException {
+        try {
+            _file.close();
+        } finally {
+            if (_container != null)
+                _container.close();
+        }
+    }
+
+}
@@ -41,6 +41,7 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.TreeSet;
 import java.util.logging.Level;
@@ -197,6 +198,17 @@ public class DiscPatcher {
         return _patchFileName;
     }
 
+    /** Every sector that has a patch, in order. */
+    public @Nonnull int[] getPatchedSectors() {
+        int[] aiSectors = new int[_patches.size()];
+        int iCount = 0;
+        for (PatchEntry patch : _patches) {
+            if (iCount == 0 || aiSectors[iCount - 1] != patch.iSector)
+                aiSectors[iCount++] = patch.iSector;
+        }
+        return Arrays.copyOf(aiSectors, iCount);
+    }
+
     public void addPatch(int iSector, 
                          int iOffsetInSector, @Nonnull byte[] abBytesToReplace,
                          int iStartByteToUse, int iNumberOfBytesToReplace)
@@ -0,0 +1,374 @@
+/*
+ * jPSXdec: PlayStation 1 Media Decoder/Converter in Java
+ * Copyright (C) 2019  Michael Sabin
+ * All rights reserved.
+ *
+ * Redistribution and use of the jPSXdec code or any derivative works are
+ * permitted provided that the following conditions are met:
+ *
+ *  * Redistributions may not be sold, nor may they be used in commercial
+ *    or revenue-generating business activities.
+ *
+ *  * Redistributions that are modified from the original source must
+ *    include the complete source code, including the source code for all
+ *    components used by a binary built from the modified sources. However, as
+ *    a special exception, the source code distributed need not include
+ *    anything that is normally distributed (in either source or binary form)
+ *    with the major components (compiler, kernel, and so on) of the operating
+ *    system on which the executable runs, unless that component itself
+ *    accompanies the executable.
+ *
+ *  * Redistributions must reproduce the above copyright notice, this list
+ *    of conditions and the following disclaimer in the documentation and/or
+ *    other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package jpsxdec.cdreaders;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import jpsxdec.util.IO;
+
+/** Reads disc images packed with the ECM (Error Code Modeler) format
+ * without unpacking the whole file.
+ * <p>
+ * ECM strips the sync header, header, and error correction from sectors
+ * where it can be regenerated. When opened, all the records in the file are
+ * scanned once to build an index of where each record is in the ECM file,
+ * and where it would be in the plain image. Reads then go directly to the
+ * records needed.
+ * <p>
+ * File format:
+ * <pre>
+ * 4 bytes  "ECM\0"
+ * then repeating:
+ *   1-5 bytes  record type (lowest 2 bits) and count - 1 (remaining 5 bits),
+ *              if the high bit is set, another 7 bits of the count follow
+ *              (count - 1 of 0xFFFFFFFF marks the end of the records)
+ *   type 0: [count] bytes copied as is
+ *   type 1: [count] mode 1 sectors, each 3 bytes of address + 2048 bytes data
+ *           unpacked into full 2352 byte sectors
+ *   type 2: [count] mode 2 form 1 sectors, each 4 byte sub header + 2048 bytes data
+ *           unpacked into 2336 byte sectors (without sync header and header)
+ *   type 3: [count] mode 2 form 2 sectors, each 4 byte sub header + 2324 bytes data
+ *           unpacked into 2336 byte sectors (without sync header and header)
+ * 4 bytes  EDC of the whole plain image (ignored)
+ * </pre>
+ * For mode 2 sectors the sync header and header are stored as type 0 bytes. */
+public class EcmImageContainer extends DiscImageContainer {
+
+    private static final Logger LOG = Logger.getLogger(EcmImageContainer.class.getName());
+
+    private static final byte[] MAGIC = {'E', 'C', 'M', 0};
+
+    private static final int TYPE_BYTES = 0;
+    private static final int TYPE_MODE1 = 1;
+    private static final int TYPE_MODE2FORM1 = 2;
+    private static final int TYPE_MODE2FORM2 = 3;
+
+    /** Size of each item of the record types in the ECM file. */
+    private static final int[] PACKED_SIZE = {1, 3 + 2048, 4 + 2048, 4 + 2324};
+    /** Size of each item of the record types in the plain image. */
+    private static final int[] UNPACKED_SIZE = {1, 2352, 2336, 2336};
+
+    private static final byte[] SYNC_HEADER = CdSectorHeader.SECTOR_SYNC_HEADER;
+
+    public static boolean isEcm(@Nonnull RandomAccessFile file) throws IOException {
+        if (file.length() < MAGIC.length)
+            return false;
+        byte[] abMagic = new byte[MAGIC.length];
+        file.seek(0);
+        IO.readByteArray(file, abMagic);
+        return Arrays.equals(abMagic, MAGIC);
+    }
+
+    // -------------------------------------------------------------------------
+
+    @Nonnull
+    private final RandomAccessFile _file;
+
+    // index of all the records
+    private final int _iRecordCount;
+    /** Start of each record in the plain image. */
+    @Nonnull
+    private final long[] _alngUnpackedStart;
+    /** Start of each record's data in the ECM file. */
+    @Nonnull
+    private final long[] _alngPackedStart;
+    @Nonnull
+    private final byte[] _abType;
+    private final long _lngLength;
+
+    /** Buffer for the packed data. */
+    @Nonnull
+    private byte[] _abPacked = new byte[0];
+    /** A sector being unpacked, with mode 2 sectors starting at 0x10. */
+    private final byte[] _abSector = new byte[CdSector.SECTOR_SIZE_2352_BIN];
+
+    public EcmImageContainer(@Nonnull RandomAccessFile file) throws IOException {
+        _file = file;
+
+        long[] alngUnpackedStart = new long[1024];
+        long[] alngPackedStart = new long[1024];
+        byte[] abType = new byte[1024];
+        int iRecordCount = 0;
+
+        RecordHeaderReader reader = new RecordHeaderReader(file, MAGIC.length);
+        long lngUnpackedPos = 0;
+        while (true) {
+            int iByte = reader.read();
+            int iType = iByte & 3;
+            long lngCount = (iByte >> 2) & 0x1f;
+            int iBits = 5;
+            while ((iByte & 0x80) != 0) {
+                if (iBits > 31)
+                    throw new IOException("Invalid ECM record count at " + reader.getPosition());
+                iByte = reader.read();
+                lngCount |= (long)(iByte & 0x7f) << iBits;
+                iBits += 7;
+            }
+            if (lngCount == 0xFFFFFFFFL)
+                break;
+            lngCount++;
+            if (lngCount >= 0x80000000L)
+                throw new IOException("Invalid ECM record count at " + reader.getPosition());
+
+            if (iRecordCount == abType.length) {
+                int iNewSize = abType.length * 2;
+                alngUnpackedStart = Arrays.copyOf(alngUnpackedStart, iNewSize);
+                alngPackedStart = Arrays.copyOf(alngPackedStart, iNewSize);
+                abType = Arrays.copyOf(abType, iNewSize);
+            }
+            alngUnpackedStart[iRecordCount] = lngUnpackedPos;
+            alngPackedStart[iRecordCount] = reader.getPosition();
+            abType[iRecordCount] = (byte)iType;
+            iRecordCount++;
+
+            lngUnpackedPos += lngCount * UNPACKED_SIZE[iType];
+            reader.skip(lngCount * PACKED_SIZE[iType]);
+        }
+        if (reader.getPosition() > file.length())
+            throw new IOException("ECM file is truncated");
+
+        _iRecordCount = iRecordCount;
+        _alngUnpackedStart = Arrays.copyOf(alngUnpackedStart, iRecordCount);
+        _alngPackedStart = Arrays.copyOf(alngPackedStart, iRecordCount);
+        _abType = Arrays.copyOf(abType, iRecordCount);
+        _lngLength = lngUnpackedPos;
+
+        LOG.log(Level.INFO, "ECM image with {0,number,#} records, {1,number,#} bytes unpacked",
+                new Object[]{iRecordCount, lngUnpackedPos});
+    }
+
+    @Override
+    public long getLength() {
+        return _lngLength;
+    }
+
+    /** Index of the record containing the position in the plain image. */
+    private int findRecord(long lngPosition) {
+        int i = Arrays.binarySearch(_alngUnpackedStart, lngPosition);
+        if (i < 0)
+            i = -i - 2;
+        return i;
+    }
+
+    private long getUnpackedEnd(int iRecord) {
+        return iRecord + 1 < _iRecordCount ? _alngUnpackedStart[iRecord + 1] : _lngLength;
+    }
+
+    /** Offset in the ECM file of the item containing the position. */
+    private long getPackedItemStart(int iRecord, long lngPosition) {
+        int iType = _abType[iRecord];
+        long lngItem = (lngPosition - _alngUnpackedStart[iRecord]) / UNPACKED_SIZE[iType];
+        return _alngPackedStart[iRecord] + lngItem * PACKED_SIZE[iType];
+    }
+
+    @Override
+    public synchronized void read(long lngPosition, @Nonnull byte[] abOut, int iOutPos, int iLength,
+                                  boolean blnErrorCorrection)
+            throws EOFException, IOException
+    {
+        if (lngPosition < 0 || iLength < 0 || iOutPos < 0 || iOutPos + iLength > abOut.length)
+            throw new IndexOutOfBoundsException();
+        if (lngPosition + iLength > _lngLength)
+            throw new EOFException();
+        if (iLength == 0)
+            return;
+
+        long lngEnd = lngPosition + iLength;
+        int iFirstRecord = findRecord(lngPosition);
+        int iLastRecord = findRecord(lngEnd - 1);
+
+        // read all the packed data needed at once
+        long lngPackedStart = getPackedItemStart(iFirstRecord, lngPosition);
+        long lngPackedEnd = getPackedItemStart(iLastRecord, lngEnd - 1) +
+                            PACKED_SIZE[_abType[iLastRecord]];
+        int iPackedLength = (int)(lngPackedEnd - lngPackedStart);
+        if (_abPacked.length < iPackedLength)
+            _abPacked = new byte[iPackedLength];
+        _file.seek(lngPackedStart);
+        IO.readByteArray(_file, _abPacked, 0, iPackedLength);
+
+        for (int iRecord = iFirstRecord; iRecord <= iLastRecord; iRecord++) {
+            int iType = _abType[iRecord];
+            long lngRecordEnd = Math.min(getUnpackedEnd(iRecord), lngEnd);
+            if (iType == TYPE_BYTES) {
+                int iCopy = (int)(lngRecordEnd - lngPosition);
+                int iPackedOfs = (int)(_alngPackedStart[iRecord] +
+                                       (lngPosition - _alngUnpackedStart[iRecord]) - lngPackedStart);
+                System.arraycopy(_abPacked, iPackedOfs, abOut, iOutPos, iCopy);
+                iOutPos += iCopy;
+                lngPosition += iCopy;
+            } else {
+                int iSectorSize = UNPACKED_SIZE[iType];
+                while (lngPosition < lngRecordEnd) {
+                    long lngOffsetInRecord = lngPosition - _alngUnpackedStart[iRecord];
+                    int iOffsetInSector = (int)(lngOffsetInRecord % iSectorSize);
+                    int iPackedOfs = (int)(getPackedItemStart(iRecord, lngPosition) - lngPackedStart);
+                    unpackSector(iType, iPackedOfs, blnErrorCorrection);
+
+                    int iCopy = (int)Math.min(iSectorSize - iOffsetInSector, lngRecordEnd - lngPosition);
+                    int iSectorStart = iType == TYPE_MODE1 ? 0 : 0x10;
+                    System.arraycopy(_abSector, iSectorStart + iOffsetInSector, abOut, iOutPos, iCopy);
+                    iOutPos += iCopy;
+                    lngPosition += iCopy;
+                }
+            }
+        }
+    }
+
+    /** Unpacks a sector into {@link #_abSector}. */
+    private void unpackSector(int iType, int iPackedOfs, boolean blnErrorCorrection) {
+        byte[] abSector = _abSector;
+        switch (iType) {
+            case TYPE_MODE1:
+                System.arraycopy(SYNC_HEADER, 0, abSector, 0, SYNC_HEADER.length);
+                System.arraycopy(_abPacked, iPackedOfs, abSector, 0x0C, 3);
+                abSector[0x0F] = 1;
+                System.arraycopy(_abPacked, iPackedOfs + 3, abSector, 0x10, 2048);
+                if (blnErrorCorrection)
+                    SectorErrorCorrection.rebuildMode1ErrorCorrection(abSector);
+                else
+                    Arrays.fill(abSector, 0x810, CdSector.SECTOR_SIZE_2352_BIN, (byte)0);
+                break;
+            case TYPE_MODE2FORM1:
+                // sub header is repeated
+                System.arraycopy(_abPacked, iPackedOfs, abSector, 0x10, 4);
+                System.arraycopy(_abPacked, iPackedOfs, abSector, 0x14, 4 + 2048);
+                if (blnErrorCorrection) {
+                    // mode 2 error correction treats the header as 0
+                    Arrays.fill(abSector, 0, 0x10, (byte)0);
+                    SectorErrorCorrection.rebuildErrorCorrection(abSector, 1);
+                } else {
+                    Arrays.fill(abSector, 0x818, CdSector.SECTOR_SIZE_2352_BIN, (byte)0);
+                }
+                break;
+            case TYPE_MODE2FORM2:
+                System.arraycopy(_abPacked, iPackedOfs, abSector, 0x10, 4);
+                System.arraycopy(_abPacked, iPackedOfs, abSector, 0x14, 4 + 2324);
+                if (blnErrorCorrection)
+                    SectorErrorCorrection.rebuildErrorCorrection(abSector, 2);
+                else
+                    Arrays.fill(abSector, 0x92C, CdSector.SECTOR_SIZE_2352_BIN, (byte)0);
+                break;
+            default:
+                throw new IllegalArgumentException();
+        }
+    }
+
+    @Override
+    public @CheckForNull CdSector.Type getSkippedErrorCorrection(long lngRawSectorStart,
+                                                                 int iRawSectorSize)
+    {
+        if (iRawSectorSize < CdSector.SECTOR_SIZE_2336_BIN_NOSYNC ||
+            lngRawSectorStart < 0 || lngRawSectorStart >= _lngLength)
+            return null;
+
+        int iRecord = findRecord(lngRawSectorStart);
+        if (_abType[iRecord] == TYPE_MODE1)
+            return isItemStart(iRecord, lngRawSectorStart) ? CdSector.Type.MODE1 : null;
+
+        // mode 2 sectors in 2352 images start after the sync header and header
+        long lngMode2Start = lngRawSectorStart;
+        if (iRawSectorSize != CdSector.SECTOR_SIZE_2336_BIN_NOSYNC) {
+            lngMode2Start += CdSector.SECTOR_SIZE_2352_BIN - CdSector.SECTOR_SIZE_2336_BIN_NOSYNC;
+            if (lngMode2Start >= _lngLength)
+                return null;
+            iRecord = findRecord(lngMode2Start);
+        }
+        if (!isItemStart(iRecord, lngMode2Start))
+            return null;
+        switch (_abType[iRecord]) {
+            case TYPE_MODE2FORM1: return CdSector.Type.MODE2FORM1;
+            case TYPE_MODE2FORM2: return CdSector.Type.MODE2FORM2;
+            default: return null;
+        }
+    }
+
+    private boolean isItemStart(int iRecord, long lngPosition) {
+        return (lngPosition - _alngUnpackedStart[iRecord]) % UNPACKED_SIZE[_abType[iRecord]] == 0;
+    }
+
+    // -------------------------------------------------------------------------
+
+    /** Reads the ECM file in large blocks while scanning the record headers. */
+    private static class RecordHeaderReader {
+        @Nonnull
+        private final RandomAccessFile _file;
+        private final long _lngFileLength;
+        private final byte[] _abBuffer = new byte[64 * 1024];
+        private long _lngBufferStart;
+        private int _iBufferLength = 0;
+        private long _lngPosition;
+
+        public RecordHeaderReader(@Nonnull RandomAccessFile file, long lngStart) throws IOException {
+            _file = file;
+            _lngFileLength = file.length();
+            _lngPosition = lngStart;
+            _lngBufferStart = lngStart;
+        }
+
+        public int read() throws IOException {
+            long lngOfs = _lngPosition - _lngBufferStart;
+            if (lngOfs < 0 || lngOfs >= _iBufferLength) {
+                if (_lngPosition >= _lngFileLength)
+                    throw new EOFException("ECM file ended before the end of records");
+                _lngBufferStart = _lngPosition;
+                _iBufferLength = (int)Math.min(_abBuffer.length, _lngFileLength - _lngPosition);
+                _file.seek(_lngBufferStart);
+                IO.readByteArray(_file, _abBuffer, 0, _iBufferLength);
+                lngOfs = 0;
+            }
+            _lngPosition++;
+            return _abBuffer[(int)lngOfs] & 0xff;
+        }
+
+        public void skip(long lngBytes) {
+            _lngPosition += lngBytes;
+        }
+
+        public long getPosition() {
+            return _lngPosition;
+        }
+    }
+
+}
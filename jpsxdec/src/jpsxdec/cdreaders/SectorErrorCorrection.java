@@ -249,5 +249,59 @@ public class SectorErrorCorrection {
         }
     }
 
+    /**
+     * Mode 1:
+     * <pre>
+     * Offset  Size
+     *     0     12    Sync header ] EDC
+     *    12      4    Header      ]      ]        ]
+     *    16   2048    User data   ]      ] ECC_P  ] ECC_Q
+     *  2064      4    EDC                ]        ]
+     *  2068      8    Zeroes             ]        ]
+     *  2076    172    ECC_P                       ]
+     *  2248    104    ECC_Q
+     *  2352
+     * </pre>
+     * Unlike mode 2, the header is included in the ECC.
+     *
+     * @param abRawSectorData Raw 2352 byte sector data
+     */
+    public static void rebuildMode1ErrorCorrection(byte[] abRawSectorData) {
+        if (abRawSectorData.length < 2352)
+            throw new IllegalArgumentException();
+        long lngEdc = generateErrorDetectionAndCorrection(abRawSectorData, 0, 0x810);
+        abRawSectorData[0x810  ] = (byte)(lngEdc & 0xff);
+        abRawSectorData[0x810+1] = (byte)((lngEdc >>  8) & 0xff);
+        abRawSectorData[0x810+2] = (byte)((lngEdc >> 16) & 0xff);
+        abRawSectorData[0x810+3] = (byte)((lngEdc >> 24) & 0xff);
+        Arrays.fill(abRawSectorData, 0x814, 0x930, (byte)0);
+        generateErrorCorrectionCode_P(abRawSectorData, 12, abRawSectorData, 0x81C);
+        generateErrorCorrectionCode_Q(abRawSectorData, 12, abRawSectorData, 0x8C8);
+    }
+
+    /** Fills in the error correction of a raw sector that is otherwise
+     * complete. The sector can be a full 2352 byte sector (possibly
+     * followed by sub-channel data), or a 2336 byte mode 2 sector
+     * without the sync header and header.
+     * @param type {@link CdSector.Type#MODE1}, {@link CdSector.Type#MODE2FORM1},
+     *             or {@link CdSector.Type#MODE2FORM2}. */
+    public static void rebuildErrorCorrection(byte[] abRawSectorData, CdSector.Type type) {
+        if (abRawSectorData.length == CdSector.SECTOR_SIZE_2336_BIN_NOSYNC) {
+            if (type == CdSector.Type.MODE1)
+                throw new IllegalArgumentException();
+            byte[] abFullSector = new byte[CdSector.SECTOR_SIZE_2352_BIN];
+            System.arraycopy(abRawSectorData, 0, abFullSector, 0x10, abRawSectorData.length);
+            rebuildErrorCorrection(abFullSector, type);
+            System.arraycopy(abFullSector, 0x10, abRawSectorData, 0, abRawSectorData.length);
+            return;
+        }
+        switch (type) {
+            case MODE1:      rebuildMode1ErrorCorrection(abRawSectorData); break;
+            case MODE2FORM1: rebuildErrorCorrection(abRawSectorData, 1); break;
+            case MODE2FORM2: rebuildErrorCorrection(abRawSectorData, 2); break;
+            default: throw new IllegalArgumentException("No error correction for " + type);
+        }
+    }
+
 
 }
@@ -0,0 +1,360 @@
+/*
+ * jPSXdec: PlayStation 1 Media Decoder/Converter in Java
+ * Copyright (C) 2019  Michael Sabin
+ * All rights reserved.
+ *
+ * Redistribution and use of the jPSXdec code or any derivative works are
+ * permitted provided that the following conditions are met:
+ *
+ *  * Redistributions may not be sold, nor may they be used in commercial
+ *    or revenue-generating business activities.
+ *
+ *  * Redistributions that are modified from the original source must
+ *    include the complete source code, including the source code for all
+ *    components used by a binary built from the modified sources. However, as
+ *    a special exception, the source code distributed need not include
+ *    anything that is normally distributed (in either source or binary form)
+ *    with the major components (compiler, kernel, and so on) of the operating
+ *    system on which the executable runs, unless that component itself
+ *    accompanies the executable.
+ *
+ *  * Redistributions must reproduce the above copyright notice, this list
+ *    of conditions and the following disclaimer in the documentation and/or
+ *    other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package jpsxdec.cdreaders;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nonnull;
+import jpsxdec.i18n.I;
+import jpsxdec.i18n.exception.LocalizedDeserializationFail;
+import jpsxdec.i18n.log.ProgressLogger;
+import jpsxdec.util.IO;
+import jpsxdec.util.TaskCanceledException;
+
+/** A sparse copy-on-write delta of a disc image.
+ * <p>
+ * When attached to a {@link CdFileSectorReader}, patched sectors are written
+ * to this file instead of the source disc image, and any sector read from the
+ * disc image is replaced with the overlay's copy if it has one. This lets
+ * replaced content be previewed and iterated on without ever modifying
+ * (or needing a backup of) the original disc image.
+ * Use {@link #materialize(CdFileSectorReader, File, ProgressLogger)}
+ * to write out a new, fully patched, disc image.
+ * <p>
+ * File format:
+ * <pre>
+ * 8 bytes  "jPSXovl1"
+ * 4 bytes  raw sector size of the source disc image (little-endian)
+ * 4 bytes  sector count of the source disc image (little-endian)
+ * 8 bytes  offset of the first sector in the source disc image (little-endian)
+ * then repeating until end of file:
+ *   4 bytes       sector number (little-endian)
+ *   [sector size] full raw sector data
+ * </pre>
+ * A sector only appears once in the file. Patching it again overwrites
+ * the existing record in place. */
+public class SectorOverlay implements Closeable {
+
+    private static final Logger LOG = Logger.getLogger(SectorOverlay.class.getName());
+
+    private static final byte[] MAGIC = { 'j','P','S','X','o','v','l','1' };
+    private static final int HEADER_SIZE = MAGIC.length + 4 + 4 + 8;
+
+    /** Number of sectors copied at a time when materializing. */
+    private static final int MATERIALIZE_SECTOR_BLOCK = 512;
+
+    @Nonnull
+    private final File _overlayFile;
+    @Nonnull
+    private final RandomAccessFile _raf;
+    private final int _iRawSectorSize;
+    private final int _iSectorCount;
+    /** Sector number -> file offset of the sector data in the overlay file. */
+    private final TreeMap<Integer, Long> _sectorOffsets = new TreeMap<Integer, Long>();
+
+    /** Opens an existing overlay file for the disc, or creates a new one
+     * if the file doesn't exist.
+     * @throws LocalizedDeserializationFail if the existing overlay file
+     *         was not created for this disc image. */
+    public SectorOverlay(@Nonnull File overlayFile, @Nonnull CdFileSectorReader cd)
+            throws CdFileSectorReader.CdFileNotFoundException,
+                   CdFileSectorReader.CdReadException,
+                   CdFileSectorReader.CdWriteException,
+                   LocalizedDeserializationFail
+    {
+        _overlayFile = overlayFile;
+        _iRawSectorSize = cd.getRawSectorSize();
+        _iSectorCount = cd.getSectorCount();
+
+        try {
+            _raf = new RandomAccessFile(overlayFile, "rw");
+        } catch (FileNotFoundException ex) {
+            throw new CdFileSectorReader.CdFileNotFoundException(overlayFile, ex);
+        }
+
+        boolean blnExceptionThrown = true;
+        try {
+            long lngLength;
+            try {
+                lngLength = _raf.length();
+            } catch (IOException ex) {
+                throw new CdFileSectorReader.CdReadException(overlayFile, ex);
+            }
+            if (lngLength == 0)
+                writeHeader(cd.getFilePointer(0));
+            else
+                readIndex(lngLength, cd.getFilePointer(0));
+            blnExceptionThrown = false;
+        } finally {
+            if (blnExceptionThrown)
+                IO.closeSilently(_raf, LOG);
+        }
+        LOG.log(Level.INFO, "Overlay {0} has {1} patched sectors",
+                new Object[]{overlayFile, _sectorOffsets.size()});
+    }
+
+    private void writeHeader(long lng1stSectorOffset) throws CdFileSectorReader.CdWriteException {
+        byte[] abHeader = new byte[HEADER_SIZE];
+        System.arraycopy(MAGIC, 0, abHeader, 0, MAGIC.length);
+        IO.writeInt32LE(abHeader, 8, _iRawSectorSize);
+        IO.writeInt32LE(abHeader, 12, _iSectorCount);
+        IO.writeInt32LE(abHeader, 16, lng1stSectorOffset & 0xffffffffL);
+        IO.writeInt32LE(abHeader, 20, lng1stSectorOffset >>> 32);
+        try {
+            _raf.seek(0);
+            _raf.write(abHeader);
+        } catch (IOException ex) {
+            throw new CdFileSectorReader.CdWriteException(_overlayFile, ex);
+        }
+    }
+
+    private void readIndex(long lngLength, long lng1stSectorOffset)
+            throws CdFileSectorReader.CdReadException, LocalizedDeserializationFail
+    {
+        try {
+            _raf.seek(0);
+            byte[] abHeader = new byte[HEADER_SIZE];
+            if (IO.readByteArrayMax(_raf, abHeader, 0, abHeader.length) != abHeader.length ||
+                !Arrays.equals(MAGIC, Arrays.copyOf(abHeader, MAGIC.length)))
+                throw new LocalizedDeserializationFail(I.OVERLAY_NOT_FOR_DISC(_overlayFile));
+
+            long lngOverlay1stSectorOffset = IO.readUInt32LE(abHeader, 16) |
+                                             (IO.readUInt32LE(abHeader, 20) << 32);
+            if (IO.readSInt32LE(abHeader, 8) != _iRawSectorSize ||
+                IO.readSInt32LE(abHeader, 12) != _iSectorCount ||
+                lngOverlay1stSectorOffset != lng1stSectorOffset)
+                throw new LocalizedDeserializationFail(I.OVERLAY_NOT_FOR_DISC(_overlayFile));
+
+            long lngRecordSize = 4 + _iRawSectorSize;
+            long lngRecordCount = (lngLength - HEADER_SIZE) / lngRecordSize;
+            if (HEADER_SIZE + lngRecordCount * lngRecordSize != lngLength)
+                LOG.log(Level.WARNING, "Overlay {0} has trailing partial sector, ignoring it", _overlayFile);
+
+            for (long lngPos = HEADER_SIZE, i = 0; i < lngRecordCount; i++, lngPos += lngRecordSize) {
+                _raf.seek(lngPos);
+                int iSector = IO.readSInt32LE(_raf);
+                if (iSector < 0 || iSector >= _iSectorCount)
+                    throw new LocalizedDeserializationFail(I.OVERLAY_NOT_FOR_DISC(_overlayFile));
+                _sectorOffsets.put(iSector, lngPos + 4);
+            }
+        } catch (IOException ex) {
+            throw new CdFileSectorReader.CdReadException(_overlayFile, ex);
+        }
+    }
+
+    public @Nonnull File getFile() {
+        return _overlayFile;
+    }
+
+    /** Number of sectors that have been patched in the overlay. */
+    public int getPatchedSectorCount() {
+        return _sectorOffsets.size();
+    }
+
+    public boolean hasSector(int iSector) {
+        return _sectorOffsets.containsKey(iSector);
+    }
+
+    /** If any sector in the (inclusive) range is in the overlay. */
+    public boolean hasSectorInRange(int iStartSector, int iEndSector) {
+        Integer ioSector = _sectorOffsets.ceilingKey(iStartSector);
+        return ioSector != null && ioSector.intValue() <= iEndSector;
+    }
+
+    /** Replaces any sectors in the buffer that are found in the overlay.
+     * @param abBuffer        Raw sectors read from the source disc image.
+     * @param iStartSector    Sector number of the first sector in the buffer.
+     * @param iSectorsInBuffer Number of full sectors in the buffer. */
+    void overlaySectors(@Nonnull byte[] abBuffer, int iStartSector, int iSectorsInBuffer)
+            throws CdFileSectorReader.CdReadException
+    {
+        if (_sectorOffsets.isEmpty())
+            return;
+        Map<Integer, Long> inBuffer =
+                _sectorOffsets.subMap(iStartSector, iStartSector + iSectorsInBuffer);
+        try {
+            for (Map.Entry<Integer, Long> entry : inBuffer.entrySet()) {
+                _raf.seek(entry.getValue());
+                IO.readByteArray(_raf, abBuffer,
+                                 (entry.getKey() - iStartSector) * _iRawSectorSize,
+                                 _iRawSectorSize);
+            }
+        } catch (IOException ex) {
+            throw new CdFileSectorReader.CdReadException(_overlayFile, ex);
+        }
+    }
+
+    /** Saves a full raw sector to the overlay, replacing any prior copy. */
+    void writeSector(int iSector, @Nonnull byte[] abRawSector)
+            throws CdFileSectorReader.CdWriteException
+    {
+        if (iSector < 0 || iSector >= _iSectorCount)
+            throw new IndexOutOfBoundsException("Sector "+iSector+" not in bounds of CD");
+        if (abRawSector.length != _iRawSectorSize)
+            throw new IllegalArgumentException("Sector data is not the right size.");
+
+        try {
+            Long lngExisting = _sectorOffsets.get(iSector);
+            if (lngExisting != null) {
+                _raf.seek(lngExisting);
+            } else {
+                long lngEnd = _raf.length();
+                _raf.seek(lngEnd);
+                IO.writeInt32LE(_raf, iSector);
+                _sectorOffsets.put(iSector, lngEnd + 4);
+            }
+            _raf.write(abRawSector);
+        } catch (IOException ex) {
+            throw new CdFileSectorReader.CdWriteException(_overlayFile, ex);
+        }
+    }
+
+    /** Writes a new disc image that is the source disc image with all
+     * the overlay sectors applied. The source is read once, sequentially.
+     * @throws CdFileSectorReader.CdReadException error reading the source
+     *         disc image or the overlay
+     * @throws CdFileSectorReader.CdWriteException error writing the new
+     *         disc image
+     * @throws IllegalArgumentException if the output file is the source
+     *         disc image or this overlay file */
+    public void materialize(@Nonnull CdFileSectorReader cd, @Nonnull File outputFile,
+                            @Nonnull ProgressLogger pl)
+            throws CdFileSectorReader.CdFileNotFoundException,
+                   CdFileSectorReader.CdReadException,
+                   CdFileSectorReader.CdWriteException,
+                   TaskCanceledException
+    {
+        if (cd.getRawSectorSize() != _iRawSectorSize || cd.getSectorCount() != _iSectorCount)
+            throw new IllegalArgumentException();
+        // the output is truncated before anything is read
+        if (IO.isSameFile(outputFile, cd.getSourceFile()) || IO.isSameFile(outputFile, _overlayFile))
+            throw new IllegalArgumentException("Output is one of the input files " + outputFile);
+
+        DiscImageSource source = new DiscImageSource(cd.getSourceFile());
+        try {
+            RandomAccessFile output;
+            try {
+                output = new RandomAccessFile(outputFile, "rw");
+            } catch (FileNotFoundException ex) {
+                throw new CdFileSectorReader.CdFileNotFoundException(outputFile, ex);
+            }
+            try {
+                materialize(source, output, outputFile, cd.getFilePointer(0), pl);
+            } finally {
+                IO.closeSilently(output, LOG);
+            }
+        } finally {
+            IO.closeSilently(source, LOG);
+        }
+    }
+
+    private void materialize(@Nonnull DiscImageSource source,
+                             @Nonnull RandomAccessFile output, @Nonnull File outputFile,
+                             long lng1stSectorOffset, @Nonnull ProgressLogger pl)
+            throws CdFileSectorReader.CdReadException,
+                   CdFileSectorReader.CdWriteException,
+                   TaskCanceledException
+    {
+        byte[] abBlock = new byte[MATERIALIZE_SECTOR_BLOCK * _iRawSectorSize];
+        long lngSourceLength = source.length();
+        try {
+            output.setLength(0);
+        } catch (IOException ex) {
+            throw new CdFileSectorReader.CdWriteException(outputFile, ex);
+        }
+
+        pl.progressStart(_iSectorCount);
+
+        // anything before the first sector is copied as-is
+        copyBytes(source, output, outputFile, abBlock, lng1stSectorOffset);
+
+        for (int iSector = 0; iSector < _iSectorCount; iSector += MATERIALIZE_SECTOR_BLOCK) {
+            int iSectorsToCopy = Math.min(MATERIALIZE_SECTOR_BLOCK, _iSectorCount - iSector);
+            int iBytes = iSectorsToCopy * _iRawSectorSize;
+            source.read(abBlock, iBytes);
+            overlaySectors(abBlock, iSector, iSectorsToCopy);
+            try {
+                output.write(abBlock, 0, iBytes);
+            } catch (IOException ex) {
+                throw new CdFileSectorReader.CdWriteException(outputFile, ex);
+            }
+            pl.progressUpdate(iSector);
+        }
+
+        // and anything after the last full sector
+        long lngEndOfSectors = lng1stSectorOffset + (long)_iSectorCount * _iRawSectorSize;
+        copyBytes(source, output, outputFile, abBlock, lngSourceLength - lngEndOfSectors);
+
+        pl.progressEnd();
+    }
+
+    private static void copyBytes(@Nonnull DiscImageSource source,
+                                  @Nonnull RandomAccessFile output, @Nonnull File outputFile,
+                                  @Nonnull byte[] abBuffer, long lngBytes)
+            throws CdFileSectorReader.CdReadException, CdFileSectorReader.CdWriteException
+    {
+        while (lngBytes > 0) {
+            int iLen = (int)Math.min(abBuffer.length, lngBytes);
+            source.read(abBuffer, iLen);
+            try {
+                output.write(abBuffer, 0, iLen);
+            } catch (IOException ex) {
+                throw new CdFileSectorReader.CdWriteException(outputFile, ex);
+            }
+            lngBytes -= iLen;
+        }
+    }
+
+    public void close() throws IOException {
+        _raf.close();
+    }
+
+    @Override
+    public String toString() {
+        return _overlayFile + " (" + _sectorOffsets.size() + " sectors)";
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * jPSXdec: PlayStation 1 Media Decoder/Converter in Java
+ * Copyright (C) 2019  Michael Sabin
+ * All rights reserved.
+ *
+ * Redistribution and use of the jPSXdec code or any derivative works are
+ * permitted provided that the following conditions are met:
+ *
+ *  * Redistributions may not be sold, nor may they be used in commercial
+ *    or revenue-generating business activities.
+ *
+ *  * Redistributions that are modified from the original source must
+ *    include the complete source code, including the source code for all
+ *    components used by a binary built from the modified sources. However, as
+ *    a special exception, the source code distributed need not include
+ *    anything that is normally distributed (in either source or binary form)
+ *    with the major components (compiler, kernel, and so on) of the operating
+ *    system on which the executable runs, unless that component itself
+ *    accompanies the executable.
+ *
+ *  * Redistributions must reproduce the above copyright notice, this list
+ *    of conditions and the following disclaimer in the documentation and/or
+ *    other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package jpsxdec.cdreaders;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import jpsxdec.util.RunStats;
+
+/** Reads the next block of sectors on a background thread while the
+ * current block is being used by {@link CdFileSectorReader}.
+ * <p>
+ * Only one block is read ahead at a time, so there are at most two blocks
+ * in memory: the one being used, and the one being filled.
+ * Reads use positional {@link FileChannel} reads so they don't disturb
+ * the file pointer used by the rest of {@link CdFileSectorReader}.
+ * <p>
+ * The read-ahead thread is never interrupted because that would close the
+ * file channel. Canceled reads are allowed to finish and are discarded. */
+class SectorReadAhead {
+
+    private static final Logger LOG = Logger.getLogger(SectorReadAhead.class.getName());
+
+    /** A block of raw sectors read from the source file.
+     * Does not include any overlay. */
+    static class Block {
+        public final int iStartSector;
+        public final int iSectorCount;
+        @Nonnull
+        public final byte[] abData;
+
+        public Block(int iStartSector, int iSectorCount, @Nonnull byte[] abData) {
+            this.iStartSector = iStartSector;
+            this.iSectorCount = iSectorCount;
+            this.abData = abData;
+        }
+    }
+
+    private static final ThreadFactory DAEMON_THREADS = new ThreadFactory() {
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "Sector read-ahead");
+            t.setDaemon(true);
+            return t;
+        }
+    };
+
+    @Nonnull
+    private final FileChannel _channel;
+    private final int _iRawSectorSize;
+    private final long _lng1stSectorOffset;
+    private final int _iSectorCount;
+    private final int _iBlockSectors;
+
+    @Nonnull
+    private final ExecutorService _reader = Executors.newSingleThreadExecutor(DAEMON_THREADS);
+    @CheckForNull
+    private Future<Block> _pending;
+    private int _iPendingStart = -1;
+
+    /** @param iBlockSectors Number of sectors to read ahead at a time. */
+    public SectorReadAhead(@Nonnull FileChannel channel, int iRawSectorSize,
+                           long lng1stSectorOffset, int iSectorCount,
+                           int iBlockSectors)
+    {
+        if (iBlockSectors < 1)
+            throw new IllegalArgumentException("Invalid read-ahead size " + iBlockSectors);
+        _channel = channel;
+        _iRawSectorSize = iRawSectorSize;
+        _lng1stSectorOffset = lng1stSectorOffset;
+        _iSectorCount = iSectorCount;
+        _iBlockSectors = iBlockSectors;
+    }
+
+    public int getBlockSectors() {
+        return _iBlockSectors;
+    }
+
+    /** Starts reading the block beginning at {@code iStartSector},
+     * discarding any other block being read. Does nothing if that block
+     * is already being read or is past the end of the disc. */
+    public void readAhead(final int iStartSector) {
+        if (_pending != null && _iPendingStart == iStartSector)
+            return;
+        cancel();
+        if (iStartSector >= _iSectorCount)
+            return;
+        _iPendingStart = iStartSector;
+        _pending = _reader.submit(new Callable<Block>() {
+            public Block call() throws IOException {
+                return readBlock(iStartSector);
+            }
+        });
+    }
+
+    /** Returns the block starting at {@code iStartSector} if that is what
+     * is being read ahead, waiting for it to finish if necessary.
+     * Returns null if some other block was being read, or the read failed
+     * (the caller should read the sectors itself to report the error). */
+    public @CheckForNull Block take(int iStartSector) {
+        if (_pending == null || _iPendingStart != iStartSector) {
+            cancel();
+            return null;
+        }
+        Future<Block> pending = _pending;
+        _pending = null;
+        _iPendingStart = -1;
+        long lngWaitStart = RunStats.startTimer();
+        try {
+            return pending.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException ex) {
+            LOG.log(Level.WARNING, "Read-ahead failed, reading normally", ex.getCause());
+            return null;
+        } finally {
+            // only the time the caller spent waiting
+            RunStats.discRead(lngWaitStart);
+        }
+    }
+
+    /** Discards any block being read. */
+    public void cancel() {
+        if (_pending != null) {
+            _pending.cancel(false);
+            _pending = null;
+            _iPendingStart = -1;
+        }
+    }
+
+    /** Stops the read-ahead thread. Should be called before the file
+     * is closed. */
+    public void shutdown() {
+        cancel();
+        _reader.shutdown();
+    }
+
+    private @Nonnull Block readBlock(int iStartSector) throws IOException {
+        int iSectors = Math.min(_iBlockSectors, _iSectorCount - iStartSector);
+        byte[] abData = new byte[iSectors * _iRawSectorSize];
+        ByteBuffer buff = ByteBuffer.wrap(abData);
+        long lngPosition = _lng1stSectorOffset + (long)iStartSector * _iRawSectorSize;
+        while (buff.hasRemaining()) {
+            int iRead = _channel.read(buff, lngPosition + buff.position());
+            if (iRead < 0)
+                throw new IOException("Unexpected end of disc image");
+        }
+        return new Block(iStartSector, iSectors, abData);
+    }
+
+}
@@ -39,6 +39,8 @@ package jpsxdec.cmdline;
 
 import argparser.StringHolder;
 import java.io.File;
+import java.util.Set;
+import java.util.logging.Logger;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import jpsxdec.cdreaders.CdFileSectorReader;
@@ -48,10 +50,15 @@ import jpsxdec.i18n.ILocalizedMessage;
 import jpsxdec.i18n.exception.LocalizedDeserializationFail;
 import jpsxdec.i18n.log.UserFriendlyLogger;
 import jpsxdec.indexing.DiscIndex;
+import jpsxdec.modules.video.sectorbased.VideoSectorIdentifier;
 import jpsxdec.util.ArgParser;
+import jpsxdec.util.IO;
 
 
 public abstract class Command {
+
+    private static final Logger LOG = Logger.getLogger(Command.class.getName());
+
     @Nonnull
     private final String[] _asFlags;
 
@@ -65,18 +72,41 @@ public abstract class Command {
     @Nonnull
     private StringHolder _receiver;
     @Nonnull
-    private StringHolder inputFileArg, indexFileArg;
+    private StringHolder inputFileArg, indexFileArg, overlayFileArg, readAheadArg, gamesArg;
     @Nonnull
     protected FeedbackStream _fbs;
+    /** Only set when running as a job in {@link JobServer}. */
+    @CheckForNull
+    private DiscCache.Session _session;
+
+    final public Command init(@Nonnull ArgParser ap,
+                              @Nonnull StringHolder inputFileArg,
+                              @Nonnull StringHolder indexFileArg,
+                              @Nonnull StringHolder overlayFileArg,
+                              @Nonnull FeedbackStream fbs)
+    {
+        return init(ap, inputFileArg, indexFileArg, overlayFileArg,
+                    new StringHolder(), new StringHolder(), null, fbs);
+    }
 
+    /** @param session If not null, discs and indexes are taken from, and
+     *                 kept in, the job server's cache. */
     final public Command init(@Nonnull ArgParser ap,
                               @Nonnull StringHolder inputFileArg,
                               @Nonnull StringHolder indexFileArg,
+                              @Nonnull StringHolder overlayFileArg,
+                              @Nonnull StringHolder readAheadArg,
+                              @Nonnull StringHolder gamesArg,
+                              @CheckForNull DiscCache.Session session,
                               @Nonnull FeedbackStream fbs)
     {
         _receiver = ap.addStringOption(_asFlags);
         this.inputFileArg = inputFileArg;
         this.indexFileArg = indexFileArg;
+        this.overlayFileArg = overlayFileArg;
+        this.readAheadArg = readAheadArg;
+        this.gamesArg = gamesArg;
+        _session = session;
         _fbs = fbs;
         return this;
     }
@@ -97,27 +127,21 @@ public abstract class Command {
 
     protected @Nonnull CdFileSectorReader getCdReader() throws CommandLineException {
         if (inputFileArg.value != null) {
-            return CommandLine.loadDisc(inputFileArg.value, _fbs);
+            return openDisc(inputFileArg.value);
         } else if (indexFileArg.value != null) {
-            _fbs.println(I.CMD_READING_INDEX_FILE(indexFileArg.value));
-            DiscIndex index;
-            UserFriendlyLogger log = new UserFriendlyLogger(I.INDEX_LOG_FILE_BASE_NAME().getLocalizedMessage());
-            try {
-                index = new DiscIndex(indexFileArg.value, log);
-            } catch (DiscIndex.IndexNotFoundException ex) {
-                throw new CommandLineException(I.IO_OPENING_FILE_ERROR_NAME(ex.getFile().toString()), ex);
-            } catch (DiscIndex.IndexReadException ex) {
-                throw new CommandLineException(I.IO_READING_FROM_FILE_ERROR_NAME(ex.getFile().toString()), ex);
-            } catch (LocalizedDeserializationFail ex) {
-                throw new CommandLineException(I.ERR_LOADING_INDEX_FILE_REASON(ex.getSourceMessage()), ex);
-            } catch (CdFileSectorReader.CdFileNotFoundException ex) {
-                throw new CommandLineException(I.IO_OPENING_FILE_NOT_FOUND_NAME(ex.getFile().toString()), ex);
-            } catch (CdFileSectorReader.CdReadException ex) {
-                throw new CommandLineException(I.IO_READING_FROM_FILE_ERROR_NAME(ex.getFile().toString()), ex);
-            } finally {
-                log.close();
+            DiscCache.Entry entry = null;
+            if (_session != null) {
+                entry = lockIndexedDisc(_session, indexFileArg.value);
+                if (entry.cd != null) {
+                    _fbs.println(I.CMD_REUSING_OPEN_DISC(entry.cd.getSourceFile()));
+                    return entry.cd;
+                }
+            }
+            DiscIndex index = readIndexAndDisc(indexFileArg.value);
+            if (entry != null) {
+                entry.cd = index.getSourceCd();
+                entry.setIndex(index, null, indexFileArg.value);
             }
-            _fbs.println(I.CMD_ITEMS_LOADED(index.size()));
             return index.getSourceCd();
         }
         throw new CommandLineException(I.CMD_DISC_FILE_REQUIRED());
@@ -127,58 +151,70 @@ public abstract class Command {
     protected @Nonnull DiscIndex getIndex() throws CommandLineException {
         final DiscIndex index;
         if (indexFileArg.value != null) {
+            DiscCache.Entry entry = null;
+            if (_session != null) {
+                if (inputFileArg.value != null)
+                    entry = _session.lockDisc(inputFileArg.value, overlayFileArg.value);
+                else
+                    entry = lockIndexedDisc(_session, indexFileArg.value);
+                DiscIndex cached = entry.getIndexFromFile(indexFileArg.value);
+                if (cached != null) {
+                    _fbs.println(I.CMD_REUSING_LOADED_INDEX(new File(indexFileArg.value)));
+                    _fbs.println(I.CMD_ITEMS_LOADED(cached.size()));
+                    return cached;
+                }
+            }
             if (inputFileArg.value != null) {
-                CdFileSectorReader cd = CommandLine.loadDisc(inputFileArg.value, _fbs);
+                CdFileSectorReader cd = openDisc(inputFileArg.value);
                 File idxFile = new File(indexFileArg.value);
+                Set<VideoSectorIdentifier.Game> games = null;
                 if (idxFile.exists()) {
                     _fbs.println(I.CMD_READING_INDEX_FILE(indexFileArg.value));
-                    UserFriendlyLogger log = new UserFriendlyLogger(I.INDEX_LOG_FILE_BASE_NAME().getLocalizedMessage());
-                    try {
-                        index = new DiscIndex(indexFileArg.value, cd, log);
-                    } catch (DiscIndex.IndexNotFoundException ex) {
-                        throw new CommandLineException(I.IO_OPENING_FILE_ERROR_NAME(ex.getFile().toString()), ex);
-                    } catch (DiscIndex.IndexReadException ex) {
-                        throw new CommandLineException(I.IO_READING_FROM_FILE_ERROR_NAME(ex.getFile().toString()), ex);
-                    } catch (LocalizedDeserializationFail ex) {
-                        throw new CommandLineException(I.ERR_LOADING_INDEX_FILE_REASON(ex.getSourceMessage()), ex);
-                    } catch (CdFileSectorReader.CdFileNotFoundException ex) {
-                        throw new CommandLineException(I.IO_OPENING_FILE_NOT_FOUND_NAME(ex.getFile().toString()), ex);
-                    } catch (CdFileSectorReader.CdReadException ex) {
-                        throw new CommandLineException(I.IO_READING_FROM_FILE_ERROR_NAME(ex.getFile().toString()), ex);
-                    } finally {
-                        log.close();
-                    }
+                    index = readIndex(indexFileArg.value, cd);
                     _fbs.println(I.CMD_USING_SRC_FILE(index.getSourceCd().getSourceFile()));
                     _fbs.println(I.CMD_ITEMS_LOADED(index.size()));
                 } else {
-                    index = CommandLine.buildIndex(cd, _fbs);
+                    games = getGames();
+                    index = CommandLine.buildIndex(cd, games,
+                                                   logFile(I.INDEX_LOG_FILE_BASE_NAME().getLocalizedMessage()), _fbs);
                     CommandLine.saveIndex(index, indexFileArg.value, _fbs);
                 }
-            } else {
+                if (entry != null)
+                    entry.setIndex(index, games, indexFileArg.value);
+            } else if (entry != null && entry.cd != null) {
+                // share the disc already opened by an earlier job
+                _fbs.println(I.CMD_REUSING_OPEN_DISC(entry.cd.getSourceFile()));
                 _fbs.println(I.CMD_READING_INDEX_FILE(indexFileArg.value));
-                UserFriendlyLogger log = new UserFriendlyLogger(I.INDEX_LOG_FILE_BASE_NAME().getLocalizedMessage());
-                try {
-                    index = new DiscIndex(indexFileArg.value, log);
-                } catch (DiscIndex.IndexNotFoundException ex) {
-                    throw new CommandLineException(I.IO_OPENING_FILE_ERROR_NAME(ex.getFile().toString()), ex);
-                } catch (DiscIndex.IndexReadException ex) {
-                    throw new CommandLineException(I.IO_READING_FROM_FILE_ERROR_NAME(ex.getFile().toString()), ex);
-                } catch (LocalizedDeserializationFail ex) {
-                    throw new CommandLineException(I.ERR_LOADING_INDEX_FILE_REASON(ex.getSourceMessage()), ex);
-                } catch (CdFileSectorReader.CdFileNotFoundException ex) {
-                    throw new CommandLineException(I.IO_OPENING_FILE_NOT_FOUND_NAME(ex.getFile().toString()), ex);
-                } catch (CdFileSectorReader.CdReadException ex) {
-                    throw new CommandLineException(I.IO_READING_FROM_FILE_ERROR_NAME(ex.getFile().toString()), ex);
-                } finally {
-                    log.close();
-                }
-                _fbs.println(I.CMD_USING_SRC_FILE(index.getSourceCd().getSourceFile()));
+                index = readIndex(indexFileArg.value, entry.cd);
                 _fbs.println(I.CMD_ITEMS_LOADED(index.size()));
+                entry.setIndex(index, null, indexFileArg.value);
+            } else {
+                index = readIndexAndDisc(indexFileArg.value);
+                if (entry != null) {
+                    entry.cd = index.getSourceCd();
+                    entry.setIndex(index, null, indexFileArg.value);
+                }
             }
         } else {
             if (inputFileArg.value != null) {
-                CdFileSectorReader cd = CommandLine.loadDisc(inputFileArg.value, _fbs);
-                index = CommandLine.buildIndex(cd, _fbs);
+                if (_session != null) {
+                    DiscCache.Entry entry = _session.lockDisc(inputFileArg.value, overlayFileArg.value);
+                    Set<VideoSectorIdentifier.Game> games = getGames();
+                    // an index built for other games would have different items
+                    DiscIndex cached = entry.getIndexForGames(games);
+                    if (cached != null) {
+                        _fbs.println(I.CMD_REUSING_LOADED_INDEX(cached.getSourceCd().getSourceFile()));
+                        _fbs.println(I.CMD_ITEMS_LOADED(cached.size()));
+                        return cached;
+                    }
+                    index = CommandLine.buildIndex(openDisc(inputFileArg.value), games,
+                                                   logFile(I.INDEX_LOG_FILE_BASE_NAME().getLocalizedMessage()), _fbs);
+                    entry.setIndex(index, games, null);
+                } else {
+                    CdFileSectorReader cd = CommandLine.loadDisc(inputFileArg.value, _fbs);
+                    configureDisc(cd);
+                    index = CommandLine.buildIndex(cd, getGames(), null, _fbs);
+                }
             } else {
                 throw new CommandLineException(I.CMD_NEED_INPUT_OR_INDEX());
             }
@@ -186,6 +222,114 @@ public abstract class Command {
         return index;
     }
 
+    /** Opens the disc, or reuses the one in the job server's cache. */
+    private @Nonnull CdFileSectorReader openDisc(@Nonnull String sDiscFile)
+            throws CommandLineException
+    {
+        DiscCache.Entry entry = null;
+        if (_session != null) {
+            entry = _session.lockDisc(sDiscFile, overlayFileArg.value);
+            if (entry.cd != null) {
+                _fbs.println(I.CMD_REUSING_OPEN_DISC(entry.cd.getSourceFile()));
+                return entry.cd;
+            }
+        }
+        CdFileSectorReader cd = CommandLine.loadDisc(sDiscFile, _fbs);
+        configureDisc(cd);
+        if (entry != null)
+            entry.cd = cd;
+        return cd;
+    }
+
+    /** Locks the cache entry of the disc the index file was created from,
+     * so the index and the disc share one reader. */
+    private @Nonnull DiscCache.Entry lockIndexedDisc(@Nonnull DiscCache.Session session,
+                                                     @Nonnull String sIndexFile)
+            throws CommandLineException
+    {
+        File discFile;
+        try {
+            discFile = DiscIndex.readSourceFile(sIndexFile);
+        } catch (DiscIndex.IndexNotFoundException ex) {
+            throw new CommandLineException(I.IO_OPENING_FILE_ERROR_NAME(ex.getFile().toString()), ex);
+        } catch (DiscIndex.IndexReadException ex) {
+            throw new CommandLineException(I.IO_READING_FROM_FILE_ERROR_NAME(ex.getFile().toString()), ex);
+        } catch (LocalizedDeserializationFail ex) {
+            throw new CommandLineException(I.ERR_LOADING_INDEX_FILE_REASON(ex.getSourceMessage()), ex);
+        }
+        return session.lockDisc(discFile.getPath(), overlayFileArg.value);
+    }
+
+    /** Reads the index file and opens the disc named in it. */
+    private @Nonnull DiscIndex readIndexAndDisc(@Nonnull String sIndexFile)
+            throws CommandLineException
+    {
+        _fbs.println(I.CMD_READING_INDEX_FILE(sIndexFile));
+        DiscIndex index = readIndex(sIndexFile, null);
+        _fbs.println(I.CMD_USING_SRC_FILE(index.getSourceCd().getSourceFile()));
+        _fbs.println(I.CMD_ITEMS_LOADED(index.size()));
+        configureDisc(index.getSourceCd());
+        return index;
+    }
+
+    /** @param cd If null, the disc named in the index file is opened. */
+    private @Nonnull DiscIndex readIndex(@Nonnull String sIndexFile,
+                                         @CheckForNull CdFileSectorReader cd)
+            throws CommandLineException
+    {
+        UserFriendlyLogger log = new UserFriendlyLogger(I.INDEX_LOG_FILE_BASE_NAME().getLocalizedMessage(),
+                                                        logFile(I.INDEX_LOG_FILE_BASE_NAME().getLocalizedMessage()));
+        try {
+            if (cd == null)
+                return new DiscIndex(sIndexFile, log);
+            else
+                return new DiscIndex(sIndexFile, cd, log);
+        } catch (DiscIndex.IndexNotFoundException ex) {
+            throw new CommandLineException(I.IO_OPENING_FILE_ERROR_NAME(ex.getFile().toString()), ex);
+        } catch (DiscIndex.IndexReadException ex) {
+            throw new CommandLineException(I.IO_READING_FROM_FILE_ERROR_NAME(ex.getFile().toString()), ex);
+        } catch (LocalizedDeserializationFail ex) {
+            throw new CommandLineException(I.ERR_LOADING_INDEX_FILE_REASON(ex.getSourceMessage()), ex);
+        } catch (CdFileSectorReader.CdFileNotFoundException ex) {
+            throw new CommandLineException(I.IO_OPENING_FILE_NOT_FOUND_NAME(ex.getFile().toString()), ex);
+        } catch (CdFileSectorReader.CdReadException ex) {
+            throw new CommandLineException(I.IO_READING_FROM_FILE_ERROR_NAME(ex.getFile().toString()), ex);
+        } finally {
+            log.close();
+        }
+    }
+
+    /** Log file with the given base name that is unique to the job when
+     * running in the {@link JobServer}, otherwise null for the default. */
+    protected @CheckForNull File logFile(@Nonnull String sBaseName) {
+        return CommandLine.logFile(sBaseName, _session);
+    }
+
+    /** Closes a disc the command is finished with, unless it belongs
+     * to the job server's cache. */
+    protected void closeCdReader(@Nonnull CdFileSectorReader cd) {
+        if (_session == null || !_session.isCached(cd))
+            IO.closeSilently(cd, LOG);
+    }
+
+    /** Attaches a sector overlay and sets the read-ahead if requested. */
+    private void configureDisc(@Nonnull CdFileSectorReader cd) throws CommandLineException {
+        if (overlayFileArg.value != null && cd.getOverlay() == null)
+            CommandLine.openOverlay(cd, overlayFileArg.value, _fbs);
+        if (readAheadArg.value != null)
+            CommandLine.setReadAhead(cd, readAheadArg.value);
+    }
+
+    /** If a sector overlay was given with -overlay. */
+    protected boolean hasOverlayArg() {
+        return overlayFileArg.value != null;
+    }
+
+    /** Games whose video sectors should be identified when indexing. */
+    protected @Nonnull Set<VideoSectorIdentifier.Game> getGames() throws CommandLineException {
+        return CommandLine.parseGames(gamesArg.value);
+    }
+
     protected @Nonnull File getInFile() throws CommandLineException {
         if (inputFileArg.value == null)
             throw new CommandLineException(I.CMD_INPUT_FILE_REQUIRED());
@@ -37,24 +37,33 @@
 
 package jpsxdec.cmdline;
 
+import argparser.BooleanHolder;
 import argparser.StringHolder;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.PrintStream;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import jpsxdec.Version;
 import jpsxdec.cdreaders.CdFileSectorReader;
+import jpsxdec.cdreaders.SectorOverlay;
 import jpsxdec.i18n.FeedbackStream;
 import jpsxdec.i18n.I;
 import jpsxdec.i18n.ILocalizedMessage;
 import jpsxdec.i18n.MiscResources;
+import jpsxdec.i18n.exception.LocalizedDeserializationFail;
 import jpsxdec.i18n.log.ConsoleProgressLogger;
 import jpsxdec.indexing.DiscIndex;
+import jpsxdec.modules.video.save.VDP;
+import jpsxdec.modules.video.sectorbased.VideoSectorIdentifier;
 import jpsxdec.util.ArgParser;
 import jpsxdec.util.IO;
+import jpsxdec.util.RunStats;
 import jpsxdec.util.TaskCanceledException;
 
 
@@ -63,31 +72,78 @@ public class CommandLine {
     private static final Logger LOG = Logger.getLogger(CommandLine.class.getName());
 
     public static int main(@Nonnull ArgParser ap) {
+        return main(ap, isVideoToStdOut(ap) ? System.err : System.out, null);
+    }
+
+    /** If video is being written to standard output, feedback has to be
+     *  written somewhere else. */
+    private static boolean isVideoToStdOut(@Nonnull ArgParser ap) {
+        ArgParser peek = ap.copy();
+        StringHolder y4mOut = peek.addStringOption("-y4mout");
+        peek.match();
+        return VDP.Decoded2Y4m.STDOUT.equals(y4mOut.value);
+    }
 
-        FeedbackStream Feedback = new FeedbackStream(System.out, FeedbackStream.NORM);
+    /** @param out      Where all feedback is written.
+     *  @param session  If running as a job in {@link JobServer}, where
+     *                  open discs and indexes are kept between jobs,
+     *                  otherwise null. */
+    static int main(@Nonnull ArgParser ap, @Nonnull PrintStream out,
+                    @CheckForNull DiscCache.Session session)
+    {
+        FeedbackStream Feedback = new FeedbackStream(out, FeedbackStream.NORM);
 
         checkVerbosity(ap, Feedback);
 
         Feedback.println(I.JPSXDEC_VERSION_NON_COMMERCIAL(Version.Version));
 
+        if (session == null) {
+            StringHolder serverArg = ap.addStringOption("-server");
+            ap.match();
+            if (serverArg.value != null)
+                return JobServer.run(serverArg.value, Feedback);
+        }
+
         StringHolder inputFileArg = ap.addStringOption("-f","-file");
         StringHolder indexFileArg = ap.addStringOption("-x","-index");
+        StringHolder overlayFileArg = ap.addStringOption("-overlay");
+        StringHolder readAheadArg = ap.addStringOption("-readahead");
+        StringHolder gamesArg = ap.addStringOption("-games");
+        BooleanHolder statsArg = ap.addBoolOption("-stats");
 
         Command[] aoCommands = {
             new Command_CopySect(),
             new Command_SectorDump(),
             new Command_Static(),
             new Command_Visualize(),
+            new Command_BatchIndex(),
+            new Command_Materialize(),
+            new Command_Compress(),
             new Command_Items.Command_Item(),
             new Command_Items.Command_All(),
         };
 
         for (Command command : aoCommands) {
-            command.init(ap, inputFileArg, indexFileArg, Feedback);
+            command.init(ap, inputFileArg, indexFileArg, overlayFileArg, readAheadArg, gamesArg, session, Feedback);
         }
 
         ap.match();
 
+        // standard output belongs to the server, not the job
+        if (session != null && isVideoToStdOut(ap)) {
+            Feedback.printlnErr(I.CMD_Y4MOUT_STDOUT_IN_SERVER());
+            return 1;
+        }
+
+        if (statsArg.value) {
+            // the counters are shared by the whole process
+            if (session != null && !session.runAlone()) {
+                Feedback.printlnErr(I.CMD_STATS_OTHER_JOBS_RUNNING());
+                return 1;
+            }
+            RunStats.enable();
+        }
+
         Command mainCommand = null;
         for (Command command : aoCommands) {
             if(command.found()) {
@@ -106,7 +162,10 @@ public class CommandLine {
                     printMainHelp(Feedback);
                 } else {
                     if (inputFileArg.value != null && indexFileArg.value != null) {
-                        createAndSaveIndex(inputFileArg.value, indexFileArg.value, Feedback);
+                        createAndSaveIndex(inputFileArg.value, indexFileArg.value,
+                                           overlayFileArg.value, readAheadArg.value,
+                                           gamesArg.value,
+                                           session, Feedback);
                     } else {
                         Feedback.printlnErr(I.CMD_NEED_MAIN_COMMAND());
                         Feedback.printlnErr(I.CMD_TRY_HELP());
@@ -133,10 +192,34 @@ public class CommandLine {
             Feedback.printlnErr(I.CMD_ERR_EX_CLASS(ex, ex.getClass().getSimpleName()));
             LOG.log(Level.SEVERE, "Unhandled exception", ex);
             return 1;
+        } finally {
+            if (statsArg.value)
+                printStats(Feedback);
         }
         return 0;
     }
 
+    // -------------------------------------------------------------
+
+    private static void printStats(@Nonnull FeedbackStream fbs) {
+        RunStats stats = RunStats.get();
+        fbs.println();
+        fbs.println(I.CMD_STATS_HEADER(stats.getElapsedMillis() / 1000.0));
+        fbs.println(I.CMD_STATS_SECTORS_READ(stats.getSectorsRead(),
+                                             stats.getSectorsReadPerSecond(),
+                                             stats.getDiscReadMillis() / 1000.0));
+        for (Map.Entry<String, Long> entry : stats.getSectorsIdentifiedMap().entrySet()) {
+            fbs.println(I.CMD_STATS_SECTOR_TYPE(entry.getKey(), entry.getValue()));
+        }
+        fbs.println(I.CMD_STATS_FRAMES(stats.getFramesDemuxed(),
+                                       stats.getFramesDecoded(),
+                                       stats.getDecodeMillis() / 1000.0,
+                                       stats.getFramesWritten(),
+                                       stats.getFramesWrittenPerSecond()));
+        fbs.println(I.CMD_STATS_AUDIO(stats.getAudioSampleFramesDecoded()));
+        fbs.println(I.CMD_STATS_BYTES_WRITTEN(stats.getBytesWritten()));
+    }
+
     // -------------------------------------------------------------
     
     private static void checkVerbosity(@Nonnull ArgParser ap,
@@ -169,12 +252,39 @@ public class CommandLine {
 
     private static void createAndSaveIndex(@CheckForNull String sDiscFile,
                                            @Nonnull String sIndexFile,
+                                           @CheckForNull String sOverlayFile,
+                                           @CheckForNull String sReadAhead,
+                                           @CheckForNull String sGames,
+                                           @CheckForNull DiscCache.Session session,
                                            @Nonnull FeedbackStream Feedback)
             throws CommandLineException
     {
+        Set<VideoSectorIdentifier.Game> games = parseGames(sGames);
+        if (session != null) {
+            if (sDiscFile == null)
+                throw new CommandLineException(I.CMD_COMMAND_NEEDS_DISC());
+            // keep the disc and new index open for later jobs
+            DiscCache.Entry entry = session.lockDisc(sDiscFile, sOverlayFile);
+            if (entry.cd == null) {
+                entry.cd = loadDisc(sDiscFile, Feedback);
+                if (sOverlayFile != null)
+                    openOverlay(entry.cd, sOverlayFile, Feedback);
+                if (sReadAhead != null)
+                    setReadAhead(entry.cd, sReadAhead);
+            }
+            DiscIndex index = buildIndex(entry.cd, games,
+                    logFile(I.INDEX_LOG_FILE_BASE_NAME().getLocalizedMessage(), session), Feedback);
+            saveIndex(index, sIndexFile, Feedback);
+            entry.setIndex(index, games, sIndexFile);
+            return;
+        }
         CdFileSectorReader cd = loadDisc(sDiscFile, Feedback);
         try {
-            DiscIndex index = buildIndex(cd, Feedback);
+            if (sOverlayFile != null)
+                openOverlay(cd, sOverlayFile, Feedback);
+            if (sReadAhead != null)
+                setReadAhead(cd, sReadAhead);
+            DiscIndex index = buildIndex(cd, games, null, Feedback);
             saveIndex(index, sIndexFile, Feedback);
         } finally {
             IO.closeSilently(cd, LOG);
@@ -201,16 +311,91 @@ public class CommandLine {
         }
     }
 
+    /** Reads and writes the disc through a sector overlay so the
+     * disc image is never modified. */
+    static void openOverlay(@Nonnull CdFileSectorReader cd,
+                            @Nonnull String sOverlayFile,
+                            @Nonnull FeedbackStream Feedback)
+            throws CommandLineException
+    {
+        Feedback.println(I.CMD_OPENING_OVERLAY(sOverlayFile));
+        try {
+            cd.setOverlay(new SectorOverlay(new File(sOverlayFile), cd));
+        } catch (CdFileSectorReader.CdFileNotFoundException ex) {
+            throw new CommandLineException(I.IO_OPENING_FILE_NOT_FOUND_NAME(ex.getFile().toString()), ex);
+        } catch (CdFileSectorReader.CdReadException ex) {
+            throw new CommandLineException(I.IO_READING_FROM_FILE_ERROR_NAME(ex.getFile().toString()), ex);
+        } catch (CdFileSectorReader.CdWriteException ex) {
+            throw new CommandLineException(I.IO_WRITING_TO_FILE_ERROR_NAME(ex.getFile().toString()), ex);
+        } catch (LocalizedDeserializationFail ex) {
+            throw new CommandLineException(ex.getSourceMessage(), ex);
+        }
+    }
+
+    /** @param sSectors Number of sectors to read ahead in the background. */
+    static void setReadAhead(@Nonnull CdFileSectorReader cd, @Nonnull String sSectors)
+            throws CommandLineException
+    {
+        try {
+            int iSectors = Integer.parseInt(sSectors);
+            if (iSectors >= 0) {
+                cd.setReadAhead(iSectors);
+                return;
+            }
+        } catch (NumberFormatException ex) {
+            // fall through
+        }
+        throw new CommandLineException(I.CMD_INVALID_VALUE_FOR_CMD(sSectors, "-readahead"));
+    }
+
+    /** Parse a number range. e.g. 5-10
+     * @return Array of 2 elements, or null on error. */
+    static @CheckForNull int[] parseNumberRange(@Nonnull String s) {
+        int iStart, iEnd;
+        String[] split = s.split("-");
+        try {
+
+            if (split.length == 2) {
+                iStart = Integer.parseInt(split[0]);
+                iEnd = Integer.parseInt(split[1]);
+            } else {
+                iStart = iEnd = Integer.parseInt(s);
+            }
+
+            return new int[] {iStart, iEnd};
+
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    /** @param sGames Comma separated list of games whose video sectors
+     *                should be identified, or null for all games. */
+    static @Nonnull Set<VideoSectorIdentifier.Game> parseGames(@CheckForNull String sGames)
+            throws CommandLineException
+    {
+        if (sGames == null)
+            return VideoSectorIdentifier.ALL_GAMES;
+        Set<VideoSectorIdentifier.Game> games = VideoSectorIdentifier.Game.parseList(sGames);
+        if (games == null)
+            throw new CommandLineException(I.CMD_GAMES_INVALID(sGames,
+                    VideoSectorIdentifier.Game.getCmdLineList()));
+        return games;
+    }
+
+    /** @param logFile If null, the log uses the default name. */
     static DiscIndex buildIndex(@Nonnull CdFileSectorReader cd,
+                                @Nonnull Set<VideoSectorIdentifier.Game> games,
+                                @CheckForNull File logFile,
                                 @Nonnull FeedbackStream fbs)
     {
         fbs.println(I.CMD_BUILDING_INDEX());
         DiscIndex index = null;
         ConsoleProgressLogger cpl = new ConsoleProgressLogger(
-                I.INDEX_LOG_FILE_BASE_NAME().getLocalizedMessage(), fbs.getUnderlyingStream());
+                I.INDEX_LOG_FILE_BASE_NAME().getLocalizedMessage(), logFile, fbs.getUnderlyingStream());
         try {
             cpl.log(Level.INFO, I.CMD_GUI_INDEXING(cd.toString()));
-            index = new DiscIndex(cd, cpl);
+            index = new DiscIndex(cd, games, cpl);
         } catch (TaskCanceledException ex) {
             throw new RuntimeException("Impossible TaskCanceledException during commandline indexing", ex);
         } finally {
@@ -221,6 +406,17 @@ public class CommandLine {
         return index;
     }
 
+    /** Log file to use for a job in the {@link JobServer} so concurrent
+     * jobs don't write to the same log, or null to use the default name
+     * when not running as a job. */
+    static @CheckForNull File logFile(@Nonnull String sBaseName,
+                                      @CheckForNull DiscCache.Session session)
+    {
+        if (session == null)
+            return null;
+        return session.getLogFile(sBaseName);
+    }
+
     static void saveIndex(@Nonnull DiscIndex index, @Nonnull String sIndexFile,
                           @Nonnull FeedbackStream Feedback)
             throws CommandLineException
@@ -0,0 +1,458 @@
+/*
+ * jPSXdec: PlayStation 1 Media Decoder/Converter in Java
+ * Copyright (C) 2019  Michael Sabin
+ * All rights reserved.
+ *
+ * Redistribution and use of the jPSXdec code or any derivative works are
+ * permitted provided that the following conditions are met:
+ *
+ *  * Redistributions may not be sold, nor may they be used in commercial
+ *    or revenue-generating business activities.
+ *
+ *  * Redistributions that are modified from the original source must
+ *    include the complete source code, including the source code for all
+ *    components used by a binary built from the modified sources. However, as
+ *    a special exception, the source code distributed need not include
+ *    anything that is normally distributed (in either source or binary form)
+ *    with the major components (compiler, kernel, and so on) of the operating
+ *    system on which the executable runs, unless that component itself
+ *    accompanies the executable.
+ *
+ *  * Redistributions must reproduce the above copyright notice, this list
+ *    of conditions and the following disclaimer in the documentation and/or
+ *    other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package jpsxdec.cmdline;
+
+import argparser.StringHolder;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import jpsxdec.cdreaders.CdFileSectorReader;
+import jpsxdec.discitems.DiscItem;
+import jpsxdec.i18n.FeedbackStream;
+import jpsxdec.i18n.I;
+import jpsxdec.i18n.ILocalizedMessage;
+import jpsxdec.i18n.log.ProgressLogger;
+import jpsxdec.i18n.log.UserFriendlyLogger;
+import jpsxdec.indexing.DiscIndex;
+import jpsxdec.modules.video.sectorbased.VideoSectorIdentifier;
+import jpsxdec.util.ArgParser;
+import jpsxdec.util.IO;
+import jpsxdec.util.Misc;
+import jpsxdec.util.TaskCanceledException;
+
+/** Indexes many discs at once, each in its own thread with its own
+ * {@link CdFileSectorReader}. The index and log of each disc are saved
+ * next to the disc, and a summary of every disc can be saved as CSV or JSON. */
+class Command_BatchIndex extends Command {
+
+    private static final Logger LOG = Logger.getLogger(Command_BatchIndex.class.getName());
+
+    /** Extensions of files that are indexed when given a directory. */
+    private static final List<String> DISC_EXTENSIONS = Arrays.asList("bin", "img", "iso", "mdf", "ecm", "jcdz");
+
+    @Nonnull
+    private File _source;
+
+    public Command_BatchIndex() {
+        super("-batchindex");
+    }
+
+    protected @CheckForNull ILocalizedMessage validate(@Nonnull String s) {
+        _source = new File(s);
+        if (!_source.exists())
+            return I.CMD_INPUT_FILE_NOT_FOUND(_source);
+        return null;
+    }
+
+    public void execute(@Nonnull ArgParser ap) throws CommandLineException {
+        StringHolder threads = ap.addStringOption("-threads");
+        StringHolder summary = ap.addStringOption("-summary");
+        ap.match();
+
+        int iThreads = Runtime.getRuntime().availableProcessors();
+        if (threads.value != null) {
+            try {
+                iThreads = Integer.parseInt(threads.value);
+            } catch (NumberFormatException ex) {
+                iThreads = 0;
+            }
+            if (iThreads < 1)
+                throw new CommandLineException(I.CMD_INVALID_VALUE_FOR_CMD(threads.value, "-threads"));
+        }
+
+        File summaryFile = null;
+        boolean blnJson = false;
+        if (summary.value != null) {
+            summaryFile = new File(summary.value);
+            String sExt = Misc.getExt(summary.value);
+            if (sExt.equalsIgnoreCase("json"))
+                blnJson = true;
+            else if (!sExt.equalsIgnoreCase("csv"))
+                throw new CommandLineException(I.CMD_INVALID_VALUE_FOR_CMD(summary.value, "-summary"));
+        }
+
+        final Set<VideoSectorIdentifier.Game> games = getGames();
+
+        List<File> discs = findDiscs(_source);
+        if (discs.isEmpty()) {
+            _fbs.printlnWarn(I.CMD_BATCH_INDEX_NO_DISCS(_source));
+            return;
+        }
+        iThreads = Math.min(iThreads, discs.size());
+        _fbs.println(I.CMD_BATCH_INDEX_START(discs.size(), iThreads));
+
+        long lngStart = System.currentTimeMillis();
+        DiscResult[] aoResults = new DiscResult[discs.size()];
+        ExecutorService executor = Executors.newFixedThreadPool(iThreads);
+        try {
+            CompletionService<DiscResult> completion = new ExecutorCompletionService<DiscResult>(executor);
+            for (int i = 0; i < discs.size(); i++) {
+                final File disc = discs.get(i);
+                final int iPosition = i;
+                completion.submit(new Callable<DiscResult>() {
+                    public DiscResult call() {
+                        return indexDisc(disc, iPosition, games);
+                    }
+                });
+            }
+            for (int iDone = 1; iDone <= aoResults.length; iDone++) {
+                DiscResult result = take(completion);
+                aoResults[result.iPosition] = result;
+                if (result.failure == null)
+                    _fbs.println(I.CMD_BATCH_INDEX_DISC_DONE(iDone, aoResults.length, result.disc,
+                                                             result.iItemCount, result.dblSeconds));
+                else
+                    _fbs.printlnErr(I.CMD_BATCH_INDEX_DISC_FAIL(iDone, aoResults.length, result.disc,
+                                                                result.failure));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        double dblSeconds = (System.currentTimeMillis() - lngStart) / 1000.0;
+
+        int iFailed = 0;
+        long lngSectors = 0;
+        for (DiscResult result : aoResults) {
+            if (result.failure == null)
+                lngSectors += result.iSectorCount;
+            else
+                iFailed++;
+        }
+        _fbs.println(I.CMD_BATCH_INDEX_DONE(aoResults.length, iFailed, lngSectors, dblSeconds,
+                                            dblSeconds > 0 ? lngSectors / dblSeconds : 0));
+
+        if (summaryFile != null) {
+            _fbs.println(I.CMD_BATCH_INDEX_SUMMARY(summaryFile));
+            PrintStream ps;
+            try {
+                ps = new PrintStream(summaryFile, "UTF-8");
+            } catch (FileNotFoundException ex) {
+                throw new CommandLineException(I.IO_OPENING_FILE_NOT_FOUND_NAME(summaryFile.toString()), ex);
+            } catch (UnsupportedEncodingException ex) {
+                throw new RuntimeException("Every implementation of the Java platform is required to support UTF-8", ex);
+            }
+            try {
+                if (blnJson)
+                    writeJson(aoResults, dblSeconds, ps);
+                else
+                    writeCsv(aoResults, ps);
+                if (ps.checkError())
+                    throw new CommandLineException(I.IO_WRITING_TO_FILE_ERROR_NAME(summaryFile.toString()));
+            } finally {
+                ps.close();
+            }
+        }
+    }
+
+    private static @Nonnull DiscResult take(@Nonnull CompletionService<DiscResult> completion) {
+        try {
+            return completion.take().get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(ex);
+        } catch (ExecutionException ex) {
+            // indexDisc() catches everything
+            throw new RuntimeException(ex.getCause());
+        }
+    }
+
+    /** If the source is a directory, finds all disc images under it,
+     * otherwise reads the source as a list of disc images, one per line.
+     * Relative paths in the list are relative to the list file. */
+    static @Nonnull List<File> findDiscs(@Nonnull File source) throws CommandLineException {
+        ArrayList<File> discs = new ArrayList<File>();
+        if (source.isDirectory()) {
+            findDiscs(source, discs);
+            return discs;
+        }
+
+        BufferedReader reader;
+        try {
+            reader = new BufferedReader(new InputStreamReader(new FileInputStream(source), "UTF-8"));
+        } catch (FileNotFoundException ex) {
+            throw new CommandLineException(I.IO_OPENING_FILE_NOT_FOUND_NAME(source.toString()), ex);
+        } catch (UnsupportedEncodingException ex) {
+            throw new RuntimeException("Every implementation of the Java platform is required to support UTF-8", ex);
+        }
+        try {
+            String sLine;
+            while ((sLine = reader.readLine()) != null) {
+                sLine = sLine.trim();
+                if (sLine.length() == 0 || sLine.startsWith("#"))
+                    continue;
+                File disc = new File(sLine);
+                if (!disc.isAbsolute())
+                    disc = new File(source.getAbsoluteFile().getParentFile(), sLine);
+                discs.add(disc);
+            }
+        } catch (IOException ex) {
+            throw new CommandLineException(I.IO_READING_FROM_FILE_ERROR_NAME(source.toString()), ex);
+        } finally {
+            IO.closeSilently(reader, LOG);
+        }
+        return discs;
+    }
+
+    private static void findDiscs(@Nonnull File dir, @Nonnull List<File> discs) {
+        File[] aoFiles = dir.listFiles();
+        if (aoFiles == null)
+            return;
+        Arrays.sort(aoFiles);
+        for (File file : aoFiles) {
+            if (file.isDirectory())
+                findDiscs(file, discs);
+            else if (DISC_EXTENSIONS.contains(Misc.getExt(file.getName()).toLowerCase(Locale.ENGLISH)))
+                discs.add(file);
+        }
+    }
+
+    /** The index of a disc is saved next to it, named after the whole
+     * disc file name so discs that only differ by extension don't collide
+     * (e.g. {@code game.bin.idx}). */
+    static @Nonnull File indexFileFor(@Nonnull File disc) {
+        return new File(disc.getPath() + ".idx");
+    }
+
+    /** The indexing log of a disc, e.g. {@code game.bin.index.log}. */
+    static @Nonnull File logFileFor(@Nonnull File disc) {
+        return new File(disc.getPath() + "." + I.INDEX_LOG_FILE_BASE_NAME().getLocalizedMessage() + ".log");
+    }
+
+    /** Indexes one disc, saving the index as {@link #indexFileFor(File)}
+     * and the log as {@link #logFileFor(File)}.
+     * Never throws, failures are saved in the result. */
+    private @Nonnull DiscResult indexDisc(@Nonnull File disc, int iPosition,
+                                          @Nonnull Set<VideoSectorIdentifier.Game> games)
+    {
+        DiscResult result = new DiscResult(disc, iPosition);
+        long lngStart = System.currentTimeMillis();
+        File indexFile = indexFileFor(disc);
+        // only show errors from opening the disc, the rest is in the summary
+        FeedbackStream quiet = new FeedbackStream(_fbs.getUnderlyingStream(), FeedbackStream.NONE);
+        CdFileSectorReader cd = null;
+        BatchLogger log = new BatchLogger(logFileFor(disc));
+        try {
+            cd = CommandLine.loadDisc(disc.getPath(), quiet);
+            result.iSectorSize = cd.getRawSectorSize();
+            result.iSectorCount = cd.getSectorCount();
+            DiscIndex index;
+            try {
+                index = new DiscIndex(cd, games, log);
+            } catch (TaskCanceledException ex) {
+                throw new RuntimeException("Impossible TaskCanceledException during batch indexing", ex);
+            }
+            result.iItemCount = index.size();
+            for (DiscItem item : index)
+                result.aiTypeCounts[item.getType().ordinal()]++;
+            if (index.size() > 0)
+                index.serializeIndex(indexFile);
+        } catch (CommandLineException ex) {
+            result.failure = ex.getSourceMessage();
+        } catch (FileNotFoundException ex) {
+            result.failure = I.IO_OPENING_FILE_NOT_FOUND_NAME(indexFile.getPath());
+        } catch (Throwable ex) {
+            LOG.log(Level.SEVERE, "Unhandled exception indexing " + disc, ex);
+            result.failure = I.CMD_ERR_EX_CLASS(ex, ex.getClass().getSimpleName());
+        } finally {
+            log.close();
+            if (cd != null)
+                IO.closeSilently(cd, LOG);
+        }
+        result.iWarnCount = log._iWarnCount;
+        result.iErrCount = log._iErrCount;
+        result.dblSeconds = (System.currentTimeMillis() - lngStart) / 1000.0;
+        return result;
+    }
+
+    /** Only writes the log file and counts the warnings and errors.
+     * Every disc shares the same Java logger name. */
+    private static class BatchLogger extends ProgressLogger implements UserFriendlyLogger.OnWarnErr {
+        private int _iWarnCount = 0;
+        private int _iErrCount = 0;
+
+        public BatchLogger(@Nonnull File logFile) {
+            super(I.INDEX_LOG_FILE_BASE_NAME().getLocalizedMessage(), logFile);
+            setListener(this);
+        }
+        public void onWarn(@Nonnull ILocalizedMessage msg) {
+            _iWarnCount++;
+        }
+        public void onErr(@Nonnull ILocalizedMessage msg) {
+            _iErrCount++;
+        }
+        protected void handleProgressStart() {}
+        protected void handleProgressUpdate(double dblPercentComplete) {}
+        protected void handleProgressEnd() {}
+        public boolean isSeekingEvent() {
+            return false;
+        }
+        public void event(@Nonnull ILocalizedMessage msg) {}
+    }
+
+    private static class DiscResult {
+        @Nonnull
+        public final File disc;
+        /** Position of the disc in the list of discs. */
+        public final int iPosition;
+        public int iSectorSize;
+        public int iSectorCount;
+        public int iItemCount;
+        /** Item count for each {@link DiscItem.GeneralType}. */
+        public final int[] aiTypeCounts = new int[DiscItem.GeneralType.values().length];
+        public int iWarnCount;
+        public int iErrCount;
+        public double dblSeconds;
+        /** Null if the disc was indexed. */
+        @CheckForNull
+        public ILocalizedMessage failure;
+
+        public DiscResult(@Nonnull File disc, int iPosition) {
+            this.disc = disc;
+            this.iPosition = iPosition;
+        }
+    }
+
+    // -------------------------------------------------------------------------
+
+    private static void writeCsv(@Nonnull DiscResult[] aoResults, @Nonnull PrintStream ps) {
+        StringBuilder sb = new StringBuilder("file,sector_size,sectors,items");
+        for (DiscItem.GeneralType type : DiscItem.GeneralType.values())
+            sb.append(',').append(type.name().toLowerCase(Locale.ENGLISH));
+        sb.append(",warnings,errors,seconds,failure");
+        ps.println(sb);
+        for (DiscResult result : aoResults) {
+            sb.setLength(0);
+            sb.append(csv(result.disc.getPath())).append(',')
+              .append(result.iSectorSize).append(',')
+              .append(result.iSectorCount).append(',')
+              .append(result.iItemCount);
+            for (int iCount : result.aiTypeCounts)
+                sb.append(',').append(iCount);
+            sb.append(',').append(result.iWarnCount)
+              .append(',').append(result.iErrCount)
+              .append(',').append(String.format(Locale.US, "%.3f", result.dblSeconds))
+              .append(',');
+            if (result.failure != null)
+                sb.append(csv(result.failure.getEnglishMessage()));
+            ps.println(sb);
+        }
+    }
+
+    private static @Nonnull String csv(@Nonnull String s) {
+        if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0)
+            return s;
+        return '"' + s.replace("\"", "\"\"") + '"';
+    }
+
+    private static void writeJson(@Nonnull DiscResult[] aoResults, double dblTotalSeconds,
+                                  @Nonnull PrintStream ps)
+    {
+        ps.println("{");
+        ps.println("  \"seconds\": " + String.format(Locale.US, "%.3f", dblTotalSeconds) + ",");
+        ps.println("  \"discs\": [");
+        for (int i = 0; i < aoResults.length; i++) {
+            DiscResult result = aoResults[i];
+            StringBuilder sb = new StringBuilder("    {");
+            sb.append("\"file\": ").append(json(result.disc.getPath()))
+              .append(", \"sectorSize\": ").append(result.iSectorSize)
+              .append(", \"sectors\": ").append(result.iSectorCount)
+              .append(", \"items\": ").append(result.iItemCount)
+              .append(", \"types\": {");
+            DiscItem.GeneralType[] aoTypes = DiscItem.GeneralType.values();
+            for (int iType = 0; iType < aoTypes.length; iType++) {
+                if (iType > 0)
+                    sb.append(", ");
+                sb.append(json(aoTypes[iType].name())).append(": ").append(result.aiTypeCounts[iType]);
+            }
+            sb.append("}, \"warnings\": ").append(result.iWarnCount)
+              .append(", \"errors\": ").append(result.iErrCount)
+              .append(", \"seconds\": ").append(String.format(Locale.US, "%.3f", result.dblSeconds))
+              .append(", \"failure\": ")
+              .append(result.failure == null ? "null" : json(result.failure.getEnglishMessage()))
+              .append('}');
+            if (i + 1 < aoResults.length)
+                sb.append(',');
+            ps.println(sb);
+        }
+        ps.println("  ]");
+        ps.println("}");
+    }
+
+    private static @Nonnull String json(@Nonnull String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 2);
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"':  sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20)
+                        sb.append(String.format("\\u%04x", (int)c));
+                    else
+                        sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+}
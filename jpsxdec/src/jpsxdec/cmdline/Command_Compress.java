@@ -0,0 +1,109 @@
+/*
+ * jPSXdec: PlayStation 1 Media Decoder/Converter in Java
+ * Copyright (C) 2019  Michael Sabin
+ * All rights reserved.
+ *
+ * Redistribution and use of the jPSXdec code or any derivative works are
+ * permitted provided that the following conditions are met:
+ *
+ *  * Redistributions may not be sold, nor may they be used in commercial
+ *    or revenue-generating business activities.
+ *
+ *  * Redistributions that are modified from the original source must
+ *    include the complete source code, including the source code for all
+ *    components used by a binary built from the modified sources. However, as
+ *    a special exception, the source code distributed need not include
+ *    anything that is normally distributed (in either source or binary form)
+ *    with the major components (compiler, kernel, and so on) of the operating
+ *    system on which the executable runs, unless that component itself
+ *    accompanies the executable.
+ *
+ *  * Redistributions must reproduce the above copyright notice, this list
+ *    of conditions and the following disclaimer in the documentation and/or
+ *    other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jpsxdec.cmdline;
+
+import java.io.File;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import jpsxdec.cdreaders.CdFileSectorReader;
+import jpsxdec.cdreaders.DeflateImageContainer;
+import jpsxdec.i18n.I;
+import jpsxdec.i18n.ILocalizedMessage;
+import jpsxdec.i18n.log.ConsoleProgressLogger;
+import jpsxdec.util.ArgParser;
+import jpsxdec.util.IO;
+import jpsxdec.util.TaskCanceledException;
+
+
+/** Command to convert a disc image into jPSXdec's compressed disc image
+ * format, which can be opened like any other disc image. */
+class Command_Compress extends Command {
+
+    private static final Logger LOG = Logger.getLogger(Command_Compress.class.getName());
+
+    @Nonnull
+    private String _sOutfile;
+
+    public Command_Compress() {
+        super("-compress");
+    }
+
+    protected @CheckForNull ILocalizedMessage validate(@Nonnull String s) {
+        // the disc image file is compressed directly, without the overlay
+        if (hasOverlayArg())
+            return I.CMD_COMPRESS_NO_OVERLAY();
+        _sOutfile = s;
+        return null;
+    }
+
+    public void execute(@Nonnull ArgParser ap) throws CommandLineException {
+        CdFileSectorReader cdReader = getCdReader();
+        File sourceFile = cdReader.getSourceFile();
+        // blocks are whole sectors so reading a sector usually only needs one block
+        int iBlockSize = DeflateImageContainer.SECTORS_PER_BLOCK * cdReader.getRawSectorSize();
+        // the source file may itself be compressed, so report the disc size
+        long lngDiscSize = cdReader.getSectorCount() * (long)cdReader.getRawSectorSize();
+        closeCdReader(cdReader);
+
+        File outFile = new File(_sOutfile);
+        // opening the output would truncate the disc image before it is read
+        if (IO.isSameFile(outFile, sourceFile))
+            throw new CommandLineException(I.CMD_OUTPUT_IS_INPUT(outFile));
+        _fbs.println(I.CMD_COMPRESSING_DISC(outFile));
+
+        ConsoleProgressLogger cpl = new ConsoleProgressLogger(
+                Command_Compress.class.getSimpleName(),
+                logFile(Command_Compress.class.getSimpleName()), _fbs.getUnderlyingStream());
+        try {
+            DeflateImageContainer.create(sourceFile, outFile, iBlockSize, cpl);
+        } catch (CdFileSectorReader.CdFileNotFoundException ex) {
+            throw new CommandLineException(I.IO_OPENING_FILE_NOT_FOUND_NAME(ex.getFile().toString()), ex);
+        } catch (CdFileSectorReader.CdReadException ex) {
+            throw new CommandLineException(I.IO_READING_FROM_FILE_ERROR_NAME(ex.getFile().toString()), ex);
+        } catch (CdFileSectorReader.CdWriteException ex) {
+            throw new CommandLineException(I.IO_WRITING_TO_FILE_ERROR_NAME(ex.getFile().toString()), ex);
+        } catch (TaskCanceledException ex) {
+            LOG.log(Level.SEVERE, "SHOULD NEVER HAPPEN", ex);
+        } finally {
+            cpl.close();
+        }
+        _fbs.println(I.CMD_COMPRESSED_DISC(lngDiscSize, outFile.length()));
+    }
+
+}
@@ -68,7 +68,7 @@ class Command_CopySect extends Command {
     private int[] _aiStartEndSectors;
 
     protected @CheckForNull ILocalizedMessage validate(@Nonnull String s) {
-        _aiStartEndSectors = parseNumberRange(s);
+        _aiStartEndSectors = CommandLine.parseNumberRange(s);
         if (_aiStartEndSectors == null) {
             return I.CMD_INVALID_VALUE_FOR_CMD(s, "-copysect");
         } else {
@@ -125,28 +125,6 @@ class Command_CopySect extends Command {
         }
     }
 
-    /** Parse a number range. e.g. 5-10
-     * @return Array of 2 elements, or null on error. */
-    private static @CheckForNull int[] parseNumberRange(@Nonnull String s) {
-        int iStart, iEnd;
-        String[] split = s.split("-");
-        try {
-
-            if (split.length == 2) {
-                iStart = Integer.parseInt(split[0]);
-                iEnd = Integer.parseInt(split[1]);
-            } else {
-                iStart = iEnd = Integer.parseInt(s);
-            }
-
-            return new int[] {iStart, iEnd};
-
-        } catch (NumberFormatException ex) {
-            return null;
-        }
-    }
-
-
 
 
 }
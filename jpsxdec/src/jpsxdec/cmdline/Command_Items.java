@@ -41,10 +41,15 @@ import argparser.BooleanHolder;
 import argparser.StringHolder;
 import java.io.File;
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
+import jpsxdec.cdreaders.CdFileSectorReader;
+import jpsxdec.cdreaders.SectorOverlay;
 import jpsxdec.discitems.DiscItem;
 import jpsxdec.discitems.DiscItem.GeneralType;
 import jpsxdec.discitems.DiscItemSaverBuilder;
@@ -56,6 +61,7 @@ import jpsxdec.i18n.exception.ILocalizedException;
 import jpsxdec.i18n.exception.LoggedFailure;
 import jpsxdec.i18n.log.ConsoleProgressLogger;
 import jpsxdec.indexing.DiscIndex;
+import jpsxdec.modules.SharedClaimSaver;
 import jpsxdec.modules.sharedaudio.DiscItemAudioStream;
 import jpsxdec.modules.tim.DiscItemTim;
 import jpsxdec.modules.video.DiscItemVideoStream;
@@ -107,11 +113,13 @@ class Command_Items {
             }
 
             ConsoleProgressLogger saveLog = new ConsoleProgressLogger(
-                    I.SAVE_LOG_FILE_BASE_NAME().getLocalizedMessage(), _fbs.getUnderlyingStream());
+                    I.SAVE_LOG_FILE_BASE_NAME().getLocalizedMessage(),
+                    logFile(I.SAVE_LOG_FILE_BASE_NAME().getLocalizedMessage()), _fbs.getUnderlyingStream());
             ConsoleProgressLogger replaceLog = new ConsoleProgressLogger(
-                    I.REPLACE_LOG_FILE_BASE_NAME().getLocalizedMessage(), _fbs.getUnderlyingStream());
+                    I.REPLACE_LOG_FILE_BASE_NAME().getLocalizedMessage(),
+                    logFile(I.REPLACE_LOG_FILE_BASE_NAME().getLocalizedMessage()), _fbs.getUnderlyingStream());
             try {
-                handleItem(item, ap, _fbs, saveLog, replaceLog);
+                handleItem(item, discIndex, ap, _fbs, saveLog, replaceLog);
             } finally {
                 saveLog.close();
                 replaceLog.close();
@@ -134,19 +142,44 @@ class Command_Items {
         public void execute(@Nonnull ArgParser ap) throws CommandLineException {
             DiscIndex discIndex = getIndex();
 
-            boolean blnFound = false;
+            BooleanHolder singlePass = ap.addBoolOption("-singlepass");
+            ap.match();
+
+            ArrayList<DiscItem> items = new ArrayList<DiscItem>();
+            for (DiscItem item : discIndex) {
+                if (item.getType().getName().equalsIgnoreCase(_sType)) {
+                    if(item instanceof DiscItemAudioStream
+                            && ((DiscItemAudioStream)item).isPartOfVideo()) { continue;}
+                    items.add(item);
+                }
+            }
+            boolean blnFound = !items.isEmpty();
+
+            // every item would write to the same file
+            if (items.size() > 1) {
+                ArgParser peek = ap.copy();
+                StringHolder y4mOut = peek.addStringOption("-y4mout");
+                StringHolder pcmOut = peek.addStringOption("-pcmout");
+                peek.match();
+                if (y4mOut.value != null)
+                    throw new CommandLineException(I.CMD_VIDEO_OUTPUT_FILE_ONE_ITEM("-y4mout"));
+                if (pcmOut.value != null)
+                    throw new CommandLineException(I.CMD_VIDEO_OUTPUT_FILE_ONE_ITEM("-pcmout"));
+            }
+
             ConsoleProgressLogger saveLog = new ConsoleProgressLogger(
-                    I.SAVE_LOG_FILE_BASE_NAME().getLocalizedMessage(), _fbs.getUnderlyingStream());
+                    I.SAVE_LOG_FILE_BASE_NAME().getLocalizedMessage(),
+                    logFile(I.SAVE_LOG_FILE_BASE_NAME().getLocalizedMessage()), _fbs.getUnderlyingStream());
             ConsoleProgressLogger replaceLog = new ConsoleProgressLogger(
-                    I.REPLACE_LOG_FILE_BASE_NAME().getLocalizedMessage(), _fbs.getUnderlyingStream());
+                    I.REPLACE_LOG_FILE_BASE_NAME().getLocalizedMessage(),
+                    logFile(I.REPLACE_LOG_FILE_BASE_NAME().getLocalizedMessage()), _fbs.getUnderlyingStream());
 
             try {
-                for (DiscItem item : discIndex) {
-                    if (item.getType().getName().equalsIgnoreCase(_sType)) {
-                        if(item instanceof DiscItemAudioStream
-                                && ((DiscItemAudioStream)item).isPartOfVideo()) { continue;}
-                        blnFound = true;
-                        handleItem(item, ap.copy(), _fbs, saveLog, replaceLog);
+                if (singlePass.value && blnFound) {
+                    decodeInSinglePass(discIndex.getSourceCd(), items, ap, _fbs, saveLog);
+                } else {
+                    for (DiscItem item : items) {
+                        handleItem(item, discIndex, ap.copy(), _fbs, saveLog, replaceLog);
                         _fbs.println(I.CMD_ITEM_COMPLETE());
                         _fbs.println();
                     }
@@ -165,6 +198,7 @@ class Command_Items {
     }
 
     private static void handleItem(@Nonnull DiscItem item,
+                                   @Nonnull DiscIndex index,
                                    @Nonnull ArgParser ap,
                                    @Nonnull FeedbackStream fbs,
                                    @Nonnull ConsoleProgressLogger saveLog,
@@ -214,8 +248,7 @@ class Command_Items {
                 } else {
                     item.getSourceCd().beginPatching();
                     ((DiscItemVideoStream)item).replaceFrames(replaceLog, replaceFrames.value);
-                    fbs.printlnWarn(I.CMD_BACKUP_DISC_IMAGE_WARNING());
-                    fbs.printlnWarn(I.CMD_REOPENING_DISC_WRITE_ACCESS());
+                    warnBeforePatching(item, index, fbs);
                     item.getSourceCd().applyPatches(replaceLog);
                 }
             } else if (replaceTim.value != null) {
@@ -225,8 +258,7 @@ class Command_Items {
                     DiscItemTim timItem = (DiscItemTim)item;
                     timItem.getSourceCd().beginPatching();
                     timItem.replace(fbs, new File(replaceTim.value));
-                    fbs.printlnWarn(I.CMD_BACKUP_DISC_IMAGE_WARNING());
-                    fbs.printlnWarn(I.CMD_REOPENING_DISC_WRITE_ACCESS());
+                    warnBeforePatching(item, index, fbs);
                     timItem.getSourceCd().applyPatches(replaceLog);
                 }
             } else if (replaceXa.value != null) {
@@ -251,8 +283,7 @@ class Command_Items {
                     } else {
                         xaItem.replaceXa(replaceLog, new File(replaceXa.value));
                     }
-                    fbs.printlnWarn(I.CMD_BACKUP_DISC_IMAGE_WARNING());
-                    fbs.printlnWarn(I.CMD_REOPENING_DISC_WRITE_ACCESS());
+                    warnBeforePatching(item, index, fbs);
                     xaItem.getSourceCd().applyPatches(replaceLog);
                 }
             } else {
@@ -275,6 +306,102 @@ class Command_Items {
         }
     }
 
+    /** Saves all the items, attaching those that can share a
+     * {@link SharedClaimSaver} pass so overlapping sectors are only read once. */
+    private static void decodeInSinglePass(@Nonnull CdFileSectorReader cd,
+                                           @Nonnull List<DiscItem> items,
+                                           @Nonnull ArgParser ap,
+                                           @Nonnull FeedbackStream fbs,
+                                           @Nonnull ConsoleProgressLogger cpl)
+            throws CommandLineException
+    {
+        try {
+            SharedClaimSaver shared = new SharedClaimSaver(cd);
+            ArrayList<DiscItemSaverBuilder> sharedBuilders = new ArrayList<DiscItemSaverBuilder>();
+            for (DiscItem item : items) {
+                ArgParser itemAp = ap.copy();
+                StringHolder directory = itemAp.addStringOption("-dir");
+                itemAp.match();
+                File dir = directory.value == null ? null : new File(directory.value);
+
+                DiscItemSaverBuilder builder = item.makeSaverBuilder();
+                fbs.println(I.CMD_SAVING(item.toString()));
+                builder.commandLineOptions(itemAp, fbs);
+                fbs.println();
+                builder.printSelectedOptions(fbs.makeLogger());
+
+                cpl.log(Level.INFO, new UnlocalizedMessage(item.toString()));
+                SharedClaimSaver.Participant participant = builder.prepareSharedSave(cpl, dir);
+                if (participant == null) {
+                    // can't share, so save it now
+                    builder.startSave(cpl, dir);
+                    fbs.println(I.CMD_NUM_FILES_CREATED(builder.getGeneratedFiles().size()));
+                    fbs.println(I.CMD_ITEM_COMPLETE());
+                } else {
+                    shared.add(participant);
+                    sharedBuilders.add(builder);
+                }
+                fbs.println();
+            }
+
+            if (!sharedBuilders.isEmpty()) {
+                fbs.println(I.CMD_SINGLE_PASS_SAVING(sharedBuilders.size(), shared.getPassCount()));
+                long lngStart, lngEnd;
+                lngStart = System.currentTimeMillis();
+                cpl.log(Level.INFO, new UnlocalizedMessage(cd.toString()));
+                shared.save(cpl);
+                int iFileCount = 0;
+                for (DiscItemSaverBuilder builder : sharedBuilders) {
+                    iFileCount += builder.getGeneratedFiles().size();
+                }
+                fbs.println(I.CMD_NUM_FILES_CREATED(iFileCount));
+                lngEnd = System.currentTimeMillis();
+                fbs.println(I.PROCESS_TIME((lngEnd - lngStart) / 1000.0));
+            }
+            fbs.println(I.CMD_PROCESS_COMPLETE());
+        } catch (TaskCanceledException ex) {
+            LOG.log(Level.SEVERE, "SHOULD NEVER HAPPEN", ex);
+        } catch (Throwable ex) {
+            if (ex instanceof ILocalizedException)
+                throw new CommandLineException(((ILocalizedException)ex).getSourceMessage());
+            ILocalizedMessage msg = I.CMD_ERR_EX_CLASS(ex, ex.getClass().getSimpleName());
+            cpl.log(Level.SEVERE, msg, ex);
+            throw new CommandLineException(msg, ex);
+        }
+    }
+
+    private static void warnBeforePatching(@Nonnull DiscItem item,
+                                           @Nonnull DiscIndex index,
+                                           @Nonnull FeedbackStream fbs)
+    {
+        // other items whose sectors are changed too (ignoring the item's
+        // parents and children, which are expected to share its sectors)
+        LinkedHashSet<DiscItem> others = new LinkedHashSet<DiscItem>();
+        int[] aiSectors = item.getSourceCd().getPatchedSectors();
+        for (int i = 0; i < aiSectors.length;) {
+            // one query for each run of consecutive sectors
+            int iEnd = i;
+            while (iEnd + 1 < aiSectors.length && aiSectors[iEnd + 1] == aiSectors[iEnd] + 1)
+                iEnd++;
+            for (DiscItem other : index.getItemsOverlapping(aiSectors[i], aiSectors[iEnd])) {
+                if (!other.getIndexId().isSameLineage(item.getIndexId()))
+                    others.add(other);
+            }
+            i = iEnd + 1;
+        }
+        for (DiscItem other : others)
+            fbs.printlnWarn(I.CMD_PATCH_OVERLAPS_ITEM(other.toString()));
+
+        CdFileSectorReader cd = item.getSourceCd();
+        SectorOverlay overlay = cd.getOverlay();
+        if (overlay != null) {
+            fbs.println(I.CMD_PATCHING_TO_OVERLAY(overlay.getFile()));
+        } else {
+            fbs.printlnWarn(I.CMD_BACKUP_DISC_IMAGE_WARNING());
+            fbs.printlnWarn(I.CMD_REOPENING_DISC_WRITE_ACCESS());
+        }
+    }
+
     private static void decodeDiscItem(@Nonnull DiscItem item, @CheckForNull File dir,
                                        @Nonnull ArgParser ap,
                                        @Nonnull FeedbackStream fbs,
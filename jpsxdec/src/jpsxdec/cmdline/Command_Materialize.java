@@ -0,0 +1,107 @@
+/*
+ * jPSXdec: PlayStation 1 Media Decoder/Converter in Java
+ * Copyright (C) 2019  Michael Sabin
+ * All rights reserved.
+ *
+ * Redistribution and use of the jPSXdec code or any derivative works are
+ * permitted provided that the following conditions are met:
+ *
+ *  * Redistributions may not be sold, nor may they be used in commercial
+ *    or revenue-generating business activities.
+ *
+ *  * Redistributions that are modified from the original source must
+ *    include the complete source code, including the source code for all
+ *    components used by a binary built from the modified sources. However, as
+ *    a special exception, the source code distributed need not include
+ *    anything that is normally distributed (in either source or binary form)
+ *    with the major components (compiler, kernel, and so on) of the operating
+ *    system on which the executable runs, unless that component itself
+ *    accompanies the executable.
+ *
+ *  * Redistributions must reproduce the above copyright notice, this list
+ *    of conditions and the following disclaimer in the documentation and/or
+ *    other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package jpsxdec.cmdline;
+
+import java.io.File;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import jpsxdec.cdreaders.CdFileSectorReader;
+import jpsxdec.cdreaders.SectorOverlay;
+import jpsxdec.i18n.I;
+import jpsxdec.i18n.ILocalizedMessage;
+import jpsxdec.i18n.log.ConsoleProgressLogger;
+import jpsxdec.util.ArgParser;
+import jpsxdec.util.IO;
+import jpsxdec.util.TaskCanceledException;
+
+
+/** Command to write a new disc image with all the changes in a
+ * sector overlay applied. */
+class Command_Materialize extends Command {
+
+    private static final Logger LOG = Logger.getLogger(Command_Materialize.class.getName());
+
+    @Nonnull
+    private String _sOutfile;
+
+    public Command_Materialize() {
+        super("-materialize");
+    }
+
+    protected @CheckForNull ILocalizedMessage validate(@Nonnull String s) {
+        _sOutfile = s;
+        return null;
+    }
+
+    public void execute(@Nonnull ArgParser ap) throws CommandLineException {
+        CdFileSectorReader cdReader = getCdReader();
+        try {
+            SectorOverlay overlay = cdReader.getOverlay();
+            if (overlay == null)
+                throw new CommandLineException(I.CMD_OVERLAY_REQUIRED());
+
+            File outFile = new File(_sOutfile);
+            if (IO.isSameFile(outFile, cdReader.getSourceFile()) || IO.isSameFile(outFile, overlay.getFile()))
+                throw new CommandLineException(I.CMD_OUTPUT_IS_INPUT(outFile));
+            _fbs.println(I.CMD_MATERIALIZING_OVERLAY(overlay.getPatchedSectorCount(), outFile));
+
+            ConsoleProgressLogger cpl = new ConsoleProgressLogger(
+                    Command_Materialize.class.getSimpleName(),
+                    logFile(Command_Materialize.class.getSimpleName()), _fbs.getUnderlyingStream());
+            try {
+                overlay.materialize(cdReader, outFile, cpl);
+            } catch (CdFileSectorReader.CdFileNotFoundException ex) {
+                throw new CommandLineException(I.IO_OPENING_FILE_NOT_FOUND_NAME(ex.getFile().toString()), ex);
+            } catch (CdFileSectorReader.CdReadException ex) {
+                throw new CommandLineException(I.IO_READING_FROM_FILE_ERROR_NAME(ex.getFile().toString()), ex);
+            } catch (CdFileSectorReader.CdWriteException ex) {
+                throw new CommandLineException(I.IO_WRITING_TO_FILE_ERROR_NAME(ex.getFile().toString()), ex);
+            } catch (TaskCanceledException ex) {
+                LOG.log(Level.SEVERE, "SHOULD NEVER HAPPEN", ex);
+            } finally {
+                cpl.close();
+            }
+        } finally {
+            closeCdReader(cdReader);
+        }
+    }
+
+}
@@ -72,7 +72,7 @@ class Command_SectorDump extends Command {
         PrintStream ps = null;
         try {
             if (_sOutfile.equals("-")) {
-                ps = System.out;
+                ps = _fbs.getUnderlyingStream();
             } else {
                 try {
                     ps = new PrintStream(_sOutfile);
@@ -107,7 +107,7 @@ class Command_SectorDump extends Command {
         } finally {
             if (ps != null) {
                 ps.flush();
-                if (!ps.equals(System.out)) {
+                if (ps != _fbs.getUnderlyingStream()) {
                     ps.close();
                 }
             }
@@ -288,8 +288,9 @@ class Command_Static extends Command {
             Tim tim = Tim.read(is);
             _fbs.println(new UnlocalizedMessage(tim.toString()));
             int iDigitCount = String.valueOf(tim.getPaletteCount()).length();
-            for (int i = 0; i < tim.getPaletteCount(); i++) {
-                BufferedImage bi = tim.toBufferedImage(i);
+            BufferedImage[] aoImages = tim.toBufferedImages(null);
+            for (int i = 0; i < aoImages.length; i++) {
+                BufferedImage bi = aoImages[i];
                 String sFileName = String.format("%s_p%0" + iDigitCount + "d.png", sOutBaseName, i);
                 File file = new File(sFileName);
                 _fbs.println(I.IO_WRITING_FILE(file.getName()));
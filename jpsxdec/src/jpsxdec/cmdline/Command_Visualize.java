@@ -35,27 +35,38 @@
  * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
  */
 
+
 package jpsxdec.cmdline;
 
+import argparser.StringHolder;
 import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.BufferedWriter;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
-import java.util.TreeSet;
+import java.util.Locale;
 import java.util.logging.Logger;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
+import javax.imageio.ImageIO;
 import jpsxdec.cdreaders.CdFileSectorReader;
 import jpsxdec.discitems.DiscItem;
 import jpsxdec.i18n.I;
 import jpsxdec.i18n.ILocalizedMessage;
-import jpsxdec.i18n.log.ILocalizedLogger;
 import jpsxdec.i18n.log.ShouldNotLog;
 import jpsxdec.indexing.DiscIndex;
-import jpsxdec.modules.SectorClaimSystem;
-import jpsxdec.modules.UnidentifiedSector;
+import jpsxdec.modules.SectorClaimRuns;
 import jpsxdec.util.ArgParser;
 import jpsxdec.util.IO;
+import jpsxdec.util.Misc;
 
 
 class Command_Visualize extends Command {
@@ -71,18 +82,43 @@ class Command_Visualize extends Command {
         return null;
     }
 
+    private static final int SECTOR_SECTION_SIZE = 32;
+    private static final int TEXT_LINE_HEIGHT = 16;
+    private static final int BOX_AREA_WIDTH = 16;
+    private static final int BOX_MARGIN_LEFT = 2;
+    private static final int BOX_MARGIN_RIGHT = 2;
+    private static final int BOX_WIDTH = BOX_AREA_WIDTH - (BOX_MARGIN_RIGHT + BOX_MARGIN_LEFT);
+    private static final int FONT_SIZE = 6;
+    private static final double MAX_PDF_SIZE = 200.0 * 72.0 - 18.0;
+    /** Keeps the image size something viewers can actually open. */
+    private static final double MAX_IMAGE_SIZE = 16384;
+
     public void execute(@Nonnull ArgParser ap) throws CommandLineException {
+        StringHolder zoom = ap.addStringOption("-zoom");
+        StringHolder sectors = ap.addStringOption("-sectors");
+        ap.match();
+
+        double dblZoom = -1;
+        if (zoom.value != null) {
+            try {
+                dblZoom = Double.parseDouble(zoom.value);
+            } catch (NumberFormatException ex) {
+            }
+            if (!(dblZoom > 0) || Double.isInfinite(dblZoom))
+                throw new CommandLineException(I.CMD_INVALID_VALUE_FOR_CMD(zoom.value, "-zoom"));
+        }
+
+        int[] aiSectorRange = null;
+        if (sectors.value != null) {
+            aiSectorRange = CommandLine.parseNumberRange(sectors.value);
+            if (aiSectorRange == null || aiSectorRange[0] < 0 || aiSectorRange[1] < aiSectorRange[0])
+                throw new CommandLineException(I.CMD_INVALID_VALUE_FOR_CMD(sectors.value, "-sectors"));
+        }
+
         DiscIndex index = getIndex();
         CdFileSectorReader cd = index.getSourceCd();
-        FileOutputStream pdfStream = null;
+        FileOutputStream outStream = null;
         try {
-            final int SECTOR_SECTION_SIZE = 32;
-            final int TEXT_LINE_HEIGHT = 16;
-            final int BOX_AREA_WIDTH = 16;
-            final int BOX_MARGIN_LEFT = 2;
-            final int BOX_MARGIN_RIGHT = 2;
-            final int BOX_WIDTH = BOX_AREA_WIDTH - (BOX_MARGIN_RIGHT + BOX_MARGIN_LEFT);
-            final double MAX_PDF_SIZE = 200.0 * 72.0 - 18.0;
             /* priority:
              * ISO file
              * video
@@ -92,103 +128,139 @@ class Command_Visualize extends Command {
              * summarize to just the important data-points
              */
             _fbs.println(I.CMD_GENERATING_VISUALIZATION());
-            int[] aiDataPoints = extractDataPoints(index);
-            // pre-determine the tree-area width based on max point of overalpping items
-            int iMaxOverlap = findMaxOverlap(aiDataPoints, index);
+            SectorClaimRuns runs = SectorClaimRuns.create(cd, new ShouldNotLog());
+
+            // only the items in the sectors being shown
+            int iFirstSector = 0;
+            int iSectorCount = runs.getSectorCount();
+            Iterable<DiscItem> shownItems = index;
+            if (aiSectorRange != null) {
+                if (aiSectorRange[0] >= runs.getSectorCount())
+                    throw new CommandLineException(I.CMD_INVALID_VALUE_FOR_CMD(sectors.value, "-sectors"));
+                iFirstSector = aiSectorRange[0];
+                iSectorCount = Math.min(aiSectorRange[1], runs.getSectorCount() - 1) - iFirstSector + 1;
+                shownItems = index.getItemsOverlapping(iFirstSector, iFirstSector + iSectorCount - 1);
+            }
+            int iLastSector = iFirstSector + iSectorCount - 1;
+
+            // items sorted by start sector, each assigned to the left-most lane
+            // that is free, which also gives the tree-area width
+            ArrayList<DiscItem> items = new ArrayList<DiscItem>();
+            for (DiscItem item : shownItems)
+                items.add(item);
+            Collections.sort(items, START_SECTOR_ORDER);
+            int[] aiItemLanes = new int[items.size()];
+            int iLaneCount = assignLanes(items, aiItemLanes);
             //########################################################
-            int iWidth = SECTOR_SECTION_SIZE + iMaxOverlap * TEXT_LINE_HEIGHT + iMaxOverlap * BOX_AREA_WIDTH;
-            int iHeight = cd.getSectorCount() + 1;
+            int iWidth = SECTOR_SECTION_SIZE + iLaneCount * TEXT_LINE_HEIGHT + iLaneCount * BOX_AREA_WIDTH;
+            int iHeight = iSectorCount + 1;
+
+            String sExt = Misc.getExt(_sOutfile);
+            boolean blnPng = sExt.equalsIgnoreCase("png");
+            boolean blnSvg = sExt.equalsIgnoreCase("svg");
+
+            double dblMaxHeight = (blnPng || blnSvg) ? MAX_IMAGE_SIZE : MAX_PDF_SIZE;
+            // the PNG pixel count has to fit in an int
+            if (blnPng)
+                dblMaxHeight = Math.min(dblMaxHeight, Integer.MAX_VALUE / (double)iWidth);
+            double dblMaxZoom = dblMaxHeight / iHeight;
+
+            // height of 1 sector
             final double SCALE;
-            if (iHeight < MAX_PDF_SIZE) {
-                SCALE = 1;
+            if (dblZoom > 0) {
+                if (dblZoom > dblMaxZoom)
+                    throw new CommandLineException(I.CMD_VISUALIZATION_ZOOM_TOO_LARGE(zoom.value, dblMaxZoom));
+                SCALE = dblZoom;
             } else {
-                SCALE = MAX_PDF_SIZE / iHeight;
+                SCALE = Math.min(1, dblMaxZoom);
             }
-            pdfStream = new FileOutputStream(_sOutfile);
-            com.pdfjet.PDF pdf = new com.pdfjet.PDF(pdfStream);
-            com.pdfjet.Font pdfFont = new com.pdfjet.Font(pdf, "Helvetica");
-            pdfFont.setSize(6 * SCALE);
-            com.pdfjet.Page pdfPage = new com.pdfjet.Page(pdf, new double[]{iWidth * SCALE, iHeight * SCALE});
-            SectorClaimSystem it = SectorClaimSystem.create(cd);
-            ILocalizedLogger log = new ShouldNotLog();
-            for (int iSector = 0; it.hasNext(); iSector++) {
-                try {
-                    SectorClaimSystem.ClaimedSector sector = it.next(log);
-                    Color c;
-                    if (sector.getClaimer() == null)
-                        c = classToColor(UnidentifiedSector.class);
-                    else
-                        c = classToColor(sector.getClaimer().getClass());
-                    int[] aiRgb = {c.getRed(), c.getGreen(), c.getBlue()};
-                    
-                    com.pdfjet.Box pdfBox = new com.pdfjet.Box(0 * SCALE, iSector * SCALE, SECTOR_SECTION_SIZE * SCALE, 1 * SCALE);
-                    pdfBox.setFillShape(true);
-                    pdfBox.setLineWidth(0);
-                    pdfBox.setColor(aiRgb);
-                    pdfBox.drawOn(pdfPage);
-                } catch (IOException ex) {
-                    ex.printStackTrace(); // TODO?
-                }
-            }
-            DiscItem[] aoRunningItems = new DiscItem[iMaxOverlap];
-            /*
-             * at each datapoint, there are basically 3 different things that can happen
-             * 1) 1 item begins
-             * 2) 2 or more items begin
-             * and
-             * 3) one or more items end
-             *
-             * Also, disc items can begin and end at the same sector
-             *
-             */
-            for (int iDataPoint : aiDataPoints) {
-                // open
-                for (DiscItem item : index) {
-                    if (item.getStartSector() == iDataPoint) {
-                        int i = findFree(aoRunningItems);
-                        aoRunningItems[i] = item;
-                        double x = (SECTOR_SECTION_SIZE + i * BOX_AREA_WIDTH + BOX_MARGIN_LEFT) * SCALE;
-                        double y = item.getStartSector() * SCALE;
-                        double w = BOX_WIDTH * SCALE;
-                        double h = item.getSectorLength() * SCALE;
-                        // draw box
-                        com.pdfjet.Box pdfBox = new com.pdfjet.Box(x, y, w, h);
-                        Color c = classToColor(item.getClass());
-                        int[] aiRgb = {c.getRed(), c.getGreen(), c.getBlue()};
-                        pdfBox.setColor(aiRgb);
-                        pdfBox.setFillShape(true);
-                        pdfBox.setLineWidth(0);
-                        pdfBox.drawOn(pdfPage);
-                        pdfBox.setFillShape(false);
-                        pdfBox.setColor(com.pdfjet.RGB.WHITE);
-                        pdfBox.setLineWidth(0.3 * SCALE);
-                        pdfBox.drawOn(pdfPage);
-                        com.pdfjet.TextLine pdfText = new com.pdfjet.TextLine(pdfFont, item.toString());
-                        pdfText.setPosition(x, y);
-                        pdfText.setColor(com.pdfjet.RGB.DARK_GRAY);
-                        pdfText.drawOn(pdfPage);
-                    }
-                }
-                for (int i = 0; i < aoRunningItems.length; i++) {
-                    if (aoRunningItems[i] != null) {
-                        if (iDataPoint >= aoRunningItems[i].getEndSector()) {
-                            aoRunningItems[i] = null;
-                        }
-                    }
-                }
+
+            outStream = new FileOutputStream(_sOutfile);
+            Canvas canvas;
+            if (blnPng)
+                canvas = new PngCanvas(outStream, iWidth, iHeight * SCALE);
+            else if (blnSvg)
+                canvas = new SvgCanvas(outStream, iWidth, iHeight * SCALE);
+            else
+                canvas = new PdfCanvas(outStream, iWidth, iHeight * SCALE);
+
+            drawSectorRuns(runs, iFirstSector, iSectorCount, SCALE, canvas);
+
+            for (int i = 0; i < aiItemLanes.length; i++) {
+                DiscItem item = items.get(i);
+                double x = SECTOR_SECTION_SIZE + aiItemLanes[i] * BOX_AREA_WIDTH + BOX_MARGIN_LEFT;
+                // items can extend past the sectors shown
+                int iStart = Math.max(item.getStartSector(), iFirstSector);
+                int iEnd = Math.min(item.getEndSector(), iLastSector);
+                double y = (iStart - iFirstSector) * SCALE;
+                double w = BOX_WIDTH;
+                double h = (iEnd - iStart + 1) * SCALE;
+                canvas.fillBox(x, y, w, h, classToColor(item.getClass()));
+                canvas.outlineBox(x, y, w, h, Color.WHITE, 0.3);
+                canvas.text(x, y, item.toString(), Color.DARK_GRAY);
             }
-            pdf.flush();
+            canvas.finish();
+        } catch (CommandLineException ex) {
+            throw ex;
         } catch (Exception ex) {
             throw new CommandLineException(I.CMD_VISUALIZATION_ERR(), ex);
         } finally {
-            IO.closeSilently(pdfStream, Logger.getLogger(Command_Visualize.class.getName()));
+            IO.closeSilently(outStream, Logger.getLogger(Command_Visualize.class.getName()));
         }
     }
 
+    /** Draws the sector claim runs as one box per stretch of output rows
+     * that share the same claimer. When there are more sectors than rows,
+     * each row takes the color of the run that covers most of it, so the
+     * number of boxes depends on the output size instead of the disc size.
+     * @param iFirstSector First of the {@code iSectorCount} sectors to draw. */
+    private void drawSectorRuns(@Nonnull SectorClaimRuns runs,
+                                int iFirstSector, int iSectorCount,
+                                double dblScale, @Nonnull Canvas canvas)
+            throws Exception
+    {
+        int iRunCount = runs.getRunCount();
+        double dblSectorsPerRow = dblScale >= 1 ? 1 : 1 / dblScale;
+        double dblRowHeight = dblSectorsPerRow * dblScale;
+        int iRowCount = (int) Math.ceil(iSectorCount / dblSectorsPerRow);
+
+        Class<?> boxClaimer = null;
+        int iBoxStartRow = 0;
+        int iRun = 0;
+        for (int iRow = 0; iRow < iRowCount; iRow++) {
+            double dblRowStart = iFirstSector + iRow * dblSectorsPerRow;
+            double dblRowEnd = Math.min(dblRowStart + dblSectorsPerRow, iFirstSector + iSectorCount);
+            while (runs.getRunEndSector(iRun) <= dblRowStart)
+                iRun++;
+
+            Class<?> rowClaimer = null;
+            double dblBestCoverage = -1;
+            for (int i = iRun; i < iRunCount && runs.getRunStartSector(i) < dblRowEnd; i++) {
+                double dblCoverage = Math.min(runs.getRunEndSector(i), dblRowEnd) -
+                                     Math.max(runs.getRunStartSector(i), dblRowStart);
+                if (dblCoverage > dblBestCoverage) {
+                    dblBestCoverage = dblCoverage;
+                    rowClaimer = runs.getRunClaimer(i);
+                }
+            }
+
+            if (rowClaimer != boxClaimer) {
+                if (boxClaimer != null)
+                    canvas.fillBox(0, iBoxStartRow * dblRowHeight, SECTOR_SECTION_SIZE,
+                                   (iRow - iBoxStartRow) * dblRowHeight, classToColor(boxClaimer));
+                boxClaimer = rowClaimer;
+                iBoxStartRow = iRow;
+            }
+        }
+        if (boxClaimer != null)
+            canvas.fillBox(0, iBoxStartRow * dblRowHeight, SECTOR_SECTION_SIZE,
+                           (iRowCount - iBoxStartRow) * dblRowHeight, classToColor(boxClaimer));
+    }
+
     private final HashMap<Class, Color> colorLookup = new HashMap<Class, Color>();
 
     private @Nonnull Color classToColor(@Nonnull Class c) {
-        Color color = colorLookup.get(c.getClass());
+        Color color = colorLookup.get(c);
         if (color == null) {
             int iClr = c.getName().hashCode();
             color = new Color(iClr);
@@ -197,42 +269,190 @@ class Command_Visualize extends Command {
         return color;
     }
 
-    private static int findFree(@Nonnull Object[] ao) {
-        for (int i = 0; i < ao.length; i++) {
-            if (ao[i] == null)
-                return i;
+    private static final Comparator<DiscItem> START_SECTOR_ORDER = new Comparator<DiscItem>() {
+        public int compare(DiscItem o1, DiscItem o2) {
+            return Misc.intCompare(o1.getStartSector(), o2.getStartSector());
         }
-        return -1;
+    };
+
+    /** Assigns each item (sorted by start sector) to the first lane that
+     * isn't occupied by an overlapping item.
+     * An item occupies its lane through its end sector.
+     * @param aiItemLanes receives the lane of each item.
+     * @return the number of lanes needed. */
+    private static int assignLanes(@Nonnull ArrayList<DiscItem> items, @Nonnull int[] aiItemLanes) {
+        // end sector of the last item in each lane
+        int[] aiLaneEnds = new int[8];
+        int iLaneCount = 0;
+        for (int iItem = 0; iItem < aiItemLanes.length; iItem++) {
+            DiscItem item = items.get(iItem);
+            int iLane = 0;
+            while (iLane < iLaneCount && aiLaneEnds[iLane] >= item.getStartSector())
+                iLane++;
+            if (iLane == iLaneCount) {
+                if (iLaneCount == aiLaneEnds.length) {
+                    int[] aiNew = new int[iLaneCount * 2];
+                    System.arraycopy(aiLaneEnds, 0, aiNew, 0, iLaneCount);
+                    aiLaneEnds = aiNew;
+                }
+                iLaneCount++;
+            }
+            aiLaneEnds[iLane] = item.getEndSector();
+            aiItemLanes[iItem] = iLane;
+        }
+        return iLaneCount;
     }
 
-    private static @Nonnull int[] extractDataPoints(@Nonnull DiscIndex index) {
-        TreeSet<Integer> dataPoints = new TreeSet<Integer>();
-        for (DiscItem item : index) {
-            dataPoints.add(item.getStartSector());
-            dataPoints.add(item.getEndSector());
+    // =========================================================================
+
+    /** Output format of the visualization. */
+    private interface Canvas {
+        void fillBox(double x, double y, double w, double h, @Nonnull Color c) throws Exception;
+        void outlineBox(double x, double y, double w, double h, @Nonnull Color c, double dblLineWidth) throws Exception;
+        void text(double x, double y, @Nonnull String s, @Nonnull Color c) throws Exception;
+        void finish() throws Exception;
+    }
+
+    private static class PdfCanvas implements Canvas {
+        @Nonnull
+        private final com.pdfjet.PDF _pdf;
+        @Nonnull
+        private final com.pdfjet.Font _font;
+        @Nonnull
+        private final com.pdfjet.Page _page;
+
+        public PdfCanvas(@Nonnull FileOutputStream os, double dblWidth, double dblHeight) throws Exception {
+            _pdf = new com.pdfjet.PDF(os);
+            _font = new com.pdfjet.Font(_pdf, "Helvetica");
+            _font.setSize(FONT_SIZE);
+            _page = new com.pdfjet.Page(_pdf, new double[]{dblWidth, dblHeight});
+        }
+
+        public void fillBox(double x, double y, double w, double h, @Nonnull Color c) throws Exception {
+            com.pdfjet.Box pdfBox = new com.pdfjet.Box(x, y, w, h);
+            pdfBox.setFillShape(true);
+            pdfBox.setLineWidth(0);
+            pdfBox.setColor(rgb(c));
+            pdfBox.drawOn(_page);
         }
 
-        int[] aiDataPoints = new int[dataPoints.size()];
-        int i = 0;
-        for (Integer point : dataPoints) {
-            aiDataPoints[i] = point.intValue();
-            i++;
+        public void outlineBox(double x, double y, double w, double h, @Nonnull Color c, double dblLineWidth) throws Exception {
+            com.pdfjet.Box pdfBox = new com.pdfjet.Box(x, y, w, h);
+            pdfBox.setFillShape(false);
+            pdfBox.setLineWidth(dblLineWidth);
+            pdfBox.setColor(rgb(c));
+            pdfBox.drawOn(_page);
+        }
+
+        public void text(double x, double y, @Nonnull String s, @Nonnull Color c) throws Exception {
+            com.pdfjet.TextLine pdfText = new com.pdfjet.TextLine(_font, s);
+            pdfText.setPosition(x, y);
+            pdfText.setColor(rgb(c));
+            pdfText.drawOn(_page);
+        }
+
+        public void finish() throws Exception {
+            _pdf.flush();
+        }
+
+        private static @Nonnull int[] rgb(@Nonnull Color c) {
+            return new int[] {c.getRed(), c.getGreen(), c.getBlue()};
         }
-        return aiDataPoints;
     }
 
-    private static int findMaxOverlap(@Nonnull int[] aiDataPoints, @Nonnull DiscIndex index) {
-        int iMaxOverlap = 0;
-        for (int iSector : aiDataPoints) {
-            int iSectorOverlap = 0;
-            for (DiscItem item : index) {
-                if (iSector >= item.getStartSector() && iSector <= item.getEndSector())
-                    iSectorOverlap++;
+    private static class PngCanvas implements Canvas {
+        @Nonnull
+        private final FileOutputStream _os;
+        @Nonnull
+        private final BufferedImage _img;
+        @Nonnull
+        private final Graphics2D _g;
+
+        public PngCanvas(@Nonnull FileOutputStream os, int iWidth, double dblHeight) {
+            _os = os;
+            _img = new BufferedImage(iWidth, Math.max(1, (int) Math.ceil(dblHeight)), BufferedImage.TYPE_INT_RGB);
+            _g = _img.createGraphics();
+            _g.setColor(Color.WHITE);
+            _g.fillRect(0, 0, _img.getWidth(), _img.getHeight());
+            _g.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, FONT_SIZE));
+        }
+
+        /** Boxes are snapped to whole pixels and always at least 1 pixel tall
+         * so short items don't disappear at small zoom. */
+        public void fillBox(double x, double y, double w, double h, @Nonnull Color c) {
+            int iTop = (int) Math.round(y);
+            int iBottom = Math.max(iTop + 1, (int) Math.round(y + h));
+            _g.setColor(c);
+            _g.fillRect((int) Math.round(x), iTop, (int) Math.round(w), iBottom - iTop);
+        }
+
+        public void outlineBox(double x, double y, double w, double h, @Nonnull Color c, double dblLineWidth) {
+            int iTop = (int) Math.round(y);
+            int iBottom = Math.max(iTop + 1, (int) Math.round(y + h));
+            _g.setColor(c);
+            _g.drawRect((int) Math.round(x), iTop, (int) Math.round(w) - 1, iBottom - iTop - 1);
+        }
+
+        public void text(double x, double y, @Nonnull String s, @Nonnull Color c) {
+            _g.setColor(c);
+            _g.drawString(s, (float) x, (float) y);
+        }
+
+        public void finish() throws IOException {
+            _g.dispose();
+            ImageIO.write(_img, "png", _os);
+        }
+    }
+
+    private static class SvgCanvas implements Canvas {
+        @Nonnull
+        private final Writer _w;
+
+        public SvgCanvas(@Nonnull FileOutputStream os, int iWidth, double dblHeight) throws IOException {
+            _w = new BufferedWriter(new OutputStreamWriter(os, "UTF-8"));
+            _w.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+            _w.write("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"" + iWidth +
+                     "\" height=\"" + num(dblHeight) + "\" font-family=\"sans-serif\" font-size=\"" +
+                     FONT_SIZE + "\">\n");
+        }
+
+        public void fillBox(double x, double y, double w, double h, @Nonnull Color c) throws IOException {
+            _w.write("<rect x=\"" + num(x) + "\" y=\"" + num(y) + "\" width=\"" + num(w) +
+                     "\" height=\"" + num(h) + "\" fill=\"" + hex(c) + "\"/>\n");
+        }
+
+        public void outlineBox(double x, double y, double w, double h, @Nonnull Color c, double dblLineWidth) throws IOException {
+            _w.write("<rect x=\"" + num(x) + "\" y=\"" + num(y) + "\" width=\"" + num(w) +
+                     "\" height=\"" + num(h) + "\" fill=\"none\" stroke=\"" + hex(c) +
+                     "\" stroke-width=\"" + num(dblLineWidth) + "\"/>\n");
+        }
+
+        public void text(double x, double y, @Nonnull String s, @Nonnull Color c) throws IOException {
+            _w.write("<text x=\"" + num(x) + "\" y=\"" + num(y) + "\" fill=\"" + hex(c) + "\">");
+            for (int i = 0; i < s.length(); i++) {
+                char ch = s.charAt(i);
+                switch (ch) {
+                    case '<': _w.write("&lt;"); break;
+                    case '>': _w.write("&gt;"); break;
+                    case '&': _w.write("&amp;"); break;
+                    default: _w.write(ch);
+                }
             }
-            if (iSectorOverlap > iMaxOverlap)
-                iMaxOverlap = iSectorOverlap;
+            _w.write("</text>\n");
+        }
+
+        public void finish() throws IOException {
+            _w.write("</svg>\n");
+            _w.flush();
+        }
+
+        private static @Nonnull String num(double d) {
+            return String.format(Locale.US, "%.3f", d);
+        }
+
+        private static @Nonnull String hex(@Nonnull Color c) {
+            return String.format("#%06x", c.getRGB() & 0xffffff);
         }
-        return iMaxOverlap;
     }
 
 }
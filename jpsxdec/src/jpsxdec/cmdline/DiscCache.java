@@ -0,0 +1,253 @@
+/*
+ * jPSXdec: PlayStation 1 Media Decoder/Converter in Java
+ * Copyright (C) 2019  Michael Sabin
+ * All rights reserved.
+ *
+ * Redistribution and use of the jPSXdec code or any derivative works are
+ * permitted provided that the following conditions are met:
+ *
+ *  * Redistributions may not be sold, nor may they be used in commercial
+ *    or revenue-generating business activities.
+ *
+ *  * Redistributions that are modified from the original source must
+ *    include the complete source code, including the source code for all
+ *    components used by a binary built from the modified sources. However, as
+ *    a special exception, the source code distributed need not include
+ *    anything that is normally distributed (in either source or binary form)
+ *    with the major components (compiler, kernel, and so on) of the operating
+ *    system on which the executable runs, unless that component itself
+ *    accompanies the executable.
+ *
+ *  * Redistributions must reproduce the above copyright notice, this list
+ *    of conditions and the following disclaimer in the documentation and/or
+ *    other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package jpsxdec.cmdline;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Logger;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import jpsxdec.cdreaders.CdFileSectorReader;
+import jpsxdec.indexing.DiscIndex;
+import jpsxdec.modules.video.sectorbased.VideoSectorIdentifier;
+import jpsxdec.util.IO;
+
+/** Keeps discs and indexes open between the jobs run by {@link JobServer}.
+ * <p>
+ * Each job uses its own {@link Session}. Any entry a session touches stays
+ * locked to that session until the session is closed, so jobs that use the
+ * same disc run one after another, while jobs on different discs run
+ * concurrently.
+ * <p>
+ * Entries are keyed by the canonical path of the disc file and the sector
+ * overlay it was opened with, since an attached overlay changes what is
+ * read from the disc. An index is kept in the entry of the disc it was
+ * opened with (the disc given with the index, otherwise the disc named in
+ * the index file), so the disc and its index share one reader.
+ * <p>
+ * Each session also gets its own log file names so concurrent jobs
+ * don't write over each other's logs. */
+class DiscCache implements Closeable {
+
+    private static final Logger LOG = Logger.getLogger(DiscCache.class.getName());
+
+    /** Disc and the index last used with it. The index always reads
+     * from {@link #cd}. Only accessed by the session holding the lock. */
+    static class Entry {
+        private final ReentrantLock _lock = new ReentrantLock();
+        @CheckForNull
+        public CdFileSectorReader cd;
+        @CheckForNull
+        private DiscIndex _index;
+        /** Canonical path of the index file {@link #_index} was read from
+         * or saved to, or null if it was only built. */
+        @CheckForNull
+        private String _sIndexFile;
+        /** {@link File#lastModified()} of the index file when
+         * {@link #_index} was read or saved. */
+        private long _lngIndexModified;
+        /** Games identified when {@link #_index} was built,
+         * or null if it was read from an index file. */
+        @CheckForNull
+        private Set<VideoSectorIdentifier.Game> _indexGames;
+
+        /** @param games Games identified if the index was built,
+         *               or null if it was read from the index file.
+         *  @param sIndexFile Where the index was read from or saved,
+         *                    or null if it was only built. */
+        public void setIndex(@Nonnull DiscIndex index,
+                             @CheckForNull Set<VideoSectorIdentifier.Game> games,
+                             @CheckForNull String sIndexFile)
+        {
+            _index = index;
+            _indexGames = games;
+            if (sIndexFile == null) {
+                _sIndexFile = null;
+                _lngIndexModified = 0;
+            } else {
+                _sIndexFile = canonical(sIndexFile);
+                _lngIndexModified = new File(sIndexFile).lastModified();
+            }
+        }
+
+        /** The index read from or saved to the file, if the file
+         * hasn't changed since. */
+        public @CheckForNull DiscIndex getIndexFromFile(@Nonnull String sIndexFile) {
+            if (_index == null || _sIndexFile == null ||
+                !_sIndexFile.equals(canonical(sIndexFile)) ||
+                _lngIndexModified != new File(sIndexFile).lastModified())
+                return null;
+            return _index;
+        }
+
+        /** The index built by identifying the games, if there is one. */
+        public @CheckForNull DiscIndex getIndexForGames(@Nonnull Set<VideoSectorIdentifier.Game> games) {
+            if (_index == null || !games.equals(_indexGames))
+                return null;
+            return _index;
+        }
+    }
+
+    @Nonnull
+    private final HashMap<String, Entry> _entries = new HashMap<String, Entry>();
+    private boolean _blnClosed = false;
+    /** Every session holds the read lock, except a session that needs
+     * to run alone, which holds the write lock. */
+    private final ReentrantReadWriteLock _runningLock = new ReentrantReadWriteLock();
+
+    private synchronized @Nonnull Entry getEntry(@Nonnull String sKey) {
+        if (_blnClosed)
+            throw new IllegalStateException("Disc cache is closed");
+        Entry entry = _entries.get(sKey);
+        if (entry == null) {
+            entry = new Entry();
+            _entries.put(sKey, entry);
+        }
+        return entry;
+    }
+
+    /** Waits while a session that runs alone is open.
+     * @param iJobId Used to give the session's log files unique names. */
+    public @Nonnull Session openSession(int iJobId) {
+        return new Session(iJobId);
+    }
+
+    /** Closes every cached disc. Should only be called after all
+     * sessions are closed. */
+    public synchronized void close() {
+        _blnClosed = true;
+        for (Entry entry : _entries.values()) {
+            if (entry.cd != null)
+                IO.closeSilently(entry.cd, LOG);
+        }
+        _entries.clear();
+    }
+
+    static @Nonnull String canonical(@Nonnull String sFile) {
+        File file = new File(sFile);
+        try {
+            return file.getCanonicalPath();
+        } catch (IOException ex) {
+            return file.getAbsolutePath();
+        }
+    }
+
+    /** The discs and indexes used by a single job. Must be used and
+     * closed by the thread that opened it. */
+    class Session implements Closeable {
+
+        @Nonnull
+        private final ArrayList<Entry> _locked = new ArrayList<Entry>();
+        private final int _iJobId;
+        @Nonnull
+        private Lock _running;
+
+        private Session(int iJobId) {
+            _iJobId = iJobId;
+            _running = _runningLock.readLock();
+            _running.lock();
+        }
+
+        /** Log file for this session, so logs of concurrent jobs
+         * don't overwrite each other. */
+        public @Nonnull File getLogFile(@Nonnull String sBaseName) {
+            return new File(sBaseName + ".job" + _iJobId + ".log");
+        }
+
+        /** Keeps any other session from running until this one is closed,
+         * e.g. so process-wide counters only count this job.
+         * Must be called before locking any entries.
+         * @return false if other sessions are open. */
+        public boolean runAlone() {
+            if (!_locked.isEmpty())
+                throw new IllegalStateException("Entries already locked");
+            if (_runningLock.isWriteLockedByCurrentThread())
+                return true;
+            _running.unlock();
+            if (_runningLock.writeLock().tryLock()) {
+                _running = _runningLock.writeLock();
+                return true;
+            }
+            _running.lock();
+            return false;
+        }
+
+        /** Returns the entry for a disc image, waiting until no other
+         * session is using it. */
+        public @Nonnull Entry lockDisc(@Nonnull String sDiscFile,
+                                       @CheckForNull String sOverlayFile)
+        {
+            String sKey = canonical(sDiscFile) + '|' +
+                          (sOverlayFile == null ? "" : canonical(sOverlayFile));
+            Entry entry = getEntry(sKey);
+            if (!_locked.contains(entry)) {
+                entry._lock.lock();
+                _locked.add(entry);
+            }
+            return entry;
+        }
+
+        /** If the disc is owned by the cache, so should not be closed
+         * by the job. */
+        public boolean isCached(@Nonnull CdFileSectorReader cd) {
+            for (Entry entry : _locked) {
+                if (entry.cd == cd)
+                    return true;
+            }
+            return false;
+        }
+
+        /** Releases every entry this session has locked. */
+        public void close() {
+            for (Entry entry : _locked) {
+                entry._lock.unlock();
+            }
+            _locked.clear();
+            _running.unlock();
+        }
+    }
+
+}
@@ -0,0 +1,354 @@
+/*
+ * jPSXdec: PlayStation 1 Media Decoder/Converter in Java
+ * Copyright (C) 2019  Michael Sabin
+ * All rights reserved.
+ *
+ * Redistribution and use of the jPSXdec code or any derivative works are
+ * permitted provided that the following conditions are met:
+ *
+ *  * Redistributions may not be sold, nor may they be used in commercial
+ *    or revenue-generating business activities.
+ *
+ *  * Redistributions that are modified from the original source must
+ *    include the complete source code, including the source code for all
+ *    components used by a binary built from the modified sources. However, as
+ *    a special exception, the source code distributed need not include
+ *    anything that is normally distributed (in either source or binary form)
+ *    with the major components (compiler, kernel, and so on) of the operating
+ *    system on which the executable runs, unless that component itself
+ *    accompanies the executable.
+ *
+ *  * Redistributions must reproduce the above copyright notice, this list
+ *    of conditions and the following disclaimer in the documentation and/or
+ *    other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package jpsxdec.cmdline;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nonnull;
+import jpsxdec.i18n.FeedbackStream;
+import jpsxdec.i18n.I;
+import jpsxdec.util.ArgParser;
+import jpsxdec.util.IO;
+
+/** Keeps one process running to handle many command-line jobs, so the
+ * JVM startup and JIT warmup is only paid once, and discs and indexes
+ * stay open between jobs (see {@link DiscCache}).
+ * <p>
+ * Jobs are read one per line, either from standard input or from
+ * connections to a port on the loopback interface. Each line holds the
+ * same arguments accepted on the command-line (double quotes group
+ * arguments with spaces). Jobs run concurrently. All job output is sent
+ * back to where the job came from, each line prefixed with
+ * {@code [<job id>] }. When a job is accepted
+ * {@code [<job id>] job <arguments>} is sent, and when it finishes
+ * {@code [<job id>] done <exit code>}.
+ * <p>
+ * A {@code quit} line ends the connection (or the server when reading
+ * standard input) after its jobs finish. A {@code shutdown} line stops
+ * the server. */
+class JobServer {
+
+    private static final Logger LOG = Logger.getLogger(JobServer.class.getName());
+
+    /** @param sWhere "stdin" or port number.
+     * @return exit code. */
+    public static int run(@Nonnull String sWhere, @Nonnull FeedbackStream fbs) {
+        JobServer server = new JobServer();
+        try {
+            if ("stdin".equalsIgnoreCase(sWhere)) {
+                fbs.println(I.CMD_SERVER_LISTENING_STDIN());
+                server.serve(System.in, fbs.getUnderlyingStream());
+            } else {
+                int iPort;
+                try {
+                    iPort = Integer.parseInt(sWhere);
+                } catch (NumberFormatException ex) {
+                    fbs.printlnErr(I.CMD_SERVER_INVALID(sWhere));
+                    return 1;
+                }
+                if (iPort < 0 || iPort > 65535) {
+                    fbs.printlnErr(I.CMD_SERVER_INVALID(sWhere));
+                    return 1;
+                }
+                server.listen(iPort, fbs);
+            }
+        } catch (IOException ex) {
+            fbs.printlnErr(I.CMD_ERR_EX_CLASS(ex, ex.getClass().getSimpleName()));
+            LOG.log(Level.SEVERE, null, ex);
+            return 1;
+        } finally {
+            server.stop();
+        }
+        fbs.println(I.CMD_SERVER_STOPPED(server._iJobCount));
+        return 0;
+    }
+
+    // -------------------------------------------------------------
+
+    private final DiscCache _cache = new DiscCache();
+    private final ExecutorService _jobRunner =
+            Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    private int _iJobCount = 0;
+    private volatile boolean _blnShutdown = false;
+    private volatile ServerSocket _serverSocket;
+
+    JobServer() {}
+
+    private void listen(int iPort, @Nonnull FeedbackStream fbs) throws IOException {
+        _serverSocket = new ServerSocket(iPort, 50, InetAddress.getByName(null));
+        fbs.println(I.CMD_SERVER_LISTENING_PORT(_serverSocket.getLocalSocketAddress().toString()));
+        while (!_blnShutdown) {
+            final Socket socket;
+            try {
+                socket = _serverSocket.accept();
+            } catch (IOException ex) {
+                if (_blnShutdown)
+                    break;
+                throw ex;
+            }
+            Thread connection = new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        serve(socket.getInputStream(), socket.getOutputStream());
+                    } catch (IOException ex) {
+                        LOG.log(Level.WARNING, "Job connection failed", ex);
+                    } finally {
+                        IO.closeSilently(socket, LOG);
+                    }
+                }
+            }, "jPSXdec job connection " + socket.getRemoteSocketAddress());
+            connection.setDaemon(true);
+            connection.start();
+        }
+    }
+
+    /** Reads jobs until the end of the stream or a quit line, then waits
+     * for those jobs to finish. */
+    void serve(@Nonnull InputStream in, @Nonnull OutputStream out) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in));
+        ArrayList<Future<?>> jobs = new ArrayList<Future<?>>();
+        try {
+            String sLine;
+            while (!_blnShutdown && (sLine = reader.readLine()) != null) {
+                sLine = sLine.trim();
+                if (sLine.length() == 0 || sLine.startsWith("#"))
+                    continue;
+                if (sLine.equalsIgnoreCase("quit"))
+                    break;
+                if (sLine.equalsIgnoreCase("shutdown")) {
+                    shutdown();
+                    break;
+                }
+                int iJobId = nextJobId();
+                LinePrefixOutputStream jobOut = new LinePrefixOutputStream(out, "[" + iJobId + "] ");
+                jobOut.writeLine("job " + sLine);
+                jobs.add(_jobRunner.submit(new Job(iJobId, splitArgs(sLine), jobOut)));
+            }
+        } finally {
+            for (Future<?> job : jobs) {
+                try {
+                    job.get();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (ExecutionException ex) {
+                    LOG.log(Level.SEVERE, "Job failed", ex);
+                }
+            }
+        }
+    }
+
+    private synchronized int nextJobId() {
+        _iJobCount++;
+        return _iJobCount;
+    }
+
+    private void shutdown() {
+        _blnShutdown = true;
+        if (_serverSocket != null)
+            IO.closeSilently(_serverSocket, LOG);
+    }
+
+    /** Waits for running jobs then closes all the cached discs. */
+    void stop() {
+        _jobRunner.shutdown();
+        try {
+            while (!_jobRunner.awaitTermination(1, TimeUnit.MINUTES)) {
+                LOG.info("Waiting for jobs to finish");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        _cache.close();
+    }
+
+    private class Job implements Runnable {
+        private final int _iJobId;
+        @Nonnull
+        private final String[] _asArgs;
+        @Nonnull
+        private final LinePrefixOutputStream _out;
+
+        public Job(int iJobId, @Nonnull String[] asArgs, @Nonnull LinePrefixOutputStream out) {
+            _iJobId = iJobId;
+            _asArgs = asArgs;
+            _out = out;
+        }
+
+        public void run() {
+            PrintStream ps = new PrintStream(_out);
+            DiscCache.Session session = _cache.openSession(_iJobId);
+            int iExitCode = 1;
+            try {
+                iExitCode = CommandLine.main(new ArgParser(_asArgs), ps, session);
+            } catch (Throwable ex) {
+                LOG.log(Level.SEVERE, "Unhandled exception in job", ex);
+            } finally {
+                session.close();
+                ps.flush();
+                _out.finishLine();
+                _out.writeLine("done " + iExitCode);
+            }
+        }
+    }
+
+    // -------------------------------------------------------------
+
+    /** Splits a job line into arguments. Arguments are separated by
+     * whitespace, unless inside double quotes. Within quotes,
+     * {@code \"} and {@code \\} are a literal quote and backslash. */
+    static @Nonnull String[] splitArgs(@Nonnull String sLine) {
+        ArrayList<String> args = new ArrayList<String>();
+        StringBuilder sb = new StringBuilder();
+        boolean blnInArg = false, blnInQuotes = false;
+        for (int i = 0; i < sLine.length(); i++) {
+            char c = sLine.charAt(i);
+            if (blnInQuotes) {
+                if (c == '"') {
+                    blnInQuotes = false;
+                } else if (c == '\\' && i + 1 < sLine.length() &&
+                           (sLine.charAt(i + 1) == '"' || sLine.charAt(i + 1) == '\\'))
+                {
+                    i++;
+                    sb.append(sLine.charAt(i));
+                } else {
+                    sb.append(c);
+                }
+            } else if (Character.isWhitespace(c)) {
+                if (blnInArg) {
+                    args.add(sb.toString());
+                    sb.setLength(0);
+                    blnInArg = false;
+                }
+            } else {
+                blnInArg = true;
+                if (c == '"')
+                    blnInQuotes = true;
+                else
+                    sb.append(c);
+            }
+        }
+        if (blnInArg)
+            args.add(sb.toString());
+        return args.toArray(new String[args.size()]);
+    }
+
+    /** Buffers each line written, then writes it with a prefix to the
+     * shared output in one piece so lines from concurrent jobs
+     * don't get mixed together. */
+    static class LinePrefixOutputStream extends OutputStream {
+        @Nonnull
+        private final OutputStream _target;
+        @Nonnull
+        private final byte[] _abPrefix;
+        private final ByteArrayOutputStream _line = new ByteArrayOutputStream();
+
+        public LinePrefixOutputStream(@Nonnull OutputStream target, @Nonnull String sPrefix) {
+            _target = target;
+            _abPrefix = sPrefix.getBytes();
+        }
+
+        @Override
+        public synchronized void write(int b) {
+            _line.write(b);
+            if (b == '\n')
+                writeBufferedLine();
+        }
+
+        @Override
+        public synchronized void write(byte[] ab, int iOfs, int iLen) {
+            int iEnd = iOfs + iLen;
+            for (int i = iOfs; i < iEnd; i++) {
+                if (ab[i] == '\n') {
+                    _line.write(ab, iOfs, i + 1 - iOfs);
+                    writeBufferedLine();
+                    iOfs = i + 1;
+                }
+            }
+            _line.write(ab, iOfs, iEnd - iOfs);
+        }
+
+        /** Writes a complete line of protocol text. */
+        public synchronized void writeLine(@Nonnull String sLine) {
+            finishLine();
+            byte[] ab = (sLine + '\n').getBytes();
+            write(ab, 0, ab.length);
+        }
+
+        /** Writes any incomplete line as its own line. Regular
+         * {@link #flush()} is ignored so lines are never split. */
+        public synchronized void finishLine() {
+            if (_line.size() > 0) {
+                _line.write('\n');
+                writeBufferedLine();
+            }
+        }
+
+        private void writeBufferedLine() {
+            synchronized (_target) {
+                try {
+                    _target.write(_abPrefix);
+                    _line.writeTo(_target);
+                    _target.flush();
+                } catch (IOException ex) {
+                    // the client went away, the job will just finish quietly
+                    LOG.log(Level.FINE, "Unable to send job output", ex);
+                }
+            }
+            _line.reset();
+        }
+    }
+
+}
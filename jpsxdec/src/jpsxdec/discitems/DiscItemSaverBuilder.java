@@ -50,6 +50,7 @@ import jpsxdec.i18n.ILocalizedMessage;
 import jpsxdec.i18n.exception.LoggedFailure;
 import jpsxdec.i18n.log.ILocalizedLogger;
 import jpsxdec.i18n.log.ProgressLogger;
+import jpsxdec.modules.SharedClaimSaver;
 import jpsxdec.util.ArgParser;
 import jpsxdec.util.TaskCanceledException;
 
@@ -134,4 +135,14 @@ public abstract class DiscItemSaverBuilder {
     /** Initiates the saving process. */
     abstract public void startSave(@Nonnull ProgressLogger pl, @CheckForNull File directory)
             throws LoggedFailure, TaskCanceledException;
+
+    /** Prepares to save as part of a {@link SharedClaimSaver} pass instead of
+     * {@link #startSave(jpsxdec.i18n.log.ProgressLogger, java.io.File)}.
+     * Returns null if the item can only be saved on its own. */
+    public @CheckForNull SharedClaimSaver.Participant prepareSharedSave(@Nonnull ILocalizedLogger log,
+                                                                        @CheckForNull File directory)
+            throws LoggedFailure
+    {
+        return null;
+    }
 }
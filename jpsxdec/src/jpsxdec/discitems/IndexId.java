@@ -177,6 +177,31 @@ public class IndexId {
         return false;
     }
 
+    /** Returns if either id is an ancestor of the other, or they're the same. */
+    public boolean isSameLineage(@Nonnull IndexId other) {
+        for (IndexId id = this; id != null; id = id.createParent()) {
+            if (id.equals(other))
+                return true;
+        }
+        for (IndexId id = other; id != null; id = id.createParent()) {
+            if (id.equals(this))
+                return true;
+        }
+        return false;
+    }
+
+    /** Returns the id of the direct parent of this id,
+     * or null if this is a root id.
+     * @see #isParent(IndexId) */
+    public @CheckForNull IndexId createParent() {
+        if (isRoot())
+            return null;
+        // _aiTreeIndexes already confirmed to != null in isRoot()
+        if (_aiTreeIndexes.length == 1)
+            return new IndexId(_sourceFile);
+        return new IndexId(_sourceFile, Arrays.copyOf(_aiTreeIndexes, _aiTreeIndexes.length - 1));
+    }
+
     public boolean isRoot() {
         if (_aiTreeIndexes == null)
             return true;
@@ -221,6 +246,7 @@ public class IndexId {
     public int hashCode() {
         int hash = 5;
         hash = 89 * hash + (_sourceFile != null ? _sourceFile.hashCode() : 0);
+        hash = 89 * hash + Arrays.hashCode(_aiTreeIndexes);
         return hash;
     }
 
@@ -0,0 +1,150 @@
+/*
+ * jPSXdec: PlayStation 1 Media Decoder/Converter in Java
+ * Copyright (C) 2007-2019  Michael Sabin
+ * All rights reserved.
+ *
+ * Redistribution and use of the jPSXdec code or any derivative works are
+ * permitted provided that the following conditions are met:
+ *
+ *  * Redistributions may not be sold, nor may they be used in commercial
+ *    or revenue-generating business activities.
+ *
+ *  * Redistributions that are modified from the original source must
+ *    include the complete source code, including the source code for all
+ *    components used by a binary built from the modified sources. However, as
+ *    a special exception, the source code distributed need not include
+ *    anything that is normally distributed (in either source or binary form)
+ *    with the major components (compiler, kernel, and so on) of the operating
+ *    system on which the executable runs, unless that component itself
+ *    accompanies the executable.
+ *
+ *  * Redistributions must reproduce the above copyright notice, this list
+ *    of conditions and the following disclaimer in the documentation and/or
+ *    other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package jpsxdec.formats;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import javax.annotation.Nonnull;
+import jpsxdec.util.Misc;
+
+/** Writes Rec.601 YCbCr 4:2:0 frames as a YUV4MPEG2 ('y4m') stream.
+ *<p>
+ * Unlike AVI, the format has no header that needs to be filled in after
+ * the fact, and no index, so it can be written to a stream that can't seek
+ * (standard output, or a named pipe feeding another program). The trade-off
+ * is that the only way to repeat a frame is to write the whole frame again.
+ *<p>
+ * The stream is declared as progressive, square pixel, limited range,
+ * with centered (JPEG/MPEG-1 style) chroma siting, which matches how the
+ * MDEC subsamples chroma. */
+public class Yuv4mpeg2Writer implements Closeable {
+
+    private static final byte[] FRAME_HEADER = Misc.stringToAscii("FRAME\n");
+
+    @Nonnull
+    private final OutputStream _out;
+    private final int _iWidth, _iHeight;
+    private final int _iYSize, _iCSize;
+    /** Frame header followed by the Y, Cb, and Cr planes of the last frame
+     * written, so a frame can be repeated. */
+    @Nonnull
+    private final byte[] _abFrame;
+    private long _lngFramesWritten = 0;
+
+    /** Writes the stream header immediately.
+     * @throws IllegalArgumentException if dimensions are not even. */
+    public Yuv4mpeg2Writer(@Nonnull OutputStream out, int iWidth, int iHeight,
+                           long lngFpsNum, long lngFpsDenom)
+            throws IOException
+    {
+        if (((iWidth | iHeight) & 1) != 0 || iWidth < 1 || iHeight < 1)
+            throw new IllegalArgumentException("Dimensions must be divisible by 2");
+        _out = out;
+        _iWidth = iWidth;
+        _iHeight = iHeight;
+        _iYSize = iWidth * iHeight;
+        _iCSize = _iYSize / 4;
+        _abFrame = new byte[FRAME_HEADER.length + _iYSize + _iCSize * 2];
+        System.arraycopy(FRAME_HEADER, 0, _abFrame, 0, FRAME_HEADER.length);
+
+        String sHeader = String.format("YUV4MPEG2 W%d H%d F%d:%d Ip A1:1 C420jpeg XCOLORRANGE=LIMITED\n",
+                                       iWidth, iHeight, lngFpsNum, lngFpsDenom);
+        _out.write(Misc.stringToAscii(sHeader));
+    }
+
+    public int getWidth() {
+        return _iWidth;
+    }
+
+    public int getHeight() {
+        return _iHeight;
+    }
+
+    public long getVideoFramesWritten() {
+        return _lngFramesWritten;
+    }
+
+    /** Writes a frame from separate Y, Cb, and Cr planes (each with no
+     * padding between lines). */
+    public void write(@Nonnull byte[] abY, @Nonnull byte[] abCb, @Nonnull byte[] abCr)
+            throws IOException
+    {
+        if (abY.length < _iYSize)
+            throw new IllegalArgumentException("Y data wrong size.");
+        if (abCb.length < _iCSize)
+            throw new IllegalArgumentException("Cb data wrong size.");
+        if (abCr.length < _iCSize)
+            throw new IllegalArgumentException("Cr data wrong size.");
+
+        int iOfs = FRAME_HEADER.length;
+        System.arraycopy(abY, 0, _abFrame, iOfs, _iYSize);
+        iOfs += _iYSize;
+        System.arraycopy(abCb, 0, _abFrame, iOfs, _iCSize);
+        iOfs += _iCSize;
+        System.arraycopy(abCr, 0, _abFrame, iOfs, _iCSize);
+        writeFrame();
+    }
+
+    /** Writes a black frame. */
+    public void writeBlankFrame() throws IOException {
+        int iOfs = FRAME_HEADER.length;
+        Arrays.fill(_abFrame, iOfs, iOfs + _iYSize, (byte)16);
+        Arrays.fill(_abFrame, iOfs + _iYSize, _abFrame.length, (byte)128);
+        writeFrame();
+    }
+
+    /** Writes the previous frame again.
+     * @throws IllegalStateException If no frames have been written yet. */
+    public void repeatPreviousFrame() throws IOException {
+        if (_lngFramesWritten < 1)
+            throw new IllegalStateException("Unable to repeat a previous frame that doesn't exist.");
+        writeFrame();
+    }
+
+    private void writeFrame() throws IOException {
+        _out.write(_abFrame);
+        _lngFramesWritten++;
+    }
+
+    public void close() throws IOException {
+        _out.close();
+    }
+
+}
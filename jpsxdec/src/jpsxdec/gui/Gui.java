@@ -55,6 +55,8 @@ import java.util.logging.Logger;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import javax.swing.*;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
 import javax.swing.event.PopupMenuEvent;
 import javax.swing.event.PopupMenuListener;
 import javax.swing.filechooser.FileFilter;
@@ -122,6 +124,7 @@ public class Gui extends javax.swing.JFrame {
         _guiDirectory.setText(_settings.getSavingDir());
 
         convertToolbar();
+        addScrubBar();
 
         Image icon16 = Toolkit.getDefaultToolkit().createImage(Gui.class.getResource("icon16.png"));
         Image icon32 = Toolkit.getDefaultToolkit().createImage(Gui.class.getResource("icon32.png"));
@@ -134,6 +137,72 @@ public class Gui extends javax.swing.JFrame {
         _sCommandLineFile = sCmdLineFile;
     }
 
+    // -------------------------------------------------------------------------
+    // -- Player scrub bar -----------------------------------------------------
+    // -------------------------------------------------------------------------
+
+    private static final int SCRUB_BAR_STEPS = 1000;
+
+    private final JSlider _guiScrubBar = new JSlider(0, SCRUB_BAR_STEPS, 0);
+    /** Set while the scrub bar is moved to follow the playback, so it isn't
+     * mistaken for the user seeking. */
+    private transient boolean _blnUpdatingScrubBar = false;
+    private transient final Timer _scrubBarTimer = new Timer(250, new ActionListener() {
+        public void actionPerformed(ActionEvent e) {
+            updateScrubBar();
+        }
+    });
+
+    /** Puts a scrub bar next to the play/pause button. */
+    private void addScrubBar() {
+        _guiPreviewContainer.remove(_guiPlayPauseBtn);
+        JPanel controls = new JPanel(new java.awt.BorderLayout());
+        controls.add(_guiPlayPauseBtn, java.awt.BorderLayout.WEST);
+        controls.add(_guiScrubBar, java.awt.BorderLayout.CENTER);
+        _guiPreviewContainer.add(controls, java.awt.BorderLayout.SOUTH);
+
+        _guiScrubBar.setEnabled(false);
+        _guiScrubBar.addChangeListener(new ChangeListener() {
+            public void stateChanged(ChangeEvent e) {
+                // only seek once the user lets go
+                if (_blnUpdatingScrubBar || _guiScrubBar.getValueIsAdjusting() || _currentPlayer == null)
+                    return;
+                long lngDuration = _currentPlayer.getDurationNanos();
+                if (lngDuration > 0)
+                    _currentPlayer.seek(lngDuration * _guiScrubBar.getValue() / SCRUB_BAR_STEPS);
+            }
+        });
+    }
+
+    private void updateScrubBar() {
+        if (_currentPlayer == null || _guiScrubBar.getValueIsAdjusting())
+            return;
+        long lngDuration = _currentPlayer.getDurationNanos();
+        if (lngDuration <= 0)
+            return;
+        long lngPos = _currentPlayer.getPlayTimeNanos() * SCRUB_BAR_STEPS / lngDuration;
+        _blnUpdatingScrubBar = true;
+        try {
+            _guiScrubBar.setValue((int)Math.max(0, Math.min(SCRUB_BAR_STEPS, lngPos)));
+        } finally {
+            _blnUpdatingScrubBar = false;
+        }
+    }
+
+    private void resetScrubBar(boolean blnEnabled) {
+        _blnUpdatingScrubBar = true;
+        try {
+            _guiScrubBar.setValue(0);
+        } finally {
+            _blnUpdatingScrubBar = false;
+        }
+        _guiScrubBar.setEnabled(blnEnabled);
+        if (blnEnabled)
+            _scrubBarTimer.start();
+        else
+            _scrubBarTimer.stop();
+    }
+
     // -------------------------------------------------------------------------
     // -- Toolbar dropdown tweak -----------------------------------------------
     // -------------------------------------------------------------------------
@@ -238,7 +307,7 @@ public class Gui extends javax.swing.JFrame {
             log.log(Level.INFO, I.IO_OPENING_FILE(indexFile.toString()));
             
             setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
-            setIndex(new DiscIndex(indexFile.getPath(), log), indexFile.getName());
+            setIndex(new DiscIndex(indexFile.getPath(), log), indexFile);
             _settings.addPreviousIndex(indexFile.getAbsolutePath());
             _guiSaveIndex.setEnabled(false);
             if (warnErrCount.getWarnCount() > 0 || warnErrCount.getErrCount() > 0) {
@@ -283,7 +352,7 @@ public class Gui extends javax.swing.JFrame {
 
     }
 
-    private void setIndex(@Nonnull DiscIndex index, @CheckForNull String sIndexFile) {
+    private void setIndex(@Nonnull DiscIndex index, @CheckForNull File indexFile) {
         final CdFileSectorReader oldCd;
         if (_index == null)
             oldCd = null;
@@ -297,12 +366,16 @@ public class Gui extends javax.swing.JFrame {
         _guiSaveAll.setEnabled(true);
         _guiSelectAll.setEnabled(true);
 
-        _guiDiscTree.formatTreeTable(_index);
+        File previewDir = null;
+        if (indexFile != null && _settings.getPreviewsOnDisk())
+            previewDir = new File(indexFile.getPath() + ".previews");
+        _guiDiscTree.formatTreeTable(_index, _settings.getPreviewCacheMB() * 1024L * 1024L,
+                                     previewDir);
 
-        if (sIndexFile == null) {
-            sIndexFile = I.GUI_TITLE_UNSAVED_INDEX().getLocalizedMessage();
-        }
-        setIndexTitle(sIndexFile);
+        if (indexFile == null)
+            setIndexTitle(I.GUI_TITLE_UNSAVED_INDEX().getLocalizedMessage());
+        else
+            setIndexTitle(indexFile.getName());
 
         _currentPlayer = null;
 
@@ -380,7 +453,7 @@ public class Gui extends javax.swing.JFrame {
             if (!cd.hasSectorHeader())
                 JOptionPane.showMessageDialog(this, I.GUI_DISC_NO_RAW_HEADERS_WARNING());
 
-            IndexingGui gui = new IndexingGui(this, cd);
+            IndexingGui gui = new IndexingGui(this, cd, _settings.getIndexGames());
             gui.setVisible(true);
             DiscIndex generatedIndex = gui.getIndex();
             if (generatedIndex == null) {
@@ -877,6 +950,8 @@ public class Gui extends javax.swing.JFrame {
                     switch (eEvent) {
                         case End:
                             _guiPlayPauseBtn.setEnabled(false);
+                            _scrubBarTimer.stop();
+                            _guiScrubBar.setEnabled(false);
                             break;
                         case Pause:
                             _guiPlayPauseBtn.setText(I.GUI_PLAY_BTN().getLocalizedMessage());
@@ -913,11 +988,13 @@ public class Gui extends javax.swing.JFrame {
                 _currentPlayer.addEventListener(_playerListener);
                 _guiPlayPauseBtn.setText(I.GUI_PLAY_BTN().getLocalizedMessage());
                 _guiPlayPauseBtn.setEnabled(true);
+                resetScrubBar(_currentPlayer.canSeek());
             }
         } else {
             if (_currentPlayer != null) {
                 _currentPlayer.terminate();
                 _currentPlayer = null;
+                resetScrubBar(false);
                 _guiPreviewPanel.removeAll();
                 _guiPreviewPanel.validate();
                 _guiPreviewPanel.repaint();
@@ -69,6 +69,8 @@ public class GuiFileFilters {
                        s.endsWith(".bin") ||
                        s.endsWith(".img") ||
                        s.endsWith(".mdf") ||
+                       s.endsWith(".ecm") ||
+                       s.endsWith(".jcdz") ||
                        s.endsWith(".str") ||
                        s.endsWith(".iki") ||
                        s.endsWith(".xa");
@@ -82,7 +84,9 @@ public class GuiFileFilters {
                        s.endsWith(".iso") ||
                        s.endsWith(".bin") ||
                        s.endsWith(".img") ||
-                       s.endsWith(".mdf");
+                       s.endsWith(".mdf") ||
+                       s.endsWith(".ecm") ||
+                       s.endsWith(".jcdz");
             }
         },
         new FileFilter() {
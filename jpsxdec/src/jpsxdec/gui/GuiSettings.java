@@ -44,6 +44,7 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 import java.util.Properties;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -51,6 +52,7 @@ import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import jpsxdec.Version;
 import jpsxdec.i18n.I;
+import jpsxdec.modules.video.sectorbased.VideoSectorIdentifier;
 import jpsxdec.util.IO;
 
 /** Maintains GUI settings persistent between program runs. */
@@ -84,6 +86,21 @@ public class GuiSettings {
     private static final String PREVIOUS_INDEX_COUNT_KEY = "PreviousIndexCount";
     private int _iPreviousIndexCount;
 
+    private static final String PREVIEW_CACHE_MB_KEY = "PreviewCacheMB";
+    private int _iPreviewCacheMB;
+
+    /** Saves previews in a directory next to the index file so they
+     * don't need to be created again the next time the index is opened. */
+    private static final String PREVIEWS_ON_DISK_KEY = "PreviewsOnDisk";
+    private boolean _blnPreviewsOnDisk;
+
+    /** Comma separated games whose video sectors are identified when indexing
+     * (the generic STR video sector is always identified).
+     * Removing games that can't be on the disc avoids false detections. */
+    private static final String INDEX_GAMES_KEY = "IndexGames";
+    @Nonnull
+    private Set<VideoSectorIdentifier.Game> _indexGames = VideoSectorIdentifier.ALL_GAMES;
+
     public void load() {
         Properties prop = new Properties();
         FileInputStream propFile = null;
@@ -113,6 +130,23 @@ public class GuiSettings {
         } catch (NumberFormatException ex) {
             _iPreviousIndexCount = 10;
         }
+        try {
+            _iPreviewCacheMB = Integer.parseInt(prop.getProperty(PREVIEW_CACHE_MB_KEY, "16"));
+            if (_iPreviewCacheMB < 0)
+                _iPreviewCacheMB = 16;
+        } catch (NumberFormatException ex) {
+            _iPreviewCacheMB = 16;
+        }
+        _blnPreviewsOnDisk = Boolean.parseBoolean(prop.getProperty(PREVIEWS_ON_DISK_KEY, "false"));
+
+        String sGames = prop.getProperty(INDEX_GAMES_KEY);
+        if (sGames != null) {
+            Set<VideoSectorIdentifier.Game> games = VideoSectorIdentifier.Game.parseList(sGames);
+            if (games == null)
+                LOG.log(Level.WARNING, "Invalid {0} {1}", new Object[]{INDEX_GAMES_KEY, sGames});
+            else
+                _indexGames = games;
+        }
         for (int i=_iPreviousImageCount-1; i >= 0; i--) {
             String s = prop.getProperty(PREVIOUS_IMAGE_KEY + i);
             if (s != null)
@@ -141,6 +175,9 @@ public class GuiSettings {
         for (int i=0; i < _previousIndexes.size(); i++) {
             prop.setProperty(PREVIOUS_INDEX_KEY + i, _previousIndexes.get(i));
         }
+        prop.setProperty(PREVIEW_CACHE_MB_KEY, String.valueOf(_iPreviewCacheMB));
+        prop.setProperty(PREVIEWS_ON_DISK_KEY, String.valueOf(_blnPreviewsOnDisk));
+        prop.setProperty(INDEX_GAMES_KEY, VideoSectorIdentifier.Game.toList(_indexGames));
         FileOutputStream fos = new FileOutputStream(INI_FILE_NAME);
         boolean blnException = true;
         try {
@@ -224,5 +261,17 @@ public class GuiSettings {
         _sSavingDir = sSavingDir;
     }
 
+    public int getPreviewCacheMB() {
+        return _iPreviewCacheMB;
+    }
+
+    public boolean getPreviewsOnDisk() {
+        return _blnPreviewsOnDisk;
+    }
+
+    public @Nonnull Set<VideoSectorIdentifier.Game> getIndexGames() {
+        return _indexGames;
+    }
+
 
 }
@@ -38,22 +38,43 @@
 package jpsxdec.gui;
 
 import java.awt.Component;
+import java.awt.Container;
+import java.awt.Cursor;
+import java.awt.Dimension;
 import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Insets;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import javax.swing.Icon;
 import javax.swing.ImageIcon;
 import javax.swing.JLabel;
 import javax.swing.JTable;
+import javax.swing.JToolTip;
 import javax.swing.JTree;
+import javax.swing.JViewport;
 import javax.swing.ListSelectionModel;
+import javax.swing.Timer;
+import javax.swing.ToolTipManager;
 import javax.swing.UIManager;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
 import javax.swing.event.TreeModelListener;
 import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.TableColumn;
@@ -69,16 +90,38 @@ import jpsxdec.modules.sharedaudio.DiscItemAudioStream;
 import jpsxdec.modules.spu.DiscIndexerSpu;
 import jpsxdec.modules.video.DiscItemVideoStream;
 import jpsxdec.util.player.PlayController;
+import org.jdesktop.swingworker.SwingWorker;
+import org.jdesktop.swingx.JXTable;
 import org.jdesktop.swingx.JXTreeTable;
 import org.jdesktop.swingx.renderer.CheckBoxProvider;
 import org.jdesktop.swingx.renderer.DefaultTableRenderer;
+import org.jdesktop.swingx.table.ColumnFactory;
 import org.jdesktop.swingx.treetable.TreeTableModel;
 
 /** Subclassed {@link JXTreeTable} that maintains my own view-model and other tweaks. 
  * Note that {@link #formatTreeTable(jpsxdec.indexing.DiscIndex)} MUST be called
- * before using the object. */
+ * before using the object.
+ * <p>
+ * The tree is built in the background and only the top level items
+ * are created up front. The children of an item are created the first time
+ * the item is expanded (or something needs to visit every item).
+ * <p>
+ * Previews of the items are shown as tool tips. Previews for the rows
+ * currently visible are created in the background ahead of time. */
 public class GuiTree extends JXTreeTable {
 
+    private static final Logger LOG = Logger.getLogger(GuiTree.class.getName());
+
+    /** Only this many rows are measured when sizing columns, otherwise
+     * packing would render every row of a large disc. */
+    private static final int PACK_SAMPLE_ROWS = 200;
+
+    /** Most items listed in the sector range tool tip. */
+    private static final int MAX_SHARED_SECTOR_ITEMS = 10;
+
+    /** Wait for scrolling to settle before requesting previews. */
+    private static final int PREFETCH_DELAY_MS = 250;
+
     public static final Icon FILE_ICON =
             new ImageIcon(GuiTree.class.getResource("layer-new-3.png"));
             //UIManager.getIcon("FileChooser.fileIcon");
@@ -121,9 +164,69 @@ public class GuiTree extends JXTreeTable {
 
     @CheckForNull
     private RootTreeItem _root;
+    /** Index of the tree being shown. */
+    @CheckForNull
+    private DiscIndex _index;
+    /** Identifies the latest tree being built so older builds are ignored. */
+    private int _iBuildCount = 0;
+
+    @CheckForNull
+    private PreviewCache _previews;
+    /** Item whose preview the tool tip is currently showing. */
+    @CheckForNull
+    private DiscItem _toolTipItem;
+    @CheckForNull
+    private MouseEvent _toolTipEvent;
+    @CheckForNull
+    private Timer _prefetchTimer;
+    @CheckForNull
+    private JViewport _viewport;
+
+    /** Clears the tree and starts building the tree for the index in the
+     * background. The tree is shown when finished.
+     * @param lngPreviewBytes Memory to use for item previews.
+     * @param previewDir Where to save previews, or null to not save them. */
+    public void formatTreeTable(@Nonnull final DiscIndex index, long lngPreviewBytes,
+                                @CheckForNull File previewDir)
+    {
+        final int iBuild = ++_iBuildCount;
+        if (_previews != null)
+            _previews.shutdown();
+        _previews = new PreviewCache(lngPreviewBytes, previewDir, new PreviewCache.Listener() {
+            public void previewReady(@Nonnull DiscItem item) {
+                refreshToolTip(item);
+            }
+        });
+        _toolTipItem = null;
+        _root = new RootTreeItem();
+        setTreeTableModel(new DiscTreeModel(_root));
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+
+        new SwingWorker<RootTreeItem, Void>() {
+            @Override
+            protected RootTreeItem doInBackground() {
+                return buildTree(index.getRoot());
+            }
 
-    public void formatTreeTable(@Nonnull DiscIndex index) {
-        _root = buildTree(index.getRoot());
+            @Override
+            protected void done() {
+                if (iBuild != _iBuildCount)
+                    return; // another index was loaded in the mean time
+                setCursor(Cursor.getDefaultCursor());
+                try {
+                    showTree(index, get());
+                } catch (InterruptedException ex) {
+                    LOG.log(Level.SEVERE, null, ex);
+                } catch (ExecutionException ex) {
+                    LOG.log(Level.SEVERE, "Error building tree", ex.getCause());
+                }
+            }
+        }.execute();
+    }
+
+    private void showTree(@Nonnull DiscIndex index, @Nonnull RootTreeItem root) {
+        _root = root;
+        _index = index;
 
         FontMetrics fm = getFontMetrics(getFont());
         int iSectorWidth = fm.stringWidth("999999-999999");
@@ -134,6 +237,12 @@ public class GuiTree extends JXTreeTable {
         setDefaultRenderer(Boolean.class, new OptionalBooleanTableCellRenderer());
         setTreeCellRenderer(new TreeIconRenderer());
         setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        setColumnFactory(new ColumnFactory() {
+            @Override
+            protected int getRowCount(JXTable table) {
+                return Math.min(PACK_SAMPLE_ROWS, table.getRowCount());
+            }
+        });
 
         setTreeTableModel(new DiscTreeModel(_root));
         packAll();
@@ -144,6 +253,180 @@ public class GuiTree extends JXTreeTable {
         colMod.getColumn(COLUMNS.Type.ordinal()).setPreferredWidth(iTypeWidth + 10);
         TableColumn detailsCol = colMod.getColumn(COLUMNS.Details.ordinal());
         detailsCol.setPreferredWidth(Math.max(250, detailsCol.getWidth()));
+
+        ToolTipManager.sharedInstance().registerComponent(this);
+        schedulePrefetch();
+    }
+
+    // .........................................................................
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        Container parent = getParent();
+        if (parent instanceof JViewport && parent != _viewport) {
+            _viewport = (JViewport) parent;
+            _viewport.addChangeListener(new ChangeListener() {
+                public void stateChanged(ChangeEvent e) {
+                    schedulePrefetch();
+                }
+            });
+        }
+    }
+
+    private void schedulePrefetch() {
+        if (_prefetchTimer == null) {
+            _prefetchTimer = new Timer(PREFETCH_DELAY_MS, new ActionListener() {
+                public void actionPerformed(ActionEvent e) {
+                    prefetchVisiblePreviews();
+                }
+            });
+            _prefetchTimer.setRepeats(false);
+        }
+        _prefetchTimer.restart();
+    }
+
+    private void prefetchVisiblePreviews() {
+        if (_previews == null)
+            return;
+        Rectangle visible = getVisibleRect();
+        int iFirstRow = rowAtPoint(visible.getLocation());
+        if (iFirstRow < 0)
+            return;
+        int iLastRow = rowAtPoint(new Point(visible.x, visible.y + visible.height - 1));
+        if (iLastRow < 0)
+            iLastRow = getRowCount() - 1;
+        ArrayList<DiscItem> items = new ArrayList<DiscItem>(iLastRow - iFirstRow + 1);
+        for (int iRow = iFirstRow; iRow <= iLastRow; iRow++) {
+            DiscItem item = getItemAtRow(iRow);
+            if (item != null)
+                items.add(item);
+        }
+        _previews.request(items);
+    }
+
+    private @CheckForNull DiscItem getItemAtRow(int iRow) {
+        if (iRow < 0)
+            return null;
+        TreePath path = getPathForRow(iRow);
+        if (path == null)
+            return null;
+        return ((TreeItem)path.getLastPathComponent()).getItem();
+    }
+
+    @Override
+    public String getToolTipText(@Nonnull MouseEvent event) {
+        _toolTipItem = null;
+        DiscItem item = getItemAtRow(rowAtPoint(event.getPoint()));
+        if (item != null && _index != null &&
+            convertColumnIndexToModel(columnAtPoint(event.getPoint())) == COLUMNS.Sectors.ordinal())
+        {
+            return getSharedSectorsText(_index, item);
+        }
+        if (_previews == null)
+            return super.getToolTipText(event);
+        if (item == null || !PreviewCache.canPreview(item))
+            return super.getToolTipText(event);
+
+        _toolTipEvent = event;
+        if (!_previews.isDone(item)) {
+            _toolTipItem = item;
+            _previews.request(Collections.singletonList(item));
+            return I.GUI_TREE_PREVIEW_LOADING().getLocalizedMessage();
+        } else if (_previews.get(item) != null) {
+            _toolTipItem = item;
+            return item.getIndexId().toString();
+        } else {
+            return super.getToolTipText(event);
+        }
+    }
+
+    /** Lists the other items in the item's sector range, not counting
+     * its parents or children, or null if there are none. */
+    private static @CheckForNull String getSharedSectorsText(@Nonnull DiscIndex index,
+                                                            @Nonnull DiscItem item)
+    {
+        StringBuilder sb = new StringBuilder();
+        int iCount = 0;
+        for (DiscItem other : index.getItemsOverlapping(item.getStartSector(), item.getEndSector())) {
+            if (other.getIndexId().isSameLineage(item.getIndexId()))
+                continue;
+            if (iCount == MAX_SHARED_SECTOR_ITEMS) {
+                sb.append(", ...");
+                break;
+            }
+            if (iCount > 0)
+                sb.append(", ");
+            sb.append(other.getIndexId());
+            iCount++;
+        }
+        if (iCount == 0)
+            return null;
+        return I.GUI_TREE_SHARED_SECTORS(sb.toString()).getLocalizedMessage();
+    }
+
+    @Override
+    public @Nonnull JToolTip createToolTip() {
+        BufferedImage preview = null;
+        if (_previews != null && _toolTipItem != null)
+            preview = _previews.get(_toolTipItem);
+        PreviewToolTip tip = new PreviewToolTip(preview);
+        tip.setComponent(this);
+        return tip;
+    }
+
+    /** If the tool tip is waiting for this item's preview, have the
+     * {@link ToolTipManager} ask for the tool tip again. */
+    private void refreshToolTip(@Nonnull DiscItem item) {
+        if (item != _toolTipItem || _toolTipEvent == null)
+            return;
+        MouseEvent e = _toolTipEvent;
+        ToolTipManager.sharedInstance().mouseMoved(
+                new MouseEvent(this, MouseEvent.MOUSE_MOVED, System.currentTimeMillis(),
+                               0, e.getX(), e.getY(), 0, false));
+    }
+
+    /** Tool tip with the preview image above the text. */
+    private static class PreviewToolTip extends JToolTip {
+
+        private static final int GAP = 2;
+
+        @CheckForNull
+        private final BufferedImage _preview;
+
+        public PreviewToolTip(@CheckForNull BufferedImage preview) {
+            _preview = preview;
+        }
+
+        @Override
+        public @Nonnull Dimension getPreferredSize() {
+            Dimension size = super.getPreferredSize();
+            if (_preview != null) {
+                size.width = Math.max(size.width, _preview.getWidth() + GAP * 2);
+                size.height += _preview.getHeight() + GAP * 2;
+            }
+            return size;
+        }
+
+        @Override
+        protected void paintComponent(@Nonnull Graphics g) {
+            if (_preview == null) {
+                super.paintComponent(g);
+                return;
+            }
+            Insets insets = getInsets();
+            g.setColor(getBackground());
+            g.fillRect(0, 0, getWidth(), getHeight());
+            g.drawImage(_preview, (getWidth() - _preview.getWidth()) / 2, insets.top + GAP, null);
+            String sText = getTipText();
+            if (sText != null) {
+                FontMetrics fm = g.getFontMetrics(getFont());
+                g.setFont(getFont());
+                g.setColor(getForeground());
+                g.drawString(sText, insets.left + GAP,
+                             insets.top + GAP + _preview.getHeight() + GAP + fm.getAscent());
+            }
+        }
     }
 
     public @CheckForNull TreeItem getTreeTblSelection() {
@@ -223,39 +506,63 @@ public class GuiTree extends JXTreeTable {
 
     public static abstract class TreeItem {
 
+        /** Only includes kids that have been created so far,
+         * see {@link #loadKids()}. */
         protected ArrayList<TreeItem> _kids = new ArrayList<TreeItem>();
+        /** Directory kids by name. Created when the first one is added. */
+        @CheckForNull
+        private HashMap<String, DirectoryTreeItem> _dirs;
+        @CheckForNull
+        private TreeItem _parent;
+        private int _iIndexInParent;
+
+        /** Subclasses create their kids here the first time they're needed. */
+        protected void loadKids() {}
+
+        /** If this has kids, without creating them. */
+        public boolean hasKids() {
+            return kidCount() > 0;
+        }
 
         public @Nonnull TreeItem getKid(int childIndex) {
+            loadKids();
             return _kids.get(childIndex);
         }
 
         public int kidCount() {
+            loadKids();
             return _kids.size();
         }
 
         public int indexOf(@Nonnull Object node) {
-            return _kids.indexOf(node);
+            if (node instanceof TreeItem) {
+                TreeItem kid = (TreeItem) node;
+                if (kid._parent == this)
+                    return kid._iIndexInParent;
+            }
+            return -1;
         }
 
         public void addKid(@Nonnull TreeItem kid) {
+            kid._parent = this;
+            kid._iIndexInParent = _kids.size();
             _kids.add(kid);
         }
 
         public @Nonnull Iterator<TreeItem> iterator() {
+            loadKids();
             return _kids.iterator();
         }
 
         private @Nonnull DirectoryTreeItem getOrCreateDir(@Nonnull String sName) {
-            for (TreeItem node : _kids) {
-                if (node instanceof DirectoryTreeItem) {
-                    DirectoryTreeItem dirNode = (DirectoryTreeItem) node;
-                    if ( dirNode.getName().equals(sName) ) {
-                        return dirNode;
-                    }
-                }
+            if (_dirs == null)
+                _dirs = new HashMap<String, DirectoryTreeItem>();
+            DirectoryTreeItem dirNode = _dirs.get(sName);
+            if (dirNode == null) {
+                dirNode = new DirectoryTreeItem(sName);
+                _dirs.put(sName, dirNode);
+                addKid(dirNode);
             }
-            DirectoryTreeItem dirNode = new DirectoryTreeItem(sName);
-            _kids.add(dirNode);
             return dirNode;
         }
 
@@ -279,8 +586,9 @@ public class GuiTree extends JXTreeTable {
                 if (thisBuilder != null)
                     builders.add(thisBuilder);
             }
-            for (int i=0; i<kidCount(); i++)
-                getKid(i).collectSelected(builders);
+            // kids that haven't been created can't be selected
+            for (TreeItem kid : _kids)
+                kid.collectSelected(builders);
         }
 
         public int applySettings(@Nonnull DiscItemSaverBuilder otherBuilder) {
@@ -341,8 +649,6 @@ public class GuiTree extends JXTreeTable {
             _sDirName = sDirName;
         }
 
-        private @Nonnull Object getName() { return _sDirName; }
-
         @Override
         public Icon getIcon() { return null; }
 
@@ -358,17 +664,29 @@ public class GuiTree extends JXTreeTable {
         @CheckForNull
         private DiscItemSaverBuilder _builder;
         private boolean _blnSave = false;
+        private boolean _blnKidsLoaded = false;
 
         public DiscItemTreeItem(@Nonnull DiscItem item) {
             _item = item;
-            if (item.getChildCount() > 0) {
-                // recursively add the kids
-                for (DiscItem child : item.getChildren()) {
-                    _kids.add(new DiscItemTreeItem(child));
+        }
+
+        @Override
+        protected void loadKids() {
+            if (_blnKidsLoaded)
+                return;
+            _blnKidsLoaded = true;
+            if (_item.getChildCount() > 0) {
+                for (DiscItem child : _item.getChildren()) {
+                    addKid(new DiscItemTreeItem(child));
                 }
             }
         }
 
+        @Override
+        public boolean hasKids() {
+            return _item.getChildCount() > 0;
+        }
+
         @Override
         public @Nonnull DiscItem getItem() {
             return _item;
@@ -524,7 +842,7 @@ public class GuiTree extends JXTreeTable {
         }
 
         public boolean isLeaf(@Nonnull Object node) {
-            return ((TreeItem)node).kidCount() == 0;
+            return !((TreeItem)node).hasKids();
         }
 
         public int getIndexOfChild(@Nonnull Object parent, @Nonnull Object child) {
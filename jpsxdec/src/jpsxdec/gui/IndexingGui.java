@@ -43,6 +43,7 @@ import java.awt.EventQueue;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.util.List;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.annotation.CheckForNull;
@@ -54,6 +55,7 @@ import jpsxdec.i18n.ILocalizedMessage;
 import jpsxdec.i18n.log.ProgressLogger;
 import jpsxdec.i18n.log.UserFriendlyLogger;
 import jpsxdec.indexing.DiscIndex;
+import jpsxdec.modules.video.sectorbased.VideoSectorIdentifier;
 import jpsxdec.util.TaskCanceledException;
 import org.jdesktop.swingworker.SwingWorker;
 
@@ -76,6 +78,8 @@ public class IndexingGui extends javax.swing.JDialog implements PropertyChangeLi
     public DiscIndex _index;
     @Nonnull
     public CdFileSectorReader _cd;
+    @Nonnull
+    private Set<VideoSectorIdentifier.Game> _games;
 
     @Nonnull
     private State _eState = State.NOT_STARTED;
@@ -89,19 +93,26 @@ public class IndexingGui extends javax.swing.JDialog implements PropertyChangeLi
 
 
 
-    /** Creates new form Progress */
-    public IndexingGui(@Nonnull java.awt.Dialog parent, @Nonnull CdFileSectorReader cd) {
+    /** Creates new form Progress
+     * @param games Games whose video sectors will be identified. */
+    public IndexingGui(@Nonnull java.awt.Dialog parent, @Nonnull CdFileSectorReader cd,
+                       @Nonnull Set<VideoSectorIdentifier.Game> games)
+    {
         super(parent, true);
-        sharedConstructor(parent, cd);
+        sharedConstructor(parent, cd, games);
     }
 
-    /** Creates new form Progress */
-    public IndexingGui(@Nonnull java.awt.Frame parent, @Nonnull CdFileSectorReader cd) {
+    /** Creates new form Progress
+     * @param games Games whose video sectors will be identified. */
+    public IndexingGui(@Nonnull java.awt.Frame parent, @Nonnull CdFileSectorReader cd,
+                       @Nonnull Set<VideoSectorIdentifier.Game> games)
+    {
         super(parent, true);
-        sharedConstructor(parent, cd);
+        sharedConstructor(parent, cd, games);
     }
 
-    private void sharedConstructor(@Nonnull java.awt.Window parent, @Nonnull CdFileSectorReader cd)
+    private void sharedConstructor(@Nonnull java.awt.Window parent, @Nonnull CdFileSectorReader cd,
+                                   @Nonnull Set<VideoSectorIdentifier.Game> games)
     {
         initComponents();
 
@@ -112,6 +123,7 @@ public class IndexingGui extends javax.swing.JDialog implements PropertyChangeLi
         setLocationRelativeTo(parent); // center on parent
 
         _cd = cd;
+        _games = games;
         _guiItemName.setText(cd.getSourceFile().getPath());
         _guiResultLbl.setText("");
 
@@ -402,7 +414,7 @@ public class IndexingGui extends javax.swing.JDialog implements PropertyChangeLi
         @Override
         final protected @CheckForNull Void doInBackground() {
             try {
-                _index = new DiscIndex(_cd, __progressLog);
+                _index = new DiscIndex(_cd, _games, __progressLog);
             } catch (TaskCanceledException ex) {
                 // cool
             } catch (Throwable ex) {
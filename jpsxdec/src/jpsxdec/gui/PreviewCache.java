@@ -0,0 +1,520 @@
+/*
+ * jPSXdec: PlayStation 1 Media Decoder/Converter in Java
+ * Copyright (C) 2019  Michael Sabin
+ * All rights reserved.
+ *
+ * Redistribution and use of the jPSXdec code or any derivative works are
+ * permitted provided that the following conditions are met:
+ *
+ *  * Redistributions may not be sold, nor may they be used in commercial
+ *    or revenue-generating business activities.
+ *
+ *  * Redistributions that are modified from the original source must
+ *    include the complete source code, including the source code for all
+ *    components used by a binary built from the modified sources. However, as
+ *    a special exception, the source code distributed need not include
+ *    anything that is normally distributed (in either source or binary form)
+ *    with the major components (compiler, kernel, and so on) of the operating
+ *    system on which the executable runs, unless that component itself
+ *    accompanies the executable.
+ *
+ *  * Redistributions must reproduce the above copyright notice, this list
+ *    of conditions and the following disclaimer in the documentation and/or
+ *    other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package jpsxdec.gui;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.imageio.ImageIO;
+import javax.sound.sampled.AudioFormat;
+import javax.swing.SwingUtilities;
+import jpsxdec.discitems.DiscItem;
+import jpsxdec.i18n.ILocalizedMessage;
+import jpsxdec.i18n.log.ILocalizedLogger;
+import jpsxdec.modules.SectorClaimSystem;
+import jpsxdec.modules.sharedaudio.DecodedAudioPacket;
+import jpsxdec.modules.sharedaudio.DiscItemAudioStream;
+import jpsxdec.modules.sharedaudio.ISectorAudioDecoder;
+import jpsxdec.modules.tim.DiscItemTim;
+import jpsxdec.modules.video.DiscItemVideoStream;
+import jpsxdec.modules.video.ISectorClaimToDemuxedFrame;
+import jpsxdec.modules.video.framenumber.FormattedFrameNumber;
+import jpsxdec.modules.video.framenumber.FrameNumber;
+import jpsxdec.modules.video.save.Frame2Bitstream;
+import jpsxdec.modules.video.save.MdecDecodeQuality;
+import jpsxdec.modules.video.save.VDP;
+import jpsxdec.psxvideo.mdec.MdecDecoder;
+import jpsxdec.psxvideo.mdec.MdecException;
+import jpsxdec.psxvideo.mdec.MdecInputStream;
+import jpsxdec.util.Fraction;
+
+/** Creates small preview images of disc items in the background.
+ * <ul>
+ * <li>Videos: a frame from near the start of the video, decoded at
+ *     {@link MdecDecodeQuality#LOW} quality.
+ * <li>TIM images: the image using the first palette.
+ * <li>Audio: a summary of the waveform.
+ * </ul>
+ * Previews are created by low priority daemon threads. The most recently
+ * requested items are created first, so whatever the user is currently
+ * looking at is handled before anything requested earlier.
+ * <p>
+ * The most recently used previews are kept in memory, up to a limit of
+ * (estimated) bytes. Previews can also be saved as png files in a directory
+ * so they can be reused the next time the index is opened.
+ * <p>
+ * Except for the {@link Listener}, all methods are thread-safe. */
+public class PreviewCache {
+
+    private static final Logger LOG = Logger.getLogger(PreviewCache.class.getName());
+
+    /** Previews are scaled down to fit in this size. */
+    public static final int MAX_WIDTH = 160, MAX_HEIGHT = 120;
+
+    /** The video frame to use as the preview (if the video is long enough).
+     * Videos often start by fading in from black, so the very first frame
+     * is usually not very interesting. */
+    private static final int PREVIEW_FRAME = 30;
+
+    public interface Listener {
+        /** Called on the event dispatch thread when a preview for the item
+         * has been created (or it was found a preview could not be created). */
+        void previewReady(@Nonnull DiscItem item);
+    }
+
+    /** Stored for items where a preview could not be created so
+     * the work isn't repeated. */
+    private static final BufferedImage NO_PREVIEW = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+
+    /** Issues while creating previews are not important enough to bother
+     * the user about. */
+    private static final ILocalizedLogger QUIET_LOG = new ILocalizedLogger() {
+        public void log(@Nonnull Level level, @Nonnull ILocalizedMessage msg) {
+            msg.logEnglish(LOG, Level.FINE);
+        }
+        public void log(@Nonnull Level level, @Nonnull ILocalizedMessage msg, @CheckForNull Throwable debugException) {
+            msg.logEnglish(LOG, Level.FINE, debugException);
+        }
+    };
+
+    /** Access-ordered so the first entry is always the least recently used. */
+    private final LinkedHashMap<String, BufferedImage> _cache =
+            new LinkedHashMap<String, BufferedImage>(16, 0.75f, true);
+    private long _lngCachedBytes = 0;
+    private final long _lngMaxCachedBytes;
+
+    /** Requests that are waiting or being worked on. */
+    private final HashMap<String, Request> _pending = new HashMap<String, Request>();
+    /** Decreases with every request so newer requests run first. */
+    private long _lngNextOrder = 0;
+
+    @CheckForNull
+    private final File _diskDir;
+    @Nonnull
+    private final Listener _listener;
+    @Nonnull
+    private final ThreadPoolExecutor _executor;
+    private volatile boolean _blnShutdown = false;
+
+    /** @param lngMaxCachedBytes Approximate limit of memory used by previews.
+     * @param diskDir Directory to save previews, or null to only keep them
+     *                in memory. Created when the first preview is saved. */
+    public PreviewCache(long lngMaxCachedBytes, @CheckForNull File diskDir,
+                        @Nonnull Listener listener)
+    {
+        _lngMaxCachedBytes = lngMaxCachedBytes;
+        _diskDir = diskDir;
+        _listener = listener;
+        int iThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        _executor = new ThreadPoolExecutor(iThreads, iThreads, 5, TimeUnit.SECONDS,
+                                           new PriorityBlockingQueue<Runnable>(),
+                                           new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, PreviewCache.class.getSimpleName());
+                t.setDaemon(true);
+                t.setPriority(Thread.MIN_PRIORITY);
+                return t;
+            }
+        });
+        _executor.allowCoreThreadTimeOut(true);
+    }
+
+    /** Returns the preview if it is in memory.
+     * @return null if the preview isn't available (yet). */
+    public synchronized @CheckForNull BufferedImage get(@Nonnull DiscItem item) {
+        BufferedImage img = _cache.get(makeKey(item));
+        return img == NO_PREVIEW ? null : img;
+    }
+
+    /** If the item has a preview, or a preview could not be created for it. */
+    public synchronized boolean isDone(@Nonnull DiscItem item) {
+        return _cache.containsKey(makeKey(item));
+    }
+
+    public static boolean canPreview(@Nonnull DiscItem item) {
+        return item instanceof DiscItemVideoStream ||
+               item instanceof DiscItemTim ||
+               item instanceof DiscItemAudioStream;
+    }
+
+    /** Requests previews be created for the items, in the order given.
+     * These will be created before any items requested earlier.
+     * Items already available are ignored. */
+    public synchronized void request(@Nonnull List<DiscItem> items) {
+        if (_blnShutdown)
+            return;
+        _lngNextOrder -= items.size();
+        long lngOrder = _lngNextOrder;
+        for (DiscItem item : items) {
+            lngOrder++;
+            if (!canPreview(item))
+                continue;
+            String sKey = makeKey(item);
+            if (_cache.containsKey(sKey))
+                continue;
+            Request req = _pending.get(sKey);
+            if (req != null) {
+                // bump it up, unless it has already started
+                if (!_executor.remove(req))
+                    continue;
+            }
+            req = new Request(item, sKey, lngOrder);
+            _pending.put(sKey, req);
+            _executor.execute(req);
+        }
+    }
+
+    /** Stops creating previews. Any work in progress finishes in the background. */
+    public synchronized void shutdown() {
+        _blnShutdown = true;
+        _executor.shutdown();
+        _executor.getQueue().clear();
+    }
+
+    /** The serialized item is included in the key in case the index
+     * changes in the future but the previews on disk do not. */
+    private static @Nonnull String makeKey(@Nonnull DiscItem item) {
+        return item.getIndex() + "_" +
+               Integer.toHexString(item.serialize().serialize().hashCode());
+    }
+
+    private class Request implements Runnable, Comparable<Request> {
+        @Nonnull
+        private final DiscItem _item;
+        @Nonnull
+        private final String _sKey;
+        private final long _lngOrder;
+
+        public Request(@Nonnull DiscItem item, @Nonnull String sKey, long lngOrder) {
+            _item = item;
+            _sKey = sKey;
+            _lngOrder = lngOrder;
+        }
+
+        public int compareTo(Request o) {
+            if (_lngOrder < o._lngOrder)
+                return -1;
+            else if (_lngOrder > o._lngOrder)
+                return 1;
+            else
+                return 0;
+        }
+
+        public void run() {
+            if (_blnShutdown)
+                return;
+            BufferedImage img = null;
+            try {
+                img = load(_sKey);
+                if (img == null) {
+                    img = create(_item);
+                    if (img != null && !_blnShutdown)
+                        save(_sKey, img);
+                }
+            } catch (Throwable ex) {
+                // anything can go wrong with a bad disc
+                LOG.log(Level.WARNING, "Error creating preview for " + _item, ex);
+            }
+            if (_blnShutdown)
+                return;
+            put(_sKey, img == null ? NO_PREVIEW : img);
+            SwingUtilities.invokeLater(new Runnable() {
+                public void run() {
+                    if (!_blnShutdown)
+                        _listener.previewReady(_item);
+                }
+            });
+        }
+    }
+
+    private synchronized void put(@Nonnull String sKey, @Nonnull BufferedImage img) {
+        _pending.remove(sKey);
+        BufferedImage old = _cache.put(sKey, img);
+        if (old != null)
+            _lngCachedBytes -= estimateBytes(old);
+        _lngCachedBytes += estimateBytes(img);
+        Iterator<BufferedImage> it = _cache.values().iterator();
+        while (_lngCachedBytes > _lngMaxCachedBytes && it.hasNext()) {
+            BufferedImage eldest = it.next();
+            if (eldest == img)
+                break; // always keep the newest
+            _lngCachedBytes -= estimateBytes(eldest);
+            it.remove();
+        }
+    }
+
+    private static long estimateBytes(@Nonnull BufferedImage img) {
+        return img.getWidth() * img.getHeight() * 4L + 64;
+    }
+
+    // -------------------------------------------------------------------------
+
+    private @CheckForNull BufferedImage load(@Nonnull String sKey) {
+        if (_diskDir == null)
+            return null;
+        File f = new File(_diskDir, sKey + ".png");
+        if (!f.exists())
+            return null;
+        try {
+            return ImageIO.read(f);
+        } catch (IOException ex) {
+            LOG.log(Level.INFO, "Unable to read preview " + f, ex);
+            return null;
+        }
+    }
+
+    private void save(@Nonnull String sKey, @Nonnull BufferedImage img) {
+        if (_diskDir == null)
+            return;
+        if (!_diskDir.exists() && !_diskDir.mkdirs()) {
+            LOG.log(Level.INFO, "Unable to create preview directory {0}", _diskDir);
+            return;
+        }
+        File f = new File(_diskDir, sKey + ".png");
+        try {
+            ImageIO.write(img, "png", f);
+        } catch (IOException ex) {
+            LOG.log(Level.INFO, "Unable to write preview " + f, ex);
+        }
+    }
+
+    // -------------------------------------------------------------------------
+
+    private @CheckForNull BufferedImage create(@Nonnull DiscItem item) throws Exception {
+        if (item instanceof DiscItemVideoStream)
+            return createVideoPreview((DiscItemVideoStream) item);
+        else if (item instanceof DiscItemTim)
+            return scale(((DiscItemTim) item).readTim().toBufferedImage(0));
+        else if (item instanceof DiscItemAudioStream)
+            return createAudioPreview((DiscItemAudioStream) item);
+        else
+            return null;
+    }
+
+    private @CheckForNull BufferedImage createVideoPreview(@Nonnull DiscItemVideoStream vid)
+            throws Exception
+    {
+        FrameGrabber grabber = new FrameGrabber(vid.getWidth(), vid.getHeight(),
+                                                Math.min(vid.getFrameCount() / 4, PREVIEW_FRAME));
+        Frame2Bitstream frame2bitstream = new Frame2Bitstream(FrameNumber.Type.Index);
+        frame2bitstream.setListener(new VDP.Bitstream2Mdec(grabber));
+        frame2bitstream.setListener((VDP.IMdecListener)grabber);
+        ISectorClaimToDemuxedFrame demuxer = vid.makeDemuxer();
+        demuxer.setFrameListener(frame2bitstream);
+
+        SectorClaimSystem it = vid.createClaimSystem();
+        demuxer.attachToSectorClaimer(it);
+        while (it.hasNext() && !grabber._blnDone && !_blnShutdown)
+            it.next(QUIET_LOG);
+        if (!grabber._blnDone)
+            it.close(QUIET_LOG);
+
+        return grabber._blnHasFrame ? scale(grabber._frame) : null;
+    }
+
+    /** Decodes frames until the desired frame (or a later one) decodes
+     * without errors, keeping the last good frame in case none do. */
+    private static class FrameGrabber implements VDP.IMdecListener {
+        @Nonnull
+        private final MdecDecoder _decoder;
+        @Nonnull
+        private final BufferedImage _frame;
+        private final int _iFrameToGrab;
+        private int _iFrameCount = 0;
+        private boolean _blnHasFrame = false;
+        private boolean _blnDone = false;
+
+        public FrameGrabber(int iWidth, int iHeight, int iFrameToGrab) {
+            _decoder = MdecDecodeQuality.LOW.makeDecoder(iWidth, iHeight);
+            _frame = new BufferedImage(iWidth, iHeight, BufferedImage.TYPE_INT_RGB);
+            _iFrameToGrab = iFrameToGrab;
+        }
+
+        public void mdec(@Nonnull MdecInputStream mdecIn, @CheckForNull FormattedFrameNumber frameNumber,
+                         @Nonnull Fraction presentationSector)
+        {
+            if (_blnDone)
+                return;
+            try {
+                _decoder.decode(mdecIn);
+                _decoder.readDecodedRgb(_frame.getWidth(), _frame.getHeight(),
+                        ((DataBufferInt)_frame.getRaster().getDataBuffer()).getData());
+                _blnHasFrame = true;
+            } catch (MdecException.ReadCorruption ex) {
+                // try the next frame
+            } catch (MdecException.EndOfStream ex) {
+                // try the next frame
+            }
+            _iFrameCount++;
+            if (_blnHasFrame && _iFrameCount > _iFrameToGrab)
+                _blnDone = true;
+        }
+
+        public void error(@Nonnull ILocalizedMessage errMsg, @CheckForNull FormattedFrameNumber frameNumber,
+                          @Nonnull Fraction presentationSector)
+        {
+            _iFrameCount++;
+        }
+
+        public @Nonnull ILocalizedLogger getLog() {
+            return QUIET_LOG;
+        }
+    }
+
+    private @CheckForNull BufferedImage createAudioPreview(@Nonnull DiscItemAudioStream aud)
+            throws Exception
+    {
+        long lngSampleFrames = aud.getSampleFrameCount();
+        if (lngSampleFrames <= 0)
+            return null;
+        ISectorAudioDecoder decoder = aud.makeDecoder(1.0);
+        Waveform waveform = new Waveform(lngSampleFrames);
+        decoder.setAudioListener(waveform);
+
+        SectorClaimSystem it = aud.createClaimSystem();
+        decoder.attachToSectorClaimer(it);
+        while (it.hasNext() && !_blnShutdown)
+            it.next(QUIET_LOG);
+        it.close(QUIET_LOG);
+
+        return waveform.draw();
+    }
+
+    /** Tracks the smallest and largest sample for each column of the image. */
+    private static class Waveform implements DecodedAudioPacket.Listener {
+        private final long _lngTotalSampleFrames;
+        private long _lngSampleFrame = 0;
+        private final int[] _aiMin = new int[MAX_WIDTH];
+        private final int[] _aiMax = new int[MAX_WIDTH];
+
+        public Waveform(long lngTotalSampleFrames) {
+            _lngTotalSampleFrames = lngTotalSampleFrames;
+        }
+
+        public void audioPacketComplete(@Nonnull DecodedAudioPacket packet,
+                                        @Nonnull ILocalizedLogger log)
+        {
+            AudioFormat fmt = packet.getAudioFormat();
+            if (fmt.getSampleSizeInBits() != 16)
+                return;
+            boolean blnBigEndian = fmt.isBigEndian();
+            int iChannels = fmt.getChannels();
+            byte[] abData = packet.getData();
+            int iFrameSize = 2 * iChannels;
+            for (int i = 0; i + iFrameSize <= abData.length; i += iFrameSize) {
+                int iCol = (int) (_lngSampleFrame * MAX_WIDTH / _lngTotalSampleFrames);
+                if (iCol >= MAX_WIDTH)
+                    iCol = MAX_WIDTH - 1;
+                for (int iChan = 0; iChan < iChannels; iChan++) {
+                    int iOfs = i + iChan * 2;
+                    int iSample = blnBigEndian ?
+                            (abData[iOfs] << 8) | (abData[iOfs + 1] & 0xff) :
+                            (abData[iOfs + 1] << 8) | (abData[iOfs] & 0xff);
+                    if (iSample < _aiMin[iCol])
+                        _aiMin[iCol] = iSample;
+                    if (iSample > _aiMax[iCol])
+                        _aiMax[iCol] = iSample;
+                }
+                _lngSampleFrame++;
+            }
+        }
+
+        public @Nonnull BufferedImage draw() {
+            int iHeight = MAX_HEIGHT / 2;
+            BufferedImage bi = new BufferedImage(MAX_WIDTH, iHeight, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = bi.createGraphics();
+            try {
+                g.setColor(Color.BLACK);
+                g.fillRect(0, 0, MAX_WIDTH, iHeight);
+                g.setColor(Color.DARK_GRAY);
+                g.drawLine(0, iHeight / 2, MAX_WIDTH, iHeight / 2);
+                g.setColor(Color.GREEN);
+                for (int x = 0; x < MAX_WIDTH; x++) {
+                    int iTop = (32767 - _aiMax[x]) * (iHeight - 1) / 65535;
+                    int iBottom = (32767 - _aiMin[x]) * (iHeight - 1) / 65535;
+                    g.drawLine(x, iTop, x, iBottom);
+                }
+            } finally {
+                g.dispose();
+            }
+            return bi;
+        }
+    }
+
+    /** Scales the image down to fit in the preview size, keeping the
+     * aspect ratio. Smaller images are left as is. */
+    private static @Nonnull BufferedImage scale(@Nonnull BufferedImage src) {
+        int iWidth = src.getWidth(), iHeight = src.getHeight();
+        if (iWidth <= MAX_WIDTH && iHeight <= MAX_HEIGHT)
+            return src;
+        if (iWidth * MAX_HEIGHT > iHeight * MAX_WIDTH) {
+            iHeight = Math.max(1, iHeight * MAX_WIDTH / iWidth);
+            iWidth = MAX_WIDTH;
+        } else {
+            iWidth = Math.max(1, iWidth * MAX_HEIGHT / iHeight);
+            iHeight = MAX_HEIGHT;
+        }
+        BufferedImage dst = new BufferedImage(iWidth, iHeight, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = dst.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                               RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(src, 0, 0, iWidth, iHeight, null);
+        } finally {
+            g.dispose();
+        }
+        return dst;
+    }
+}
@@ -59,6 +59,30 @@ public class I {
         return msg("CMD_USING_SRC_FILE", "Using source file {0}", sourceFileName);
     }
 
+    /**
+    <table border="1"><tr><td>
+    <pre>Reusing open disc {0}</pre>
+    </td></tr></table>
+    <ul>
+       <li>Command.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage CMD_REUSING_OPEN_DISC(@Nonnull java.io.File sourceFile) {
+        return msg("CMD_REUSING_OPEN_DISC", "Reusing open disc {0}", sourceFile);
+    }
+
+    /**
+    <table border="1"><tr><td>
+    <pre>Reusing loaded index {0}</pre>
+    </td></tr></table>
+    <ul>
+       <li>Command.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage CMD_REUSING_LOADED_INDEX(@Nonnull java.io.File indexFile) {
+        return msg("CMD_REUSING_LOADED_INDEX", "Reusing loaded index {0}", indexFile);
+    }
+
     /**
     <table border="1"><tr><td>
     <pre>Need a input file and/or index file to load.</pre>
@@ -134,6 +158,247 @@ public class I {
         return msg("CMD_INPUT_FILE_NOT_FOUND", "Input file not found {0}", fileName);
     }
 
+    /**
+    <table border="1"><tr><td>
+    <pre>Opening sector overlay {0}</pre>
+    </td></tr></table>
+    <ul>
+       <li>Command.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage CMD_OPENING_OVERLAY(@Nonnull String overlayFileName) {
+        return msg("CMD_OPENING_OVERLAY", "Opening sector overlay {0}", overlayFileName);
+    }
+
+    /**
+    <table border="1"><tr><td>
+    <pre>-stats can only be used while no other jobs are running</pre>
+    </td></tr></table>
+    <ul>
+       <li>CommandLine.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage CMD_STATS_OTHER_JOBS_RUNNING() {
+        return msg("CMD_STATS_OTHER_JOBS_RUNNING", "-stats can only be used while no other jobs are running");
+    }
+
+    /**
+    <table border="1"><tr><td>
+    <pre>-y4mout - can&#x27;t be used in a -server job</pre>
+    </td></tr></table>
+    <ul>
+       <li>CommandLine.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage CMD_Y4MOUT_STDOUT_IN_SERVER() {
+        return msg("CMD_Y4MOUT_STDOUT_IN_SERVER", "-y4mout - can't be used in a -server job");
+    }
+
+    /**
+    <table border="1"><tr><td>
+    <pre>Statistics ({0,number,#.##} sec):</pre>
+    </td></tr></table>
+    <ul>
+       <li>CommandLine.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage CMD_STATS_HEADER(double elapsedSeconds) {
+        return msg("CMD_STATS_HEADER", "Statistics ({0,number,#.##} sec):", elapsedSeconds);
+    }
+
+    /**
+    <table border="1"><tr><td>
+    <pre>Sectors read: {0,number,#} ({1,number,#.#}/sec, {2,number,#.##} sec reading the disc)</pre>
+    </td></tr></table>
+    <ul>
+       <li>CommandLine.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage CMD_STATS_SECTORS_READ(long sectorCount, double sectorsPerSecond, double readSeconds) {
+        return msg("CMD_STATS_SECTORS_READ", "Sectors read: {0,number,#} ({1,number,#.#}/sec, {2,number,#.##} sec reading the disc)", sectorCount, sectorsPerSecond, readSeconds);
+    }
+
+    /**
+    <table border="1"><tr><td>
+    <pre>  {0}: {1,number,#}</pre>
+    </td></tr></table>
+    <ul>
+       <li>CommandLine.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage CMD_STATS_SECTOR_TYPE(@Nonnull String sectorType, long sectorCount) {
+        return msg("CMD_STATS_SECTOR_TYPE", "  {0}: {1,number,#}", sectorType, sectorCount);
+    }
+
+    /**
+    <table border="1"><tr><td>
+    <pre>Frames demuxed: {0,number,#}, decoded: {1,number,#} ({2,number,#.##} sec), written: {3,number,#} ({4,number,#.#}/sec)</pre>
+    </td></tr></table>
+    <ul>
+       <li>CommandLine.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage CMD_STATS_FRAMES(long demuxedCount, long decodedCount, double decodeSeconds, long writtenCount, double writtenPerSecond) {
+        return msg("CMD_STATS_FRAMES", "Frames demuxed: {0,number,#}, decoded: {1,number,#} ({2,number,#.##} sec), written: {3,number,#} ({4,number,#.#}/sec)", demuxedCount, decodedCount, decodeSeconds, writtenCount, writtenPerSecond);
+    }
+
+    /**
+    <table border="1"><tr><td>
+    <pre>Audio sample frames decoded: {0,number,#}</pre>
+    </td></tr></table>
+    <ul>
+       <li>CommandLine.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage CMD_STATS_AUDIO(long sampleFrameCount) {
+        return msg("CMD_STATS_AUDIO", "Audio sample frames decoded: {0,number,#}", sampleFrameCount);
+    }
+
+    /**
+    <table border="1"><tr><td>
+    <pre>Bytes written: {0,number,#}</pre>
+    </td></tr></table>
+    <ul>
+       <li>CommandLine.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage CMD_STATS_BYTES_WRITTEN(long byteCount) {
+        return msg("CMD_STATS_BYTES_WRITTEN", "Bytes written: {0,number,#}", byteCount);
+    }
+
+    /**
+    <table border="1"><tr><td>
+    <pre>Job server reading jobs from standard input</pre>
+    </td></tr></table>
+    <ul>
+       <li>JobServer.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage CMD_SERVER_LISTENING_STDIN() {
+        return msg("CMD_SERVER_LISTENING_STDIN", "Job server reading jobs from standard input");
+    }
+
+    /**
+    <table border="1"><tr><td>
+    <pre>Job server listening on {0}</pre>
+    </td></tr></table>
+    <ul>
+       <li>JobServer.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage CMD_SERVER_LISTENING_PORT(@Nonnull String address) {
+        return msg("CMD_SERVER_LISTENING_PORT", "Job server listening on {0}", address);
+    }
+
+    /**
+    <table border="1"><tr><td>
+    <pre>Invalid -server value &quot;{0}&quot;, must be &quot;stdin&quot; or a port number</pre>
+    </td></tr></table>
+    <ul>
+       <li>JobServer.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage CMD_SERVER_INVALID(@Nonnull String value) {
+        return msg("CMD_SERVER_INVALID", "Invalid -server value \"{0}\", must be \"stdin\" or a port number", value);
+    }
+
+    /**
+    <table border="1"><tr><td>
+    <pre>Invalid -games value &quot;{0}&quot;, must be a comma separated list of: {1}</pre>
+    </td></tr></table>
+    <ul>
+       <li>CommandLine.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage CMD_GAMES_INVALID(@Nonnull String value, @Nonnull String validGames) {
+        return msg("CMD_GAMES_INVALID", "Invalid -games value \"{0}\", must be a comma separated list of: {1}", value, validGames);
+    }
+
+    /**
+    <table border="1"><tr><td>
+    <pre>Job server stopped after {0,number,#} jobs</pre>
+    </td></tr></table>
+    <ul>
+       <li>JobServer.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage CMD_SERVER_STOPPED(int jobCount) {
+        return msg("CMD_SERVER_STOPPED", "Job server stopped after {0,number,#} jobs", jobCount);
+    }
+
+    /**
+    <table border="1"><tr><td>
+    <pre>Sector overlay file required (-overlay)</pre>
+    </td></tr></table>
+    <ul>
+       <li>Command_Materialize.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage CMD_OVERLAY_REQUIRED() {
+        return msg("CMD_OVERLAY_REQUIRED", "Sector overlay file required (-overlay)");
+    }
+
+    /**
+    <table border="1"><tr><td>
+    <pre>Writing disc image with {0,number,#} patched sectors to {1}</pre>
+    </td></tr></table>
+    <ul>
+       <li>Command_Materialize.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage CMD_MATERIALIZING_OVERLAY(int patchedSectorCount, @Nonnull java.io.File outputFileName) {
+        return msg("CMD_MATERIALIZING_OVERLAY", "Writing disc image with {0,number,#} patched sectors to {1}", patchedSectorCount, outputFileName);
+    }
+
+    /**
+    <table border="1"><tr><td>
+    <pre>Output file {0} is also an input file</pre>
+    </td></tr></table>
+    <ul>
+       <li>Command_Compress.java</li>
+       <li>Command_Materialize.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage CMD_OUTPUT_IS_INPUT(@Nonnull java.io.File outputFileName) {
+        return msg("CMD_OUTPUT_IS_INPUT", "Output file {0} is also an input file", outputFileName);
+    }
+
+    /**
+    <table border="1"><tr><td>
+    <pre>Compressing disc image to {0}</pre>
+    </td></tr></table>
+    <ul>
+       <li>Command_Compress.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage CMD_COMPRESSING_DISC(@Nonnull java.io.File outputFileName) {
+        return msg("CMD_COMPRESSING_DISC", "Compressing disc image to {0}", outputFileName);
+    }
+
+    /**
+    <table border="1"><tr><td>
+    <pre>Compressed {0,number,#} bytes to {1,number,#} bytes</pre>
+    </td></tr></table>
+    <ul>
+       <li>Command_Compress.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage CMD_COMPRESSED_DISC(long originalSize, long compressedSize) {
+        return msg("CMD_COMPRESSED_DISC", "Compressed {0,number,#} bytes to {1,number,#} bytes", originalSize, compressedSize);
+    }
+
+    /**
+    <table border="1"><tr><td>
+    <pre>-compress can&#x27;t apply a sector overlay, use -materialize first</pre>
+    </td></tr></table>
+    <ul>
+       <li>Command_Compress.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage CMD_COMPRESS_NO_OVERLAY() {
+        return msg("CMD_COMPRESS_NO_OVERLAY", "-compress can't apply a sector overlay, use -materialize first");
+    }
+
     /**
     <table border="1"><tr><td>
     <pre>Invalid item number: {0}</pre>
@@ -285,6 +550,18 @@ public class I {
         return msg("CMD_ALL_ITEMS_COMPLETE", "All index items complete.");
     }
 
+    /**
+    <table border="1"><tr><td>
+    <pre>Saving {0,number,#} items in {1,number,#} pass(es) over the disc</pre>
+    </td></tr></table>
+    <ul>
+       <li>Command_Items.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage CMD_SINGLE_PASS_SAVING(int itemCount, int passCount) {
+        return msg("CMD_SINGLE_PASS_SAVING", "Saving {0,number,#} items in {1,number,#} pass(es) over the disc", itemCount, passCount);
+    }
+
     /**
     <table border="1"><tr><td>
     <pre>Disc decoding/extracting complete.</pre>
@@ -347,6 +624,30 @@ public class I {
         return msg("CMD_BACKUP_DISC_IMAGE_WARNING", "Hope your disc image is backed up because this is irreversible.");
     }
 
+    /**
+    <table border="1"><tr><td>
+    <pre>Patched sectors are also within the sectors of {0}</pre>
+    </td></tr></table>
+    <ul>
+       <li>Command_Items.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage CMD_PATCH_OVERLAPS_ITEM(@Nonnull String discItemDescription) {
+        return msg("CMD_PATCH_OVERLAPS_ITEM", "Patched sectors are also within the sectors of {0}", discItemDescription);
+    }
+
+    /**
+    <table border="1"><tr><td>
+    <pre>Writing changes to overlay {0}. The disc image will not be modified.</pre>
+    </td></tr></table>
+    <ul>
+       <li>Command_Items.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage CMD_PATCHING_TO_OVERLAY(@Nonnull java.io.File overlayFileName) {
+        return msg("CMD_PATCHING_TO_OVERLAY", "Writing changes to overlay {0}. The disc image will not be modified.", overlayFileName);
+    }
+
     /**
     <table border="1"><tr><td>
     <pre>Invalid or missing XA item number {0}</pre>
@@ -723,6 +1024,18 @@ public class I {
         return msg("CMD_VISUALIZATION_ERR", "Error creating or writing the visualization");
     }
 
+    /**
+    <table border="1"><tr><td>
+    <pre>-zoom {0} would make the visualization too large, the most for this disc is {1,number,#.######}</pre>
+    </td></tr></table>
+    <ul>
+       <li>Command_Visualize.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage CMD_VISUALIZATION_ZOOM_TOO_LARGE(@Nonnull String zoomValue, double maximumZoom) {
+        return msg("CMD_VISUALIZATION_ZOOM_TOO_LARGE", "-zoom {0} would make the visualization too large, the most for this disc is {1,number,#.######}", zoomValue, maximumZoom);
+    }
+
     /**
     <table border="1"><tr><td>
     <pre>Error loading index file: {0}</pre>
@@ -747,6 +1060,78 @@ public class I {
         return msg("CMD_NUM_ITEMS_FOUND", "{0,number,#} items found", itemCount);
     }
 
+    /**
+    <table border="1"><tr><td>
+    <pre>Indexing {0,number,#} discs with {1,number,#} threads</pre>
+    </td></tr></table>
+    <ul>
+       <li>Command_BatchIndex.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage CMD_BATCH_INDEX_START(int discCount, int threadCount) {
+        return msg("CMD_BATCH_INDEX_START", "Indexing {0,number,#} discs with {1,number,#} threads", discCount, threadCount);
+    }
+
+    /**
+    <table border="1"><tr><td>
+    <pre>No disc images found in {0}</pre>
+    </td></tr></table>
+    <ul>
+       <li>Command_BatchIndex.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage CMD_BATCH_INDEX_NO_DISCS(@Nonnull java.io.File source) {
+        return msg("CMD_BATCH_INDEX_NO_DISCS", "No disc images found in {0}", source);
+    }
+
+    /**
+    <table border="1"><tr><td>
+    <pre>[{0,number,#}/{1,number,#}] {2}: {3,number,#} items in {4,number,#.##} sec</pre>
+    </td></tr></table>
+    <ul>
+       <li>Command_BatchIndex.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage CMD_BATCH_INDEX_DISC_DONE(int discNumber, int discCount, @Nonnull java.io.File disc, int itemCount, double seconds) {
+        return msg("CMD_BATCH_INDEX_DISC_DONE", "[{0,number,#}/{1,number,#}] {2}: {3,number,#} items in {4,number,#.##} sec", discNumber, discCount, disc, itemCount, seconds);
+    }
+
+    /**
+    <table border="1"><tr><td>
+    <pre>[{0,number,#}/{1,number,#}] {2}: {3}</pre>
+    </td></tr></table>
+    <ul>
+       <li>Command_BatchIndex.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage CMD_BATCH_INDEX_DISC_FAIL(int discNumber, int discCount, @Nonnull java.io.File disc, @Nonnull ILocalizedMessage errorMessage) {
+        return msg("CMD_BATCH_INDEX_DISC_FAIL", "[{0,number,#}/{1,number,#}] {2}: {3}", discNumber, discCount, disc, errorMessage);
+    }
+
+    /**
+    <table border="1"><tr><td>
+    <pre>Indexed {0,number,#} discs ({1,number,#} failed), {2,number,#} sectors in {3,number,#.##} sec ({4,number,#.#} sectors/sec)</pre>
+    </td></tr></table>
+    <ul>
+       <li>Command_BatchIndex.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage CMD_BATCH_INDEX_DONE(int discCount, int failedCount, long sectorCount, double seconds, double sectorsPerSecond) {
+        return msg("CMD_BATCH_INDEX_DONE", "Indexed {0,number,#} discs ({1,number,#} failed), {2,number,#} sectors in {3,number,#.##} sec ({4,number,#.#} sectors/sec)", discCount, failedCount, sectorCount, seconds, sectorsPerSecond);
+    }
+
+    /**
+    <table border="1"><tr><td>
+    <pre>Writing summary to {0}</pre>
+    </td></tr></table>
+    <ul>
+       <li>Command_BatchIndex.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage CMD_BATCH_INDEX_SUMMARY(@Nonnull java.io.File summaryFile) {
+        return msg("CMD_BATCH_INDEX_SUMMARY", "Writing summary to {0}", summaryFile);
+    }
+
     /**
     <table border="1"><tr><td>
     <pre>Building index</pre>
@@ -946,6 +1331,18 @@ public class I {
         return msg("CD_FILE_TOO_SMALL", "{0} is too small to be recognized", fileName);
     }
 
+    /**
+    <table border="1"><tr><td>
+    <pre>Sector overlay {0} was not created for this disc image</pre>
+    </td></tr></table>
+    <ul>
+       <li>SectorOverlay.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage OVERLAY_NOT_FOR_DISC(@Nonnull java.io.File overlayFileName) {
+        return msg("OVERLAY_NOT_FOR_DISC", "Sector overlay {0} was not created for this disc image", overlayFileName);
+    }
+
     /**
     <table border="1"><tr><td>
     <pre>*Unsaved*</pre>
@@ -1345,7 +1742,7 @@ public class I {
 
     /**
     <table border="1"><tr><td>
-    <pre>CD images (*.iso, *.bin, *.img, *.mdf)</pre>
+    <pre>CD images (*.iso, *.bin, *.img, *.mdf, *.ecm, *.jcdz)</pre>
     </td></tr></table>
     <p>File dialog format</p>
     <ul>
@@ -1353,7 +1750,7 @@ public class I {
     </ul>
     */
     public static @Nonnull ILocalizedMessage GUI_CD_IMAGE_EXTENSIONS() {
-        return msg("GUI_CD_IMAGE_EXTENSIONS", "CD images (*.iso, *.bin, *.img, *.mdf)");
+        return msg("GUI_CD_IMAGE_EXTENSIONS", "CD images (*.iso, *.bin, *.img, *.mdf, *.ecm, *.jcdz)");
     }
 
     /**
@@ -1459,6 +1856,31 @@ Do you want to replace it?</pre>
         return msg("GUI_TREE_TYPE_COLUMN", "Type");
     }
 
+    /**
+    <table border="1"><tr><td>
+    <pre>Loading preview...</pre>
+    </td></tr></table>
+    <ul>
+       <li>GuiTree.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage GUI_TREE_PREVIEW_LOADING() {
+        return msg("GUI_TREE_PREVIEW_LOADING", "Loading preview...");
+    }
+
+    /**
+    <table border="1"><tr><td>
+    <pre>Sectors shared with {0}</pre>
+    </td></tr></table>
+    <p>Tool tip of the sector range of an item, listing other items in the same sectors</p>
+    <ul>
+       <li>GuiTree.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage GUI_TREE_SHARED_SECTORS(@Nonnull String discItemIds) {
+        return msg("GUI_TREE_SHARED_SECTORS", "Sectors shared with {0}", discItemIds);
+    }
+
     /**
     <table border="1"><tr><td>
     <pre>none</pre>
@@ -4138,6 +4560,18 @@ Do you want to replace it?</pre>
         return msg("WRITING_SILENCE_TO_KEEP_AV_SYNCED", "Adding {0,number,#} samples to keep audio in sync.", sampleCount);
     }
 
+    /**
+    <table border="1"><tr><td>
+    <pre>Raw PCM audio: {0} (signed 16-bit little-endian, {1,number,#} Hz, {2,number,#} channel(s))</pre>
+    </td></tr></table>
+    <ul>
+       <li>VDP.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage Y4M_RAW_PCM_AUDIO(@Nonnull java.io.File pcmFile, int sampleRate, int channels) {
+        return msg("Y4M_RAW_PCM_AUDIO", "Raw PCM audio: {0} (signed 16-bit little-endian, {1,number,#} Hz, {2,number,#} channel(s))", pcmFile, sampleRate, channels);
+    }
+
     /**
     <table border="1"><tr><td>
     <pre>Image sequence: png</pre>
@@ -4363,6 +4797,31 @@ Do you want to replace it?</pre>
         return msg("VID_AVI_YUV_COMMAND", "avi:yuv");
     }
 
+    /**
+    <table border="1"><tr><td>
+    <pre>YUV4MPEG2 (y4m) stream with raw PCM audio</pre>
+    </td></tr></table>
+    <ul>
+       <li>VideoFormat.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage VID_Y4M_DESCRIPTION() {
+        return msg("VID_Y4M_DESCRIPTION", "YUV4MPEG2 (y4m) stream with raw PCM audio");
+    }
+
+    /**
+    <table border="1"><tr><td>
+    <pre>y4m</pre>
+    </td></tr></table>
+    <p>1 word (no spaces) user can type on command-line. Not case sensitive</p>
+    <ul>
+       <li>VideoFormat.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage VID_Y4M_COMMAND() {
+        return msg("VID_Y4M_COMMAND", "y4m");
+    }
+
     /**
     <table border="1"><tr><td>
     <pre>{0}-{1}</pre>
@@ -4609,6 +5068,68 @@ Do you want to replace it?</pre>
         return msg("CMD_VIDEO_DS_HELP", "Specify 1 or 2 if disc speed is unknown.");
     }
 
+    /**
+    <table border="1"><tr><td>
+    <pre>-y4mout &lt;file&gt;</pre>
+    </td></tr></table>
+    <p>Note that the command -y4mout is hard-coded</p>
+    <ul>
+       <li>VideoSaverBuilder.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage CMD_VIDEO_Y4MOUT() {
+        return msg("CMD_VIDEO_Y4MOUT", "-y4mout <file>");
+    }
+
+    /**
+    <table border="1"><tr><td>
+    <pre>Write y4m video to this file or named pipe instead. Use - for standard output (other output is then written to standard error). Only when saving a single item.</pre>
+    </td></tr></table>
+    <ul>
+       <li>VideoSaverBuilder.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage CMD_VIDEO_Y4MOUT_HELP() {
+        return msg("CMD_VIDEO_Y4MOUT_HELP", "Write y4m video to this file or named pipe instead. Use - for standard output (other output is then written to standard error). Only when saving a single item.");
+    }
+
+    /**
+    <table border="1"><tr><td>
+    <pre>-pcmout &lt;file&gt;</pre>
+    </td></tr></table>
+    <p>Note that the command -pcmout is hard-coded</p>
+    <ul>
+       <li>VideoSaverBuilder.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage CMD_VIDEO_PCMOUT() {
+        return msg("CMD_VIDEO_PCMOUT", "-pcmout <file>");
+    }
+
+    /**
+    <table border="1"><tr><td>
+    <pre>Write the audio for y4m video as raw PCM to this file or named pipe instead. The video is opened first. Only when saving a single item.</pre>
+    </td></tr></table>
+    <ul>
+       <li>VideoSaverBuilder.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage CMD_VIDEO_PCMOUT_HELP() {
+        return msg("CMD_VIDEO_PCMOUT_HELP", "Write the audio for y4m video as raw PCM to this file or named pipe instead. The video is opened first. Only when saving a single item.");
+    }
+
+    /**
+    <table border="1"><tr><td>
+    <pre>{0} can only be used when saving a single item</pre>
+    </td></tr></table>
+    <ul>
+       <li>Command_Items.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage CMD_VIDEO_OUTPUT_FILE_ONE_ITEM(@Nonnull String optionName) {
+        return msg("CMD_VIDEO_OUTPUT_FILE_ONE_ITEM", "{0} can only be used when saving a single item", optionName);
+    }
+
     /**
     <table border="1"><tr><td>
     <pre>-up &lt;upsampling&gt;</pre>
@@ -5149,6 +5670,43 @@ to: {1}</pre>
         return msg("CMD_TIM_PAL_HELP", "Palettes to save (default all).");
     }
 
+    /**
+    <table border="1"><tr><td>
+    <pre>-palatlas</pre>
+    </td></tr></table>
+    <p>Note that the command -palatlas is hard-coded</p>
+    <ul>
+       <li>TimSaverBuilder.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage CMD_TIM_PALATLAS() {
+        return msg("CMD_TIM_PALATLAS", "-palatlas");
+    }
+
+    /**
+    <table border="1"><tr><td>
+    <pre>Save all selected palettes into one sprite-sheet image instead of one file per palette (only for paletted TIMs and image formats with true color).</pre>
+    </td></tr></table>
+    <ul>
+       <li>TimSaverBuilder.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage CMD_TIM_PALATLAS_HELP() {
+        return msg("CMD_TIM_PALATLAS_HELP", "Save all selected palettes into one sprite-sheet image instead of one file per palette (only for paletted TIMs and image formats with true color).");
+    }
+
+    /**
+    <table border="1"><tr><td>
+    <pre>Ignoring -palatlas because it is only available for paletted TIMs saved as image formats with true color</pre>
+    </td></tr></table>
+    <ul>
+       <li>TimSaverBuilder.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage CMD_IGNORING_PALATLAS() {
+        return msg("CMD_IGNORING_PALATLAS", "Ignoring -palatlas because it is only available for paletted TIMs saved as image formats with true color");
+    }
+
     /**
     <table border="1"><tr><td>
     <pre>-imgfmt,-if &lt;format&gt;</pre>
@@ -5233,6 +5791,18 @@ to: {1}</pre>
         return msg("GUI_TIM_SAVE_FORMAT_LABEL", "Format:");
     }
 
+    /**
+    <table border="1"><tr><td>
+    <pre>Palette atlas:</pre>
+    </td></tr></table>
+    <ul>
+       <li>TimSaverBuilderGui.java</li>
+    </ul>
+    */
+    public static @Nonnull ILocalizedMessage GUI_TIM_PALETTE_ATLAS_LABEL() {
+        return msg("GUI_TIM_PALETTE_ATLAS_LABEL", "Palette atlas:");
+    }
+
     /**
     <table border="1"><tr><td>
     <pre>Error reading TIM preview
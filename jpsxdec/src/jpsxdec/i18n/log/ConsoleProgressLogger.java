@@ -37,6 +37,7 @@
 
 package jpsxdec.i18n.log;
 
+import java.io.File;
 import java.io.PrintStream;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
@@ -57,7 +58,14 @@ public class ConsoleProgressLogger extends ProgressLogger implements UserFriendl
     private final PrintStream _progressStream;
 
     public ConsoleProgressLogger(@Nonnull String sBaseName, @Nonnull PrintStream progressStream) {
-        super(sBaseName);
+        this(sBaseName, null, progressStream);
+    }
+
+    /** @param logFile If null, uses the base name in the current directory. */
+    public ConsoleProgressLogger(@Nonnull String sBaseName, @CheckForNull File logFile,
+                                 @Nonnull PrintStream progressStream)
+    {
+        super(sBaseName, logFile);
         _progressStream = progressStream;
         setListener(this);
     }
@@ -37,7 +37,9 @@
 
 package jpsxdec.i18n.log;
 
+import java.io.File;
 import java.io.PrintStream;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import jpsxdec.i18n.ILocalizedMessage;
 import jpsxdec.util.TaskCanceledException;
@@ -54,6 +56,9 @@ public abstract class ProgressLogger extends UserFriendlyLogger {
     public ProgressLogger(@Nonnull String sBaseName) {
         super(sBaseName);
     }
+    public ProgressLogger(@Nonnull String sBaseName, @CheckForNull File logFile) {
+        super(sBaseName, logFile);
+    }
 
     final public void progressStart(double dblMaxValue) throws TaskCanceledException {
         progressStart(0, dblMaxValue);
@@ -92,6 +92,10 @@ public class UserFriendlyLogger implements ILocalizedLogger, Closeable {
     /** Filename of the logger file. Null if logging to a PrintStream. */
     @CheckForNull
     private File _file;
+    /** Log file to create, or null to use the base name in the current
+     * directory. */
+    @CheckForNull
+    private final File _logFile;
     /** Stream where all logging goes to. */
     @CheckForNull
     private PrintStream _logStream;
@@ -108,7 +112,16 @@ public class UserFriendlyLogger implements ILocalizedLogger, Closeable {
 
     /** Logger will create a logging file upon first log. */
     public UserFriendlyLogger(@Nonnull String sBaseName) {
+        this(sBaseName, (File)null);
+    }
+
+    /** Logger will create the given logging file upon first log.
+     * The base name is still used as the name of the Java logger, so
+     * many log files can share the same name.
+     * @param logFile If null, uses the base name in the current directory. */
+    public UserFriendlyLogger(@Nonnull String sBaseName, @CheckForNull File logFile) {
         _sBaseName = sBaseName;
+        _logFile = logFile;
         _javaLogger = Logger.getLogger(_sBaseName);
     }
 
@@ -161,7 +174,7 @@ public class UserFriendlyLogger implements ILocalizedLogger, Closeable {
      * If fails, tries to create a temp file with the same base name.
      * If that fails, logs to System.err.  */
     private void openOutputFile() {
-        File file = new File(_sBaseName + ".log");
+        File file = _logFile != null ? _logFile : new File(_sBaseName + ".log");
         FileOutputStream fos = null;
         try {
             fos = new FileOutputStream(file);
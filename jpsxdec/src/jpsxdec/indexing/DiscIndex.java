@@ -49,10 +49,10 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.annotation.CheckForNull;
@@ -71,7 +71,9 @@ import jpsxdec.i18n.log.ProgressLogger;
 import jpsxdec.modules.SectorClaimSystem;
 import jpsxdec.modules.iso9660.DiscItemISO9660File;
 import jpsxdec.modules.sharedaudio.DiscItemAudioStream;
+import jpsxdec.modules.strvideo.SectorClaimToStrVideoSector;
 import jpsxdec.modules.strvideo.DiscItemStrVideoStream;
+import jpsxdec.modules.video.sectorbased.VideoSectorIdentifier;
 import jpsxdec.util.IO;
 import jpsxdec.util.Misc;
 import jpsxdec.util.TaskCanceledException;
@@ -123,13 +125,29 @@ public class DiscIndex implements Iterable<DiscItem> {
     private String _sDiscName = null;
     @Nonnull
     private final ArrayList<DiscItem> _root;
-    private final List<DiscItem> _iterate = new LinkedList<DiscItem>();
+    private final ArrayList<DiscItem> _iterate = new ArrayList<DiscItem>();
 
-    private final LinkedHashMap<Object, DiscItem> _lookup = new LinkedHashMap<Object, DiscItem>();
+    /** Created once all the items are known. */
+    @Nonnull
+    private final DiscItemLookup _lookup;
+    /** Created once all the items are known.
+     * Positions are the same as in {@link #_iterate}. */
+    @Nonnull
+    private final SectorIntervalIndex _sectorIndex;
 
     /** Finds all the interesting items on the CD. */
     public DiscIndex(@Nonnull CdFileSectorReader cdReader, @Nonnull final ProgressLogger pl) 
             throws TaskCanceledException
+    {
+        this(cdReader, VideoSectorIdentifier.ALL_GAMES, pl);
+    }
+
+    /** Finds all the interesting items on the CD, only looking for the
+     * game specific video sectors of the given games. */
+    public DiscIndex(@Nonnull CdFileSectorReader cdReader,
+                     @Nonnull Set<VideoSectorIdentifier.Game> games,
+                     @Nonnull final ProgressLogger pl)
+            throws TaskCanceledException
     {
         _sourceCD = cdReader;
         
@@ -146,6 +164,7 @@ public class DiscIndex implements Iterable<DiscItem> {
 
         @Nonnull
         SectorClaimSystem sectorIter = SectorClaimSystem.create(cdReader);
+        sectorIter.getClaimer(SectorClaimToStrVideoSector.class).setGames(games);
         for (DiscIndexer indexer : indexers) {
             indexer.attachToSectorClaimer(sectorIter);
         }
@@ -178,17 +197,17 @@ public class DiscIndex implements Iterable<DiscItem> {
         // sort the numbered index list according to the start sector & hierarchy level
         Collections.sort(_iterate, SORT_BY_SECTOR_HIERARHCY);
 
-        _root = buildTree(_iterate);
+        _sectorIndex = new SectorIntervalIndex(_iterate);
+        _root = buildTree(_iterate, _sectorIndex);
 
-        // copy the items to the hash
+        // number the items
         int iIndex = 0;
         for (DiscItem item : _iterate) {
-            // take this opportunity to check for anything that isn't completely in the disc
-            // (probably just iso 9660 files existing off the end of the CD)
             item.setIndex(iIndex);
             iIndex++;
-            addLookupItem(item);
         }
+        _iterate.trimToSize();
+        _lookup = new DiscItemLookup(_iterate);
         
         // notify the indexers that the list has been generated
         for (DiscIndexer indexer : indexers) {
@@ -205,14 +224,24 @@ public class DiscIndex implements Iterable<DiscItem> {
     }
 
 
-    private @Nonnull ArrayList<DiscItem> buildTree(@Nonnull Collection<DiscItem> allItems) {
+    private @Nonnull ArrayList<DiscItem> buildTree(@Nonnull Collection<DiscItem> allItems,
+                                                   @Nonnull SectorIntervalIndex sectorIndex)
+    {
 
         ArrayList<DiscItem> rootItems = new ArrayList<DiscItem>();
 
-        for (DiscItem child : allItems) {
+        // an item can only be the parent of items it overlaps
+        // so only those need to be rated
+        // (rated in the same order as the list so ties are resolved the same)
+        DiscItem[] aoItems = allItems.toArray(new DiscItem[allItems.size()]);
+
+        for (DiscItem child : aoItems) {
             DiscItem bestParent = null;
             int iBestParentRating = 0;
-            for (DiscItem parent : allItems) {
+            int[] aiCandidates = sectorIndex.findOverlappingPositions(
+                    child.getStartSector(), child.getEndSector());
+            for (int iCandidate : aiCandidates) {
+                DiscItem parent = aoItems[iCandidate];
                 int iRating = parent.getParentRating(child);
                 if (iRating > iBestParentRating) {
                     bestParent = parent;
@@ -271,6 +300,45 @@ public class DiscIndex implements Iterable<DiscItem> {
         }
     };
 
+    /** Reads only enough of the CD index file to find the disc image
+     * it was created from. */
+    public static @Nonnull File readSourceFile(@Nonnull String sIndexFile)
+            throws IndexNotFoundException,
+                   IndexReadException,
+                   LocalizedDeserializationFail
+    {
+        File indexFile = new File(sIndexFile);
+
+        FileInputStream fis;
+        try {
+            fis = new FileInputStream(indexFile);
+        } catch (FileNotFoundException ex) {
+            throw new IndexNotFoundException(indexFile, ex);
+        }
+        BufferedReader reader;
+        try {
+            reader = new BufferedReader(new InputStreamReader(fis, "UTF-8"));
+        } catch (UnsupportedEncodingException ex) {
+            IO.closeSilently(fis, LOG);
+            throw new RuntimeException("Every implementation of the Java platform is required to support UTF-8", ex);
+        }
+
+        try {
+            String sLine = reader.readLine();
+            if (!Version.IndexHeader.equals(sLine))
+                throw new LocalizedDeserializationFail(I.INDEX_HEADER_MISSING());
+            while ((sLine = reader.readLine()) != null) {
+                if (sLine.startsWith(CdFileSectorReader.SERIALIZATION_START))
+                    return CdFileSectorReader.deserializeSourceFile(sLine);
+            }
+        } catch (IOException ex) {
+            throw new IndexReadException(indexFile, ex);
+        } finally {
+            IO.closeSilently(reader, LOG);
+        }
+        throw new LocalizedDeserializationFail(I.INDEX_NO_CD(CdFileSectorReader.SERIALIZATION_START));
+    }
+
     /** Deserializes the CD index file, and tries to open the CD listed in the index. */
     public DiscIndex(@Nonnull String sIndexFile, @Nonnull ILocalizedLogger errLog)
             throws IndexNotFoundException,
@@ -446,10 +514,10 @@ public class DiscIndex implements Iterable<DiscItem> {
             _root = recreateTree(_iterate, errLog);
 
             // ..........................................................
-            // copy the items to this class
-            for (DiscItem item : _iterate) {
-                addLookupItem(item);
-            }
+            // create the lookup
+            _iterate.trimToSize();
+            _lookup = new DiscItemLookup(_iterate);
+            _sectorIndex = new SectorIntervalIndex(_iterate);
 
             // ..........................................................
             // notify the indexers that the list has been generated
@@ -477,7 +545,13 @@ public class DiscIndex implements Iterable<DiscItem> {
     private static @Nonnull ArrayList<DiscItem> recreateTree(@Nonnull Collection<DiscItem> allItems, @Nonnull ILocalizedLogger log) {
         ArrayList<DiscItem> rootItems = new ArrayList<DiscItem>();
 
-        Outside:
+        // if there are duplicate ids, the first one wins
+        HashMap<IndexId, DiscItem> itemsById = new HashMap<IndexId, DiscItem>();
+        for (DiscItem item : allItems) {
+            if (!itemsById.containsKey(item.getIndexId()))
+                itemsById.put(item.getIndexId(), item);
+        }
+
         for (DiscItem child : allItems) {
             IndexId itemId = child.getIndexId();
             if (itemId.isRoot()) {
@@ -485,16 +559,13 @@ public class DiscIndex implements Iterable<DiscItem> {
                 continue;
             }
             
-            for (DiscItem possibleParent : allItems) {
-                if (possibleParent == child)
-                    continue;
-                if (itemId.isParent(possibleParent.getIndexId())) {
-                    if (!possibleParent.addChild(child)) {
-                        log.log(Level.WARNING, I.INDEX_INCONSTSTENCIES());
-                        LOG.log(Level.WARNING, "{0} rejected {1}", new Object[]{possibleParent, child});
-                    }
-                    continue Outside;
+            DiscItem possibleParent = itemsById.get(itemId.createParent());
+            if (possibleParent != null) {
+                if (!possibleParent.addChild(child)) {
+                    log.log(Level.WARNING, I.INDEX_INCONSTSTENCIES());
+                    LOG.log(Level.WARNING, "{0} rejected {1}", new Object[]{possibleParent, child});
                 }
+                continue;
             }
             rootItems.add(child);
         }
@@ -503,13 +574,6 @@ public class DiscIndex implements Iterable<DiscItem> {
     }
 
 
-    /** Adds item to the internal hash. */
-    private void addLookupItem(@Nonnull DiscItem item) {
-        _lookup.put(Integer.valueOf(item.getIndex()), item);
-        _lookup.put(item.getIndexId().serialize(), item);
-    }
-
-
     /** Serializes the list of disc items to a file. */
     public void serializeIndex(@Nonnull File file)
             throws FileNotFoundException
@@ -547,15 +611,31 @@ public class DiscIndex implements Iterable<DiscItem> {
     }
 
     public @CheckForNull DiscItem getByIndex(int iIndex) {
-        return _lookup.get(Integer.valueOf(iIndex));
+        return _lookup.getByIndex(iIndex);
     }
 
     public @CheckForNull DiscItem getById(@Nonnull String sId) {
-        return _lookup.get(sId);
+        return _lookup.getById(sId);
     }
     
+    /** Returns every item that includes the sector, in index order.
+     * Takes O(log n + k) time. */
+    public @Nonnull List<DiscItem> getItemsAtSector(int iSector) {
+        return getItemsOverlapping(iSector, iSector);
+    }
+
+    /** Returns every item that includes at least one sector of the
+     * (inclusive) range, in index order. Takes O(log n + k) time. */
+    public @Nonnull List<DiscItem> getItemsOverlapping(int iStartSector, int iEndSector) {
+        int[] aiPositions = _sectorIndex.findOverlappingPositions(iStartSector, iEndSector);
+        ArrayList<DiscItem> items = new ArrayList<DiscItem>(aiPositions.length);
+        for (int iPosition : aiPositions)
+            items.add(_iterate.get(iPosition));
+        return items;
+    }
+
     public boolean hasIndex(int iIndex) {
-        return _lookup.containsKey(Integer.valueOf(iIndex));
+        return _lookup.hasIndex(iIndex);
     }
 
     public @Nonnull CdFileSectorReader getSourceCd() {
@@ -0,0 +1,154 @@
+/*
+ * jPSXdec: PlayStation 1 Media Decoder/Converter in Java
+ * Copyright (C) 2019  Michael Sabin
+ * All rights reserved.
+ *
+ * Redistribution and use of the jPSXdec code or any derivative works are
+ * permitted provided that the following conditions are met:
+ *
+ *  * Redistributions may not be sold, nor may they be used in commercial
+ *    or revenue-generating business activities.
+ *
+ *  * Redistributions that are modified from the original source must
+ *    include the complete source code, including the source code for all
+ *    components used by a binary built from the modified sources. However, as
+ *    a special exception, the source code distributed need not include
+ *    anything that is normally distributed (in either source or binary form)
+ *    with the major components (compiler, kernel, and so on) of the operating
+ *    system on which the executable runs, unless that component itself
+ *    accompanies the executable.
+ *
+ *  * Redistributions must reproduce the above copyright notice, this list
+ *    of conditions and the following disclaimer in the documentation and/or
+ *    other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package jpsxdec.indexing;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import jpsxdec.discitems.DiscItem;
+
+/** Immutable lookup of {@link DiscItem}s by index number and by id.
+ * <p>
+ * Keys are kept in sorted primitive/String arrays and found with a binary
+ * search, instead of boxing every key into a hash map entry. For discs
+ * with tens of thousands of items this is a fraction of the memory.
+ * <p>
+ * If more than one item has the same key, the last one in the list wins. */
+class DiscItemLookup {
+
+    @Nonnull
+    private final List<DiscItem> _items;
+
+    /** Sorted item index numbers. */
+    @Nonnull
+    private final int[] _aiIndexes;
+    /** Position in the list of the item with the index number at the same position. */
+    @Nonnull
+    private final int[] _aiIndexPositions;
+
+    /** Sorted item ids. */
+    @Nonnull
+    private final String[] _asIds;
+    /** Position in the list of the item with the id at the same position. */
+    @Nonnull
+    private final int[] _aiIdPositions;
+
+    /** The list must not change after this is created. */
+    public DiscItemLookup(@Nonnull List<DiscItem> items) {
+        _items = items;
+        final int iCount = items.size();
+
+        final int[] aiIndexes = new int[iCount];
+        final String[] asIds = new String[iCount];
+        for (int i = 0; i < iCount; i++) {
+            DiscItem item = items.get(i);
+            aiIndexes[i] = item.getIndex();
+            asIds[i] = item.getIndexId().serialize();
+        }
+
+        // stable sorts so the last of any duplicates is also last in the sort
+        Integer[] aioOrder = order(iCount);
+        Arrays.sort(aioOrder, new Comparator<Integer>() {
+            public int compare(Integer o1, Integer o2) {
+                int i1 = aiIndexes[o1.intValue()], i2 = aiIndexes[o2.intValue()];
+                return i1 < i2 ? -1 : (i1 == i2 ? 0 : 1);
+            }
+        });
+        int iUnique = 0;
+        int[] aiSortedIndexes = new int[iCount];
+        int[] aiIndexPositions = new int[iCount];
+        for (int i = 0; i < iCount; i++) {
+            int iPos = aioOrder[i].intValue();
+            if (iUnique > 0 && aiSortedIndexes[iUnique - 1] == aiIndexes[iPos])
+                iUnique--; // replace the earlier duplicate
+            aiSortedIndexes[iUnique] = aiIndexes[iPos];
+            aiIndexPositions[iUnique] = iPos;
+            iUnique++;
+        }
+        _aiIndexes = Arrays.copyOf(aiSortedIndexes, iUnique);
+        _aiIndexPositions = Arrays.copyOf(aiIndexPositions, iUnique);
+
+        aioOrder = order(iCount);
+        Arrays.sort(aioOrder, new Comparator<Integer>() {
+            public int compare(Integer o1, Integer o2) {
+                return asIds[o1.intValue()].compareTo(asIds[o2.intValue()]);
+            }
+        });
+        iUnique = 0;
+        String[] asSortedIds = new String[iCount];
+        int[] aiIdPositions = new int[iCount];
+        for (int i = 0; i < iCount; i++) {
+            int iPos = aioOrder[i].intValue();
+            if (iUnique > 0 && asSortedIds[iUnique - 1].equals(asIds[iPos]))
+                iUnique--; // replace the earlier duplicate
+            asSortedIds[iUnique] = asIds[iPos];
+            aiIdPositions[iUnique] = iPos;
+            iUnique++;
+        }
+        _asIds = Arrays.copyOf(asSortedIds, iUnique);
+        _aiIdPositions = Arrays.copyOf(aiIdPositions, iUnique);
+    }
+
+    private static @Nonnull Integer[] order(int iCount) {
+        Integer[] aio = new Integer[iCount];
+        for (int i = 0; i < iCount; i++)
+            aio[i] = Integer.valueOf(i);
+        return aio;
+    }
+
+    public @CheckForNull DiscItem getByIndex(int iIndex) {
+        int i = Arrays.binarySearch(_aiIndexes, iIndex);
+        if (i < 0)
+            return null;
+        return _items.get(_aiIndexPositions[i]);
+    }
+
+    public boolean hasIndex(int iIndex) {
+        return Arrays.binarySearch(_aiIndexes, iIndex) >= 0;
+    }
+
+    public @CheckForNull DiscItem getById(@Nonnull String sId) {
+        int i = Arrays.binarySearch(_asIds, sId);
+        if (i < 0)
+            return null;
+        return _items.get(_aiIdPositions[i]);
+    }
+
+}
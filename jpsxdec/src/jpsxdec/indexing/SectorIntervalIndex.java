@@ -0,0 +1,169 @@
+/*
+ * jPSXdec: PlayStation 1 Media Decoder/Converter in Java
+ * Copyright (C) 2019  Michael Sabin
+ * All rights reserved.
+ *
+ * Redistribution and use of the jPSXdec code or any derivative works are
+ * permitted provided that the following conditions are met:
+ *
+ *  * Redistributions may not be sold, nor may they be used in commercial
+ *    or revenue-generating business activities.
+ *
+ *  * Redistributions that are modified from the original source must
+ *    include the complete source code, including the source code for all
+ *    components used by a binary built from the modified sources. However, as
+ *    a special exception, the source code distributed need not include
+ *    anything that is normally distributed (in either source or binary form)
+ *    with the major components (compiler, kernel, and so on) of the operating
+ *    system on which the executable runs, unless that component itself
+ *    accompanies the executable.
+ *
+ *  * Redistributions must reproduce the above copyright notice, this list
+ *    of conditions and the following disclaimer in the documentation and/or
+ *    other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package jpsxdec.indexing;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import javax.annotation.Nonnull;
+import jpsxdec.discitems.DiscItem;
+
+/** Immutable index of {@link DiscItem}s by the range of sectors they cover.
+ * Finds all items that overlap a range of sectors in O(log n + k) time.
+ * <p>
+ * The items are sorted by start sector and viewed as an implicit balanced
+ * binary tree (the middle of every sub-range is the root of that sub-range).
+ * Every node also knows the largest end sector of its subtree, so whole
+ * subtrees that end before the query range can be skipped. */
+class SectorIntervalIndex {
+
+    /** Items sorted by start sector. */
+    @Nonnull
+    private final DiscItem[] _aoItems;
+    /** Position of each item in the original collection. */
+    @Nonnull
+    private final int[] _aiOriginalOrder;
+    @Nonnull
+    private final int[] _aiStartSectors;
+    @Nonnull
+    private final int[] _aiEndSectors;
+    /** Largest end sector in the subtree rooted at each position. */
+    @Nonnull
+    private final int[] _aiMaxEndSectors;
+
+    public SectorIntervalIndex(@Nonnull Collection<DiscItem> items) {
+        final int iCount = items.size();
+        final DiscItem[] aoOriginal = items.toArray(new DiscItem[iCount]);
+
+        Integer[] aioOrder = new Integer[iCount];
+        for (int i = 0; i < iCount; i++)
+            aioOrder[i] = Integer.valueOf(i);
+        // stable sort so items starting at the same sector keep their original order
+        Arrays.sort(aioOrder, new Comparator<Integer>() {
+            public int compare(Integer o1, Integer o2) {
+                return Integer.signum(aoOriginal[o1.intValue()].getStartSector() -
+                                      aoOriginal[o2.intValue()].getStartSector());
+            }
+        });
+
+        _aoItems = new DiscItem[iCount];
+        _aiOriginalOrder = new int[iCount];
+        _aiStartSectors = new int[iCount];
+        _aiEndSectors = new int[iCount];
+        _aiMaxEndSectors = new int[iCount];
+        for (int i = 0; i < iCount; i++) {
+            int iOriginal = aioOrder[i].intValue();
+            DiscItem item = aoOriginal[iOriginal];
+            _aoItems[i] = item;
+            _aiOriginalOrder[i] = iOriginal;
+            _aiStartSectors[i] = item.getStartSector();
+            _aiEndSectors[i] = item.getEndSector();
+        }
+        buildMaxEnd(0, iCount - 1);
+    }
+
+    private int buildMaxEnd(int iLow, int iHigh) {
+        if (iLow > iHigh)
+            return Integer.MIN_VALUE;
+        int iMid = (iLow + iHigh) >>> 1;
+        int iMax = Math.max(_aiEndSectors[iMid],
+                            Math.max(buildMaxEnd(iLow, iMid - 1),
+                                     buildMaxEnd(iMid + 1, iHigh)));
+        _aiMaxEndSectors[iMid] = iMax;
+        return iMax;
+    }
+
+    public int size() {
+        return _aoItems.length;
+    }
+
+    /** Receives the items found by a query. */
+    public interface Visitor {
+        /** @param iOriginalPosition Position of the item in the collection
+         *                           used to create the index. */
+        void visit(@Nonnull DiscItem item, int iOriginalPosition);
+    }
+
+    /** Visits every item that shares at least one sector with the
+     * (inclusive) range, in order of start sector. */
+    public void findOverlapping(int iStartSector, int iEndSector, @Nonnull Visitor visitor) {
+        findOverlapping(0, _aoItems.length - 1, iStartSector, iEndSector, visitor);
+    }
+
+    private void findOverlapping(int iLow, int iHigh, int iStartSector, int iEndSector,
+                                 @Nonnull Visitor visitor)
+    {
+        while (iLow <= iHigh) {
+            int iMid = (iLow + iHigh) >>> 1;
+            // nothing in this subtree reaches the start of the range
+            if (_aiMaxEndSectors[iMid] < iStartSector)
+                return;
+            findOverlapping(iLow, iMid - 1, iStartSector, iEndSector, visitor);
+            // everything after this starts after the range
+            if (_aiStartSectors[iMid] > iEndSector)
+                return;
+            if (_aiEndSectors[iMid] >= iStartSector)
+                visitor.visit(_aoItems[iMid], _aiOriginalOrder[iMid]);
+            iLow = iMid + 1;
+        }
+    }
+
+    /** Returns the positions (in the original collection) of every item
+     * that overlaps the range, in original collection order. */
+    public @Nonnull int[] findOverlappingPositions(int iStartSector, int iEndSector) {
+        PositionCollector collector = new PositionCollector();
+        findOverlapping(iStartSector, iEndSector, collector);
+        int[] aiPositions = Arrays.copyOf(collector._aiPositions, collector._iCount);
+        Arrays.sort(aiPositions);
+        return aiPositions;
+    }
+
+    private static class PositionCollector implements Visitor {
+        @Nonnull
+        private int[] _aiPositions = new int[8];
+        private int _iCount = 0;
+
+        public void visit(@Nonnull DiscItem item, int iOriginalPosition) {
+            if (_iCount == _aiPositions.length)
+                _aiPositions = Arrays.copyOf(_aiPositions, _iCount * 2);
+            _aiPositions[_iCount++] = iOriginalPosition;
+        }
+    }
+
+}
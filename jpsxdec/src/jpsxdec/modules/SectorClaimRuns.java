@@ -0,0 +1,179 @@
+/*
+ * jPSXdec: PlayStation 1 Media Decoder/Converter in Java
+ * Copyright (C) 2019  Michael Sabin
+ * All rights reserved.
+ *
+ * Redistribution and use of the jPSXdec code or any derivative works are
+ * permitted provided that the following conditions are met:
+ *
+ *  * Redistributions may not be sold, nor may they be used in commercial
+ *    or revenue-generating business activities.
+ *
+ *  * Redistributions that are modified from the original source must
+ *    include the complete source code, including the source code for all
+ *    components used by a binary built from the modified sources. However, as
+ *    a special exception, the source code distributed need not include
+ *    anything that is normally distributed (in either source or binary form)
+ *    with the major components (compiler, kernel, and so on) of the operating
+ *    system on which the executable runs, unless that component itself
+ *    accompanies the executable.
+ *
+ *  * Redistributions must reproduce the above copyright notice, this list
+ *    of conditions and the following disclaimer in the documentation and/or
+ *    other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package jpsxdec.modules;
+
+import java.util.Arrays;
+import javax.annotation.Nonnull;
+import jpsxdec.cdreaders.CdFileSectorReader;
+import jpsxdec.i18n.log.ILocalizedLogger;
+
+/** Compact run-length map of which kind of {@link IIdentifiedSector} claimed
+ * each sector of a disc.
+ * <p>
+ * Consecutive sectors claimed by the same class are stored as a single run,
+ * so even a full disc with hundreds of thousands of sectors usually becomes
+ * only a few thousand runs. Unclaimed sectors are recorded as
+ * {@link UnidentifiedSector}.
+ * <p>
+ * The map is built with a single pass of {@link SectorClaimSystem} and is
+ * immutable afterwards. */
+public class SectorClaimRuns {
+
+    /** Runs every sector of the disc through a {@link SectorClaimSystem}
+     * and records the class of each sector's claimer. */
+    public static @Nonnull SectorClaimRuns create(@Nonnull CdFileSectorReader cd,
+                                                  @Nonnull ILocalizedLogger log)
+            throws CdFileSectorReader.CdReadException
+    {
+        Builder builder = new Builder();
+        SectorClaimSystem it = SectorClaimSystem.create(cd);
+        while (it.hasNext()) {
+            IIdentifiedSector claimer = it.next(log).getClaimer();
+            builder.add(claimer == null ? UnidentifiedSector.class : claimer.getClass());
+        }
+        it.close(log);
+        return builder.build();
+    }
+
+    /** Builds the run map one sector at a time, in sector order. */
+    public static class Builder {
+        @Nonnull
+        private int[] _aiRunStarts = new int[64];
+        @Nonnull
+        private Class<?>[] _aoRunClaimers = new Class<?>[64];
+        private int _iRunCount = 0;
+        private int _iSectorCount = 0;
+
+        /** Adds the next sector to the map. */
+        public void add(@Nonnull Class<?> claimer) {
+            add(claimer, 1);
+        }
+
+        /** Adds the next {@code iSectors} sectors to the map,
+         * all claimed by the same class. */
+        public void add(@Nonnull Class<?> claimer, int iSectors) {
+            if (iSectors < 1)
+                throw new IllegalArgumentException();
+            if (_iRunCount == 0 || _aoRunClaimers[_iRunCount - 1] != claimer) {
+                if (_iRunCount == _aiRunStarts.length) {
+                    _aiRunStarts = Arrays.copyOf(_aiRunStarts, _iRunCount * 2);
+                    _aoRunClaimers = Arrays.copyOf(_aoRunClaimers, _iRunCount * 2);
+                }
+                _aiRunStarts[_iRunCount] = _iSectorCount;
+                _aoRunClaimers[_iRunCount] = claimer;
+                _iRunCount++;
+            }
+            _iSectorCount += iSectors;
+        }
+
+        public @Nonnull SectorClaimRuns build() {
+            return new SectorClaimRuns(Arrays.copyOf(_aiRunStarts, _iRunCount),
+                                       Arrays.copyOf(_aoRunClaimers, _iRunCount),
+                                       _iSectorCount);
+        }
+    }
+
+    // =========================================================================
+
+    /** First sector of each run, in increasing order. */
+    @Nonnull
+    private final int[] _aiRunStarts;
+    /** Class that claimed the sectors of each run. */
+    @Nonnull
+    private final Class<?>[] _aoRunClaimers;
+    private final int _iSectorCount;
+
+    private SectorClaimRuns(@Nonnull int[] aiRunStarts, @Nonnull Class<?>[] aoRunClaimers,
+                            int iSectorCount)
+    {
+        _aiRunStarts = aiRunStarts;
+        _aoRunClaimers = aoRunClaimers;
+        _iSectorCount = iSectorCount;
+    }
+
+    public int getSectorCount() {
+        return _iSectorCount;
+    }
+
+    public int getRunCount() {
+        return _aiRunStarts.length;
+    }
+
+    public int getRunStartSector(int iRun) {
+        return _aiRunStarts[iRun];
+    }
+
+    /** Exclusive. */
+    public int getRunEndSector(int iRun) {
+        if (iRun + 1 < _aiRunStarts.length)
+            return _aiRunStarts[iRun + 1];
+        else
+            return _iSectorCount;
+    }
+
+    public int getRunLength(int iRun) {
+        return getRunEndSector(iRun) - _aiRunStarts[iRun];
+    }
+
+    public @Nonnull Class<?> getRunClaimer(int iRun) {
+        return _aoRunClaimers[iRun];
+    }
+
+    /** Returns the index of the run that contains the sector.
+     * @throws IndexOutOfBoundsException if the sector is not in the map. */
+    public int findRun(int iSector) {
+        if (iSector < 0 || iSector >= _iSectorCount)
+            throw new IndexOutOfBoundsException(String.valueOf(iSector));
+        int i = Arrays.binarySearch(_aiRunStarts, iSector);
+        if (i < 0)
+            i = -i - 2;
+        return i;
+    }
+
+    /** Returns the class that claimed the sector.
+     * @throws IndexOutOfBoundsException if the sector is not in the map. */
+    public @Nonnull Class<?> getClaimerAt(int iSector) {
+        return _aoRunClaimers[findRun(iSector)];
+    }
+
+    @Override
+    public String toString() {
+        return getRunCount() + " runs over " + _iSectorCount + " sectors";
+    }
+}
@@ -57,6 +57,7 @@ import jpsxdec.modules.strvideo.SectorClaimToStrVideoSector;
 import jpsxdec.modules.xa.SectorClaimToSectorXaAudio;
 import jpsxdec.util.BufferedIOIterator;
 import jpsxdec.util.IOIterator;
+import jpsxdec.util.RunStats;
 
 /** The final and universal way to identify and handle CD sectors.
  * <p>
@@ -264,6 +265,10 @@ public class SectorClaimSystem {
                     throw (CdFileSectorReader.CdReadException)ex;
                 throw new CdFileSectorReader.CdReadException(getSourceCdFile(), ex);
             }
+            if (RunStats.enabled()) {
+                IIdentifiedSector claimer = next.getClaimer();
+                RunStats.sectorIdentified(claimer == null ? "(unclaimed)" : claimer.getTypeName());
+            }
             return new ClaimedSector(next._inner);
         } finally {
             _log = null;
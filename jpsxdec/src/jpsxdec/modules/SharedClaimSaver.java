@@ -0,0 +1,217 @@
+/*
+ * jPSXdec: PlayStation 1 Media Decoder/Converter in Java
+ * Copyright (C) 2019  Michael Sabin
+ * All rights reserved.
+ *
+ * Redistribution and use of the jPSXdec code or any derivative works are
+ * permitted provided that the following conditions are met:
+ *
+ *  * Redistributions may not be sold, nor may they be used in commercial
+ *    or revenue-generating business activities.
+ *
+ *  * Redistributions that are modified from the original source must
+ *    include the complete source code, including the source code for all
+ *    components used by a binary built from the modified sources. However, as
+ *    a special exception, the source code distributed need not include
+ *    anything that is normally distributed (in either source or binary form)
+ *    with the major components (compiler, kernel, and so on) of the operating
+ *    system on which the executable runs, unless that component itself
+ *    accompanies the executable.
+ *
+ *  * Redistributions must reproduce the above copyright notice, this list
+ *    of conditions and the following disclaimer in the documentation and/or
+ *    other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package jpsxdec.modules;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.logging.Level;
+import javax.annotation.Nonnull;
+import jpsxdec.cdreaders.CdFileSectorReader;
+import jpsxdec.i18n.I;
+import jpsxdec.i18n.exception.LoggedFailure;
+import jpsxdec.i18n.log.ILocalizedLogger;
+import jpsxdec.i18n.log.ProgressLogger;
+import jpsxdec.util.TaskCanceledException;
+
+/** Saves several items while reading the disc only once.
+ * <p>
+ * Items whose sectors overlap are attached to the same
+ * {@link SectorClaimSystem}, so interleaved content (like several XA channels,
+ * or a video and the XA audio around it) is read and identified once no
+ * matter how many items consume it.
+ * <p>
+ * Most claimers only accept a single listener, so at most one
+ * {@link Participant#usesExclusiveClaimer() exclusive} participant is
+ * attached to each claim system. */
+public class SharedClaimSaver {
+
+    /** An item being saved that can share a {@link SectorClaimSystem}. */
+    public interface Participant {
+        /** First sector the participant needs. */
+        int getStartSector();
+        /** Last sector the participant needs (inclusive). */
+        int getEndSector();
+        /** If this attaches to a claimer that only accepts one listener,
+         * in which case it can't share a claim system with other
+         * participants that do the same. */
+        boolean usesExclusiveClaimer();
+
+        void attachToSectorClaimer(@Nonnull SectorClaimSystem scs);
+        /** Called after all participants are attached, but before any
+         * sectors are read. */
+        void startup(@Nonnull ILocalizedLogger log) throws LoggedFailure;
+        /** Called after every sector read by the shared claim system. */
+        void sectorRead(@Nonnull ProgressLogger pl);
+        /** Always called if {@link #startup(ILocalizedLogger)} was successful. */
+        void shutdown();
+    }
+
+    private static final Comparator<Participant> START_SECTOR_ORDER = new Comparator<Participant>() {
+        public int compare(Participant o1, Participant o2) {
+            if (o1.getStartSector() < o2.getStartSector())
+                return -1;
+            else if (o1.getStartSector() > o2.getStartSector())
+                return 1;
+            return 0;
+        }
+    };
+
+    /** Participants attached to the same claim system. */
+    private static class Pass {
+        @Nonnull
+        public final ArrayList<Participant> participants = new ArrayList<Participant>();
+        public int iStartSector = Integer.MAX_VALUE;
+        public int iEndSector = Integer.MIN_VALUE;
+        public boolean blnHasExclusive = false;
+
+        public boolean canAdd(@Nonnull Participant p) {
+            return p.getStartSector() <= iEndSector &&
+                   !(blnHasExclusive && p.usesExclusiveClaimer());
+        }
+
+        public void add(@Nonnull Participant p) {
+            participants.add(p);
+            iStartSector = Math.min(iStartSector, p.getStartSector());
+            iEndSector = Math.max(iEndSector, p.getEndSector());
+            if (p.usesExclusiveClaimer())
+                blnHasExclusive = true;
+        }
+    }
+
+    @Nonnull
+    private final CdFileSectorReader _cd;
+    @Nonnull
+    private final ArrayList<Participant> _participants = new ArrayList<Participant>();
+
+    public SharedClaimSaver(@Nonnull CdFileSectorReader cd) {
+        _cd = cd;
+    }
+
+    public void add(@Nonnull Participant participant) {
+        _participants.add(participant);
+    }
+
+    /** Number of times the disc will be walked to save all the participants. */
+    public int getPassCount() {
+        return groupIntoPasses().size();
+    }
+
+    /** Saves all the participants, reading each sector only once. */
+    public void save(@Nonnull ProgressLogger pl) throws LoggedFailure, TaskCanceledException {
+        for (Pass pass : groupIntoPasses()) {
+            save(pass, pl);
+        }
+    }
+
+    /** Participants are visited in start sector order. Once a pass ends before
+     * a participant starts, no later participant can join it either. */
+    private @Nonnull ArrayList<Pass> groupIntoPasses() {
+        ArrayList<Participant> sorted = new ArrayList<Participant>(_participants);
+        Collections.sort(sorted, START_SECTOR_ORDER);
+
+        ArrayList<Pass> passes = new ArrayList<Pass>();
+        int iFirstOpenPass = 0;
+        for (Participant participant : sorted) {
+            while (iFirstOpenPass < passes.size() &&
+                   passes.get(iFirstOpenPass).iEndSector < participant.getStartSector())
+            {
+                iFirstOpenPass++;
+            }
+
+            Pass addTo = null;
+            for (int i = iFirstOpenPass; i < passes.size(); i++) {
+                if (passes.get(i).canAdd(participant)) {
+                    addTo = passes.get(i);
+                    break;
+                }
+            }
+            if (addTo == null) {
+                addTo = new Pass();
+                passes.add(addTo);
+            }
+            addTo.add(participant);
+        }
+        return passes;
+    }
+
+    private void save(@Nonnull Pass pass, @Nonnull ProgressLogger pl)
+            throws LoggedFailure, TaskCanceledException
+    {
+        SectorClaimSystem it = SectorClaimSystem.create(_cd, pass.iStartSector, pass.iEndSector);
+        for (Participant participant : pass.participants) {
+            participant.attachToSectorClaimer(it);
+        }
+
+        ArrayList<Participant> started = new ArrayList<Participant>(pass.participants.size());
+        pl.progressStart(pass.iEndSector - pass.iStartSector + 1);
+        try {
+            for (Participant participant : pass.participants) {
+                participant.startup(pl);
+                started.add(participant);
+            }
+
+            try {
+                for (int iSector = 0; it.hasNext(); iSector++) {
+                    try {
+                        it.next(pl);
+                    } catch (CdFileSectorReader.CdReadException ex) {
+                        throw new LoggedFailure(pl, Level.SEVERE,
+                                I.IO_READING_FROM_FILE_ERROR_NAME(ex.getFile().toString()), ex);
+                    }
+                    for (Participant participant : pass.participants) {
+                        participant.sectorRead(pl);
+                    }
+                    pl.progressUpdate(iSector);
+                }
+                it.close(pl);
+            } catch (SectorClaimSystem.ClaimerFailure ex) {
+                if (ex.getCause() instanceof LoggedFailure)
+                    throw (LoggedFailure)ex.getCause();
+                throw ex;
+            }
+            pl.progressEnd();
+        } finally {
+            for (Participant participant : started) {
+                participant.shutdown();
+            }
+        }
+    }
+
+}
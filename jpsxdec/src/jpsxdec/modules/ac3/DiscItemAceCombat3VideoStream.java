@@ -54,6 +54,7 @@ import jpsxdec.modules.SectorClaimSystem;
 import jpsxdec.modules.video.Dimensions;
 import jpsxdec.modules.video.IDemuxedFrame;
 import jpsxdec.modules.video.ISectorClaimToDemuxedFrame;
+import jpsxdec.modules.video.framenumber.FrameLookup;
 import jpsxdec.modules.video.framenumber.FrameNumber;
 import jpsxdec.modules.video.framenumber.HeaderFrameNumber;
 import jpsxdec.modules.video.framenumber.IFrameNumberFormatterWithHeader;
@@ -192,6 +193,18 @@ public class DiscItemAceCombat3VideoStream extends DiscItemSectorBasedVideoStrea
                            _iChannel, getStartSector(), getEndSector());
     }
 
+    @Override
+    public @Nonnull ISectorClaimToDemuxedFrame makeDemuxer(int iStartFrame) {
+        return new Demuxer(_iMaxInvFrame,
+                           _headerFrameNumberFormat.makeFormatter(_indexSectorFrameNumberFormat, iStartFrame),
+                           _iChannel, getFrameStartSector(iStartFrame), getEndSector());
+    }
+
+    @Override
+    public int findFrame(@Nonnull FrameLookup lookup) {
+        return _headerFrameNumberFormat.findFrame(_indexSectorFrameNumberFormat, lookup);
+    }
+
 
     /** Public facing (external) demuxer for Ace Combat 3.
      * Wraps {@link Ac3Demuxer} and sets the {@link FrameNumber} for completed 
@@ -54,7 +54,7 @@ public class SectorAconcaguaVideo extends IdentifiedSector
                    IVideoSectorWithFrameNumber
 {
 
-    private final static long MAGIC_NUMBER_BE = 0x60010200;
+    public final static long MAGIC_NUMBER_BE = 0x60010200;
 
     // Magic                           // 4 bytes  @0
     private int _iChunkNumber;         // 2 bytes  @4
@@ -38,13 +38,12 @@
 package jpsxdec.modules.crusader;
 
 import java.io.EOFException;
-import java.io.IOException;
-import java.io.InputStream;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.annotation.Nonnull;
 import jpsxdec.adpcm.SpuAdpcmSoundUnit;
 import jpsxdec.util.BinaryDataNotRecognized;
+import jpsxdec.util.DemuxByteSource;
 import jpsxdec.util.IO;
 
 
@@ -118,15 +117,15 @@ public class CrusaderPacketHeaderReader {
     private static final int ad21 = 0x61643231;
 
 
-    /** Tries to read a Crusader audio or video packet header from the input stream.
-     * @throws EOFException if not enough data in stream to read a header.
-     * @throws IOException if error reading from input stream.
-     * @throws BinaryDataNotRecognized if the next 16 bytes are not recognized as a header.
+    /** Tries to read a Crusader audio or video packet header at the position.
+     * @throws NeedsMoreData if the source is open and doesn't have enough data yet.
+     * @throws EOFException if not enough data in the closed source to read a header.
+     * @throws BinaryDataNotRecognized if the 16 bytes are not recognized as a header.
      */
-    public static @Nonnull Header read(@Nonnull InputStream stream)
-            throws EOFException, IOException, BinaryDataNotRecognized
+    public static @Nonnull Header read(@Nonnull DemuxByteSource<?> source, int iPosition)
+            throws DemuxByteSource.NeedsMoreData, EOFException, BinaryDataNotRecognized
     {
-        byte[] abHeader = IO.readByteArray(stream, 16);
+        byte[] abHeader = source.readByteArray(iPosition, 16);
         try {
             int iPayloadSize = IO.readSInt32BE(abHeader, 4);
             int iRemainingPayloadSize = iPayloadSize - 16;
@@ -38,7 +38,6 @@
 package jpsxdec.modules.crusader;
 
 import java.io.EOFException;
-import java.io.IOException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.annotation.CheckForNull;
@@ -46,9 +45,8 @@ import javax.annotation.Nonnull;
 import jpsxdec.i18n.exception.LoggedFailure;
 import jpsxdec.i18n.log.ILocalizedLogger;
 import jpsxdec.util.BinaryDataNotRecognized;
-import jpsxdec.util.DemuxPushInputStream;
+import jpsxdec.util.DemuxByteSource;
 import jpsxdec.util.DemuxedData;
-import jpsxdec.util.IO;
 
 
 /** Unlike other pipelines, there isn't an end-to-end path from sector to
@@ -78,7 +76,7 @@ public class CrusaderSectorToCrusaderPacket {
     private int _iPrevCrusaderSector = -1;
 
     @CheckForNull
-    private DemuxPushInputStream<CrusaderDemuxPiece> _stream;
+    private DemuxByteSource<CrusaderDemuxPiece> _source;
     @CheckForNull
     private CrusaderPacketHeaderReader.Header _header;
 
@@ -115,44 +113,49 @@ public class CrusaderSectorToCrusaderPacket {
     }
     
     private void addPiece(@Nonnull CrusaderDemuxPiece piece) {
-        if (_stream == null) {
-            _stream = new DemuxPushInputStream<CrusaderDemuxPiece>(piece);
+        if (_source == null) {
+            _source = new DemuxByteSource<CrusaderDemuxPiece>(piece);
         } else {
-            _stream.addPiece(piece);
+            _source.addPiece(piece);
         }
     }
 
     /** Tells this to finish off the video and flush any remaining data. */
     public void endVideo(@Nonnull ILocalizedLogger log) throws LoggedFailure {
-        _stream.close();
+        _source.close();
         read(log);
-        _stream = null;
+        _source = null;
     }
 
     private void read(@Nonnull ILocalizedLogger log) throws LoggedFailure {
         try {
             while (true) {
+                int iPosition = _source.getPosition();
                 if (_header == null) {
-                    _stream.mark(16);
                     try {
-                        _header = CrusaderPacketHeaderReader.read(_stream);
+                        _header = CrusaderPacketHeaderReader.read(_source, iPosition);
+                        _source.setPosition(iPosition + 16);
                     } catch (BinaryDataNotRecognized ex) {
-                        _stream.reset();
                         // there are sectors with unallocated data at the end
                         // of videos, so no need to consider this a warning
                         LOG.log(Level.INFO, "Invalid Crusader header in {0} offset {1,number,#}",
-                                new Object[]{_stream.getCurrentPiece(), _stream.getOffsetInCurrentPiece()});
-                        IO.skip(_stream, 1);
+                                new Object[]{_source.getCurrentPiece(), _source.getOffsetInCurrentPiece()});
+                        _source.skip(1);
                     } catch (EOFException ex) {
                         // must be closed
                         // not enough data to even hold a header, so we're done
-                        _stream = null;
+                        _source = null;
                         return;
                     }
                 } else {
-                    _stream.mark(_header.getByteSize());
-                    int iSkipped = IO.skipMax(_stream, _header.getByteSize());
-                    DemuxedData<CrusaderDemuxPiece> demux = _stream.getMarkToReadDemux();
+                    int iEnd = iPosition + _header.getByteSize();
+                    if (iEnd > _source.getEnd()) {
+                        if (!_source.isClosed())
+                            return; // wait until another sector is added to try again
+                        iEnd = _source.getEnd();
+                    }
+                    DemuxedData<CrusaderDemuxPiece> demux = _source.getDemux(iPosition, iEnd);
+                    _source.setPosition(iEnd);
 
                     if (_header.getByteSize() != demux.getDemuxSize()) {
                         // this is possible if there is an unexpected end
@@ -172,12 +175,12 @@ public class CrusaderSectorToCrusaderPacket {
                         throw new RuntimeException();
                     }
                     _header = null; // packet done
+                    _source.release(iEnd);
                 }
             }
-        } catch (DemuxPushInputStream.NeedsMoreData ex) {
+        } catch (DemuxByteSource.NeedsMoreData ex) {
             // ok, wait until another sector is added to try again
-            _stream.reset();
-        } catch (IOException ex) {
+        } catch (EOFException ex) {
             throw new RuntimeException("Should not happen", ex);
         }
     }
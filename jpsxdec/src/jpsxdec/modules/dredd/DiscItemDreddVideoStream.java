@@ -55,6 +55,7 @@ import jpsxdec.modules.SectorClaimSystem;
 import jpsxdec.modules.video.Dimensions;
 import jpsxdec.modules.video.IDemuxedFrame;
 import jpsxdec.modules.video.ISectorClaimToDemuxedFrame;
+import jpsxdec.modules.video.framenumber.FrameLookup;
 import jpsxdec.modules.video.framenumber.FrameNumber;
 import jpsxdec.modules.video.framenumber.IFrameNumberFormatter;
 import jpsxdec.modules.video.framenumber.IndexSectorFrameNumber;
@@ -170,6 +171,17 @@ public class DiscItemDreddVideoStream extends DiscItemSectorBasedVideoStream {
                            getStartSector(), getEndSector());
     }
 
+    @Override
+    public @Nonnull ISectorClaimToDemuxedFrame makeDemuxer(int iStartFrame) {
+        return new Demuxer(_indexSectorFrameNumberFormat.makeFormatter(iStartFrame),
+                           getFrameStartSector(iStartFrame), getEndSector());
+    }
+
+    @Override
+    public int findFrame(@Nonnull FrameLookup lookup) {
+        return _indexSectorFrameNumberFormat.findFrame(lookup);
+    }
+
 
     public static class Demuxer implements ISectorClaimToDemuxedFrame, SectorClaimToDreddFrame.Listener {
 
@@ -61,7 +61,7 @@ public class SectorGTVideo extends IdentifiedSector
 
     public static final int HEADER_SIZE = 32;
 
-    private static final long GT_MAGIC = 0x53490160;
+    public static final long GT_MAGIC = 0x53490160;
 
     // .. Fields ..........................................................
 
@@ -46,6 +46,7 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.logging.Level;
@@ -235,6 +236,9 @@ public class DiscItemISO9660File extends DiscItem {
 
     public class ISO9660SaverBuilder extends DiscItemSaverBuilder {
 
+        /** Sectors copied between progress updates. */
+        private static final int SAVE_SECTOR_BLOCK_COUNT = 1024;
+
         public ISO9660SaverBuilder() {
         }
 
@@ -336,29 +340,27 @@ public class DiscItemISO9660File extends DiscItem {
             }
             try {
                 pl.progressStart(getStartSector(), getEndSector() + 1);
+                FileChannel out = fos.getChannel();
+                boolean blnSaveRaw = getSaveRaw();
+                int iLastSectorInCd = Math.min(getEndSector(), getSourceCd().getSectorCount() - 1);
                 // TODO: only save the bytes associated with this file from the last sector?
-                for (int iSector = getStartSector(); iSector <= getEndSector(); iSector++) {
-                    if (iSector >= getSourceCd().getSectorCount()) {
-                        throw new LoggedFailure(pl, Level.SEVERE, I.NOT_CONTAINED_IN_DISC(getFormattedPath()));
-                    }
-                    CdSector cdSector;
+                for (int iSector = getStartSector();
+                     iSector <= iLastSectorInCd;
+                     iSector += SAVE_SECTOR_BLOCK_COUNT)
+                {
+                    int iBlockEnd = Math.min(iSector + SAVE_SECTOR_BLOCK_COUNT - 1, iLastSectorInCd);
                     try {
-                        cdSector = getSourceCd().getSector(iSector);
+                        getSourceCd().copySectorsTo(iSector, iBlockEnd, blnSaveRaw, out);
                     } catch (CdFileSectorReader.CdReadException ex) {
                         throw new LoggedFailure(pl, Level.SEVERE, I.IO_READING_FROM_FILE_ERROR_NAME(
                                                 ex.getFile().toString()), ex);
-                    }
-
-                    try {
-                        if (getSaveRaw())
-                            fos.write(cdSector.getRawSectorDataCopy());
-                        else
-                            fos.write(cdSector.getCdUserDataCopy());
                     } catch (IOException ex) {
                         throw new LoggedFailure(pl, Level.SEVERE, I.IO_WRITING_TO_FILE_ERROR_NAME(outputFile.toString()), ex);
                     }
-
-                    pl.progressUpdate(iSector);
+                    pl.progressUpdate(iBlockEnd);
+                }
+                if (getEndSector() >= getSourceCd().getSectorCount()) {
+                    throw new LoggedFailure(pl, Level.SEVERE, I.NOT_CONTAINED_IN_DISC(getFormattedPath()));
                 }
             } finally {
                 IO.closeSilently(fos, LOG);
@@ -53,7 +53,7 @@ public class AudioPlayerSectorTimedWriter implements DecodedAudioPacket.Listener
     @Nonnull
     private final OutputStream _audioOut;
     @Nonnull
-    private final AudioSync _audioSync;
+    private AudioSync _audioSync;
 
     private long _lngSampleFramesWritten = 0;
 
@@ -66,6 +66,13 @@ public class AudioPlayerSectorTimedWriter implements DecodedAudioPacket.Listener
         _audioSync = new AudioSync(iMovieStartSector, iSectorsPerSecond, iSamplesPerSecond);
     }
 
+    /** Start counting again from the sector after the playback seeks there. */
+    public void restartAt(int iSector) {
+        _audioSync = new AudioSync(iSector, _audioSync.getSectorsPerSecond(),
+                                   _audioSync.getSampleFramesPerSecond());
+        _lngSampleFramesWritten = 0;
+    }
+
     public void audioPacketComplete(@Nonnull DecodedAudioPacket packet, @Nonnull ILocalizedLogger log) {
         try {
             long lngSampleFrameDiff = _audioSync.calculateAudioToCatchUp(packet.getPresentationSector(), _lngSampleFramesWritten);
@@ -37,6 +37,7 @@
 
 package jpsxdec.modules.player;
 
+import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import jpsxdec.cdreaders.CdFileSectorReader;
 import jpsxdec.i18n.ILocalizedMessage;
@@ -50,10 +51,12 @@ import jpsxdec.modules.video.DiscItemVideoStream;
 import jpsxdec.modules.video.IDemuxedFrame;
 import jpsxdec.modules.video.ISectorClaimToDemuxedFrame;
 import jpsxdec.modules.video.framenumber.FormattedFrameNumber;
+import jpsxdec.modules.video.framenumber.FrameLookup;
 import jpsxdec.modules.video.framenumber.FrameNumber;
 import jpsxdec.modules.video.save.AutowireVDP;
 import jpsxdec.modules.video.save.Frame2Bitstream;
 import jpsxdec.modules.video.save.VDP;
+import jpsxdec.modules.video.sectorbased.DiscItemSectorBasedVideoStream;
 import jpsxdec.psxvideo.mdec.MdecDecoder;
 import jpsxdec.psxvideo.mdec.MdecDecoder_int;
 import jpsxdec.psxvideo.mdec.idct.SimpleIDCT;
@@ -61,12 +64,13 @@ import jpsxdec.util.Fraction;
 import jpsxdec.util.player.IFrameProcessor;
 import jpsxdec.util.player.IMediaDataReader;
 import jpsxdec.util.player.IPreprocessedFrameWriter;
+import jpsxdec.util.player.ISeekableMediaDataReader;
 import jpsxdec.util.player.PlayController;
 import jpsxdec.util.player.StopPlayingException;
 
 /** Holds all the class implementations that the {@link jpsxdec.util.player}
  * framework needs to playback PlayStation audio and/or video. */
-public class MediaPlayer implements IMediaDataReader {
+public class MediaPlayer implements ISeekableMediaDataReader {
 
     private final int _iMovieStartSector;
     private final int _iMovieEndSector;
@@ -76,9 +80,25 @@ public class MediaPlayer implements IMediaDataReader {
     @Nonnull
     private final PlayController _controller;
 
-    private final AutowireVDP _demuxAutowire = new AutowireVDP();
     private final AutowireVDP _decodeAutowire = new AutowireVDP();
 
+    @CheckForNull
+    private ISectorClaimToDemuxedFrame _demuxer;
+    @CheckForNull
+    private final IDemuxedFrame.Listener _frameListener;
+    @CheckForNull
+    private final ISectorAudioDecoder _audioDecoder;
+    @CheckForNull
+    private final AudioPlayerSectorTimedWriter _audioWriter;
+
+    /** Video that can make demuxers starting at any frame.
+     * Null if there is no video, or it can't find where its frames start. */
+    @CheckForNull
+    private final DiscItemSectorBasedVideoStream _seekableVid;
+    private final boolean _blnCanSeek;
+    /** Where the next {@link #demuxThread(PlayController)} will start reading. */
+    private int _iReadStartSector;
+
     //----------------------------------------------------------
 
     private final int _iSectorsPerSecond;
@@ -100,6 +120,12 @@ public class MediaPlayer implements IMediaDataReader {
         _cdReader = aud.getSourceCd();
         _iMovieStartSector = aud.getStartSector();
         _iMovieEndSector = aud.getEndSector();
+        _iReadStartSector = _iMovieStartSector;
+        _seekableVid = null;
+        _demuxer = null;
+        _frameListener = null;
+        // audio can start at any sector
+        _blnCanSeek = true;
         if (aud.getDiscSpeed() == 1) {
             _iSectorsPerSecond = 75;
         } else {
@@ -107,16 +133,15 @@ public class MediaPlayer implements IMediaDataReader {
             _iSectorsPerSecond = 150;
         }
         
-        ISectorAudioDecoder audioDecoder = aud.makeDecoder(1.0);
-        _demuxAutowire.setAudioDecoder(audioDecoder);
+        _audioDecoder = aud.makeDecoder(1.0);
 
-        _controller = new PlayController(audioDecoder.getOutputFormat());
+        _controller = new PlayController(_audioDecoder.getOutputFormat());
         _controller.setReader(this);
 
-        audioDecoder.getAbsolutePresentationStartSector(); // <-- TODO check if it would be better to use this to align on initial presentation sector
+        _audioDecoder.getAbsolutePresentationStartSector(); // <-- TODO check if it would be better to use this to align on initial presentation sector
 
-        AudioPlayerSectorTimedWriter audioWriter = new AudioPlayerSectorTimedWriter(_controller.getAudioOutputStream(), _iMovieStartSector, _iSectorsPerSecond, audioDecoder.getSampleFramesPerSecond());
-        _demuxAutowire.setAudioPacketListener(audioWriter);
+        _audioWriter = new AudioPlayerSectorTimedWriter(_controller.getAudioOutputStream(), _iMovieStartSector, _iSectorsPerSecond, _audioDecoder.getSampleFramesPerSecond());
+        _audioDecoder.setAudioListener(_audioWriter);
     }
 
     //----------------------------------------------------------
@@ -130,6 +155,17 @@ public class MediaPlayer implements IMediaDataReader {
         _cdReader = vid.getSourceCd();
         _iMovieStartSector = iSectorStart;
         _iMovieEndSector = iSectorEnd;
+        _iReadStartSector = _iMovieStartSector;
+        if (vid instanceof DiscItemSectorBasedVideoStream &&
+            ((DiscItemSectorBasedVideoStream)vid).findFrame(new FrameLookup(FrameNumber.Type.Index, 0)) == 0)
+        {
+            _seekableVid = (DiscItemSectorBasedVideoStream)vid;
+            _blnCanSeek = true;
+        } else {
+            // without knowing where frames start, can only play from the start
+            _seekableVid = null;
+            _blnCanSeek = false;
+        }
         if (vid.getDiscSpeed() == 1) {
             _iSectorsPerSecond = 75;
         } else {
@@ -137,16 +173,17 @@ public class MediaPlayer implements IMediaDataReader {
             _iSectorsPerSecond = 150;
         }
 
-        _demuxAutowire.setMap(demuxer);
+        _demuxer = demuxer;
+        _audioDecoder = audioDecoder;
 
         if (audioDecoder == null) {
             _controller = new PlayController(vid.getWidth(), vid.getHeight());
+            _audioWriter = null;
         } else {
             _controller = new PlayController(vid.getWidth(), vid.getHeight(), audioDecoder.getOutputFormat());
 
-            AudioPlayerSectorTimedWriter audioWriter = new AudioPlayerSectorTimedWriter(_controller.getAudioOutputStream(), _iMovieStartSector, _iSectorsPerSecond, audioDecoder.getSampleFramesPerSecond());
-            _demuxAutowire.setAudioDecoder(audioDecoder);
-            _demuxAutowire.setAudioPacketListener(audioWriter);
+            _audioWriter = new AudioPlayerSectorTimedWriter(_controller.getAudioOutputStream(), _iMovieStartSector, _iSectorsPerSecond, audioDecoder.getSampleFramesPerSecond());
+            audioDecoder.setAudioListener(_audioWriter);
         }
 
         ProcessingThread pt = new ProcessingThread(vid.getWidth(), vid.getHeight());
@@ -159,7 +196,8 @@ public class MediaPlayer implements IMediaDataReader {
         
         vid.getAbsolutePresentationStartSector(); // <-- TODO check if it would be better to align on initial presentation sector
 
-        _demuxAutowire.setFrameListener(new DemuxFrameToPlayerProcessor(_controller.getFrameWriter(), _iMovieStartSector, _iSectorsPerSecond));
+        _frameListener = new DemuxFrameToPlayerProcessor(_controller.getFrameWriter(), _iMovieStartSector, _iSectorsPerSecond);
+        demuxer.setFrameListener(_frameListener);
 
         _controller.setReader(this);
     }
@@ -167,14 +205,14 @@ public class MediaPlayer implements IMediaDataReader {
     public void demuxThread(@Nonnull PlayController controller) throws StopPlayingException {
         try {
 
-            final int iSectorLength = _iMovieEndSector - _iMovieStartSector + 1;
-
-            SectorClaimSystem it = SectorClaimSystem.create(_cdReader, _iMovieStartSector, _iMovieEndSector);
-            _demuxAutowire.attachToSectorClaimer(it);
-            _demuxAutowire.autowire();
+            SectorClaimSystem it = SectorClaimSystem.create(_cdReader, _iReadStartSector, _iMovieEndSector);
+            if (_audioDecoder != null)
+                _audioDecoder.attachToSectorClaimer(it);
+            if (_demuxer != null)
+                _demuxer.attachToSectorClaimer(it);
 
             IIdentifiedSector identifiedSector;
-            for (int iSector = 0; it.hasNext() && !controller.isClosed(); iSector++)
+            while (it.hasNext() && !controller.isClosed() && !controller.isSeekRequested())
             {
                 identifiedSector = it.next(DebugLogger.Log).getClaimer();
             }
@@ -189,6 +227,39 @@ public class MediaPlayer implements IMediaDataReader {
         }
     }
 
+    public boolean canSeek() {
+        return _blnCanSeek;
+    }
+
+    public long getDurationNanos() {
+        return (_iMovieEndSector - _iMovieStartSector + 1) * 1000000000L / _iSectorsPerSecond;
+    }
+
+    public long seekTo(long lngPresentationNanos) {
+        long lngSector = _iMovieStartSector + lngPresentationNanos * _iSectorsPerSecond / 1000000000L;
+        int iSector = (int) Math.max(_iMovieStartSector, Math.min(lngSector, _iMovieEndSector));
+
+        if (_seekableVid != null) {
+            // frames have to be read starting from their first sector
+            int iFrame = _seekableVid.findFrame(new FrameLookup(FrameNumber.Type.Sector, iSector));
+            if (iFrame < 0) // after the start of the last frame
+                iFrame = _seekableVid.getFrameCount() - 1;
+            if (iFrame == 0) // same as starting from the beginning
+                iSector = _iMovieStartSector;
+            else
+                iSector = _seekableVid.getFrameStartSector(iFrame);
+
+            ISectorClaimToDemuxedFrame demuxer = _seekableVid.makeDemuxer(iFrame);
+            demuxer.setFrameListener(_frameListener);
+            _demuxer = demuxer;
+        }
+
+        if (_audioWriter != null)
+            _audioWriter.restartAt(iSector);
+        _iReadStartSector = iSector;
+        return (iSector - _iMovieStartSector) * 1000000000L / _iSectorsPerSecond;
+    }
+
     public @Nonnull PlayController getPlayController() {
         return _controller;
     }
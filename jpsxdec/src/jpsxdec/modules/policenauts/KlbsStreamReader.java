@@ -37,14 +37,14 @@
 
 package jpsxdec.modules.policenauts;
 
-import java.io.IOException;
+import java.io.EOFException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import javax.annotation.Nonnull;
+import jpsxdec.modules.CdSectorDemuxPiece;
 import jpsxdec.util.BinaryDataNotRecognized;
-import jpsxdec.util.ByteArrayFPIS;
-import jpsxdec.util.PushAvailableInputStream;
+import jpsxdec.util.DemuxByteSource;
 
 
 public class KlbsStreamReader {
@@ -58,7 +58,7 @@ public class KlbsStreamReader {
     private final int _iKlbsEndSectorInclusive;
 
     @Nonnull
-    private final PushAvailableInputStream<SectorPolicenauts> _sectorStream = new PushAvailableInputStream<SectorPolicenauts>();
+    private final DemuxByteSource<CdSectorDemuxPiece> _source = new DemuxByteSource<CdSectorDemuxPiece>();
 
     private List<SPacketPos> _sPackets;
     private int _iNextRequiredBytes = 0;
@@ -81,37 +81,38 @@ public class KlbsStreamReader {
             throws BinaryDataNotRecognized
     {
         try {
-            ByteArrayFPIS is = sector.getCdSector().getCdUserDataStream();
-            if (iSkip > 0)
-                is.skip(iSkip);
-
-            _sectorStream.addStream(is, sector);
+            _source.addPiece(new CdSectorDemuxPiece(sector.getCdSector(), iSkip));
             return doReadAllAvailablePackets(sector);
-        } catch (IOException ex) {
+        } catch (EOFException ex) {
+            throw new RuntimeException("Should not happen", ex);
+        } catch (DemuxByteSource.NeedsMoreData ex) {
             throw new RuntimeException("Should not happen", ex);
         }
     }
 
     private @Nonnull List<SPacketData> doReadAllAvailablePackets(@Nonnull SectorPolicenauts sector)
-            throws BinaryDataNotRecognized, IOException
+            throws BinaryDataNotRecognized, EOFException, DemuxByteSource.NeedsMoreData
     {
 
         List<SPacketData> finishedPackets = null;
 
-        while (_sectorStream.available() >= _iNextRequiredBytes && _iState != DONE) {
+        while (_source.available() >= _iNextRequiredBytes && _iState != DONE) {
+            int iPosition = _source.getPosition();
             switch (_iState) {
                 case READ_HEADER:
-                    _sPackets = SPacketPos.readPackets(_sectorStream, _iEntryCount, _iKlbsStartSector, _iKlbsEndSectorInclusive);
+                    _sPackets = SPacketPos.readPackets(_source, iPosition, _iEntryCount, _iKlbsStartSector, _iKlbsEndSectorInclusive);
+                    _source.setPosition(iPosition + _iEntryCount * SPacket.SIZEOF);
                     _iNextRequiredBytes = _sPackets.get(0).getSize();
                     _iState = READ_PACKET;
                     break;
 
                 case READ_PACKET:
                     SPacketPos packetPos = _sPackets.get(_iPacketDataRead);
-                    skipZeroes(packetPos.getPaddingBeforeThisPacket());
+                    iPosition = skipZeroes(iPosition, packetPos.getPaddingBeforeThisPacket());
 
-                    SPacketData packetData = packetPos.read(_sectorStream);
-                    assert _sectorStream.getCurrentMeta() == sector;
+                    SPacketData packetData = packetPos.read(_source, iPosition);
+                    _source.setPosition(iPosition + packetPos.getSize());
+                    assert _source.getCurrentPiece().getSector() == sector.getCdSector();
                     if (finishedPackets == null)
                         finishedPackets = new ArrayList<SPacketData>(3);
                     finishedPackets.add(packetData);
@@ -126,6 +127,7 @@ public class KlbsStreamReader {
                     break;
             }
         }
+        _source.release(_source.getPosition());
 
         if (finishedPackets == null)
             return Collections.emptyList();
@@ -133,15 +135,19 @@ public class KlbsStreamReader {
         return finishedPackets;
     }
 
-    private void skipZeroes(int iCount) throws IOException, BinaryDataNotRecognized {
-        while (iCount > 0) {
-            int iByte = _sectorStream.read();
+    /** @return the position after the zeroes. */
+    private int skipZeroes(int iPosition, int iCount)
+            throws BinaryDataNotRecognized, EOFException, DemuxByteSource.NeedsMoreData
+    {
+        for (int iEnd = iPosition + iCount; iPosition < iEnd; iPosition++) {
+            int iByte = _source.readUInt8(iPosition);
             if (iByte != 0) {
+                _source.setPosition(iPosition);
                 throw new BinaryDataNotRecognized("Expected 0 in sector %s but got %d",
-                                                  _sectorStream.getCurrentMeta(),  iByte);
+                                                  _source.getCurrentPiece().getSector(),  iByte);
             }
-            iCount--;
         }
+        return iPosition;
     }
 
 }
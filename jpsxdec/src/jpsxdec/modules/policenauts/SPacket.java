@@ -37,9 +37,6 @@
 
 package jpsxdec.modules.policenauts;
 
-import java.io.EOFException;
-import java.io.IOException;
-import java.io.InputStream;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import javax.sound.sampled.AudioFormat;
@@ -102,35 +99,34 @@ public class SPacket {
     private final int _iSize;       // 4 bytes  @ 28
     // Zeroes                       // 16 bytes @ 32
 
-    public SPacket(@Nonnull InputStream is) throws EOFException, IOException, BinaryDataNotRecognized {
+    /** Reads the packet from {@link #SIZEOF} bytes at the offset. */
+    public SPacket(@Nonnull byte[] abData, int iOffset) throws BinaryDataNotRecognized {
 
-        long lng8Zeroes = IO.readSInt64BE(is);
+        long lng8Zeroes = IO.readSInt64BE(abData, iOffset);
         if (lng8Zeroes != 0)
             throw new BinaryDataNotRecognized();
 
-        byte[] abTag = new byte[8];
-        IO.readByteArray(is, abTag);
         try {
-            _type = Type.valueOf(Misc.asciiToString(abTag));
+            _type = Type.valueOf(Misc.asciiToString(abData, iOffset + 8, 8));
         } catch (IllegalArgumentException ex) {
             throw new BinaryDataNotRecognized(ex);
         }
-        _iTimestamp = IO.readSInt32LE(is);
+        _iTimestamp = IO.readSInt32LE(abData, iOffset + 16);
         if (_iTimestamp < 0 || _iTimestamp > 63780)
             throw new BinaryDataNotRecognized();
-        _iDuration = IO.readSInt32LE(is);
+        _iDuration = IO.readSInt32LE(abData, iOffset + 20);
         if (_iDuration < 0 || _iDuration > 156)
             throw new BinaryDataNotRecognized();
-        _iOffset = IO.readSInt32LE(is);
+        _iOffset = IO.readSInt32LE(abData, iOffset + 24);
         if (_iOffset < 1)
             throw new BinaryDataNotRecognized();
-        _iSize = IO.readSInt32LE(is);
+        _iSize = IO.readSInt32LE(abData, iOffset + 28);
         if (_iSize < 5 || _iSize > 17000)
             throw new BinaryDataNotRecognized();
-        lng8Zeroes = IO.readSInt64BE(is);
+        lng8Zeroes = IO.readSInt64BE(abData, iOffset + 32);
         if (lng8Zeroes != 0)
             throw new BinaryDataNotRecognized();
-        lng8Zeroes = IO.readSInt64BE(is);
+        lng8Zeroes = IO.readSInt64BE(abData, iOffset + 40);
         if (lng8Zeroes != 0)
             throw new BinaryDataNotRecognized();
 
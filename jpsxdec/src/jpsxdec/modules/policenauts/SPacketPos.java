@@ -38,8 +38,6 @@
 package jpsxdec.modules.policenauts;
 
 import java.io.EOFException;
-import java.io.IOException;
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
@@ -48,7 +46,7 @@ import javax.annotation.Nonnull;
 import jpsxdec.adpcm.SpuAdpcmSoundUnit;
 import jpsxdec.cdreaders.CdSector;
 import jpsxdec.util.BinaryDataNotRecognized;
-import jpsxdec.util.IO;
+import jpsxdec.util.DemuxByteSource;
 
 /** Wraps a {@link SPacket} with information about its position of the data
  * on the disk. */
@@ -57,13 +55,16 @@ public class SPacketPos {
     private static final Logger LOG = Logger.getLogger(SPacketPos.class.getName());
 
 
-    public static @Nonnull List<SPacketPos> readPackets(@Nonnull InputStream is, int iEntryCount,
+    /** Reads the whole packet table at the position. */
+    public static @Nonnull List<SPacketPos> readPackets(@Nonnull DemuxByteSource<?> source, int iPosition,
+                                                        int iEntryCount,
                                                         int iKlbsStartSector, int iKlbsEndSectorInclusive)
-            throws IOException, BinaryDataNotRecognized
+            throws EOFException, DemuxByteSource.NeedsMoreData, BinaryDataNotRecognized
     {
+        byte[] abTable = source.readByteArray(iPosition, iEntryCount * SPacket.SIZEOF);
         ArrayList<SPacketPos> _sPackets = new ArrayList<SPacketPos>();
         for (int i = 0; i < iEntryCount; i++) {
-            SPacket packet = new SPacket(is);
+            SPacket packet = new SPacket(abTable, i * SPacket.SIZEOF);
 
             SPacketPos packetPos = new SPacketPos(packet, iKlbsStartSector, iKlbsEndSectorInclusive, i);
             if (i > 0) {
@@ -159,9 +160,11 @@ public class SPacketPos {
         nextPacket._iPaddingBeforeThisPacket = _iPaddingAfterThisPacket;
     }
 
-    /** Reads the packet data and returns a {@link SPacketData}. */
-    public @Nonnull SPacketData read(@Nonnull InputStream is) throws EOFException, IOException {
-        byte[] abData = IO.readByteArray(is, _iCorrectedSize);
+    /** Reads the packet data at the position and returns a {@link SPacketData}. */
+    public @Nonnull SPacketData read(@Nonnull DemuxByteSource<?> source, int iPosition)
+            throws EOFException, DemuxByteSource.NeedsMoreData
+    {
+        byte[] abData = source.readByteArray(iPosition, _iCorrectedSize);
         return new SPacketData(this, abData);
     }
 
@@ -57,6 +57,7 @@ import jpsxdec.psxvideo.bitstreams.ZeroRunLengthAc;
 import jpsxdec.psxvideo.bitstreams.ZeroRunLengthAcLookup;
 import jpsxdec.psxvideo.mdec.MdecCode;
 import jpsxdec.util.BinaryDataNotRecognized;
+import jpsxdec.util.DemuxByteSource;
 import jpsxdec.util.Fraction;
 import jpsxdec.util.IO;
 
@@ -116,10 +117,45 @@ public abstract class RoadRashPacket {
                 throws EOFException, IOException, BinaryDataNotRecognized
         {
             long lngPacketType = IO.readUInt32BE(is);
+            if (!checkPacketType(lngPacketType, blnThrowEx))
+                return null;
+            int iHeaderPacketSize = IO.readSInt32BE(is);
+            return create(lngPacketType, iHeaderPacketSize, blnThrowEx);
+        }
+
+        /** Reads the header at the position without moving the source's read position. */
+        public static Header read(@Nonnull DemuxByteSource<?> source, int iPosition)
+                throws EOFException, DemuxByteSource.NeedsMoreData, BinaryDataNotRecognized
+        {
+            long lngPacketType = source.readUInt32BE(iPosition);
+            checkPacketType(lngPacketType, true);
+            int iHeaderPacketSize = source.readSInt32BE(iPosition + 4);
+            return create(lngPacketType, iHeaderPacketSize, true);
+        }
 
+        private static boolean checkPacketType(long lngPacketType, boolean blnThrowEx)
+                throws BinaryDataNotRecognized
+        {
+            // all zeroes will mean the end
+            if (lngPacketType != 0 &&
+                lngPacketType != MAGIC_VLC0 &&
+                lngPacketType != MAGIC_au00 &&
+                lngPacketType != MAGIC_au01 &&
+                lngPacketType != MAGIC_MDEC)
+            {
+                if (blnThrowEx)
+                    throw new BinaryDataNotRecognized("Unknown packet type %08x", lngPacketType);
+                else
+                    return false;
+            }
+            return true;
+        }
+
+        private static Header create(long lngPacketType, int iHeaderPacketSize, boolean blnThrowEx)
+                throws BinaryDataNotRecognized
+        {
             // check for all zeroes, will mean the end
             if (lngPacketType == 0) {
-                int iHeaderPacketSize = IO.readSInt32BE(is);
                 if (iHeaderPacketSize != 0) {
                     if (blnThrowEx)
                         throw new BinaryDataNotRecognized("0 packet type with non zero header %08x", iHeaderPacketSize);
@@ -130,18 +166,6 @@ public abstract class RoadRashPacket {
                 return new Header(0, 0);
             }
 
-            if (lngPacketType != MAGIC_VLC0 &&
-                lngPacketType != MAGIC_au00 &&
-                lngPacketType != MAGIC_au01 &&
-                lngPacketType != MAGIC_MDEC)
-            {
-                if (blnThrowEx)
-                    throw new BinaryDataNotRecognized("Unknown packet type %08x", lngPacketType);
-                else
-                    return null;
-            }
-
-            int iHeaderPacketSize = IO.readSInt32BE(is);
             if (iHeaderPacketSize % 4 != 0) {
                 if (blnThrowEx)
                     throw new BinaryDataNotRecognized("Invalid packet size " + iHeaderPacketSize);
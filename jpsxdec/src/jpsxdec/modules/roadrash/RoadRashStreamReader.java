@@ -37,20 +37,22 @@
 
 package jpsxdec.modules.roadrash;
 
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import jpsxdec.cdreaders.CdSector;
+import jpsxdec.modules.CdSectorDemuxPiece;
 import jpsxdec.util.BinaryDataNotRecognized;
-import jpsxdec.util.ByteArrayFPIS;
-import jpsxdec.util.PushAvailableInputStream;
+import jpsxdec.util.DemuxByteSource;
 
 public class RoadRashStreamReader {
 
     @Nonnull
-    private final PushAvailableInputStream<CdSector> _sectorStream = new PushAvailableInputStream<CdSector>();
+    private final DemuxByteSource<CdSectorDemuxPiece> _source = new DemuxByteSource<CdSectorDemuxPiece>();
 
     @CheckForNull
     private RoadRashPacket.Header _header;
@@ -68,14 +70,14 @@ public class RoadRashStreamReader {
         if (_blnEnd)
             throw new IllegalStateException();
 
-        try {
-            ByteArrayFPIS is = sector.getCdUserDataStream();
-            if (iSkip > 0)
-                is.skip(iSkip);
-
-            _sectorStream.addStream(is, sector);
+        _source.addPiece(new CdSectorDemuxPiece(sector, iSkip));
 
+        try {
             return doReadSectorPackets(sector, vlc);
+        } catch (EOFException ex) {
+            throw new RuntimeException("Should not happen", ex);
+        } catch (DemuxByteSource.NeedsMoreData ex) {
+            throw new RuntimeException("Should not happen", ex);
         } catch (IOException ex) {
             throw new RuntimeException("Should not happen", ex);
         }
@@ -92,35 +94,40 @@ public class RoadRashStreamReader {
         }
 
         while (true) {
+            int iPosition = _source.getPosition();
             if (_header == null) {
-                if (_sectorStream.available() < RoadRashPacket.Header.SIZEOF)
+                if (_source.available() < RoadRashPacket.Header.SIZEOF)
                     break;
 
-                _iCurrentPacketStartSector = _sectorStream.getCurrentMeta().getSectorIndexFromStart();
-                _header = RoadRashPacket.Header.read(_sectorStream);
+                _iCurrentPacketStartSector = _source.getCurrentPiece().getSector().getSectorIndexFromStart();
+                _header = RoadRashPacket.Header.read(_source, iPosition);
+                _source.setPosition(iPosition + RoadRashPacket.Header.SIZEOF);
             } else if (_header.isEndPacket()) {
                 // end of stream
                 _blnEnd = true;
                 break;
             } else {
-                if (_sectorStream.available() < _header.getPayloadSize())
+                if (_source.available() < _header.getPayloadSize())
                     break;
 
-                int iBefore = _sectorStream.available();
-
-                RoadRashPacket packet = _header.readPacket(_sectorStream);
+                // copy the whole payload out at once instead of parsing it
+                // byte-by-byte through the sectors
+                byte[] abPayload = _source.readByteArray(iPosition, _header.getPayloadSize());
+                ByteArrayInputStream payloadStream = new ByteArrayInputStream(abPayload);
+                RoadRashPacket packet = _header.readPacket(payloadStream);
 
-                int iAfter = _sectorStream.available();
-
-                if (_header.getPayloadSize() != iBefore - iAfter)
+                if (payloadStream.available() != 0)
                     throw new RuntimeException();
 
-                assert _sectorStream.getCurrentMeta() == sector;
+                _source.setPosition(iPosition + abPayload.length);
+                _source.release(_source.getPosition());
+
+                assert _source.getCurrentPiece().getSector() == sector;
 
                 if (finishedPackets == null)
                     finishedPackets = new ArrayList<RoadRashPacketSectors>(5);
 
-                int iPacketEndSector = _sectorStream.getCurrentMeta().getSectorIndexFromStart();
+                int iPacketEndSector = _source.getCurrentPiece().getSector().getSectorIndexFromStart();
                 finishedPackets.add(new RoadRashPacketSectors(packet, _iCurrentPacketStartSector, iPacketEndSector));
 
                 _header = null;
@@ -45,7 +45,6 @@ import java.util.logging.Logger;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import javax.sound.sampled.AudioFormat;
-import jpsxdec.cdreaders.CdFileSectorReader;
 import jpsxdec.discitems.DiscItemSaverBuilder;
 import jpsxdec.discitems.DiscItemSaverBuilderGui;
 import jpsxdec.formats.JavaAudioFormat;
@@ -59,8 +58,8 @@ import jpsxdec.i18n.exception.LocalizedFileNotFoundException;
 import jpsxdec.i18n.exception.LoggedFailure;
 import jpsxdec.i18n.log.ILocalizedLogger;
 import jpsxdec.i18n.log.ProgressLogger;
-import jpsxdec.modules.IIdentifiedSector;
 import jpsxdec.modules.SectorClaimSystem;
+import jpsxdec.modules.SharedClaimSaver;
 import jpsxdec.util.ArgParser;
 import jpsxdec.util.AudioOutputFileWriter;
 import jpsxdec.util.IO;
@@ -204,66 +203,100 @@ public class AudioSaverBuilder extends DiscItemSaverBuilder {
 
 
     @Override
-    public void startSave(final @Nonnull ProgressLogger pl, @CheckForNull File outputDir)
+    public void startSave(@Nonnull ProgressLogger pl, @CheckForNull File outputDir)
             throws LoggedFailure, TaskCanceledException
+    {
+        SharedClaimSaver saver = new SharedClaimSaver(_audItem.getSourceCd());
+        saver.add(prepareSharedSave(pl, outputDir));
+        saver.save(pl);
+    }
+
+    @Override
+    public @Nonnull SharedClaimSaver.Participant prepareSharedSave(@Nonnull ILocalizedLogger log,
+                                                                   @CheckForNull File outputDir)
+            throws LoggedFailure
     {
         clearGeneratedFiles();
-        printSelectedOptions(pl);
+        printSelectedOptions(log);
 
-        final File outputFile = new File(outputDir, getFileRelativePath().getPath());
+        File outputFile = new File(outputDir, getFileRelativePath().getPath());
 
         try {
             IO.makeDirsForFile(outputFile);
         } catch (LocalizedFileNotFoundException ex) {
-            throw new LoggedFailure(pl, Level.SEVERE, ex.getSourceMessage(), ex);
+            throw new LoggedFailure(log, Level.SEVERE, ex.getSourceMessage(), ex);
         }
 
-        // SectorClaimSystem -> ISectorAudioDecoder -> DecodedAudioPacket -> AudioOutputFileWriter
+        return new AudioSave(_audItem.makeDecoder(getVolume()), outputFile);
+    }
 
-        ISectorAudioDecoder decoder = _audItem.makeDecoder(getVolume());
-        AudioFormat audioFmt = decoder.getOutputFormat();
-        final AudioOutputFileWriter audioWriter;
-        try {
-            audioWriter = new AudioOutputFileWriter(outputFile,
-                                audioFmt, _containerFormat.getJavaType());
-            addGeneratedFile(outputFile);
-        } catch (IOException ex) {
-            throw new LoggedFailure(pl, Level.SEVERE, I.IO_WRITING_FILE_ERROR_NAME(outputFile.toString()), ex);
+    /** SectorClaimSystem -> ISectorAudioDecoder -> DecodedAudioPacket -> AudioOutputFileWriter */
+    private class AudioSave implements SharedClaimSaver.Participant,
+                                       DecodedAudioPacket.Listener
+    {
+        @Nonnull
+        private final ISectorAudioDecoder _decoder;
+        @Nonnull
+        private final File _outputFile;
+        @CheckForNull
+        private AudioOutputFileWriter _audioWriter;
+        @CheckForNull
+        private ILocalizedLogger _log;
+
+        public AudioSave(@Nonnull ISectorAudioDecoder decoder, @Nonnull File outputFile) {
+            _decoder = decoder;
+            _outputFile = outputFile;
+            _decoder.setAudioListener(this);
+        }
+
+        public int getStartSector() {
+            return _audItem.getStartSector();
+        }
+
+        public int getEndSector() {
+            return _audItem.getEndSector();
         }
 
-        decoder.setAudioListener(new DecodedAudioPacket.Listener() {
-            public void audioPacketComplete(@Nonnull DecodedAudioPacket packet,
-                                            @Nonnull ILocalizedLogger log)
-            {
-                try {
-                    if (!packet.getAudioFormat().matches(audioWriter.getFormat()))
-                        throw new IllegalArgumentException();
-                    byte[] abData = packet.getData();
-                    audioWriter.write(abData, 0, abData.length);
-                } catch (IOException ex) {
-                    // intercept the exception, then unwind outside of the pipeline
-                    throw new UnwindException(
-                        new LoggedFailure(pl, Level.SEVERE, I.IO_WRITING_TO_FILE_ERROR_NAME(outputFile.toString()), ex));
-                }
+        public boolean usesExclusiveClaimer() {
+            return _decoder.usesExclusiveClaimer();
+        }
+
+        public void attachToSectorClaimer(@Nonnull SectorClaimSystem scs) {
+            _decoder.attachToSectorClaimer(scs);
+        }
+
+        public void startup(@Nonnull ILocalizedLogger log) throws LoggedFailure {
+            _log = log;
+            AudioFormat audioFmt = _decoder.getOutputFormat();
+            try {
+                _audioWriter = new AudioOutputFileWriter(_outputFile,
+                                    audioFmt, _containerFormat.getJavaType());
+                addGeneratedFile(_outputFile);
+            } catch (IOException ex) {
+                throw new LoggedFailure(log, Level.SEVERE, I.IO_WRITING_FILE_ERROR_NAME(_outputFile.toString()), ex);
             }
-        });
+        }
 
-        try {
-            SectorClaimSystem it = _audItem.createClaimSystem();
-            decoder.attachToSectorClaimer(it);
-            pl.progressStart(_audItem.getSectorLength());
-            for (int iSector = 0; it.hasNext(); iSector++) {
-                try {
-                    IIdentifiedSector identifiedSect = it.next(pl).getClaimer();
-                } catch (CdFileSectorReader.CdReadException ex) {
-                    throw new LoggedFailure(pl, Level.SEVERE,
-                            I.IO_READING_FROM_FILE_ERROR_NAME(ex.getFile().toString()), ex);
-                }
-                pl.progressUpdate(iSector);
+        public void audioPacketComplete(@Nonnull DecodedAudioPacket packet,
+                                        @Nonnull ILocalizedLogger log)
+        {
+            try {
+                if (!packet.getAudioFormat().matches(_audioWriter.getFormat()))
+                    throw new IllegalArgumentException();
+                byte[] abData = packet.getData();
+                _audioWriter.write(abData, 0, abData.length);
+            } catch (IOException ex) {
+                // intercept the exception, then unwind outside of the pipeline
+                throw new UnwindException(
+                    new LoggedFailure(_log, Level.SEVERE, I.IO_WRITING_TO_FILE_ERROR_NAME(_outputFile.toString()), ex));
             }
-            pl.progressEnd();
-        } finally {
-            IO.closeSilently(audioWriter, LOG);
+        }
+
+        public void sectorRead(@Nonnull ProgressLogger pl) {
+        }
+
+        public void shutdown() {
+            IO.closeSilently(_audioWriter, LOG);
         }
     }
 
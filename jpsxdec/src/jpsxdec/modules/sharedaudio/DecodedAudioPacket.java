@@ -42,6 +42,7 @@ import javax.sound.sampled.AudioFormat;
 import jpsxdec.i18n.exception.LoggedFailure;
 import jpsxdec.i18n.log.ILocalizedLogger;
 import jpsxdec.util.Fraction;
+import jpsxdec.util.RunStats;
 
 /** A packet of decoded audio that can be passed around. */
 public class DecodedAudioPacket {
@@ -74,6 +75,7 @@ public class DecodedAudioPacket {
         _iSampleFrameCount = abData.length / audioFmt.getFrameSize();
         _presentationSector = presentationSector;
         _abData = abData;
+        RunStats.audioDecoded(_iSampleFrameCount);
     }
 
     /** -1 for default audio channel. */
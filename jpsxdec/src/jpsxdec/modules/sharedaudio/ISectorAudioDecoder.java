@@ -54,6 +54,10 @@ public interface ISectorAudioDecoder {
 
     void attachToSectorClaimer(@Nonnull SectorClaimSystem scs);
 
+    /** If the claimer this attaches to only accepts one listener,
+     * so other decoders can't be attached to the same {@link SectorClaimSystem}. */
+    boolean usesExclusiveClaimer();
+
     double getVolume();
     
     /** Sector where the audio begins to play. */
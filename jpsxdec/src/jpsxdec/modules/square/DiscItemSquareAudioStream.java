@@ -186,6 +186,10 @@ public class DiscItemSquareAudioStream extends DiscItemAudioStream {
             s2sqs.setRangeLimit(getStartSector(), getEndSector());
         }
 
+        public boolean usesExclusiveClaimer() {
+            return true;
+        }
+
         public double getVolume() {
             return _p2p.getVolume();
         }
@@ -168,24 +168,25 @@ public class SquareAudioSectorPair {
         ExposedBAOS encodedLeft = new ExposedBAOS();
         ExposedBAOS encodedRight = new ExposedBAOS();
 
-        int iSoundUnitsReplaced = 0;
+        int iSoundUnitsReplaced;
         try {
-            for (; iSoundUnitsReplaced < iSoundUnitsToReplace; iSoundUnitsReplaced++) {
-                byte bLeftFlagBits = 0;
+            // keep the existing flag bits of each sound unit
+            byte[] abLeftFlagBits = new byte[iSoundUnitsToReplace];
+            byte[] abRightFlagBits = new byte[iSoundUnitsToReplace];
+            for (int i = 0; i < iSoundUnitsToReplace; i++) {
                 if (leftSoundUnitReader != null) {
                     SpuAdpcmSoundUnit su = new SpuAdpcmSoundUnit(leftSoundUnitReader);
-                    bLeftFlagBits = su.getFlagBits();
+                    abLeftFlagBits[i] = su.getFlagBits();
                 }
-                byte bRightFlagBits = 0;
                 if (rightSoundUnitReader != null) {
                     SpuAdpcmSoundUnit su = new SpuAdpcmSoundUnit(rightSoundUnitReader);
-                    bRightFlagBits = su.getFlagBits();
+                    abRightFlagBits[i] = su.getFlagBits();
                 }
-
-                boolean blnAudioRemains = encoder.encode1SoundUnit(bLeftFlagBits, encodedLeft, bRightFlagBits, encodedRight);
-                if (!blnAudioRemains)
-                    break;
             }
+
+            iSoundUnitsReplaced = encoder.encodeSoundUnits(iSoundUnitsToReplace,
+                                                           abLeftFlagBits, encodedLeft,
+                                                           abRightFlagBits, encodedRight);
         } catch (IOException ex) { // only possible issue is if trying to read incomplete sound unit
             throw new RuntimeException("All work is being done on BAI/OS", ex);
         }
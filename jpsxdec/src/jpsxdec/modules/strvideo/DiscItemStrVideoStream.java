@@ -55,6 +55,7 @@ import jpsxdec.modules.sharedaudio.DiscItemAudioStream;
 import jpsxdec.modules.video.Dimensions;
 import jpsxdec.modules.video.IDemuxedFrame;
 import jpsxdec.modules.video.ISectorClaimToDemuxedFrame;
+import jpsxdec.modules.video.framenumber.FrameLookup;
 import jpsxdec.modules.video.framenumber.FrameNumber;
 import jpsxdec.modules.video.framenumber.HeaderFrameNumber;
 import jpsxdec.modules.video.framenumber.IFrameNumberFormatterWithHeader;
@@ -193,6 +194,17 @@ public class DiscItemStrVideoStream extends DiscItemSectorBasedVideoStream {
                            _headerFrameNumberFormat.makeFormatter(_indexSectorFrameNumberFormat));
     }
 
+    @Override
+    public @Nonnull ISectorClaimToDemuxedFrame makeDemuxer(int iStartFrame) {
+        return new Demuxer(getFrameStartSector(iStartFrame), getEndSector(),
+                           _headerFrameNumberFormat.makeFormatter(_indexSectorFrameNumberFormat, iStartFrame));
+    }
+
+    @Override
+    public int findFrame(@Nonnull FrameLookup lookup) {
+        return _headerFrameNumberFormat.findFrame(_indexSectorFrameNumberFormat, lookup);
+    }
+
     public static class Demuxer implements ISectorClaimToDemuxedFrame, DemuxedFrameWithNumberAndDims.Listener {
 
         private int _iStartSector = 0;
@@ -38,6 +38,7 @@
 package jpsxdec.modules.strvideo;
 
 import java.io.IOException;
+import java.util.Set;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import jpsxdec.i18n.exception.LoggedFailure;
@@ -60,6 +61,9 @@ public class SectorClaimToStrVideoSector extends SectorClaimSystem.SectorClaimer
 
     @CheckForNull
     private Listener _listener;
+    /** Games whose video sector types are identified. */
+    @Nonnull
+    private Set<VideoSectorIdentifier.Game> _games = VideoSectorIdentifier.ALL_GAMES;
 
     public SectorClaimToStrVideoSector() {
     }
@@ -69,6 +73,11 @@ public class SectorClaimToStrVideoSector extends SectorClaimSystem.SectorClaimer
     public void setListener(@CheckForNull Listener listener) {
         _listener = listener;
     }
+    /** Only identify the video sector types of these games
+     * (the generic STR video sector is always identified). */
+    public void setGames(@Nonnull Set<VideoSectorIdentifier.Game> games) {
+        _games = games;
+    }
 
     public void sectorRead(@Nonnull SectorClaimSystem.ClaimableSector cs,
                            @Nonnull IOIterator<SectorClaimSystem.ClaimableSector> peekIt,
@@ -77,7 +86,7 @@ public class SectorClaimToStrVideoSector extends SectorClaimSystem.SectorClaimer
     {
         if (cs.isClaimed())
             return;
-        ISelfDemuxingVideoSector vidSector = VideoSectorIdentifier.idAndClaim(cs);
+        ISelfDemuxingVideoSector vidSector = VideoSectorIdentifier.idAndClaim(cs, _games);
 
         if (vidSector != null && _listener != null && 
             sectorIsInRange(cs.getSector().getSectorIndexFromStart()))
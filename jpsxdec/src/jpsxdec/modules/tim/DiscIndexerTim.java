@@ -38,7 +38,6 @@
 package jpsxdec.modules.tim;
 
 import java.io.EOFException;
-import java.io.IOException;
 import java.util.Collection;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -55,9 +54,8 @@ import jpsxdec.modules.SectorClaimSystem;
 import jpsxdec.modules.SectorClaimToUnidentifiedSector;
 import jpsxdec.tim.Tim;
 import jpsxdec.tim.TimInfo;
-import jpsxdec.util.DemuxPushInputStream;
+import jpsxdec.util.DemuxByteSource;
 import jpsxdec.util.DemuxedData;
-import jpsxdec.util.IO;
 
 /** Searches for TIM images. */
 public class DiscIndexerTim extends DiscIndexer implements SectorClaimToUnidentifiedSector.Listener {
@@ -80,14 +78,14 @@ public class DiscIndexerTim extends DiscIndexer implements SectorClaimToUnidenti
     }
 
     @CheckForNull
-    private DemuxPushInputStream<CdSectorDemuxPiece> _stream;
+    private DemuxByteSource<CdSectorDemuxPiece> _source;
 
     public void feedSector(CdSector sector) {
         CdSectorDemuxPiece piece = new CdSectorDemuxPiece(sector);
-        if (_stream == null)
-            _stream = new DemuxPushInputStream<CdSectorDemuxPiece>(piece);
+        if (_source == null)
+            _source = new DemuxByteSource<CdSectorDemuxPiece>(piece);
         else
-            _stream.addPiece(piece);
+            _source.addPiece(piece);
         findTims();
     }
 
@@ -96,87 +94,77 @@ public class DiscIndexerTim extends DiscIndexer implements SectorClaimToUnidenti
     }
 
     private void findTims() {
-        if (_stream == null)
+        if (_source == null)
             return;
         // read loop
-        while (_stream.available() > Tim.MINIMUM_TIM_SIZE) {
+        while (_source.available() > Tim.MINIMUM_TIM_SIZE) {
             // ^ no sense looking for Tims if there isn't enough left to contain one
-            _stream.mark(Integer.MAX_VALUE);
+            int iPosition = _source.getPosition();
             try {
-                TimInfo ti = Tim.isTim(_stream);
+                TimInfo ti = Tim.isTim(_source, iPosition);
                 if (ti != null) {
-                    // found a tim: reset, skip, loop
-                    addTim(ti);
+                    // found a tim: skip, loop
+                    addTim(ti, iPosition);
                 }
-                // else, if bin not rec: reset, skip, loop
-            } catch (DemuxPushInputStream.NeedsMoreData ex) {
-                // if need more: reset, break
-                _stream.reset();
+                // else, if bin not rec: skip, loop
+            } catch (DemuxByteSource.NeedsMoreData ex) {
+                // if need more: break to try again later
                 break;
             } catch (EOFException ex) {
                 // should not happen
                 throw new RuntimeException(ex);
-            } catch (IOException ex) {
-                // should not happen
-                throw new RuntimeException(ex);
             }
 
-            _stream.reset();
-            _stream.mark(4); // in case we are unable to skip 4 full bytes
             try {
-                IO.skip(_stream, 4);
-            } catch (DemuxPushInputStream.NeedsMoreData ex) {
-                // if need more: reset, break to try again later
-                _stream.reset();
+                _source.skip(4);
+            } catch (DemuxByteSource.NeedsMoreData ex) {
+                // unable to skip 4 full bytes: break to try again later
                 break;
-            } catch (IOException ex) {
+            } catch (EOFException ex) {
                 // should not happen
                 throw new RuntimeException(ex);
             }
+            // sectors completely behind the read position are no longer needed
+            _source.release(_source.getPosition());
         }
     }
 
     private void exhaustStream() {
-        if (_stream == null)
+        if (_source == null)
             return;
-        _stream.close();
-        // read skip loop until skip throws eof
-        while (_stream.available() > 2) {
+        _source.close();
+        // skip loop until skip hits the end
+        while (_source.available() > 2) {
             // ^ if the first 2 bytes of a Tim are found at the very end of the stream,
             //   it's stilly to assume we were in the middle of a possible Tim
-            _stream.mark(Integer.MAX_VALUE);
+            int iPosition = _source.getPosition();
             try {
-                TimInfo ti = Tim.isTim(_stream);
+                TimInfo ti = Tim.isTim(_source, iPosition);
                 if (ti != null) {
-                    // found a tim: reset and skip
-                    addTim(ti);
+                    // found a tim: skip
+                    addTim(ti, iPosition);
                 }
-                // else, no problem: reset and skip again
+                // else, no problem: skip again
             } catch (EOFException ex) {
                 LOG.log(Level.INFO, "Stream ended in the middle of possible Tim", ex);
-                // no problem: reset and skip again
-            } catch (IOException ex) {
+                // no problem: skip again
+            } catch (DemuxByteSource.NeedsMoreData ex) {
                 // should not happen
                 throw new RuntimeException(ex);
             }
 
-            _stream.reset();
-            try {
-                IO.skip(_stream, 4);
-            } catch (EOFException ex) {
+            if (_source.available() < 4) {
                 // end of stream when skipping: stream exhaused, all done
                 break;
-            } catch (IOException ex) {
-                // should not happen
-                throw new RuntimeException(ex);
             }
+            _source.setPosition(iPosition + 4);
         }
-        _stream = null;
+        _source = null;
     }
 
 
-    private void addTim(@Nonnull TimInfo tim) {
-        DemuxedData<CdSectorDemuxPiece> demux = _stream.getMarkToReadDemux();
+    private void addTim(@Nonnull TimInfo tim, int iPosition) {
+        DemuxedData<CdSectorDemuxPiece> demux = _source.getDemux(iPosition, iPosition + tim.iByteSize);
         addDiscItem(new DiscItemTim(getCd(),
                 demux.getStartSector(), demux.getEndSector(),
                 demux.getStartDataOffset(), tim.iPaletteCount, tim.iBitsPerPixel,
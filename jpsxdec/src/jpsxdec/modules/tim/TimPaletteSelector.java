@@ -47,13 +47,13 @@ import java.awt.image.BufferedImage;
 import javax.annotation.Nonnull;
 import javax.swing.JToggleButton.ToggleButtonModel;
 import jpsxdec.i18n.I;
-import jpsxdec.tim.Tim;
 
 
 public class TimPaletteSelector extends javax.swing.JPanel {
 
+    /** The Tim already converted with this palette. */
     @Nonnull
-    private final Tim _tim;
+    private final BufferedImage _image;
     private final int _iPalette;
     @Nonnull
     private final TimSaverBuilder _writerBuilder;
@@ -61,11 +61,11 @@ public class TimPaletteSelector extends javax.swing.JPanel {
     private final Mod _btnModel;
     
     /** Creates new form TIMPaletteCheck */
-    public TimPaletteSelector(@Nonnull Tim tim, int iPalette, @Nonnull TimSaverBuilder builder)
+    public TimPaletteSelector(@Nonnull BufferedImage image, int iPalette, @Nonnull TimSaverBuilder builder)
     {
         initComponents();
         
-        _tim = tim;
+        _image = image;
         _iPalette = iPalette;
         _guiPalChk.setText(Integer.toString(iPalette));
         _writerBuilder = builder;
@@ -79,8 +79,8 @@ public class TimPaletteSelector extends javax.swing.JPanel {
         int iWidth = this.getWidth() - 4;
         int iHeight = this.getHeight() - 4;
         
-        double dblHScale = iWidth / (double)_tim.getWidth();
-        double dblVScale = iHeight / (double)_tim.getHeight();
+        double dblHScale = iWidth / (double)_image.getWidth();
+        double dblVScale = iHeight / (double)_image.getHeight();
         
         double dblScale;
         if (dblHScale < dblVScale)
@@ -90,12 +90,10 @@ public class TimPaletteSelector extends javax.swing.JPanel {
         
         if (dblScale > 2) dblScale = 2;
         
-        iWidth = (int)(_tim.getWidth() * dblScale);
-        iHeight = (int)(_tim.getHeight() * dblScale);
+        iWidth = (int)(_image.getWidth() * dblScale);
+        iHeight = (int)(_image.getHeight() * dblScale);
 
-        BufferedImage bi = _tim.toBufferedImage(_iPalette);
-
-        g.drawImage(bi, 1, 1, iWidth, iHeight, null);
+        g.drawImage(_image, 1, 1, iWidth, iHeight, null);
         
         super.paintChildren(g);
     }
@@ -181,7 +179,7 @@ public class TimPaletteSelector extends javax.swing.JPanel {
     }// </editor-fold>//GEN-END:initComponents
 
     private void _guiCopyBtnActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event__guiCopyBtnActionPerformed
-        copyToClipboard(_tim.toBufferedImage(_iPalette));
+        copyToClipboard(_image);
     }//GEN-LAST:event__guiCopyBtnActionPerformed
     
     
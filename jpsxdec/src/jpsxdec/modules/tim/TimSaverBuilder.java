@@ -38,6 +38,7 @@
 package jpsxdec.modules.tim;
 
 
+import argparser.BooleanHolder;
 import argparser.StringHolder;
 import java.awt.image.BufferedImage;
 import java.io.BufferedOutputStream;
@@ -172,6 +173,7 @@ public class TimSaverBuilder extends DiscItemSaverBuilder {
     private final boolean[] _ablnSavePalette;
     @Nonnull
     private TimSaveFormat _saveFormat;
+    private boolean _blnPaletteAtlas = false;
 
     public TimSaverBuilder(@Nonnull DiscItemTim timItem) {
         _timItem = timItem;
@@ -192,6 +194,7 @@ public class TimSaverBuilder extends DiscItemSaverBuilder {
             return false;
         TimSaverBuilder otherTim = (TimSaverBuilder) other;
         otherTim.setImageFormat(getImageFormat());
+        otherTim.setPaletteAtlas(_blnPaletteAtlas);
         return true;
     }
 
@@ -217,6 +220,24 @@ public class TimSaverBuilder extends DiscItemSaverBuilder {
         return _saveFormat != TIM;
     }
 
+    // .................................................................
+
+    /** Save all selected palettes into a single image. */
+    public void setPaletteAtlas(boolean blnPaletteAtlas) {
+        _blnPaletteAtlas = blnPaletteAtlas;
+        firePossibleChange();
+    }
+    public boolean getPaletteAtlas() {
+        return _blnPaletteAtlas && getPaletteAtlas_enabled();
+    }
+    /** The atlas is true color, so only available for paletted TIMs
+     * and true color image formats. */
+    public boolean getPaletteAtlas_enabled() {
+        return _saveFormat != TIM &&
+               _saveFormat.getJavaFormat().hasTrueColor() &&
+               _timItem.getBitsPerPixel() <= 8;
+    }
+
     // .................................................................
     
     public void setImageFormat(@Nonnull TimSaveFormat fmt) {
@@ -242,6 +263,13 @@ public class TimSaverBuilder extends DiscItemSaverBuilder {
         // _saveFormat.getJavaFormat() should != null for non-Tim formats
         JavaImageFormat format = _saveFormat.getJavaFormat();
 
+        if (getPaletteAtlas()) {
+            if (getSelectedPaletteCount() == 0)
+                return I.TIM_OUTPUT_FILES_NONE();
+            else
+                return new UnlocalizedMessage(makePaletteAtlasFileName(format));
+        }
+
         int iCount = 0;
         String sStartFile = null, sEndFile = null;
         for (int iCurrentImage = 0; iCurrentImage < _ablnSavePalette.length; iCurrentImage++) {
@@ -269,6 +297,21 @@ public class TimSaverBuilder extends DiscItemSaverBuilder {
                 format.getExtension());
     }
 
+    private @Nonnull String makePaletteAtlasFileName(@Nonnull JavaImageFormat format) {
+        return String.format("%s_atlas.%s",
+                _timItem.getSuggestedBaseName(),
+                format.getExtension());
+    }
+
+    private int getSelectedPaletteCount() {
+        int iCount = 0;
+        for (boolean blnSave : _ablnSavePalette) {
+            if (blnSave)
+                iCount++;
+        }
+        return iCount;
+    }
+
     // .................................................................
 
     @Nonnull Tim readTim() throws CdFileSectorReader.CdReadException, BinaryDataNotRecognized {
@@ -289,6 +332,7 @@ public class TimSaverBuilder extends DiscItemSaverBuilder {
 
         StringHolder timpalettes = ap.addStringOption("-pal");
         StringHolder format = ap.addStringOption("-imgfmt","-if");
+        BooleanHolder palatlas = ap.addBoolOption("-palatlas");
         ap.match();
 
         // parse args for which palettes to save
@@ -309,6 +353,13 @@ public class TimSaverBuilder extends DiscItemSaverBuilder {
                 setImageFormat(fmt);
             }
         }
+
+        if (palatlas.value) {
+            if (getPaletteAtlas_enabled())
+                setPaletteAtlas(true);
+            else
+                fbs.printlnWarn(I.CMD_IGNORING_PALATLAS());
+        }
     }
 
 
@@ -342,6 +393,8 @@ public class TimSaverBuilder extends DiscItemSaverBuilder {
 
         tfb.addCell(I.CMD_TIM_PAL()).addCell(I.CMD_TIM_PAL_HELP());
         tfb.newRow();
+        tfb.addCell(I.CMD_TIM_PALATLAS()).addCell(I.CMD_TIM_PALATLAS_HELP());
+        tfb.newRow();
         tfb.addCell(I.CMD_TIM_IF());
         Cell c = new Cell(I.CMD_TIM_IF_HELP(_validFormats.get(0).getExtension()));
         for (TimSaveFormat fmt : _validFormats) {
@@ -380,6 +433,9 @@ public class TimSaverBuilder extends DiscItemSaverBuilder {
         printSelectedOptions(pl);
         if (getImageFormat() == TIM) {
             startSaveTim(pl, directory, makeTimFileName());
+        } else if (getPaletteAtlas()) {
+            JavaImageFormat format = getImageFormat().getJavaFormat();
+            startSavePaletteAtlas(pl, directory, makePaletteAtlasFileName(format), format);
         } else {
             // _saveFormat.getJavaFormat() should != null for non-Tim formats
             String[] asOutputFiles = new String[_ablnSavePalette.length];
@@ -398,15 +454,7 @@ public class TimSaverBuilder extends DiscItemSaverBuilder {
         File outputFile = new File(outputDir, sOutputFile);
         pl.progressStart(1);
 
-        Tim tim;
-        try {
-            tim = _timItem.readTim();
-        } catch (CdFileSectorReader.CdReadException ex) {
-            throw new LoggedFailure(pl, Level.SEVERE,
-                   I.IO_READING_FROM_FILE_ERROR_NAME(ex.getFile().toString()), ex);
-        } catch (BinaryDataNotRecognized ex) {
-            throw new LoggedFailure(pl, Level.SEVERE, I.TIM_DATA_NOT_FOUND(), ex);
-        }
+        Tim tim = readTim(pl);
 
         pl.event(I.IO_WRITING_FILE(outputFile.getName()));
         try {
@@ -436,20 +484,20 @@ public class TimSaverBuilder extends DiscItemSaverBuilder {
     {
         pl.progressStart(_asOutputFiles.length);
 
-        Tim tim;
-        try {
-            tim = _timItem.readTim();
-        } catch (CdFileSectorReader.CdReadException ex) {
-            throw new LoggedFailure(pl, Level.SEVERE,
-                   I.IO_READING_FROM_FILE_ERROR_NAME(ex.getFile().toString()), ex);
-        } catch (BinaryDataNotRecognized ex) {
-            throw new LoggedFailure(pl, Level.SEVERE, I.TIM_DATA_NOT_FOUND(), ex);
+        Tim tim = readTim(pl);
+
+        // unpack the image data only once for all the palettes
+        boolean[] ablnPalettes = new boolean[_asOutputFiles.length];
+        for (int i = 0; i < _asOutputFiles.length; i++) {
+            ablnPalettes[i] = _asOutputFiles[i] != null;
         }
+        BufferedImage[] aoImages = tim.toBufferedImages(ablnPalettes);
 
         for (int i = 0; i < _asOutputFiles.length; i++) {
             if (_asOutputFiles[i] != null) {
                 String sFile = _asOutputFiles[i];
-                BufferedImage bi = tim.toBufferedImage(i);
+                BufferedImage bi = aoImages[i];
+                aoImages[i] = null;
                 File f = new File(outputDir, sFile);
                 try {
                     pl.event(I.IO_WRITING_FILE(f.toString()));
@@ -473,4 +521,49 @@ public class TimSaverBuilder extends DiscItemSaverBuilder {
         pl.progressEnd();
     }
 
+    private void startSavePaletteAtlas(@Nonnull ProgressLogger pl, @CheckForNull File outputDir,
+                                       @Nonnull String sOutputFile, @Nonnull JavaImageFormat imageFormat)
+            throws LoggedFailure, TaskCanceledException
+    {
+        pl.progressStart(1);
+
+        if (getSelectedPaletteCount() == 0) {
+            pl.progressEnd();
+            return;
+        }
+
+        Tim tim = readTim(pl);
+        BufferedImage bi = tim.toPaletteAtlas(_ablnSavePalette, imageFormat.hasAlpha());
+
+        File f = new File(outputDir, sOutputFile);
+        try {
+            pl.event(I.IO_WRITING_FILE(f.toString()));
+            IO.makeDirsForFile(f);
+            try {
+                boolean blnOk = ImageIO.write(bi, imageFormat.getId(), f);
+                if (blnOk)
+                    addGeneratedFile(f);
+                else
+                    pl.log(Level.SEVERE, I.IO_WRITING_FILE_ERROR_NAME(f.toString()));
+            } catch (IOException ex) {
+                pl.log(Level.SEVERE, I.IO_WRITING_FILE_ERROR_NAME(f.toString()), ex);
+            }
+        } catch (LocalizedFileNotFoundException ex) {
+            pl.log(Level.SEVERE, ex.getSourceMessage(), ex);
+        }
+
+        pl.progressEnd();
+    }
+
+    private @Nonnull Tim readTim(@Nonnull ProgressLogger pl) throws LoggedFailure {
+        try {
+            return _timItem.readTim();
+        } catch (CdFileSectorReader.CdReadException ex) {
+            throw new LoggedFailure(pl, Level.SEVERE,
+                   I.IO_READING_FROM_FILE_ERROR_NAME(ex.getFile().toString()), ex);
+        } catch (BinaryDataNotRecognized ex) {
+            throw new LoggedFailure(pl, Level.SEVERE, I.TIM_DATA_NOT_FOUND(), ex);
+        }
+    }
+
 }
@@ -42,6 +42,7 @@ import com.jhlabs.awt.ParagraphLayout;
 import java.awt.BorderLayout;
 import java.awt.Component;
 import java.awt.GridLayout;
+import java.awt.image.BufferedImage;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.logging.Level;
@@ -108,7 +109,8 @@ class TimSaverBuilderGui extends DiscItemSaverBuilderGui implements ChangeListen
             _bl = bl;
             _bl.addListeners(
                 new FileNames(),
-                new Format()
+                new Format(),
+                new PaletteAtlas()
             );
         }
 
@@ -148,6 +150,19 @@ class TimSaverBuilderGui extends DiscItemSaverBuilderGui implements ChangeListen
             }
             protected boolean getEnabled() {return true; }
         }
+
+        private class PaletteAtlas extends AbstractCheck {
+            public PaletteAtlas() { super(I.GUI_TIM_PALETTE_ATLAS_LABEL()); }
+            public boolean isSelected() {
+                return _bl.getBuilder().getPaletteAtlas();
+            }
+            public void setSelected(boolean b) {
+                _bl.getBuilder().setPaletteAtlas(b);
+            }
+            public boolean isEnabled() {
+                return _bl.getBuilder().getPaletteAtlas_enabled();
+            }
+        }
     }
 
     private void updatePreviews() {
@@ -164,8 +179,9 @@ class TimSaverBuilderGui extends DiscItemSaverBuilderGui implements ChangeListen
             gl.setRows((int)Math.floor(dblPalSqrt));
             gl.setColumns((int)Math.ceil(dblPalSqrt));
 
+            BufferedImage[] aoImages = tim.toBufferedImages(null);
             for (int i = 0; i < iPals; i++) {
-                _panelImages.add(new TimPaletteSelector(tim, i, _bl.getBuilder()));
+                _panelImages.add(new TimPaletteSelector(aoImages[i], i, _bl.getBuilder()));
             }
         } catch (Exception ex) {
             LOG.log(Level.SEVERE, "Error reading TIM preview", ex);
@@ -125,6 +125,14 @@ public class AudioStreamsCombiner implements ISectorAudioDecoder {
         }
     }
 
+    public boolean usesExclusiveClaimer() {
+        for (ISectorAudioDecoder decoder : _aoDecoders) {
+            if (decoder.usesExclusiveClaimer())
+                return true;
+        }
+        return false;
+    }
+
     public void setAudioListener(@Nonnull DecodedAudioPacket.Listener listener) {
          for (ISectorAudioDecoder decoder : _aoDecoders) {
             decoder.setAudioListener(listener);
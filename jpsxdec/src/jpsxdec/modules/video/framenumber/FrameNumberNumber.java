@@ -37,9 +37,11 @@
 
 package jpsxdec.modules.video.framenumber;
 
+import java.util.Arrays;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import jpsxdec.i18n.I;
 import jpsxdec.i18n.exception.LocalizedDeserializationFail;
@@ -166,11 +168,24 @@ class FrameNumberNumber {
 
             private int _iDuplicate = 0;
 
+            /** Every value added, in order, so the format can remember
+             * exactly where each frame is. */
+            @Nonnull
+            private int[] _aiValues = new int[64];
+            private int _iValueCount = 0;
+
             public Builder(int iStartFrameValue) {
                 if (iStartFrameValue < 0)
                     throw new IllegalArgumentException();
                 _iStartFrameValue = iStartFrameValue;
                 _iEndFrameValue = iStartFrameValue;
+                keepValue(iStartFrameValue);
+            }
+
+            private void keepValue(int iFrameValue) {
+                if (_iValueCount == _aiValues.length)
+                    _aiValues = Arrays.copyOf(_aiValues, _aiValues.length * 2);
+                _aiValues[_iValueCount++] = iFrameValue;
             }
 
             public void addNumber(int iFrameValue) {
@@ -187,6 +202,7 @@ class FrameNumberNumber {
                     _iEndFrameValue = iFrameValue;
                     _iDuplicate = 0;
                 }
+                keepValue(iFrameValue);
             }
 
             public int getStartFrameValue() {
@@ -199,7 +215,8 @@ class FrameNumberNumber {
 
             public @Nonnull Format makeFormat() {
                 return new Format(_iStartFrameValue, _iEndFrameValue,
-                                  _iDuplicate, _iDuplicateMax);
+                                  _iDuplicate, _iDuplicateMax,
+                                  Arrays.copyOf(_aiValues, _iValueCount));
             }
 
             @Override
@@ -213,9 +230,20 @@ class FrameNumberNumber {
         private final int _iEndFrameValue;
         private final int _iEndDuplicate;
         private final int _iDuplicateMax;
+        /** Every frame value in order, or null if unknown
+         * (e.g. deserialized from an older index). */
+        @CheckForNull
+        private final int[] _aiValues;
 
         public Format(int iStartFrameValue, int iEndFrameValue,
                       int iEndDuplicate, int iDuplicateMax)
+        {
+            this(iStartFrameValue, iEndFrameValue, iEndDuplicate, iDuplicateMax, null);
+        }
+
+        private Format(int iStartFrameValue, int iEndFrameValue,
+                       int iEndDuplicate, int iDuplicateMax,
+                       @CheckForNull int[] aiValues)
         {
             if (iStartFrameValue < 0 || iEndFrameValue < 0 ||
                 iEndDuplicate < 0 || iDuplicateMax < 0)
@@ -227,6 +255,7 @@ class FrameNumberNumber {
             _iEndFrameValue = iEndFrameValue;
             _iEndDuplicate = iEndDuplicate;
             _iDuplicateMax = iDuplicateMax;
+            _aiValues = aiValues;
         }
 
         private static final Pattern SERIALIZED_FORMAT = Pattern.compile(
@@ -234,6 +263,14 @@ class FrameNumberNumber {
                 "^(\\d+)-(\\d+)"+"(\\.(\\d+)/(\\d+))?$");
 
         public Format(@Nonnull String sSerialized) throws LocalizedDeserializationFail {
+            this(sSerialized, null);
+        }
+
+        /** @param sValues Values list generated by {@link #serializeValues()},
+         *                 or null if not available. */
+        public Format(@Nonnull String sSerialized, @CheckForNull String sValues)
+                throws LocalizedDeserializationFail
+        {
             String[] as = Misc.regex(SERIALIZED_FORMAT, sSerialized);
             if (as == null)
                 throw new LocalizedDeserializationFail(I.FRAME_NUM_INVALID(sSerialized));
@@ -245,6 +282,88 @@ class FrameNumberNumber {
             } catch (NumberFormatException ex) {
                 throw new RuntimeException("Regex should prevent this", ex);
             }
+            _aiValues = sValues == null ? null : deserializeValues(sValues);
+        }
+
+        private static final Pattern SERIALIZED_VALUES = Pattern.compile(
+                "^\\d+(,\\d+(\\*\\d+)?)*$");
+
+        /** Parses the list generated by {@link #serializeValues()}. */
+        private static @Nonnull int[] deserializeValues(@Nonnull String sValues)
+                throws LocalizedDeserializationFail
+        {
+            if (!SERIALIZED_VALUES.matcher(sValues).matches())
+                throw new LocalizedDeserializationFail(I.FRAME_NUM_INVALID(sValues));
+            String[] asTokens = sValues.split(",");
+            int[] aiValues = new int[asTokens.length];
+            int iCount = 0;
+            try {
+                int iValue = Integer.parseInt(asTokens[0]);
+                aiValues[iCount++] = iValue;
+                for (int i = 1; i < asTokens.length; i++) {
+                    String sToken = asTokens[i];
+                    int iRepeat = 1;
+                    int iStar = sToken.indexOf('*');
+                    if (iStar >= 0) {
+                        iRepeat = Integer.parseInt(sToken.substring(iStar + 1));
+                        sToken = sToken.substring(0, iStar);
+                    }
+                    int iDelta = Integer.parseInt(sToken);
+                    if (iRepeat < 1 || iRepeat > 1000000)
+                        throw new LocalizedDeserializationFail(I.FRAME_NUM_INVALID(sValues));
+                    if (iCount + iRepeat > aiValues.length)
+                        aiValues = Arrays.copyOf(aiValues, Math.max(aiValues.length * 2, iCount + iRepeat));
+                    for (int j = 0; j < iRepeat; j++) {
+                        iValue += iDelta;
+                        aiValues[iCount++] = iValue;
+                    }
+                }
+            } catch (NumberFormatException ex) {
+                // a value too big to be an int
+                throw new LocalizedDeserializationFail(I.FRAME_NUM_INVALID(sValues));
+            }
+            return Arrays.copyOf(aiValues, iCount);
+        }
+
+        /** Every frame value, compacted into the first value, followed by the
+         * differences between each value and the one before it. Runs of the
+         * same difference are written as {@code difference*count}.
+         * e.g. 100,10*3,0,8 is 100,110,120,130,130,138.
+         * @return null if the values are not known. */
+        public @CheckForNull String serializeValues() {
+            if (_aiValues == null || _aiValues.length == 0)
+                return null;
+            StringBuilder sb = new StringBuilder();
+            sb.append(_aiValues[0]);
+            int i = 1;
+            while (i < _aiValues.length) {
+                int iDelta = _aiValues[i] - _aiValues[i - 1];
+                int iRun = 1;
+                while (i + iRun < _aiValues.length &&
+                       _aiValues[i + iRun] - _aiValues[i + iRun - 1] == iDelta)
+                {
+                    iRun++;
+                }
+                sb.append(',').append(iDelta);
+                if (iRun > 1)
+                    sb.append('*').append(iRun);
+                i += iRun;
+            }
+            return sb.toString();
+        }
+
+        /** Returns the number of frame values that are known,
+         * or -1 if they are not known. */
+        public int getValueCount() {
+            return _aiValues == null ? -1 : _aiValues.length;
+        }
+
+        /** Returns the value of the frame at the index.
+         * @throws IllegalStateException if the values are not known. */
+        public int getValue(int iIndex) {
+            if (_aiValues == null)
+                throw new IllegalStateException();
+            return _aiValues[iIndex];
         }
 
         public @Nonnull String serialize() {
@@ -91,6 +91,9 @@ public class HeaderFrameNumber extends FrameNumber {
 
 
         public static final String HEADER_FORMAT_KEY = "Header Frames";
+        /** Optional list of the header frame number of every frame.
+         * Older indexes won't have it. */
+        private static final String HEADER_LIST_KEY = "Header Frame List";
         @Nonnull
         private final FrameNumberNumber.Format _headerNumberFormat;
 
@@ -99,11 +102,45 @@ public class HeaderFrameNumber extends FrameNumber {
         }
 
         public Format(@Nonnull SerializedDiscItem serial) throws LocalizedDeserializationFail {
-            _headerNumberFormat = new FrameNumberNumber.Format(serial.getString(HEADER_FORMAT_KEY));
+            _headerNumberFormat = new FrameNumberNumber.Format(
+                    serial.getString(HEADER_FORMAT_KEY),
+                    serial.hasField(HEADER_LIST_KEY) ? serial.getString(HEADER_LIST_KEY) : null);
         }
 
         public void serialize(@Nonnull SerializedDiscItem serial) {
             serial.addString(HEADER_FORMAT_KEY, _headerNumberFormat.serialize());
+            String sHeaderList = _headerNumberFormat.serializeValues();
+            if (sHeaderList != null)
+                serial.addString(HEADER_LIST_KEY, sHeaderList);
+        }
+
+        /** If the start sector and header frame number of every frame is
+         * known, so frames can be found without walking the stream from
+         * the start. */
+        public boolean hasFrameValues(@Nonnull IndexSectorFrameNumber.Format indexSectorFormat) {
+            return indexSectorFormat.hasFrameStartSectors() &&
+                   _headerNumberFormat.getValueCount() == indexSectorFormat.getFrameCount();
+        }
+
+        /** Finds the first frame that is not before the lookup.
+         * @return the frame index, or -1 if the frame values are not known,
+         *         or every frame is before the lookup. */
+        public int findFrame(@Nonnull IndexSectorFrameNumber.Format indexSectorFormat,
+                             @Nonnull FrameLookup lookup)
+        {
+            if (!hasFrameValues(indexSectorFormat))
+                return -1;
+            Formatter formatter = new Formatter(indexSectorFormat.makePrivateTypeFormatter(),
+                                                _headerNumberFormat.makeFormatter());
+            for (int i = 0; i < indexSectorFormat.getFrameCount(); i++) {
+                FrameCompareIs cmp = lookup.compareTo(formatter.nextNoWarn(
+                        indexSectorFormat.getFrameStartSector(i), _headerNumberFormat.getValue(i)));
+                if (cmp == FrameCompareIs.INVALID)
+                    return -1;
+                else if (cmp != FrameCompareIs.GREATERTHAN)
+                    return i;
+            }
+            return -1;
         }
 
         public @Nonnull HeaderFrameNumber getStartFrame(@Nonnull IndexSectorFrameNumber.Format indexSectorFormat)
@@ -122,6 +159,24 @@ public class HeaderFrameNumber extends FrameNumber {
             return new Formatter(indexSectorFormat.makePrivateTypeFormatter(), _headerNumberFormat.makeFormatter());
         }
 
+        /** Makes a formatter that will number the first frame it sees
+         * as frame {@code iStartFrame}, for when reading starts in the
+         * middle of the stream.
+         * @throws IllegalStateException if {@link #hasFrameValues} is false. */
+        public @Nonnull IFrameNumberFormatterWithHeader makeFormatter(
+                @Nonnull IndexSectorFrameNumber.Format indexSectorFormat, int iStartFrame)
+        {
+            if (!hasFrameValues(indexSectorFormat))
+                throw new IllegalStateException();
+            Formatter formatter = new Formatter(indexSectorFormat.makePrivateTypeFormatter(),
+                                                _headerNumberFormat.makeFormatter());
+            for (int i = 0; i < iStartFrame; i++) {
+                formatter.nextNoWarn(indexSectorFormat.getFrameStartSector(i),
+                                     _headerNumberFormat.getValue(i));
+            }
+            return formatter;
+        }
+
         @Override
         public String toString() {
             return _headerNumberFormat.toString();
@@ -171,6 +226,13 @@ public class HeaderFrameNumber extends FrameNumber {
             return new HeaderFrameNumber(f1, hnn);
         }
 
+        /** Same as {@link #next(int, int, ILocalizedLogger)} but without any
+         * warnings. For replaying frames that are already known. */
+        private @Nonnull HeaderFrameNumber nextNoWarn(int iSector, int iHeaderFrame) {
+            IndexSectorFrameNumber f1 = _indexSectorFrameNumberFormatter.nextNoWarn(iSector);
+            return new HeaderFrameNumber(f1, _headerFormatter.next(iHeaderFrame));
+        }
+
     }
 
     public static @Nonnull IFrameNumberFormatterWithHeader makeSimpleFormatter(
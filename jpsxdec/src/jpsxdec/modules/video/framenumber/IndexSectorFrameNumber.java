@@ -84,6 +84,9 @@ public class IndexSectorFrameNumber extends FrameNumber {
         private final int _iFrameCount;
 
         private static final String SECTOR_FORMAT_KEY = "Sector Frames";
+        /** Optional list of the start sector of every frame.
+         * Older indexes won't have it. */
+        private static final String SECTOR_LIST_KEY = "Frame Start Sectors";
         @Nonnull
         private final FrameNumberNumber.Format _sectorNumberFormat;
 
@@ -94,18 +97,54 @@ public class IndexSectorFrameNumber extends FrameNumber {
 
         public Format(@Nonnull SerializedDiscItem serial) throws LocalizedDeserializationFail {
             _iFrameCount = serial.getInt(FRAME_COUNT_KEY);
-            _sectorNumberFormat = new FrameNumberNumber.Format(serial.getString(SECTOR_FORMAT_KEY));
+            _sectorNumberFormat = new FrameNumberNumber.Format(
+                    serial.getString(SECTOR_FORMAT_KEY),
+                    serial.hasField(SECTOR_LIST_KEY) ? serial.getString(SECTOR_LIST_KEY) : null);
         }
 
         public void serialize(@Nonnull SerializedDiscItem serial) {
             serial.addNumber(FRAME_COUNT_KEY, _iFrameCount);
             serial.addString(SECTOR_FORMAT_KEY, _sectorNumberFormat.serialize());
+            String sSectorList = _sectorNumberFormat.serializeValues();
+            if (sSectorList != null)
+                serial.addString(SECTOR_LIST_KEY, sSectorList);
         }
 
         public int getFrameCount() {
             return _iFrameCount;
         }
 
+        /** If the start sector of every frame is known, so frames can be
+         * found without walking the stream from the start. */
+        public boolean hasFrameStartSectors() {
+            return _sectorNumberFormat.getValueCount() == _iFrameCount;
+        }
+
+        /** @throws IllegalStateException if {@link #hasFrameStartSectors()} is false. */
+        public int getFrameStartSector(int iFrameIndex) {
+            if (!hasFrameStartSectors())
+                throw new IllegalStateException();
+            return _sectorNumberFormat.getValue(iFrameIndex);
+        }
+
+        /** Finds the first frame that is not before the lookup.
+         * @return the frame index, or -1 if the frame start sectors are not
+         *         known, the lookup is not a sector or index lookup, or
+         *         every frame is before the lookup. */
+        public int findFrame(@Nonnull FrameLookup lookup) {
+            if (!hasFrameStartSectors())
+                return -1;
+            Formatter formatter = makePrivateTypeFormatter();
+            for (int i = 0; i < _iFrameCount; i++) {
+                FrameCompareIs cmp = lookup.compareTo(formatter.nextNoWarn(getFrameStartSector(i)));
+                if (cmp == FrameCompareIs.INVALID)
+                    return -1;
+                else if (cmp != FrameCompareIs.GREATERTHAN)
+                    return i;
+            }
+            return -1;
+        }
+
         public @Nonnull IndexSectorFrameNumber getStartFrame() {
             return new IndexSectorFrameNumber(0, _iFrameCount, _sectorNumberFormat.getStart());
         }
@@ -118,10 +157,26 @@ public class IndexSectorFrameNumber extends FrameNumber {
         public @Nonnull IFrameNumberFormatter makeFormatter() {
             return makePrivateTypeFormatter();
         }
+
+        /** Makes a formatter that will number the first frame it sees
+         * as frame {@code iStartFrame}, for when reading starts in the
+         * middle of the stream.
+         * @throws IllegalStateException if {@link #hasFrameStartSectors()} is false. */
+        public @Nonnull IFrameNumberFormatter makeFormatter(int iStartFrame) {
+            return makePrivateTypeFormatter(iStartFrame);
+        }
+
         // for header to use
         @Nonnull Formatter makePrivateTypeFormatter() {
             return new Formatter(_iFrameCount, _sectorNumberFormat.makeFormatter());
         }
+        @Nonnull Formatter makePrivateTypeFormatter(int iStartFrame) {
+            Formatter formatter = makePrivateTypeFormatter();
+            for (int i = 0; i < iStartFrame; i++) {
+                formatter.nextNoWarn(getFrameStartSector(i));
+            }
+            return formatter;
+        }
 
         @Override
         public String toString() {
@@ -175,8 +230,15 @@ public class IndexSectorFrameNumber extends FrameNumber {
         
         public @Nonnull IndexSectorFrameNumber next(int iSector, @Nonnull ILocalizedLogger log) {
             warnIndexDigitsOutOfBounds(log);
+            IndexSectorFrameNumber fn = nextNoWarn(iSector);
+            warnSectorFrameNumberIssues(fn._sectorNumber, log);
+            return fn;
+        }
+
+        /** Same as {@link #next(int, ILocalizedLogger)} but without any
+         * warnings. For replaying frames that are already known. */
+        @Nonnull IndexSectorFrameNumber nextNoWarn(int iSector) {
             FrameNumberNumber sectorNumber = _sectorFormatter.next(iSector);
-            warnSectorFrameNumberIssues(sectorNumber, log);
             IndexSectorFrameNumber fn = new IndexSectorFrameNumber(_iCurrentFrameIndex, _iExpectedMaxFrameCount, sectorNumber);
             _iCurrentFrameIndex++;
             return fn;
@@ -47,14 +47,11 @@ import jpsxdec.discitems.DiscItemSaverBuilderGui;
 import jpsxdec.i18n.FeedbackStream;
 import jpsxdec.i18n.I;
 import jpsxdec.i18n.TabularFeedback;
-import jpsxdec.i18n.exception.LoggedFailure;
 import jpsxdec.i18n.log.ILocalizedLogger;
-import jpsxdec.i18n.log.ProgressLogger;
 import jpsxdec.modules.sharedaudio.ISectorAudioDecoder;
 import jpsxdec.modules.video.save.VideoSaver;
 import jpsxdec.modules.video.save.VideoSaverBuilder;
 import jpsxdec.util.ArgParser;
-import jpsxdec.util.TaskCanceledException;
 
 public class PacketBasedVideoSaverBuilder extends VideoSaverBuilder {
 
@@ -146,11 +143,11 @@ public class PacketBasedVideoSaverBuilder extends VideoSaverBuilder {
         log.log(Level.INFO, I.CMD_EMBEDDED_PACKET_BASED_AUDIO_HZ(_sourceVidItem.getAudioSampleFramesPerSecond()));
     }
 
-    public void startSave(@Nonnull ProgressLogger pl, @CheckForNull File directory)
-            throws LoggedFailure, TaskCanceledException
+    protected @Nonnull VideoSaver makeVideoSaver(@Nonnull ILocalizedLogger log,
+                                                 @CheckForNull File directory)
     {
         clearGeneratedFiles();
-        printSelectedOptions(pl);
+        printSelectedOptions(log);
 
         SectorClaimToAudioAndFrame vid = _sourceVidItem.makeAudioVideoDemuxer(getAudioVolume());
         ISectorAudioDecoder aud;
@@ -160,8 +157,7 @@ public class PacketBasedVideoSaverBuilder extends VideoSaverBuilder {
             aud = null;
         }
 
-        VideoSaver vs = new VideoSaver(_sourceVidItem, this, thisGeneratedFileListener, directory, pl, vid, aud);
-        vs.save(pl);
+        return new VideoSaver(_sourceVidItem, this, thisGeneratedFileListener, directory, log, vid, aud);
     }
 
 }
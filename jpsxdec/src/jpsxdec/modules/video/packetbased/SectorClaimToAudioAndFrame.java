@@ -44,4 +44,7 @@ import jpsxdec.modules.video.ISectorClaimToDemuxedFrame;
 public abstract class SectorClaimToAudioAndFrame
         implements ISectorClaimToDemuxedFrame, ISectorAudioDecoder
 {
+    public boolean usesExclusiveClaimer() {
+        return true;
+    }
 }
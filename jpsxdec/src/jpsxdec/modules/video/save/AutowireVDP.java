@@ -82,7 +82,7 @@ public class AutowireVDP {
 
         wireDecodedIntoMdec();
         wireMdecIntoBitstream();
-        _toAvi = chooseOnlyOne(_decoded2JYuvAvi, _decoded2RgbAvi, _decoded2YuvAvi, _mdec2MjpegAvi);
+        _toAvi = chooseOnlyOne(_decoded2JYuvAvi, _decoded2RgbAvi, _decoded2YuvAvi, _decoded2Y4m, _mdec2MjpegAvi);
         wireGenFileListener();
         wireSectorClaim();
         wireAudioAndFrame();
@@ -101,6 +101,8 @@ public class AutowireVDP {
             _decoded2RgbAvi.setGenFileListener(_generatedFileListener);
         if (_decoded2YuvAvi != null)
             _decoded2YuvAvi.setGenFileListener(_generatedFileListener);
+        if (_decoded2Y4m != null)
+            _decoded2Y4m.setGenFileListener(_generatedFileListener);
         if (_mdec2File != null)
             _mdec2File.setGenFileListener(_generatedFileListener);
         if (_mdec2Jpeg != null)
@@ -119,7 +121,7 @@ public class AutowireVDP {
 
     private void wireDecodedIntoMdec() {
         if (_decodedListener == null)
-            _decodedListener = chooseOnlyOne(_decoded2JYuvAvi, _decoded2JavaImage, _decoded2RgbAvi, _decoded2YuvAvi);
+            _decodedListener = chooseOnlyOne(_decoded2JYuvAvi, _decoded2JavaImage, _decoded2RgbAvi, _decoded2YuvAvi, _decoded2Y4m);
         if (_decodedListener == null)
             return;
         if (_mdec2Decoded != null)
@@ -286,6 +288,12 @@ public class AutowireVDP {
         _decoded2YuvAvi = decoded2YuvAvi;
     }
     @CheckForNull
+    private VDP.Decoded2Y4m _decoded2Y4m;
+    public void setToAvi(@Nonnull VDP.Decoded2Y4m decoded2Y4m) {
+        assertNull(_decoded2Y4m);
+        _decoded2Y4m = decoded2Y4m;
+    }
+    @CheckForNull
     private VDP.Mdec2MjpegAvi _mdec2MjpegAvi;
     public void setToAvi(@Nonnull VDP.Mdec2MjpegAvi mdec2MjpegAvi) {
         assertNull(_mdec2MjpegAvi);
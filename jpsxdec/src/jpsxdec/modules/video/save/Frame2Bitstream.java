@@ -44,6 +44,7 @@ import jpsxdec.modules.video.IDemuxedFrame;
 import jpsxdec.modules.video.framenumber.FormattedFrameNumber;
 import jpsxdec.modules.video.framenumber.FrameNumber;
 import jpsxdec.psxvideo.mdec.MdecInputStream;
+import jpsxdec.util.RunStats;
 
 public class Frame2Bitstream implements IDemuxedFrame.Listener {
 
@@ -74,6 +75,7 @@ public class Frame2Bitstream implements IDemuxedFrame.Listener {
 
     @Override
     public void frameComplete(@Nonnull IDemuxedFrame frame) throws LoggedFailure {
+        RunStats.frameDemuxed();
         FormattedFrameNumber ffn = frame.getFrame().getNumber(_frameNumberType);
         MdecInputStream customStream = frame.getCustomFrameMdecStream();
 
@@ -44,9 +44,11 @@ import java.awt.image.DataBufferInt;
 import java.io.BufferedOutputStream;
 import java.io.Closeable;
 import java.io.File;
+import java.io.FileDescriptor;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.annotation.CheckForNull;
@@ -56,6 +58,7 @@ import javax.sound.sampled.AudioFormat;
 import jpsxdec.formats.JavaImageFormat;
 import jpsxdec.formats.RgbIntImage;
 import jpsxdec.formats.YCbCrImage;
+import jpsxdec.formats.Yuv4mpeg2Writer;
 import jpsxdec.i18n.I;
 import jpsxdec.i18n.ILocalizedMessage;
 import jpsxdec.i18n.exception.LocalizedFileNotFoundException;
@@ -67,6 +70,7 @@ import jpsxdec.psxvideo.bitstreams.BitStreamUncompressor;
 import jpsxdec.psxvideo.mdec.Calc;
 import jpsxdec.psxvideo.mdec.MdecDecoder;
 import jpsxdec.psxvideo.mdec.MdecDecoder_double;
+import jpsxdec.psxvideo.mdec.MdecDecoder_int;
 import jpsxdec.psxvideo.mdec.MdecException;
 import jpsxdec.psxvideo.mdec.MdecInputStream;
 import jpsxdec.psxvideo.mdec.MdecInputStreamReader;
@@ -74,6 +78,7 @@ import jpsxdec.util.BinaryDataNotRecognized;
 import jpsxdec.util.ExposedBAOS;
 import jpsxdec.util.Fraction;
 import jpsxdec.util.IO;
+import jpsxdec.util.RunStats;
 import jpsxdec.util.aviwriter.AviWriter;
 import jpsxdec.util.aviwriter.AviWriterDIB;
 import jpsxdec.util.aviwriter.AviWriterMJPG;
@@ -94,6 +99,8 @@ import jpsxdec.util.aviwriter.AviWriterYV12;
  *                                        +-> Decoded (Mdec2Decoded) -+-> JavaImage (Decoded2JavaImage)
  *                                                                    |
  *                                                                    +-> RgbAvi, YuvAvi, JYuvAvi (Decoded2...)
+ *                                                                    |
+ *                                                                    +-> Y4m (Decoded2Y4m)
  *</pre>
  */
 public class VDP {
@@ -143,6 +150,7 @@ public class VDP {
                 if (_fileGenListener != null)
                     _fileGenListener.fileGenerated(f);
                 fos.write(abBitstream, 0, iSize);
+                RunStats.frameWritten(iSize);
             } catch (FileNotFoundException ex) {
                 _log.log(Level.SEVERE, I.IO_OPENING_FILE_ERROR_NAME(f.toString()), ex);
             } catch (IOException ex) {
@@ -265,6 +273,8 @@ public class VDP {
             } finally {
                 IO.closeSilently(bos, LOG);
             }
+            if (RunStats.enabled())
+                RunStats.frameWritten(f.length());
         }
 
         public void error(@Nonnull ILocalizedMessage errMsg, @CheckForNull FormattedFrameNumber frameNumber,
@@ -314,8 +324,10 @@ public class VDP {
                 return; // just skip the file without failing
             }
 
+            long lngDecodeStart = RunStats.startTimer();
             try {
                 _jpegTranslator.readMdec(mdecIn);
+                RunStats.frameDecoded(lngDecodeStart);
             } catch (MdecException.TooMuchEnergy ex) {
                 _log.log(Level.WARNING, FrameMessage.JPEG_ENCODER_FRAME_FAIL(frameNumber), ex);
                 return; // just skip the file without failing
@@ -340,6 +352,7 @@ public class VDP {
                 if (_fileGenListener != null)
                     _fileGenListener.fileGenerated(f);
                 fos.write(_buffer.getBuffer(), 0, _buffer.size());
+                RunStats.frameWritten(_buffer.size());
             } catch (FileNotFoundException ex) {
                 _log.log(Level.SEVERE, I.IO_OPENING_FILE_ERROR_NAME(f.toString()), ex);
             } catch (IOException ex) {
@@ -383,6 +396,7 @@ public class VDP {
                          @Nonnull Fraction presentationSector) 
                 throws LoggedFailure
         {
+            long lngDecodeStart = RunStats.startTimer();
             try {
                 _decoder.decode(mdecIn);
             } catch (MdecException.ReadCorruption ex) {
@@ -390,6 +404,7 @@ public class VDP {
             } catch (MdecException.EndOfStream ex) {
                 _log.log(Level.SEVERE, FrameMessage.FRAME_NUM_INCOMPLETE(frameNumber), ex);
             }
+            RunStats.frameDecoded(lngDecodeStart);
             if (_listener != null)
                 _listener.decoded(_decoder, frameNumber, presentationSector);
         }
@@ -462,6 +477,8 @@ public class VDP {
                 if (ImageIO.write(_rgbImg, _sFmt, f)) {
                     if (_fileGenListener != null)
                         _fileGenListener.fileGenerated(f);
+                    if (RunStats.enabled())
+                        RunStats.frameWritten(f.length());
                 } else {
                     _log.log(Level.WARNING, FrameMessage.FRAME_FILE_WRITE_UNABLE(f, frameNumber));
                 }
@@ -489,7 +506,11 @@ public class VDP {
     // ########################################################################
 
     /** Most Avi will take Decoded as input, but MJPG will need Mdec as input,
-     *  so save the interface implementation for subclasses. */
+     *  so save the interface implementation for subclasses.
+     *<p>
+     *  Also handles keeping audio and video in sync. Outputs that don't
+     *  write through an {@link AviWriter} (i.e. {@link Decoded2Y4m}) override
+     *  the protected writer methods. */
     public static abstract class ToAvi implements Closeable, DecodedAudioPacket.Listener {
         @Nonnull
         protected final File _outputFile;
@@ -542,27 +563,55 @@ public class VDP {
         abstract public void error(@Nonnull ILocalizedMessage sErr, @CheckForNull FormattedFrameNumber frameNumber,
                                    @Nonnull Fraction presentationSector) throws LoggedFailure;
 
+        // the writer methods used to keep audio and video in sync
+
+        protected boolean isOpen() {
+            return _writer != null;
+        }
+        protected long getVideoFramesWritten() {
+            return _writer.getVideoFramesWritten();
+        }
+        protected void writeBlankFrame() throws IOException {
+            _writer.writeBlankFrame();
+        }
+        protected void repeatPreviousFrame() throws IOException {
+            _writer.repeatPreviousFrame();
+        }
+        protected long getAudioSampleFramesWritten() {
+            return _writer.getAudioSampleFramesWritten();
+        }
+        protected void writeSilentSamples(long lngSampleCount) throws IOException {
+            _writer.writeSilentSamples(lngSampleCount);
+        }
+        protected void writeAudio(@Nonnull byte[] abData) throws IOException {
+            _writer.writeAudio(abData, 0, abData.length);
+        }
+        /** File name to report if writing audio fails. */
+        protected @Nonnull String getAudioFileName() {
+            return _writer.getFile().toString();
+        }
+
         final protected void prepForFrame(@CheckForNull FormattedFrameNumber frameNumber,
                                           @Nonnull Fraction presentationSector)
                 throws IOException
         {
-            if (_writer == null)
+            if (!isOpen())
                 throw new IllegalStateException("Avi writer is not open");
 
             // if first frame
-            if (_writer.getVideoFramesWritten() < 1 && _vidSync.getInitialVideo() > 0) {
+            if (getVideoFramesWritten() < 1 && _vidSync.getInitialVideo() > 0) {
 
                 _log.log(Level.INFO, I.WRITING_BLANK_FRAMES_TO_ALIGN_AV(_vidSync.getInitialVideo()));
-                _writer.writeBlankFrame();
+                writeBlankFrame();
                 for (int i = _vidSync.getInitialVideo()-1; i > 0; i--) {
-                    _writer.repeatPreviousFrame();
+                    repeatPreviousFrame();
                 }
 
             }
 
             int iDupCount = _vidSync.calculateFramesToCatchUp(
                                         presentationSector,
-                                        _writer.getVideoFramesWritten());
+                                        getVideoFramesWritten());
 
             if (iDupCount < 0) {
                 // this does happen on occasion:
@@ -574,14 +623,14 @@ public class VDP {
                 _log.log(Level.WARNING, FrameMessage.FRAME_NUM_AHEAD_OF_READING(frameNumber, -iDupCount));
             } else {
                 while (iDupCount > 0) { // could happen with first frame
-                    if (_writer.getVideoFramesWritten() < 1) { // TODO: fix design so this isn't needed
+                    if (getVideoFramesWritten() < 1) { // TODO: fix design so this isn't needed
                         _log.log(Level.INFO, I.WRITING_BLANK_FRAMES_TO_ALIGN_AV(1));
                         LOG.log(Level.INFO, "Writing blank frame for frame {0}", frameNumber);
-                        _writer.writeBlankFrame();
+                        writeBlankFrame();
                     } else {
                         _log.log(Level.INFO, I.WRITING_DUP_FRAMES_TO_ALIGN_AV(1));
                         LOG.log(Level.INFO, "Writing dup frame for frame {0}", frameNumber);
-                        _writer.repeatPreviousFrame();
+                        repeatPreviousFrame();
                     }
                     iDupCount--;
                 }
@@ -592,27 +641,26 @@ public class VDP {
                                               @Nonnull ILocalizedLogger log)
                 throws LoggedFailure
         {
-            if (_writer == null)
+            if (!isOpen())
                 throw new IllegalStateException("Avi writer is not open");
 
             // _avSync should not be null if this method is called
             try {
-                if (_writer.getAudioSampleFramesWritten() < 1 &&
+                if (getAudioSampleFramesWritten() < 1 &&
                     _avSync.getInitialAudio() > 0)
                 {
                     _log.log(Level.INFO, I.WRITING_SILECE_TO_SYNC_AV(_avSync.getInitialAudio()));
-                    _writer.writeSilentSamples(_avSync.getInitialAudio());
+                    writeSilentSamples(_avSync.getInitialAudio());
                 }
-                long lngNeededSilence = _avSync.calculateAudioToCatchUp(packet.getPresentationSector(), _writer.getAudioSampleFramesWritten());
+                long lngNeededSilence = _avSync.calculateAudioToCatchUp(packet.getPresentationSector(), getAudioSampleFramesWritten());
                 if (lngNeededSilence > 0) {
                     _log.log(Level.INFO, I.WRITING_SILENCE_TO_KEEP_AV_SYNCED(lngNeededSilence));
-                    _writer.writeSilentSamples(lngNeededSilence);
+                    writeSilentSamples(lngNeededSilence);
                 }
 
-                byte[] abData = packet.getData();
-                _writer.writeAudio(abData, 0, abData.length);
+                writeAudio(packet.getData());
             } catch (IOException ex) {
-                throw new LoggedFailure(_log, Level.SEVERE, I.IO_WRITING_TO_FILE_ERROR_NAME(_writer.getFile().toString()), ex);
+                throw new LoggedFailure(_log, Level.SEVERE, I.IO_WRITING_TO_FILE_ERROR_NAME(getAudioFileName()), ex);
             }
         }
 
@@ -718,7 +766,7 @@ public class VDP {
         }
 
         public void assertAcceptsDecoded(@Nonnull MdecDecoder decoder) throws IllegalArgumentException {
-            if (!(decoder instanceof MdecDecoder_double))
+            if (!(decoder instanceof MdecDecoder_double) && !(decoder instanceof MdecDecoder_int))
                 throw new IllegalArgumentException(getClass().getName() + " can't handle " + decoder.getClass().getName());
         }
         
@@ -744,8 +792,11 @@ public class VDP {
         {
             if (_writerYuv == null)
                 throw new IllegalStateException("AVI not open.");
-            // only accepts MdecDecoder_double, verified in assertAcceptsDecoded()
-            ((MdecDecoder_double)decoder).readDecoded_Rec601_YCbCr420(_yuvImgBuff);
+            // only accepts MdecDecoder_double or MdecDecoder_int, verified in assertAcceptsDecoded()
+            if (decoder instanceof MdecDecoder_int)
+                ((MdecDecoder_int)decoder).readDecoded_Rec601_YCbCr420(_yuvImgBuff);
+            else
+                ((MdecDecoder_double)decoder).readDecoded_Rec601_YCbCr420(_yuvImgBuff);
             try {
                 prepForFrame(frameNumber, presentationSector);
                 _writerYuv.write(_yuvImgBuff.getY(), _yuvImgBuff.getCb(), _yuvImgBuff.getCr());
@@ -788,6 +839,12 @@ public class VDP {
             super(outputFile, iWidth, iHeight, vidSync, log);
         }
 
+        @Override
+        public void assertAcceptsDecoded(@Nonnull MdecDecoder decoder) throws IllegalArgumentException {
+            if (!(decoder instanceof MdecDecoder_double))
+                throw new IllegalArgumentException(getClass().getName() + " can't handle " + decoder.getClass().getName());
+        }
+
         @Override
         public void decoded(@Nonnull MdecDecoder decoder, @CheckForNull FormattedFrameNumber frameNumber,
                             @Nonnull Fraction presentationSector)
@@ -808,6 +865,199 @@ public class VDP {
         
     }
 
+    /** Writes a YUV4MPEG2 stream instead of an AVI, with any audio written
+     *  as raw PCM to a separate file. Neither output is ever seeked, so both
+     *  can be named pipes (or the video can be standard output) feeding
+     *  another program directly, without an intermediate AVI.
+     *  Only supports videos with even dimensions. */
+    public static class Decoded2Y4m extends ToAvi implements IDecodedListener {
+
+        /** Output file name that means write the video to standard output. */
+        public static final String STDOUT = "-";
+
+        /** Standard output that stays open when the y4m writer is closed,
+         *  otherwise nothing else could be written to it afterwards. */
+        private static class StdOutStream extends FileOutputStream {
+            public StdOutStream() {
+                super(FileDescriptor.out);
+            }
+            @Override
+            public void close() {
+            }
+        }
+
+        public static boolean isStdOut(@Nonnull File file) {
+            return STDOUT.equals(file.getPath());
+        }
+
+        @CheckForNull
+        private final File _pcmFile;
+        @CheckForNull
+        private YCbCrImage _yuvImgBuff;
+        @CheckForNull
+        private Yuv4mpeg2Writer _y4mWriter;
+        @CheckForNull
+        private OutputStream _pcmStream;
+        private long _lngAudioSampleFramesWritten = 0;
+
+        /** @throws IllegalArgumentException if dimensions are not even */
+        public Decoded2Y4m(@Nonnull File outputFile, int iWidth, int iHeight, @Nonnull VideoSync vidSync, @Nonnull ILocalizedLogger log) {
+            super(outputFile, iWidth, iHeight, vidSync, log);
+            if (((iWidth | iHeight) & 1) != 0)
+                throw new IllegalArgumentException("y4m only supports even dimensions");
+            _pcmFile = null;
+        }
+
+        /** @param pcmFile Where the audio will be written as raw PCM.
+         *  @throws IllegalArgumentException if dimensions are not even */
+        public Decoded2Y4m(@Nonnull File outputFile, @Nonnull File pcmFile, int iWidth, int iHeight,
+                           @Nonnull AudioVideoSync avSync, @Nonnull AudioFormat af, @Nonnull ILocalizedLogger log)
+        {
+            super(outputFile, iWidth, iHeight, avSync, af, log);
+            if (((iWidth | iHeight) & 1) != 0)
+                throw new IllegalArgumentException("y4m only supports even dimensions");
+            _pcmFile = pcmFile;
+        }
+
+        public @CheckForNull File getPcmFile() {
+            return _pcmFile;
+        }
+
+        public void assertAcceptsDecoded(@Nonnull MdecDecoder decoder) throws IllegalArgumentException {
+            if (!(decoder instanceof MdecDecoder_double) && !(decoder instanceof MdecDecoder_int))
+                throw new IllegalArgumentException(getClass().getName() + " can't handle " + decoder.getClass().getName());
+        }
+
+        /** Opening a named pipe will block until something opens the other end,
+         *  so the video is always opened before the audio. */
+        public void open()
+                throws LocalizedFileNotFoundException, FileNotFoundException, IOException
+        {
+            if (_y4mWriter != null)
+                return;
+
+            OutputStream videoStream;
+            if (isStdOut(_outputFile)) {
+                videoStream = new StdOutStream();
+            } else {
+                IO.makeDirsForFile(_outputFile);
+                videoStream = new FileOutputStream(_outputFile);
+            }
+            try {
+                _y4mWriter = new Yuv4mpeg2Writer(videoStream, _iWidth, _iHeight,
+                                                 _vidSync.getFpsNum(), _vidSync.getFpsDenom());
+            } catch (IOException ex) {
+                IO.closeSilently(videoStream, LOG);
+                throw ex;
+            }
+            if (_fileGenListener != null && !isStdOut(_outputFile))
+                _fileGenListener.fileGenerated(_outputFile);
+
+            if (_pcmFile != null) {
+                try {
+                    IO.makeDirsForFile(_pcmFile);
+                    _pcmStream = new BufferedOutputStream(new FileOutputStream(_pcmFile));
+                } catch (IOException ex) {
+                    IO.closeSilently(_y4mWriter, LOG);
+                    _y4mWriter = null;
+                    throw ex;
+                }
+                if (_fileGenListener != null)
+                    _fileGenListener.fileGenerated(_pcmFile);
+                _log.log(Level.INFO, I.Y4M_RAW_PCM_AUDIO(_pcmFile, (int)_af.getSampleRate(), _af.getChannels()));
+            }
+            _yuvImgBuff = new YCbCrImage(_iWidth, _iHeight);
+        }
+
+        @Override
+        protected boolean isOpen() {
+            return _y4mWriter != null;
+        }
+        @Override
+        protected long getVideoFramesWritten() {
+            return _y4mWriter.getVideoFramesWritten();
+        }
+        @Override
+        protected void writeBlankFrame() throws IOException {
+            _y4mWriter.writeBlankFrame();
+        }
+        @Override
+        protected void repeatPreviousFrame() throws IOException {
+            _y4mWriter.repeatPreviousFrame();
+        }
+        @Override
+        protected long getAudioSampleFramesWritten() {
+            return _lngAudioSampleFramesWritten;
+        }
+        @Override
+        protected void writeSilentSamples(long lngSampleCount) throws IOException {
+            long lngBytes = lngSampleCount * _af.getFrameSize();
+            while (lngBytes > 0) {
+                int iBytes = (int)Math.min(lngBytes, Integer.MAX_VALUE);
+                IO.writeZeros(_pcmStream, iBytes);
+                lngBytes -= iBytes;
+            }
+            _lngAudioSampleFramesWritten += lngSampleCount;
+        }
+        @Override
+        protected void writeAudio(@Nonnull byte[] abData) throws IOException {
+            _pcmStream.write(abData);
+            _lngAudioSampleFramesWritten += abData.length / _af.getFrameSize();
+        }
+        @Override
+        protected @Nonnull String getAudioFileName() {
+            return String.valueOf(_pcmFile);
+        }
+
+        public void decoded(@Nonnull MdecDecoder decoder, @CheckForNull FormattedFrameNumber frameNumber,
+                            @Nonnull Fraction presentationSector)
+                throws LoggedFailure
+        {
+            if (_y4mWriter == null)
+                throw new IllegalStateException("y4m not open.");
+            // only accepts MdecDecoder_double or MdecDecoder_int, verified in assertAcceptsDecoded()
+            if (decoder instanceof MdecDecoder_int)
+                ((MdecDecoder_int)decoder).readDecoded_Rec601_YCbCr420(_yuvImgBuff);
+            else
+                ((MdecDecoder_double)decoder).readDecoded_Rec601_YCbCr420(_yuvImgBuff);
+            try {
+                prepForFrame(frameNumber, presentationSector);
+                _y4mWriter.write(_yuvImgBuff.getY(), _yuvImgBuff.getCb(), _yuvImgBuff.getCr());
+            } catch (IOException ex) {
+                throw new LoggedFailure(_log, Level.SEVERE,
+                        I.IO_WRITING_TO_FILE_ERROR_NAME(_outputFile.toString()), ex);
+            }
+        }
+
+        public void error(@Nonnull ILocalizedMessage errMsg, @CheckForNull FormattedFrameNumber frameNumber,
+                          @Nonnull Fraction presentationSector)
+                throws LoggedFailure
+        {
+            if (_y4mWriter == null)
+                throw new IllegalStateException("y4m not open.");
+            BufferedImage bi = makeErrorImage(errMsg, _y4mWriter.getWidth(), _y4mWriter.getHeight());
+            try {
+                prepForFrame(frameNumber, presentationSector);
+                YCbCrImage yuv = new YCbCrImage(bi);
+                _y4mWriter.write(yuv.getY(), yuv.getCb(), yuv.getCr());
+            } catch (IOException ex) {
+                throw new LoggedFailure(_log, Level.SEVERE,
+                        I.IO_WRITING_TO_FILE_ERROR_NAME(_outputFile.toString()), ex);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (_y4mWriter != null)
+                    _y4mWriter.close();
+            } finally {
+                if (_pcmStream != null)
+                    _pcmStream.close();
+            }
+        }
+    }
+
     /** This Avi output is unique in that it takes Mdec as input instead of Decoded. */
     public static class Mdec2MjpegAvi extends ToAvi implements IMdecListener {
         @Nonnull
@@ -846,8 +1096,10 @@ public class VDP {
                 throw new IllegalStateException("AVI not open.");
             ILocalizedMessage err;
             Exception fail;
+            long lngDecodeStart = RunStats.startTimer();
             try {
                 _jpegTranslator.readMdec(mdecIn);
+                RunStats.frameDecoded(lngDecodeStart);
                 _buffer.reset();
                 try {
                     _jpegTranslator.writeJpeg(_buffer);
@@ -60,8 +60,6 @@ public enum VideoFormat {
     AVI_YUV(I.VID_AVI_YUV_DESCRIPTION(), I.VID_AVI_YUV_COMMAND()) {
         public String getExtension() { return ".avi"; }
         public boolean isAvi() { return true; }
-        public int getDecodeQualityCount() { return 1; }
-        public MdecDecodeQuality getMdecDecodeQuality(int i) { return MdecDecodeQuality.HIGH; }
         public boolean mustHaveEvenDims()  { return true; };
     },
     AVI_JYUV(I.VID_AVI_JYUV_DESCRIPTION(), I.VID_AVI_JYUV_COMMAND()) {
@@ -71,6 +69,11 @@ public enum VideoFormat {
         public MdecDecodeQuality getMdecDecodeQuality(int i) { return MdecDecodeQuality.HIGH; }
         public boolean mustHaveEvenDims()  { return true; };
     },
+    Y4M(I.VID_Y4M_DESCRIPTION(), I.VID_Y4M_COMMAND()) {
+        public String getExtension() { return ".y4m"; }
+        public boolean isAvi() { return true; }
+        public boolean mustHaveEvenDims()  { return true; };
+    },
     IMGSEQ_PNG(I.VID_IMG_SEQ_PNG_DESCRIPTION(), I.VID_IMG_SEQ_PNG_COMMAND(),
                JavaImageFormat.PNG)
     {
@@ -138,7 +141,8 @@ public enum VideoFormat {
     public int getDecodeQualityCount() { return MdecDecodeQuality.values().length; }
     public @Nonnull MdecDecodeQuality getMdecDecodeQuality(int i) { return MdecDecodeQuality.values()[i]; }
 
-    /** If AVI, it means it can save audio, otherwise it is an image sequence. */
+    /** If AVI (or y4m), it means it is a single file that can save audio,
+     *  otherwise it is an image sequence. */
     public boolean isAvi() { return false; }
     public boolean isSequence() { return !isAvi(); }
 
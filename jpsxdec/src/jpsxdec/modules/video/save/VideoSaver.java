@@ -54,6 +54,7 @@ import jpsxdec.i18n.log.ILocalizedLogger;
 import jpsxdec.i18n.log.ProgressLogger;
 import jpsxdec.modules.IIdentifiedSector;
 import jpsxdec.modules.SectorClaimSystem;
+import jpsxdec.modules.SharedClaimSaver;
 import jpsxdec.modules.sharedaudio.ISectorAudioDecoder;
 import jpsxdec.modules.video.DiscItemVideoStream;
 import jpsxdec.modules.video.IDemuxedFrame;
@@ -69,8 +70,9 @@ import jpsxdec.util.IO;
 import jpsxdec.util.TaskCanceledException;
 
 /** Constructs a {@link VDP Video decoder pipeline} from a
- * {@link VideoSaverBuilder} and performs the actual saving of video. */
-public class VideoSaver {
+ * {@link VideoSaverBuilder} and performs the actual saving of video.
+ * Can also be saved as part of a {@link SharedClaimSaver} pass. */
+public class VideoSaver implements SharedClaimSaver.Participant {
 
     private static final Logger LOG = Logger.getLogger(VideoSaver.class.getName());
 
@@ -100,6 +102,23 @@ public class VideoSaver {
                       @Nonnull ILocalizedLogger log,
                       @Nonnull ISectorClaimToDemuxedFrame demuxer,
                       @CheckForNull ISectorAudioDecoder audioDecoder)
+    {
+        this(vidItem, vsb, genFileListener, directory, log, demuxer, audioDecoder,
+             vidItem.getStartSector());
+    }
+
+    /** @param iVideoStartSector Where to start reading when there is no audio.
+     *                          Should be where the demuxer expects to start,
+     *                          which may be after the start of the video
+     *                          if it was made to start at a later frame. */
+    public VideoSaver(@Nonnull DiscItemVideoStream vidItem,
+                      @Nonnull VideoSaverBuilder vsb,
+                      @Nonnull VDP.GeneratedFileListener genFileListener,
+                      @CheckForNull File directory,
+                      @Nonnull ILocalizedLogger log,
+                      @Nonnull ISectorClaimToDemuxedFrame demuxer,
+                      @CheckForNull ISectorAudioDecoder audioDecoder,
+                      int iVideoStartSector)
     {
         _vidItem = vidItem;
         _vsb = vsb;
@@ -176,6 +195,21 @@ public class VideoSaver {
                 toAvi = d2yuv;
             } break;
 
+            case Y4M: {
+                addBitstream2Mdec();
+                addMdec2Decoded(log);
+                File y4mFile = _vsb.getY4mOutputFile();
+                if (y4mFile == null)
+                    y4mFile = getAviFile();
+                VDP.Decoded2Y4m d2y4m;
+                if (_audioDecoder == null)
+                    d2y4m = new VDP.Decoded2Y4m(y4mFile, _vsb.getWidth(), _vsb.getHeight(), makeVSync(), log);
+                else
+                    d2y4m = new VDP.Decoded2Y4m(y4mFile, getPcmFile(), _vsb.getWidth(), _vsb.getHeight(), makeAvSync(_audioDecoder), _audioDecoder.getOutputFormat(), log);
+                _pipeline.setToAvi(d2y4m);
+                toAvi = d2y4m;
+            } break;
+
             case AVI_RGB: {
                 addBitstream2Mdec();
                 addMdec2Decoded(log);
@@ -193,7 +227,7 @@ public class VideoSaver {
         }
 
         if (_audioDecoder == null) {
-            _iStartSector = _vidItem.getStartSector();
+            _iStartSector = iVideoStartSector;
             _iEndSector = _vidItem.getEndSector();
             _frame2bitstream = new FrameToBitstreamFilter(_vsb.getFileNumberType(), _vsb.getSaveStartFrame(), _vsb.getSaveEndFrame(), log);
         } else {
@@ -228,7 +262,31 @@ public class VideoSaver {
         _pipeline.setMap(mdec2decode);
     }
 
-    private void startup(@Nonnull ILocalizedLogger log) throws LoggedFailure {
+    public int getStartSector() {
+        return _iStartSector;
+    }
+
+    public int getEndSector() {
+        return _iEndSector;
+    }
+
+    /** The video claimers only accept one listener. */
+    public boolean usesExclusiveClaimer() {
+        return true;
+    }
+
+    public void attachToSectorClaimer(@Nonnull SectorClaimSystem scs) {
+        _pipeline.attachToSectorClaimer(scs);
+
+        // finish setting up the pipeline
+        _pipeline.autowire();
+    }
+
+    public void sectorRead(@Nonnull ProgressLogger pl) {
+        sendLogEvent(pl, _frame2bitstream);
+    }
+
+    public void startup(@Nonnull ILocalizedLogger log) throws LoggedFailure {
         VDP.ToAvi avi = _pipeline.getAvi();
         if (avi != null) {
             try {
@@ -243,7 +301,7 @@ public class VideoSaver {
         }
     }
 
-    private void shutdown() {
+    public void shutdown() {
         VDP.ToAvi avi = _pipeline.getAvi();
         if (avi != null)
             IO.closeSilently(avi, LOG);
@@ -252,10 +310,7 @@ public class VideoSaver {
 
     public void save(@Nonnull ProgressLogger pl) throws LoggedFailure, TaskCanceledException {
         SectorClaimSystem it = SectorClaimSystem.create(_vidItem.getSourceCd(), _iStartSector, _iEndSector);
-        _pipeline.attachToSectorClaimer(it);
-
-        // finish setting up the pipeline
-        _pipeline.autowire();
+        attachToSectorClaimer(it);
 
         pl.progressStart(_iEndSector - _iStartSector + 1);
         startup(pl);
@@ -338,6 +393,18 @@ public class VideoSaver {
         return VideoFileNameFormatter.singleFile(_directory, _vidItem, _videoFormat);
     }
 
+    /** The raw PCM audio that goes with y4m video is saved next to where
+     *  the y4m would be saved, unless a file is specified. */
+    private @Nonnull File getPcmFile() {
+        File pcmFile = _vsb.getPcmOutputFile();
+        if (pcmFile != null)
+            return pcmFile;
+        File y4mFile = getAviFile();
+        String sName = y4mFile.getName();
+        sName = sName.substring(0, sName.length() - _videoFormat.getExtension().length());
+        return new File(y4mFile.getParentFile(), sName + ".pcm");
+    }
+
     private @Nonnull VideoFileNameFormatter makeFormatter() {
         return new VideoFileNameFormatter(_directory, _vidItem, _videoFormat, false);
     }
@@ -57,6 +57,7 @@ import jpsxdec.i18n.exception.LocalizedDeserializationFail;
 import jpsxdec.i18n.exception.LoggedFailure;
 import jpsxdec.i18n.log.ILocalizedLogger;
 import jpsxdec.i18n.log.ProgressLogger;
+import jpsxdec.modules.SharedClaimSaver;
 import jpsxdec.modules.video.DiscItemVideoStream;
 import jpsxdec.modules.video.framenumber.FormattedFrameNumber;
 import jpsxdec.modules.video.framenumber.FrameLookup;
@@ -365,6 +366,47 @@ public abstract class VideoSaverBuilder extends DiscItemSaverBuilder {
         firePossibleChange();
     }
 
+    // .........................................................................
+
+    @CheckForNull
+    private File _y4mOutputFile = null;
+    /** Where to write y4m video instead of the default file name, which can
+     *  be a named pipe, or {@link VDP.Decoded2Y4m#STDOUT} for standard output.
+     *  Only set from the command-line. */
+    public @CheckForNull File getY4mOutputFile() {
+        if (getY4mOutputFile_enabled())
+            return _y4mOutputFile;
+        else
+            return null;
+    }
+    public void setY4mOutputFile(@CheckForNull File val) {
+        _y4mOutputFile = val;
+        firePossibleChange();
+    }
+    public boolean getY4mOutputFile_enabled() {
+        return getVideoFormat() == VideoFormat.Y4M;
+    }
+
+    // .........................................................................
+
+    @CheckForNull
+    private File _pcmOutputFile = null;
+    /** Where to write the raw PCM audio that goes with y4m video instead of
+     *  the default file name. Can be a named pipe. Only set from the command-line. */
+    public @CheckForNull File getPcmOutputFile() {
+        if (getPcmOutputFile_enabled())
+            return _pcmOutputFile;
+        else
+            return null;
+    }
+    public void setPcmOutputFile(@CheckForNull File val) {
+        _pcmOutputFile = val;
+        firePossibleChange();
+    }
+    public boolean getPcmOutputFile_enabled() {
+        return getVideoFormat() == VideoFormat.Y4M;
+    }
+
     ////////////////////////////////////////////////////////////////////////////
 
     final public void printHelp(@Nonnull FeedbackStream fbs) {
@@ -418,6 +460,12 @@ public abstract class VideoSaverBuilder extends DiscItemSaverBuilder {
             tfb.addCell(I.CMD_VIDEO_NOCROP()).addCell(I.CMD_VIDEO_NOCROP_HELP());
         }
 
+        tfb.newRow();
+        tfb.addCell(I.CMD_VIDEO_Y4MOUT()).addCell(I.CMD_VIDEO_Y4MOUT_HELP());
+
+        tfb.newRow();
+        tfb.addCell(I.CMD_VIDEO_PCMOUT()).addCell(I.CMD_VIDEO_PCMOUT_HELP());
+
         tfb.newRow();
 
         tfb.addCell(I.CMD_VIDEO_NUM());
@@ -440,6 +488,8 @@ public abstract class VideoSaverBuilder extends DiscItemSaverBuilder {
         StringHolder startFrame = ap.addStringOption("-start");
         StringHolder endFrame = ap.addStringOption("-end");
         StringHolder num = ap.addStringOption("-num");
+        StringHolder y4mOut = ap.addStringOption("-y4mout");
+        StringHolder pcmOut = ap.addStringOption("-pcmout");
 
         //BooleanHolder emulatefps = ap.addBoolOption(false, "-psxfps"); // Mutually excusive with fps...
 
@@ -534,6 +584,11 @@ public abstract class VideoSaverBuilder extends DiscItemSaverBuilder {
                 fbs.printWarn(I.CMD_IGNORING_INVALID_VALUE_FOR_CMD(discSpeed.value, "-ds"));
             }
         }
+
+        if (y4mOut.value != null)
+            setY4mOutputFile(new File(y4mOut.value));
+        if (pcmOut.value != null)
+            setPcmOutputFile(new File(pcmOut.value));
     }
     @Override
     public void printSelectedOptions(@Nonnull ILocalizedLogger log) {
@@ -566,7 +621,9 @@ public abstract class VideoSaverBuilder extends DiscItemSaverBuilder {
                 log.log(Level.INFO, I.CMD_OUTPUT_FILES(_aoOutRng[0], _aoOutRng[1]));
             }
         } else {
-            File outFile = VideoFileNameFormatter.singleFile(null, _sourceVidItem, vidFmt);
+            File outFile = getY4mOutputFile();
+            if (outFile == null)
+                outFile = VideoFileNameFormatter.singleFile(null, _sourceVidItem, vidFmt);
             log.log(Level.INFO, I.CMD_DISC_SPEED(getSingleSpeed() ? 1 : 2, getFps().asDouble()));
 
             if (getSavingAudio()) {
@@ -613,8 +670,22 @@ public abstract class VideoSaverBuilder extends DiscItemSaverBuilder {
                     }
                 };
     
-    abstract public void startSave(@Nonnull ProgressLogger pl, @CheckForNull File directory)
-            throws LoggedFailure, TaskCanceledException;
+    /** Clears the generated files and creates a saver using the current options. */
+    abstract protected @Nonnull VideoSaver makeVideoSaver(@Nonnull ILocalizedLogger log,
+                                                          @CheckForNull File directory);
+
+    public void startSave(@Nonnull ProgressLogger pl, @CheckForNull File directory)
+            throws LoggedFailure, TaskCanceledException
+    {
+        makeVideoSaver(pl, directory).save(pl);
+    }
+
+    @Override
+    public @Nonnull SharedClaimSaver.Participant prepareSharedSave(@Nonnull ILocalizedLogger log,
+                                                                   @CheckForNull File directory)
+    {
+        return makeVideoSaver(log, directory);
+    }
 
     // audio related subclass methods
 
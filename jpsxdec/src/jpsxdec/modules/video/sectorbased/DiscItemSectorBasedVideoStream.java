@@ -62,6 +62,7 @@ import jpsxdec.modules.video.DiscItemVideoStream;
 import jpsxdec.modules.video.IDemuxedFrame;
 import jpsxdec.modules.video.ISectorClaimToDemuxedFrame;
 import jpsxdec.modules.video.ParallelAudio;
+import jpsxdec.modules.video.framenumber.FrameLookup;
 import jpsxdec.modules.video.framenumber.IndexSectorFrameNumber;
 import jpsxdec.modules.xa.DiscItemXaAudioStream;
 import jpsxdec.util.Fraction;
@@ -204,6 +205,23 @@ public abstract class DiscItemSectorBasedVideoStream extends DiscItemVideoStream
         return _parallelAudio.getLongestNonIntersectingAudioStreams();
     }
 
+    /** Makes a demuxer that starts reading at the start sector of frame
+     * {@code iStartFrame} instead of the start of the stream.
+     * Only valid if {@link #findFrame(FrameLookup)} can find frames. */
+    abstract public @Nonnull ISectorClaimToDemuxedFrame makeDemuxer(int iStartFrame);
+
+    /** Finds the index of the first frame that is not before the lookup
+     * using the frame table saved in the index, without reading the disc.
+     * @return -1 if the frame can't be found that way (e.g. an index made
+     *         by an older version), or if every frame is before the lookup. */
+    abstract public int findFrame(@Nonnull FrameLookup lookup);
+
+    /** Absolute start sector of the frame at the index.
+     * Only valid if {@link #findFrame(FrameLookup)} can find frames. */
+    final public int getFrameStartSector(int iFrameIndex) {
+        return _indexSectorFrameNumberFormat.getFrameStartSector(iFrameIndex);
+    }
+
     /** Finds where to split an audio item in relation to this item.
      * @return -1 if audio should not be split. */
     abstract public int findAudioSplitPoint(@Nonnull DiscItemXaAudioStream audio);
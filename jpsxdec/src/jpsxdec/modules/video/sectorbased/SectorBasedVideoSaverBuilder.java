@@ -49,17 +49,15 @@ import jpsxdec.discitems.DiscItemSaverBuilderGui;
 import jpsxdec.i18n.FeedbackStream;
 import jpsxdec.i18n.I;
 import jpsxdec.i18n.TabularFeedback;
-import jpsxdec.i18n.exception.LoggedFailure;
 import jpsxdec.i18n.log.ILocalizedLogger;
-import jpsxdec.i18n.log.ProgressLogger;
 import jpsxdec.modules.sharedaudio.DiscItemAudioStream;
 import jpsxdec.modules.sharedaudio.ISectorAudioDecoder;
 import jpsxdec.modules.video.AudioStreamsCombiner;
 import jpsxdec.modules.video.ISectorClaimToDemuxedFrame;
+import jpsxdec.modules.video.framenumber.FrameLookup;
 import jpsxdec.modules.video.save.VideoSaver;
 import jpsxdec.modules.video.save.VideoSaverBuilder;
 import jpsxdec.util.ArgParser;
-import jpsxdec.util.TaskCanceledException;
 
 
 /** Extends {@link VideoSaverBuilder} with sector-based video specific settings. */
@@ -259,24 +257,38 @@ public class SectorBasedVideoSaverBuilder extends VideoSaverBuilder {
         return parallelAudio;
     }
 
-    public void startSave(@Nonnull ProgressLogger pl, @CheckForNull File directory)
-            throws LoggedFailure, TaskCanceledException
+    protected @Nonnull VideoSaver makeVideoSaver(@Nonnull ILocalizedLogger log,
+                                                 @CheckForNull File directory)
     {
         clearGeneratedFiles();
-        printSelectedOptions(pl);
+        printSelectedOptions(log);
 
         final ISectorAudioDecoder audDecoder;
-        final ISectorClaimToDemuxedFrame demuxer = _sourceVidItem.makeDemuxer();
+        ISectorClaimToDemuxedFrame demuxer = null;
+        int iVideoStartSector = _sourceVidItem.getStartSector();
         ArrayList<DiscItemAudioStream> parallelAudio = collectSelectedAudio();
-        if (parallelAudio.isEmpty())
+        if (parallelAudio.isEmpty()) {
             audDecoder = null;
-        else if (parallelAudio.size() == 1)
+            // if the index knows where the first frame to save is, jump
+            // straight to it instead of demuxing every frame before it
+            FrameLookup startFrame = getSaveStartFrame();
+            if (startFrame != null) {
+                int iStartFrame = _sourceVidItem.findFrame(startFrame);
+                if (iStartFrame > 0) {
+                    demuxer = _sourceVidItem.makeDemuxer(iStartFrame);
+                    iVideoStartSector = _sourceVidItem.getFrameStartSector(iStartFrame);
+                }
+            }
+        } else if (parallelAudio.size() == 1)
             audDecoder = parallelAudio.get(0).makeDecoder(getAudioVolume());
         else
             audDecoder = new AudioStreamsCombiner(parallelAudio, getAudioVolume());
 
-        VideoSaver vs = new VideoSaver(_sourceVidItem, this, thisGeneratedFileListener, directory, pl, demuxer, audDecoder);
-        vs.save(pl);
+        if (demuxer == null)
+            demuxer = _sourceVidItem.makeDemuxer();
+
+        return new VideoSaver(_sourceVidItem, this, thisGeneratedFileListener, directory, log,
+                              demuxer, audDecoder, iVideoStartSector);
     }
 
 }
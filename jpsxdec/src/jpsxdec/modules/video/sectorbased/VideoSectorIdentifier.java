@@ -37,6 +37,9 @@
 
 package jpsxdec.modules.video.sectorbased;
 
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import jpsxdec.cdreaders.CdSector;
@@ -57,46 +60,161 @@ import jpsxdec.modules.strvideo.SectorReBoot;
 import jpsxdec.modules.strvideo.SectorStrVideo;
 
 /** Shared place for all modules to register order sensitive
- *  video sector identification, and related sector types. */
+ *  video sector identification, and related sector types.
+ * <p>
+ * Every video sector type first checks the 4 byte magic number at the start
+ * of the user data, so that is read once and only the types that use that
+ * magic number are tried. Sectors that don't start with any of the magic
+ * numbers are rejected without creating any objects. */
 public class VideoSectorIdentifier {
 
+    /** Games with their own video sector type. The generic STR video sector
+     * is always identified. */
+    public static enum Game {
+        FF7("ff7"),
+        FF8("ff8"),
+        FF9("ff9"),
+        Iki("iki"),
+        GranTurismo("gt"),
+        ChronoCross("chronocross"),
+        Aconcagua("aconcagua"),
+        Lain("lain"),
+        Alice("alice"),
+        ReBoot("reboot"),
+        ;
+
+        @Nonnull
+        private final String _sCmdLine;
+
+        private Game(@Nonnull String sCmdLine) {
+            _sCmdLine = sCmdLine;
+        }
+
+        public @Nonnull String getCmdLine() {
+            return _sCmdLine;
+        }
+
+        public static @CheckForNull Game fromCmdLine(@Nonnull String s) {
+            for (Game game : values()) {
+                if (game._sCmdLine.equalsIgnoreCase(s))
+                    return game;
+            }
+            return null;
+        }
+
+        /** Parses a comma separated list of games.
+         * @return null if any game is not recognized. */
+        public static @CheckForNull Set<Game> parseList(@Nonnull String sList) {
+            EnumSet<Game> games = EnumSet.noneOf(Game.class);
+            for (String s : sList.split(",")) {
+                s = s.trim();
+                if (s.length() == 0)
+                    continue;
+                Game game = fromCmdLine(s);
+                if (game == null)
+                    return null;
+                games.add(game);
+            }
+            return games;
+        }
+
+        /** Comma separated list of all the games, for help and error messages. */
+        public static @Nonnull String getCmdLineList() {
+            StringBuilder sb = new StringBuilder();
+            for (Game game : values()) {
+                if (sb.length() > 0)
+                    sb.append(", ");
+                sb.append(game._sCmdLine);
+            }
+            return sb.toString();
+        }
+
+        /** Reverse of {@link #parseList(java.lang.String)}. */
+        public static @Nonnull String toList(@Nonnull Set<Game> games) {
+            StringBuilder sb = new StringBuilder();
+            for (Game game : games) {
+                if (sb.length() > 0)
+                    sb.append(',');
+                sb.append(game._sCmdLine);
+            }
+            return sb.toString();
+        }
+    }
+
+    public static final Set<Game> ALL_GAMES =
+            Collections.unmodifiableSet(EnumSet.allOf(Game.class));
+
+    /** "SMJ\1", the FF8 video sector header. */
+    private static final long FF8_VIDEO_MAGIC = 0x014A4D53L;
+    private static final long FF9_VIDEO_MAGIC = SectorFF9.SectorFF9Video.VIDEO_CHUNK_MAGIC;
+
     /** Tries to identify if the claimable sector is a video sector, or another
      * video related sector. If it is identified, the sector is claimed. If it
      * is a video sector, it will be returned. If the sector was not identified,
      * or it was identified but was not a video sector, null will be returned. */
     public static @CheckForNull ISelfDemuxingVideoSector idAndClaim(
             @Nonnull SectorClaimSystem.ClaimableSector cs)
+    {
+        return idAndClaim(cs, ALL_GAMES);
+    }
+
+    /** Same as {@link #idAndClaim(jpsxdec.modules.SectorClaimSystem.ClaimableSector)}
+     * but only tries the video sector types of the given games
+     * (and the generic STR video sector). */
+    public static @CheckForNull ISelfDemuxingVideoSector idAndClaim(
+            @Nonnull SectorClaimSystem.ClaimableSector cs, @Nonnull Set<Game> games)
     {
         CdSector cdSector = cs.getSector();
         ISelfDemuxingVideoSector vid;
 
-        if ((vid = isVideo(new SectorStrVideo(cdSector), cs)) != null) return vid;
-        if ((vid = isVideo(new SectorFF8.SectorFF8Video(cdSector), cs)) != null) return vid;
-        if ((vid = isVideo(new SectorFF9.SectorFF9Video(cdSector), cs)) != null) return vid;
-        if ((vid = isVideo(new SectorIkiVideo(cdSector), cs)) != null) return vid;
-        if ((vid = isVideo(new SectorGTVideo(cdSector), cs)) != null) return vid;
-        if ((vid = isVideo(new SectorChronoXVideo(cdSector), cs)) != null) return vid;
-        if ((vid = isVideo(new SectorAconcaguaVideo(cdSector), cs)) != null) return vid;
-        if (isMatch(new SectorChronoXVideoNull(cdSector), cs)) return null;
-        if ((vid = isVideo(new SectorLainVideo(cdSector), cs)) != null) return vid;
-
-        // special handling for Alice
-        SectorAliceNullVideo an;
-        if ((an = new SectorAliceNullVideo(cdSector)).getProbability() > 0) {
-            if ((vid = isVideo(new SectorAliceVideo(cdSector), cs)) != null) return vid;
-            cs.claim(an);
-            return null;
-        }
+        long lngMagic = cdSector.readUInt32LE(0);
 
-        if ((vid = isVideo(new SectorReBoot(cdSector), cs)) != null) return vid;
+        if (lngMagic == SectorStrVideo.VIDEO_SECTOR_MAGIC) {
+            if ((vid = isVideo(new SectorStrVideo(cdSector), cs)) != null) return vid;
+            if (games.contains(Game.Iki) &&
+                (vid = isVideo(new SectorIkiVideo(cdSector), cs)) != null) return vid;
+            if (games.contains(Game.Lain) &&
+                (vid = isVideo(new SectorLainVideo(cdSector), cs)) != null) return vid;
+            if (games.contains(Game.ReBoot) &&
+                (vid = isVideo(new SectorReBoot(cdSector), cs)) != null) return vid;
 
-        // FF7 has such a vague header, it can easily be falsely identified
-        // when it should be one of the headers above
-        if ((vid = isVideo(new SectorFF7Video(cdSector), cs)) != null) return vid;
+            // FF7 has such a vague header, it can easily be falsely identified
+            // when it should be one of the headers above
+            if (games.contains(Game.FF7) &&
+                (vid = isVideo(new SectorFF7Video(cdSector), cs)) != null) return vid;
+        } else if (lngMagic == FF8_VIDEO_MAGIC) {
+            if (games.contains(Game.FF8) &&
+                (vid = isVideo(new SectorFF8.SectorFF8Video(cdSector), cs)) != null) return vid;
+        } else if (lngMagic == FF9_VIDEO_MAGIC) {
+            if (games.contains(Game.FF9) &&
+                (vid = isVideo(new SectorFF9.SectorFF9Video(cdSector), cs)) != null) return vid;
+        } else if (lngMagic == SectorGTVideo.GT_MAGIC) {
+            if (games.contains(Game.GranTurismo) &&
+                (vid = isVideo(new SectorGTVideo(cdSector), cs)) != null) return vid;
+        } else if (lngMagic == SectorChronoXVideo.CHRONO_CROSS_VIDEO_CHUNK_MAGIC1 ||
+                   lngMagic == SectorChronoXVideo.CHRONO_CROSS_VIDEO_CHUNK_MAGIC2)
+        {
+            if (games.contains(Game.ChronoCross)) {
+                if ((vid = isVideo(new SectorChronoXVideo(cdSector), cs)) != null) return vid;
+                isMatch(new SectorChronoXVideoNull(cdSector), cs);
+            }
+        } else if (lngMagic == SectorAliceNullVideo.ALICE_VIDEO_SECTOR_MAGIC) {
+            // special handling for Alice
+            SectorAliceNullVideo an;
+            if (games.contains(Game.Alice) &&
+                (an = new SectorAliceNullVideo(cdSector)).getProbability() > 0)
+            {
+                if ((vid = isVideo(new SectorAliceVideo(cdSector), cs)) != null) return vid;
+                cs.claim(an);
+            }
+        } else if (games.contains(Game.Aconcagua) &&
+                   cdSector.readUInt32BE(0) == SectorAconcaguaVideo.MAGIC_NUMBER_BE)
+        {
+            if ((vid = isVideo(new SectorAconcaguaVideo(cdSector), cs)) != null) return vid;
+        }
 
         return null;
     }
-
     private static @CheckForNull ISelfDemuxingVideoSector isVideo(
             @Nonnull ISelfDemuxingVideoSector videoSector,
             @Nonnull SectorClaimSystem.ClaimableSector cs)
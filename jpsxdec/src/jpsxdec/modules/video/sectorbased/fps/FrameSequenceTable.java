@@ -0,0 +1,324 @@
+/*
+ * jPSXdec: PlayStation 1 Media Decoder/Converter in Java
+ * Copyright (C) 2007-2019  Michael Sabin
+ * All rights reserved.
+ *
+ * Redistribution and use of the jPSXdec code or any derivative works are
+ * permitted provided that the following conditions are met:
+ *
+ *  * Redistributions may not be sold, nor may they be used in commercial
+ *    or revenue-generating business activities.
+ *
+ *  * Redistributions that are modified from the original source must
+ *    include the complete source code, including the source code for all
+ *    components used by a binary built from the modified sources. However, as
+ *    a special exception, the source code distributed need not include
+ *    anything that is normally distributed (in either source or binary form)
+ *    with the major components (compiler, kernel, and so on) of the operating
+ *    system on which the executable runs, unless that component itself
+ *    accompanies the executable.
+ *
+ *  * Redistributions must reproduce the above copyright notice, this list
+ *    of conditions and the following disclaimer in the documentation and/or
+ *    other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package jpsxdec.modules.video.sectorbased.fps;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.logging.Logger;
+import javax.annotation.Nonnull;
+import jpsxdec.util.IO;
+
+/** Immutable table of the frame start and end sectors from one of the
+ * sectors/frame sequence data files used by {@link InconsistentFrameSequence}.
+ *<p>
+ * The sequences are maintained as text ({@code .dat}) files, but parsing
+ * over 100KB of text for every video found on a disc is slow. The build
+ * runs {@link #main(java.lang.String[])} to compile each text file into a
+ * much smaller binary ({@code .fps}) file, which is what is normally loaded.
+ * The text file is only parsed when the binary file is not available
+ * (e.g. running directly from the source tree).
+ *<p>
+ * Binary format (big-endian):
+ * <pre>
+ * int   magic 'FSQ1'
+ * int   sectors, per-frame, audio start, audio stride, loop sector (-1 if none)
+ * int   frame count
+ * frame count * {
+ *   short  frame start sector - previous frame start sector
+ *   short  frame end sector - frame start sector
+ * }
+ * </pre>
+ */
+public class FrameSequenceTable {
+
+    private static final Logger LOG = Logger.getLogger(FrameSequenceTable.class.getName());
+
+    private static final int BINARY_MAGIC = 0x46535131; // FSQ1
+
+    static final String TEXT_EXTENSION = ".dat";
+    static final String BINARY_EXTENSION = ".fps";
+
+    /** List of sectors/frame data files (without extension).
+     * Update this list if the files change. */
+    static final String[] FPS_LISTS = new String[] {
+        "20FPS_A8",
+        "20FPS_A16",
+        "NTSC20_A8",
+        "NTSC20_A8-SB",
+        "NTSC15_A8-100,999",
+        "NTSC15_A8-101,1000",
+        "LUNAR2_24FPS_A16(S43)",
+        "LUNAR2_24FPS_A16(S56)",
+        "DREDD15FPS",
+    };
+
+    /** Loads every table only once, the first time any is needed. */
+    private static class AllTables {
+        public static final FrameSequenceTable[] TABLES = new FrameSequenceTable[FPS_LISTS.length];
+        static {
+            for (int i = 0; i < FPS_LISTS.length; i++) {
+                TABLES[i] = load(FPS_LISTS[i]);
+            }
+        }
+    }
+
+    /** Returns the shared tables. Do not modify the returned array. */
+    static @Nonnull FrameSequenceTable[] getAll() {
+        return AllTables.TABLES;
+    }
+
+    /** Loads the binary version of the table if it exists, otherwise the text version. */
+    private static @Nonnull FrameSequenceTable load(@Nonnull String sName) {
+        InputStream is = FrameSequenceTable.class.getResourceAsStream(sName + BINARY_EXTENSION);
+        boolean blnBinary = is != null;
+        if (!blnBinary) {
+            LOG.fine("Compiled frame sequence not found, parsing text for " + sName);
+            is = FrameSequenceTable.class.getResourceAsStream(sName + TEXT_EXTENSION);
+            if (is == null)
+                throw new RuntimeException("Unable to find inconsistent frame resource " + sName);
+        }
+        try {
+            if (blnBinary)
+                return readBinary(sName, new BufferedInputStream(is));
+            else
+                return readText(sName, is);
+        } catch (IOException ex) {
+            throw new RuntimeException("Error reading inconsistent frame resource " + sName, ex);
+        } finally {
+            IO.closeSilently(is, LOG);
+        }
+    }
+
+    /** Parses a sectors/frame sequence text file.
+     * The first line is the header
+     * <pre>[sectors]/[per-frame] [audio start sector] [audio sector stride] [optional loop sector]</pre>
+     * The 4 values can be delimited by anything that isn't a number.
+     * If the optional loop sector is found, then the sequence will loop
+     * back to the start when the end is reached.
+     *<p>
+     * Every other line is a frame
+     * <pre>[frame start sector] [frame end sector]</pre>
+     * The 2 values can be delimited by anything that isn't a number.
+     * Anything after the 2 values is ignored.
+     */
+    static @Nonnull FrameSequenceTable readText(@Nonnull String sName, @Nonnull InputStream is)
+            throws IOException
+    {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(is));
+        String sLine = reader.readLine();
+        if (sLine == null)
+            throw new IOException("Empty frame sequence " + sName);
+        String[] asValues = sLine.split("\\D+");
+        int iSectors    = Integer.parseInt(asValues[0]);
+        int iPerFrame   = Integer.parseInt(asValues[1]);
+        int iAudStart   = Integer.parseInt(asValues[2]);
+        int iAudStride  = Integer.parseInt(asValues[3]);
+        int iLoopSector = asValues.length > 4 ? Integer.parseInt(asValues[4]) : -1;
+
+        int[] aiStarts = new int[1024], aiEnds = new int[1024];
+        int iCount = 0;
+        while ((sLine = reader.readLine()) != null) {
+            if (sLine.length() == 0)
+                continue;
+            InconsistentFrameSequence.LineParse line = new InconsistentFrameSequence.LineParse(sLine);
+            if (iCount == aiStarts.length) {
+                aiStarts = copyOf(aiStarts, iCount * 2);
+                aiEnds = copyOf(aiEnds, iCount * 2);
+            }
+            aiStarts[iCount] = line.iFrameStartSector;
+            aiEnds[iCount] = line.iFrameEndSector;
+            iCount++;
+        }
+        return new FrameSequenceTable(sName, iSectors, iPerFrame, iAudStart, iAudStride, iLoopSector,
+                                      copyOf(aiStarts, iCount), copyOf(aiEnds, iCount));
+    }
+
+    static @Nonnull FrameSequenceTable readBinary(@Nonnull String sName, @Nonnull InputStream is)
+            throws IOException
+    {
+        DataInputStream dis = new DataInputStream(is);
+        if (dis.readInt() != BINARY_MAGIC)
+            throw new IOException("Invalid compiled frame sequence " + sName);
+        int iSectors    = dis.readInt();
+        int iPerFrame   = dis.readInt();
+        int iAudStart   = dis.readInt();
+        int iAudStride  = dis.readInt();
+        int iLoopSector = dis.readInt();
+        int iCount      = dis.readInt();
+        if (iCount < 0)
+            throw new IOException("Invalid compiled frame sequence " + sName);
+        int[] aiStarts = new int[iCount], aiEnds = new int[iCount];
+        int iStart = 0;
+        for (int i = 0; i < iCount; i++) {
+            iStart += dis.readShort();
+            aiStarts[i] = iStart;
+            aiEnds[i] = iStart + dis.readShort();
+        }
+        return new FrameSequenceTable(sName, iSectors, iPerFrame, iAudStart, iAudStride, iLoopSector,
+                                      aiStarts, aiEnds);
+    }
+
+    private static @Nonnull int[] copyOf(@Nonnull int[] ai, int iLength) {
+        int[] aiCopy = new int[iLength];
+        System.arraycopy(ai, 0, aiCopy, 0, Math.min(ai.length, iLength));
+        return aiCopy;
+    }
+
+    /** Compiles the text sequence files into binary files.
+     * Run by the build.
+     * <pre>FrameSequenceTable [source dir containing .dat files] [destination dir]</pre> */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: FrameSequenceTable <source dir> <destination dir>");
+            System.exit(1);
+        }
+        File srcDir = new File(args[0]);
+        File destDir = new File(args[1]);
+        IO.makeDirs(destDir);
+        for (String sName : FPS_LISTS) {
+            File srcFile = new File(srcDir, sName + TEXT_EXTENSION);
+            File destFile = new File(destDir, sName + BINARY_EXTENSION);
+            InputStream is = new FileInputStream(srcFile);
+            FrameSequenceTable table;
+            try {
+                table = readText(sName, is);
+            } finally {
+                is.close();
+            }
+            DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(destFile)));
+            try {
+                table.writeBinary(dos);
+            } finally {
+                dos.close();
+            }
+            System.out.println(srcFile + " -> " + destFile + " (" + table.getFrameCount() + " frames)");
+        }
+    }
+
+    // -------------------------------------------------------------------------
+
+    @Nonnull
+    private final String _sName;
+    private final int _iSectors,
+                      _iPerFrame,
+                      _iAudStart,
+                      _iAudStride,
+                      _iLoopSector;
+    @Nonnull
+    private final int[] _aiFrameStartSectors;
+    @Nonnull
+    private final int[] _aiFrameEndSectors;
+
+    private FrameSequenceTable(@Nonnull String sName,
+                               int iSectors, int iPerFrame, int iAudStart, int iAudStride, int iLoopSector,
+                               @Nonnull int[] aiFrameStartSectors, @Nonnull int[] aiFrameEndSectors)
+    {
+        _sName = sName;
+        _iSectors = iSectors;
+        _iPerFrame = iPerFrame;
+        _iAudStart = iAudStart;
+        _iAudStride = iAudStride;
+        _iLoopSector = iLoopSector;
+        _aiFrameStartSectors = aiFrameStartSectors;
+        _aiFrameEndSectors = aiFrameEndSectors;
+    }
+
+    void writeBinary(@Nonnull DataOutputStream dos) throws IOException {
+        dos.writeInt(BINARY_MAGIC);
+        dos.writeInt(_iSectors);
+        dos.writeInt(_iPerFrame);
+        dos.writeInt(_iAudStart);
+        dos.writeInt(_iAudStride);
+        dos.writeInt(_iLoopSector);
+        dos.writeInt(_aiFrameStartSectors.length);
+        int iPrevStart = 0;
+        for (int i = 0; i < _aiFrameStartSectors.length; i++) {
+            int iStartDelta = _aiFrameStartSectors[i] - iPrevStart;
+            int iLength = _aiFrameEndSectors[i] - _aiFrameStartSectors[i];
+            if (iStartDelta != (short)iStartDelta || iLength != (short)iLength)
+                throw new IOException("Frame " + i + " of " + _sName + " too large for compiled format");
+            dos.writeShort(iStartDelta);
+            dos.writeShort(iLength);
+            iPrevStart = _aiFrameStartSectors[i];
+        }
+    }
+
+    public @Nonnull String getName() {
+        return _sName;
+    }
+
+    public int getSectors() {
+        return _iSectors;
+    }
+
+    public int getPerFrame() {
+        return _iPerFrame;
+    }
+
+    /** @return The sector offset to add each time the sequence loops, or -1 if it doesn't loop. */
+    public int getLoopSector() {
+        return _iLoopSector;
+    }
+
+    public int getFrameCount() {
+        return _aiFrameStartSectors.length;
+    }
+
+    public int getFrameStartSector(int iFrame) {
+        return _aiFrameStartSectors[iFrame];
+    }
+
+    public int getFrameEndSector(int iFrame) {
+        return _aiFrameEndSectors[iFrame];
+    }
+
+    @Override
+    public String toString() {
+        return _sName + TEXT_EXTENSION;
+    }
+
+}
@@ -37,20 +37,15 @@
 
 package jpsxdec.modules.video.sectorbased.fps;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.util.LinkedList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import jpsxdec.util.Fraction;
 
 /** There are some unique frame rates that just don't make any sense.
  * These unique sequences of frame sectors just have to be manually
- * specified. */
+ * specified. The sequences themselves are shared {@link FrameSequenceTable}s,
+ * this only tracks how far along a video is in one of them. */
 public class InconsistentFrameSequence {
 
     private static final Logger LOG = Logger.getLogger(InconsistentFrameSequence.class.getName());
@@ -59,53 +54,15 @@ public class InconsistentFrameSequence {
     // --  Static stuff  -------------------------------------------------------
     // -------------------------------------------------------------------------
 
-    /** List of sectors/frame data files. Update this list if the files change. */
-    private static final String[] FPS_LISTS = new String[] {
-        "20FPS_A8.dat",
-        "20FPS_A16.dat",
-        "NTSC20_A8.dat",
-        "NTSC20_A8-SB.dat",
-        "NTSC15_A8-100,999.dat",
-        "NTSC15_A8-101,1000.dat",
-        "LUNAR2_24FPS_A16(S43).dat",
-        "LUNAR2_24FPS_A16(S56).dat",
-        "DREDD15FPS.dat",
-    };
-
-    public static @Nonnull LinkedList<InconsistentFrameSequence> generate(int iFirstFrameStartSector,
-                                                                          int iFirstFrameEndSector)
+    public static @Nonnull InconsistentFrameSequence[] generate(int iFirstFrameStartSector,
+                                                                int iFirstFrameEndSector)
     {
-        LinkedList<InconsistentFrameSequence> possibles = new LinkedList<InconsistentFrameSequence>();
-        for (String sResource : FPS_LISTS) {
-            possibles.add(new InconsistentFrameSequence(sResource));
-        }
-        return possibles;
-    }
-
-    /** Parses the header line in a sectors/frame sequence text file.
-     * <pre>[sectors]/[per-frame] [audio start sector] [audio sector stride] [optional loop sector]</pre>
-     * The 4 values can be delimited by anything that isn't a number.
-     * if the optional loop sector is found, then the sequence will loop
-     * back to the start when the end is reached.
-     */
-    private static class HeaderParse {
-        public final int iSectors,
-                         iPerFrame,
-                         iAudStart,
-                         iAudStride,
-                         iLoopSector;
-
-        public HeaderParse(@Nonnull String sLine) {
-            String[] asValues = sLine.split("\\D+");
-            iSectors    = Integer.parseInt(asValues[0]);
-            iPerFrame   = Integer.parseInt(asValues[1]);
-            iAudStart   = Integer.parseInt(asValues[2]);
-            iAudStride  = Integer.parseInt(asValues[3]);
-            if (asValues.length > 4)
-                iLoopSector = Integer.parseInt(asValues[4]);
-            else
-                iLoopSector = -1;
+        FrameSequenceTable[] aoTables = FrameSequenceTable.getAll();
+        InconsistentFrameSequence[] aoPossibles = new InconsistentFrameSequence[aoTables.length];
+        for (int i = 0; i < aoTables.length; i++) {
+            aoPossibles[i] = new InconsistentFrameSequence(aoTables[i]);
         }
+        return aoPossibles;
     }
 
     /** Parses a line in a sectors/frame sequence text file. The format is
@@ -132,83 +89,57 @@ public class InconsistentFrameSequence {
     // -------------------------------------------------------------------------
 
     @Nonnull
-    private BufferedReader _reader;
-    @Nonnull
-    private final String _sSourceResource;
-    @Nonnull
-    private final HeaderParse _header;
+    private final FrameSequenceTable _table;
+    /** Index of the next frame in the table to check. */
+    private int _iNextFrame = 0;
     private int _iLoopStartSector;
 
-    private InconsistentFrameSequence(@Nonnull String sSourceResource) {
-        _sSourceResource = sSourceResource;
-        try {
-            InputStream is = InconsistentFrameSequence.class.getResourceAsStream(sSourceResource);
-            if (is == null)
-                throw new RuntimeException("Unable to find inconsistent frame resource " + sSourceResource);
-            _reader = new BufferedReader(new InputStreamReader(is));
-            String sLine = _reader.readLine(); // read header
-            // resource file should have at least 1 line
-            _header = new HeaderParse(sLine);
-        } catch (IOException ex) {
-            throw new RuntimeException(ex);
-        }
+    private InconsistentFrameSequence(@Nonnull FrameSequenceTable table) {
+        _table = table;
     }
-    
-    private @CheckForNull String readNextLine() throws IOException {
-        String sLine = _reader.readLine();
-        if (sLine == null) { 
-            // if at the end of the resource, but we're looping
-            if (_header.iLoopSector >= 0) {
-                // close and reopen the text resource
-                _reader.close(); // expose close exception
-                InputStream is = InconsistentFrameSequence.class.getResourceAsStream(_sSourceResource);
-                _reader = new BufferedReader(new InputStreamReader(is));
-                _reader.readLine(); // skip header
-                sLine = _reader.readLine();
-                _iLoopStartSector += _header.iLoopSector;
-            } else {
-                // darn, the movie is longer than we have defined in the sequence.
-                // we can probably assume it's a match, but this code
-                // TODO: should be changed to handle that and report.
-                // as for now, we'll fail
-                LOG.log(Level.WARNING, "Movie is longer than sequence {0}", _sSourceResource);
-            }
+
+    /** Advances to the next frame in the table.
+     * @return false if the end of the sequence is reached and it doesn't loop. */
+    private boolean nextFrame() {
+        if (_iNextFrame < _table.getFrameCount())
+            return true;
+        // if at the end of the sequence, but we're looping
+        if (_table.getLoopSector() >= 0) {
+            _iNextFrame = 0;
+            _iLoopStartSector += _table.getLoopSector();
+            return true;
+        } else {
+            // darn, the movie is longer than we have defined in the sequence.
+            // we can probably assume it's a match, but this code
+            // TODO: should be changed to handle that and report.
+            // as for now, we'll fail
+            LOG.log(Level.WARNING, "Movie is longer than sequence {0}", _table);
+            return false;
         }
-        return sLine;
     }
 
     public boolean matchesNextVideo(int iFrameStartSector, int iFrameEndSector) {
-        try {
-            LineParse currentLineFrame;
-            do {
-                String sLine = readNextLine();
-                if (sLine == null)
-                    return false;
-                currentLineFrame = new LineParse(sLine);
-            } while (currentLineFrame.iFrameStartSector + _iLoopStartSector < iFrameStartSector);
-
-            // TODO: Check if frame lies between the previous and next frames (instead of just inside this frame)
-            // prevLineFrame.iFrameEndSector + _iLoopStartSector <= iFrameStartSector
-            // nextLineFrame.iFrameStartSector + _iLoopStartSector <= iFrameEndSector
-            if (currentLineFrame.iFrameStartSector + _iLoopStartSector <= iFrameStartSector &&
-                currentLineFrame.iFrameEndSector   + _iLoopStartSector >= iFrameEndSector)
-            {
-                return true;
-            } else {
+        int iFrame;
+        do {
+            if (!nextFrame())
                 return false;
-            }
-        } catch (IOException ex) {
-            throw new RuntimeException(ex);
-        }
+            iFrame = _iNextFrame++;
+        } while (_table.getFrameStartSector(iFrame) + _iLoopStartSector < iFrameStartSector);
+
+        // TODO: Check if frame lies between the previous and next frames (instead of just inside this frame)
+        // prevLineFrame.iFrameEndSector + _iLoopStartSector <= iFrameStartSector
+        // nextLineFrame.iFrameStartSector + _iLoopStartSector <= iFrameEndSector
+        return _table.getFrameStartSector(iFrame) + _iLoopStartSector <= iFrameStartSector &&
+               _table.getFrameEndSector(iFrame)   + _iLoopStartSector >= iFrameEndSector;
     }
 
     public @Nonnull Fraction getSectorsPerFrame() {
-        return new Fraction(_header.iSectors, _header.iPerFrame);
+        return new Fraction(_table.getSectors(), _table.getPerFrame());
     }
 
     @Override
     public String toString() {
-        return _sSourceResource;
+        return _table.toString();
     }
 
 
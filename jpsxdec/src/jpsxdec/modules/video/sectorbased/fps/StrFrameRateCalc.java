@@ -38,8 +38,6 @@
 package jpsxdec.modules.video.sectorbased.fps;
 
 import java.util.Arrays;
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.annotation.CheckForNull;
@@ -150,12 +148,16 @@ public class StrFrameRateCalc {
 
     @CheckForNull
     private WholeNumberSectorsPerFrame _wholeFrameRate;
+    /** Inconsistent frame sequences that still match are kept at the front
+     * of the array, in their original order. */
     @CheckForNull
-    private LinkedList<InconsistentFrameSequence> _inconsistentFrameRate;
+    private InconsistentFrameSequence[] _aoInconsistentFrameRates;
+    private int _iInconsistentFrameRateCount;
 
     public StrFrameRateCalc(int iFirstFrameStartSector, int iFirstFrameEndSector) {
         _wholeFrameRate = new WholeNumberSectorsPerFrame(iFirstFrameEndSector);
-        _inconsistentFrameRate = InconsistentFrameSequence.generate(iFirstFrameStartSector, iFirstFrameEndSector);
+        _aoInconsistentFrameRates = InconsistentFrameSequence.generate(iFirstFrameStartSector, iFirstFrameEndSector);
+        _iInconsistentFrameRateCount = _aoInconsistentFrameRates.length;
     }
 
     public void addFrame(int iNextFrameStartSector, int iNextFrameEndSector) {
@@ -163,13 +165,16 @@ public class StrFrameRateCalc {
             if (!_wholeFrameRate.matchesNextVideo(iNextFrameStartSector, iNextFrameEndSector))
                 _wholeFrameRate = null; // failed to match any whole number frame rates
         // TODO: Log when whole frame and inconsistent frame rate matching fails
-        if (_inconsistentFrameRate != null) {
-            for (Iterator<InconsistentFrameSequence> it = _inconsistentFrameRate.iterator(); it.hasNext();) {
-                if (!it.next().matchesNextVideo(iNextFrameStartSector, iNextFrameEndSector))
-                    it.remove();
+        if (_aoInconsistentFrameRates != null) {
+            int iMatchCount = 0;
+            for (int i = 0; i < _iInconsistentFrameRateCount; i++) {
+                InconsistentFrameSequence frameSeq = _aoInconsistentFrameRates[i];
+                if (frameSeq.matchesNextVideo(iNextFrameStartSector, iNextFrameEndSector))
+                    _aoInconsistentFrameRates[iMatchCount++] = frameSeq;
             }
-            if (_inconsistentFrameRate.size() == 0)
-                _inconsistentFrameRate = null; // failed to match any inconsistent frame rates
+            _iInconsistentFrameRateCount = iMatchCount;
+            if (iMatchCount == 0)
+                _aoInconsistentFrameRates = null; // failed to match any inconsistent frame rates
         }
     }
     
@@ -177,12 +182,12 @@ public class StrFrameRateCalc {
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        if (_wholeFrameRate != null || _inconsistentFrameRate != null) {
+        if (_wholeFrameRate != null || _aoInconsistentFrameRates != null) {
             sb.append("Possible frame rates: ");
             if (_wholeFrameRate != null)
                 sb.append(Arrays.toString(_wholeFrameRate.getAllPossibleSectorsPerFrame()));
-            if (_inconsistentFrameRate != null)
-                sb.append(_inconsistentFrameRate);
+            if (_aoInconsistentFrameRates != null)
+                sb.append(Arrays.toString(Arrays.copyOf(_aoInconsistentFrameRates, _iInconsistentFrameRateCount)));
         } else {
             sb.append("No matching variable rates.");
         }
@@ -203,9 +208,9 @@ public class StrFrameRateCalc {
             if (aiPossibleSectorsPerFrame != null) {
                 sectorsPerFrame = new Fraction(aiPossibleSectorsPerFrame[aiPossibleSectorsPerFrame.length-1]);
             }
-        } else if (_inconsistentFrameRate != null) {
-            for (InconsistentFrameSequence frameSeq : _inconsistentFrameRate) {
-                Fraction frmSeqSpf = frameSeq.getSectorsPerFrame();
+        } else if (_aoInconsistentFrameRates != null) {
+            for (int i = 0; i < _iInconsistentFrameRateCount; i++) {
+                Fraction frmSeqSpf = _aoInconsistentFrameRates[i].getSectorsPerFrame();
                 if (sectorsPerFrame == null)
                     sectorsPerFrame = frmSeqSpf;
                 else {
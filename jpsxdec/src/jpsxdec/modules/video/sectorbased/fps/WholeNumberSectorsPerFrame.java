@@ -37,12 +37,8 @@
 
 package jpsxdec.modules.video.sectorbased.fps;
 
-import java.util.Collection;
-import java.util.Iterator;
-import java.util.TreeSet;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
-import jpsxdec.util.Misc;
 
 /** Detects whole-number (integer) sectors/frame rate of
  * STR movies. This can also handle variable rates as long as they have some common factor.
@@ -72,15 +68,18 @@ public class WholeNumberSectorsPerFrame {
     /** The last sector of the previous frame. */
     private int _iPrevFrameEndSector;
 
-    /** 3 states:
+    /** Possible starting points that still have possibilities, sorted by
+     * starting sector. Only the first {@link #_iStartingPointCount} are valid.
+     * 3 states:
      * <ol>
-     * <li>prior to the 2nd frame: {@code _startingPoints == null}
-     * <li>still possibilities: {@code _startingPoints.size() > 0}
-     * <li>no more possibilities: {@code _startingPoints.size() == 0}
+     * <li>prior to the 2nd frame: {@code _aoStartingPoints == null}
+     * <li>still possibilities: {@code _iStartingPointCount > 0}
+     * <li>no more possibilities: {@code _iStartingPointCount == 0}
      * </ol>
      */
     @CheckForNull
-    private TreeSet<SectorsPerFrameFromStart> _startingPoints;
+    private SectorsPerFrameFromStart[] _aoStartingPoints;
+    private int _iStartingPointCount;
 
     public WholeNumberSectorsPerFrame(int iFirstFrameEndSector) {
         if (iFirstFrameEndSector < 0)
@@ -98,39 +97,36 @@ public class WholeNumberSectorsPerFrame {
 
         boolean blnRet;
 
-        if (_startingPoints == null) {
+        if (_aoStartingPoints == null) {
             // 2nd frame
 
             // create a possible sectors/frame for each sector
             // that the 2nd frame could actually start from
-            _startingPoints = new TreeSet<SectorsPerFrameFromStart>();
-            for (int iPossibleFrame2StartSector = _iPrevFrameEndSector+1;
-                     iPossibleFrame2StartSector <= iNextFrameStartSector;
-                     iPossibleFrame2StartSector++)
-            {
-                _startingPoints.add(new SectorsPerFrameFromStart(iPossibleFrame2StartSector));
+            _iStartingPointCount = iNextFrameStartSector - _iPrevFrameEndSector;
+            _aoStartingPoints = new SectorsPerFrameFromStart[_iStartingPointCount];
+            for (int i = 0; i < _iStartingPointCount; i++) {
+                _aoStartingPoints[i] = new SectorsPerFrameFromStart(_iPrevFrameEndSector + 1 + i);
             }
             blnRet = true;
-        } else if (_startingPoints.isEmpty()) {
+        } else if (_iStartingPointCount == 0) {
             // already determined there are no more possibilities :(
             blnRet = false;
         } else {
             // can add more
-            
-            blnRet = false; // assume we won't find any
-            for (Iterator<SectorsPerFrameFromStart> it = _startingPoints.iterator(); it.hasNext();) {
-                SectorsPerFrameFromStart possibleStart = it.next();
-                if (possibleStart.update(_iPrevFrameEndSector, iNextFrameStartSector)) {
-                    // at least 1 possible starting sector reports still having
-                    // some valid sectors/second
-                    blnRet = true;
-                } else {
-                    // if that starting sector assumption leads to no results,
-                    // remove it from the list
-                    it.remove();
-                }
-            }
 
+            // keep the starting points that still report having some
+            // valid sectors/second, and drop the ones that lead to no results
+            int iRetained = 0;
+            for (int i = 0; i < _iStartingPointCount; i++) {
+                SectorsPerFrameFromStart possibleStart = _aoStartingPoints[i];
+                if (possibleStart.update(_iPrevFrameEndSector, iNextFrameStartSector))
+                    _aoStartingPoints[iRetained++] = possibleStart;
+            }
+            for (int i = iRetained; i < _iStartingPointCount; i++) {
+                _aoStartingPoints[i] = null;
+            }
+            _iStartingPointCount = iRetained;
+            blnRet = iRetained > 0;
         }
 
         _iPrevFrameEndSector = iNextFrameEndSector;
@@ -143,87 +139,103 @@ public class WholeNumberSectorsPerFrame {
      * numbers, the one with the highest value is probably the best.
      */
     public @CheckForNull int[] getPossibleSectorsPerFrame() {
-        if (_startingPoints == null)
+        if (_aoStartingPoints == null)
             return null;
-        else if (_startingPoints.isEmpty())
+        else if (_iStartingPointCount == 0)
             return new int[] {1};
-        return integerCollectionToIntArray(removeFactors(getCombined()));
+        return nullIfEmpty(removeFactors(getCombined()));
     }
 
     /** Mostly for debugging. Returns all possible sectors/frame, including
      * redundant factors. */
     @CheckForNull int[] getAllPossibleSectorsPerFrame() {
-        if (_startingPoints == null)
+        if (_aoStartingPoints == null)
             return null;
-        else if (_startingPoints.isEmpty())
+        else if (_iStartingPointCount == 0)
             return new int[] {1};
-        return integerCollectionToIntArray(getCombined());
+        return nullIfEmpty(getCombined());
     }
 
-    /** Combines all the possible sectors/frame into one collection.
+    /** Combines all the possible sectors/frame into one sorted array.
      *  All duplicates are removed. */
-    private @Nonnull TreeSet<Integer> getCombined() {
-        TreeSet<Integer> unique = new TreeSet<Integer>();
-        // caller must ensure _startingPoints != null
-        for (SectorsPerFrameFromStart startAndInterval : _startingPoints) {
-            if (startAndInterval._possibleSectorsPerFrame != null)
-                unique.addAll(startAndInterval._possibleSectorsPerFrame);
+    private @Nonnull int[] getCombined() {
+        // caller must ensure _aoStartingPoints != null
+        int iMax = 0;
+        for (int i = 0; i < _iStartingPointCount; i++) {
+            SectorsPerFrameFromStart startAndInterval = _aoStartingPoints[i];
+            if (startAndInterval._iPossibleCount > 0)
+                iMax = Math.max(iMax, startAndInterval._aiPossibleSectorsPerFrame[startAndInterval._iPossibleCount-1]);
         }
-        return unique;
+        boolean[] ablnFound = new boolean[iMax + 1];
+        int iUniqueCount = 0;
+        for (int i = 0; i < _iStartingPointCount; i++) {
+            SectorsPerFrameFromStart startAndInterval = _aoStartingPoints[i];
+            for (int j = 0; j < startAndInterval._iPossibleCount; j++) {
+                int iSectorsPerFrame = startAndInterval._aiPossibleSectorsPerFrame[j];
+                if (!ablnFound[iSectorsPerFrame]) {
+                    ablnFound[iSectorsPerFrame] = true;
+                    iUniqueCount++;
+                }
+            }
+        }
+        int[] aiUnique = new int[iUniqueCount];
+        for (int i = 0, j = 0; i < ablnFound.length; i++) {
+            if (ablnFound[i])
+                aiUnique[j++] = i;
+        }
+        return aiUnique;
     }
 
 
-    /** Removes Integer values that are just factors of other 
-     *  Integer values in the Collection and returns the result.
-     *  The original Collection is not modified. */
-    private static @Nonnull TreeSet<Integer> removeFactors(@Nonnull TreeSet<Integer> sourceValues)
+    /** Removes values that are just factors of other values in the
+     *  sorted array and returns the result.
+     *  The original array is not modified. */
+    private static @Nonnull int[] removeFactors(@Nonnull int[] aiSortedValues)
     {
-        @SuppressWarnings("unchecked")
-        TreeSet<Integer> copy = (TreeSet<Integer>)sourceValues.clone();
-
-        for (Iterator<Integer> it = copy.iterator(); it.hasNext();) {
-            Integer oi = it.next();
-            Integer[] aioValues = copy.toArray(new Integer[copy.size()]);
-            for (int i = aioValues.length-1; aioValues[i].intValue() != oi.intValue(); i--) {
-                if (aioValues[i].intValue() % oi.intValue() == 0) {
-                    it.remove();
+        int[] aiKept = new int[aiSortedValues.length];
+        int iKeptCount = 0;
+        for (int i = 0; i < aiSortedValues.length; i++) {
+            int iValue = aiSortedValues[i];
+            boolean blnIsFactor = false;
+            // only larger values need to be checked, and those are never removed
+            // before this value is checked
+            for (int j = aiSortedValues.length-1; j > i; j--) {
+                if (aiSortedValues[j] % iValue == 0) {
+                    blnIsFactor = true;
                     break;
                 }
             }
+            if (!blnIsFactor)
+                aiKept[iKeptCount++] = iValue;
         }
-        return copy;
+        int[] aiResult = new int[iKeptCount];
+        System.arraycopy(aiKept, 0, aiResult, 0, iKeptCount);
+        return aiResult;
     }
 
-    /** Converts Collection of Integer classes to int[]. */
-    private static @CheckForNull int[] integerCollectionToIntArray(@Nonnull Collection<Integer> intIterable)
-    {
-        if (intIterable.isEmpty())
-            return null;
-        int[] ai = new int[intIterable.size()];
-        int i = 0;
-        for (Integer oi : intIterable) {
-            ai[i] = oi.intValue();
-            i++;
-        }
-        return ai;
+    private static @CheckForNull int[] nullIfEmpty(@Nonnull int[] ai) {
+        return ai.length == 0 ? null : ai;
     }
 
 
     /** Tracks possible sectors/frame for a video, assuming the 2nd frame 
      * started at a particular sector. */
-    private static class SectorsPerFrameFromStart implements Comparable<SectorsPerFrameFromStart> {
+    private static class SectorsPerFrameFromStart {
         /** Number of the sector that we are assuming the 2nd frame in a video started at. */
         private final int _iFrame2StartSector;
 
-        /** 3 states:
+        /** Possible sectors/frame, sorted ascending. Only the first
+         * {@link #_iPossibleCount} are valid.
+         * 3 states:
          * <ol>
-         * <li>no frame yet: {@code _possibleSectorsPerFrame == null}
-         * <li>still possibilities: {@code _possibleSectorsPerFrame.size() > 0}
-         * <li>no possibilities: {@code _possibleSectorsPerFrame.size() == 0}
+         * <li>no frame yet: {@code _aiPossibleSectorsPerFrame == null}
+         * <li>still possibilities: {@code _iPossibleCount > 0}
+         * <li>no possibilities: {@code _iPossibleCount == 0}
          * </ol>
          */
         @CheckForNull
-        private TreeSet<Integer> _possibleSectorsPerFrame;
+        private int[] _aiPossibleSectorsPerFrame;
+        private int _iPossibleCount;
 
         public SectorsPerFrameFromStart(int iFrame2StartSector) {
             _iFrame2StartSector = iFrame2StartSector;
@@ -235,56 +247,37 @@ public class WholeNumberSectorsPerFrame {
             final int iLastSectOfPrevFrmFromStart = iLastSectorOfPreviousFrame+1-_iFrame2StartSector;
             final int iFirstSectOfNewFrmFromStart = iFirstSectorOfNewFrame-_iFrame2StartSector;
 
-            if (_possibleSectorsPerFrame == null) {
+            if (_aiPossibleSectorsPerFrame == null) {
                 // first time in this function
-                // fill _possibleSectorsPerFrame with an
+                // fill _aiPossibleSectorsPerFrame with an
                 // initial set of possible sectors/frame
-                _possibleSectorsPerFrame = new TreeSet<Integer>();
-                for (int i=2; i <= iFirstSectOfNewFrmFromStart; i++)
-                    _possibleSectorsPerFrame.add(i);
-            } else if (_possibleSectorsPerFrame.isEmpty()) {
+                _iPossibleCount = Math.max(0, iFirstSectOfNewFrmFromStart - 1);
+                _aiPossibleSectorsPerFrame = new int[_iPossibleCount];
+                for (int i = 0; i < _iPossibleCount; i++)
+                    _aiPossibleSectorsPerFrame[i] = i + 2;
+            } else if (_iPossibleCount == 0) {
                 // all possibilities have been exhausted in previous calls
                 return false;
             }
 
             // retain only the possible sectors/frame that will
             // land in this space between frames
-            TreeSet<Integer> retainedPossibleSPF = new TreeSet<Integer>();
-            for (Integer oiSectorsPerFrame : _possibleSectorsPerFrame) {
+            int iRetained = 0;
+            for (int i = 0; i < _iPossibleCount; i++) {
+                int iSectorsPerFrame = _aiPossibleSectorsPerFrame[i];
                 for (int iModCheck = iLastSectOfPrevFrmFromStart;
                      iModCheck <= iFirstSectOfNewFrmFromStart;
                      iModCheck++)
                 {
-                    if (iModCheck % oiSectorsPerFrame.intValue() == 0) {
-                        retainedPossibleSPF.add(oiSectorsPerFrame);
+                    if (iModCheck % iSectorsPerFrame == 0) {
+                        _aiPossibleSectorsPerFrame[iRetained++] = iSectorsPerFrame;
                         break;
                     }
                 }
             }
 
-            _possibleSectorsPerFrame = retainedPossibleSPF;
-            return _possibleSectorsPerFrame.size() > 0;
-        }
-        
-        /** Sort based on starting sector. */
-        // [implements Comparable]
-        public int compareTo(SectorsPerFrameFromStart o) {
-            return Misc.intCompare(_iFrame2StartSector, o._iFrame2StartSector);
-        }
-
-        @Override
-        public int hashCode() {
-            int hash = 7;
-            hash = 29 * hash + _iFrame2StartSector;
-            hash = 29 * hash + (_possibleSectorsPerFrame != null ? _possibleSectorsPerFrame.hashCode() : 0);
-            return hash;
-        }
-
-        @Override
-        public boolean equals(Object obj) {
-            if (obj == null || getClass() != obj.getClass())
-                return false;
-            return compareTo((SectorsPerFrameFromStart) obj) == 0;
+            _iPossibleCount = iRetained;
+            return _iPossibleCount > 0;
         }
 
     }
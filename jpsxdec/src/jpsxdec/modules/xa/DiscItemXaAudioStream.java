@@ -429,6 +429,10 @@ public class DiscItemXaAudioStream extends DiscItemAudioStream {
             s2sxa.addListener(__xa2ap);
         }
 
+        public boolean usesExclusiveClaimer() {
+            return false;
+        }
+
         public double getVolume() {
             return __xa2ap.getVolume();
         }
@@ -63,6 +63,15 @@ public class PsxYCbCr_int {
     public static final long _0_7143  = 46812;  // Math.round(0.7143 * FIXED_MULT);
     public static final long _1_772   = 116224; // Math.round(1.772  * FIXED_MULT)+94;
 
+    // PSX YCbCr -> Rec.601 YCbCr matrix, see PsxYCbCr.toRec_601_YCbCr()
+    public static final long REC601_Y     = 56302; // Math.round(250./291.             * FIXED_MULT)
+    public static final long REC601_Y_CB  = -12;   // Math.round(-488509./2660418030.  * FIXED_MULT)
+    public static final long REC601_Y_CR  = -4;    // Math.round(-82738./1330209015.   * FIXED_MULT)
+    public static final long REC601_CB_CB = 57554; // Math.round(4014411./4571165.     * FIXED_MULT)
+    public static final long REC601_CB_CR = 2;     // Math.round(164./4571165.         * FIXED_MULT)
+    public static final long REC601_CR_CB = 9;     // Math.round(3673./27426990.       * FIXED_MULT)
+    public static final long REC601_CR_CR = 57573; // Math.round(8031459./9142330.     * FIXED_MULT)
+
     public static void toRgb(int y, int cb, int cr, @Nonnull RGB rgb) {
         int Yshift = y + 128;
         long c_r =                 _1_402  * cr,
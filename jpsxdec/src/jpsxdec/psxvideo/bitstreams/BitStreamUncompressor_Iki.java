@@ -39,6 +39,7 @@ package jpsxdec.psxvideo.bitstreams;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.TreeSet;
 import java.util.logging.Level;
@@ -284,7 +285,31 @@ public class BitStreamUncompressor_Iki extends BitStreamUncompressor {
             System.err.println("Src pos at end: " + iSrcPosition);
     }
 
-    private static class IkiLzssCompressor {
+    /** Compresses the block qscale/DC table the same way the iki encoder does.
+     * <p>
+     * Matches are found using hash chains of the 3 bytes at each position.
+     * By default every position in the window with the same hash is checked,
+     * which finds exactly the same (longest, then nearest) matches as
+     * checking every position in the window, only much faster.
+     * <p>
+     * The chain depth can be limited to make it even faster, at the cost
+     * of possibly missing the longest match. Or with "max compression"
+     * the smallest possible encoding is found by considering every match
+     * length at every position (optimal parsing) instead of always taking
+     * the longest match. That can never be larger than the greedy encoding. */
+    static class IkiLzssCompressor {
+
+        /** Encoding costs in bits (including the flag bit). */
+        private static final int LITERAL_BITS = 1 + 8,
+                                 NEAR_RUN_BITS = 1 + 8 + 8,
+                                 FAR_RUN_BITS = 1 + 8 + 16;
+        /** Offsets this far back or less only need 1 byte. */
+        private static final int MAX_NEAR_DISTANCE = 0x80;
+        private static final int MAX_DISTANCE = 0x7fff + 1;
+        private static final int MIN_NEAR_RUN = 3, MIN_FAR_RUN = 4;
+        private static final int MAX_RUN = 255 + 3;
+
+        private static final int HASH_BITS = 15;
 
         private int _iFlags;
         private int _iFlagBit;
@@ -292,57 +317,203 @@ public class BitStreamUncompressor_Iki extends BitStreamUncompressor {
         private final ByteArrayOutputStream _baosLogger = new ByteArrayOutputStream();
         private final PrintStream _logger = new PrintStream(_baosLogger, true);
 
-        /** Find the longest run of bytes that match the current position. */
+        /** 0 for no limit. */
+        private final int _iMaxChainDepth;
+        private final boolean _blnMaxCompression;
+
+        /** Most recent position with each hash. */
+        private final int[] _aiHashHead = new int[1 << HASH_BITS];
+        /** Previous position with the same hash as each position. */
+        @Nonnull
+        private int[] _aiHashPrev = new int[0];
+
+        /** Finds the same matches as the original brute force search. */
+        public IkiLzssCompressor() {
+            this(0, false);
+        }
+
+        /** @param iMaxChainDepth Most positions to check for each match,
+         *                       or 0 to check every one in the window.
+         * @param blnMaxCompression Find the smallest encoding instead of
+         *                          always taking the longest match. */
+        public IkiLzssCompressor(int iMaxChainDepth, boolean blnMaxCompression) {
+            _iMaxChainDepth = iMaxChainDepth;
+            _blnMaxCompression = blnMaxCompression;
+        }
+
         public void compress(@Nonnull byte[] abSrcData, @Nonnull ByteArrayOutputStream out) {
             reset();
+            resetHashChains(abSrcData.length);
+
+            if (_blnMaxCompression)
+                compressOptimal(abSrcData, out);
+            else
+                compressGreedy(abSrcData, out);
+
+            if (_iFlagBit > 0) {
+                if (BitStreamDebugging.DEBUG) _logger.println("Flags " + Misc.bitsToString(_iFlags, 8));
+                out.write(_iFlags);
+                byte[] ab = _buffer.toByteArray();
+                out.write(ab, 0, ab.length);
+            }
+        }
 
+        /** Take the longest run of bytes that match the current position. */
+        private void compressGreedy(@Nonnull byte[] abSrcData, @Nonnull ByteArrayOutputStream out) {
+            Match match = new Match();
             for (int iSrcPos = 0; iSrcPos < abSrcData.length;) {
 
                 if (BitStreamDebugging.DEBUG)
                     _logger.format("[InPos: %d OutPos: %d]: bit %02x: ",
                                       out.size()+1+_buffer.size(), iSrcPos, 1 << _iFlagBit );
-                
-                int iLongestRunPos = 0;
-                int iLongestRunLen = 0;
-
-                // iki is weird because it won't compress the last 3 bytes
-                // with a run even if it would save space
-                if (iSrcPos < abSrcData.length - 3) {
-                    int iFarthestBack = iSrcPos - (0x7fff + 1);
-                    if (iFarthestBack < 0) iFarthestBack = 0;
-                    for (int iMatchStart = iSrcPos-1; iMatchStart >= iFarthestBack; iMatchStart--) {
-                        int iMatchLen = matchLength(abSrcData, iMatchStart, iSrcPos);
-                        if (iMatchLen > iLongestRunLen) {
-                            int iNegOffsetMin1 = iSrcPos - iMatchStart - 1;
-                            if ((iNegOffsetMin1 <  0x80) && (iMatchLen >= 3) ||
-                                (iNegOffsetMin1 >= 0x80) && (iMatchLen >= 4))
-                            {
-                                iLongestRunLen = iMatchLen;
-                                iLongestRunPos = iMatchStart;
-                            }
-                        }
-                    }
+
+                findMatches(abSrcData, iSrcPos, match);
+                int iLongestRunPos, iLongestRunLen;
+                if (match.iFarLen > match.iNearLen) {
+                    iLongestRunPos = match.iFarPos;
+                    iLongestRunLen = match.iFarLen;
+                } else {
+                    iLongestRunPos = match.iNearPos;
+                    iLongestRunLen = match.iNearLen;
                 }
+
                 if (iLongestRunLen > 0) {
                     addRun(iSrcPos - iLongestRunPos, iLongestRunLen, iSrcPos);
-                    iSrcPos += iLongestRunLen;
+                    for (int iEnd = iSrcPos + iLongestRunLen; iSrcPos < iEnd; iSrcPos++)
+                        addToHashChain(abSrcData, iSrcPos);
                 } else {
                     if (BitStreamDebugging.DEBUG) _logger.format("{Byte %02x}", abSrcData[iSrcPos]&0xff).println();
                     addCopy(abSrcData[iSrcPos]);
+                    addToHashChain(abSrcData, iSrcPos);
                     iSrcPos++;
                 }
                 incFlag(out);
             }
+        }
 
-            if (_iFlagBit > 0) {
-                if (BitStreamDebugging.DEBUG) _logger.println("Flags " + Misc.bitsToString(_iFlags, 8));
-                out.write(_iFlags);
-                byte[] ab = _buffer.toByteArray();
-                out.write(ab, 0, ab.length);
+        /** Finds the encoding with the fewest bits. Since every run or literal
+         * also uses 1 flag bit, fewest bits is also fewest bytes. */
+        private void compressOptimal(@Nonnull byte[] abSrcData, @Nonnull ByteArrayOutputStream out) {
+            int iLength = abSrcData.length;
+            // fewest bits to encode everything before each position,
+            // and the run (or literal) that gets there
+            int[] aiBits = new int[iLength + 1];
+            int[] aiRunLen = new int[iLength + 1];
+            int[] aiRunDistance = new int[iLength + 1];
+            Arrays.fill(aiBits, 1, iLength + 1, Integer.MAX_VALUE);
+
+            Match match = new Match();
+            for (int iSrcPos = 0; iSrcPos < iLength; iSrcPos++) {
+                int iBits = aiBits[iSrcPos];
+                if (iBits + LITERAL_BITS < aiBits[iSrcPos + 1]) {
+                    aiBits[iSrcPos + 1] = iBits + LITERAL_BITS;
+                    aiRunLen[iSrcPos + 1] = 1;
+                    aiRunDistance[iSrcPos + 1] = 0;
+                }
+
+                findMatches(abSrcData, iSrcPos, match);
+                // near runs can be any length up to the longest near match
+                for (int iLen = MIN_NEAR_RUN; iLen <= match.iNearLen; iLen++) {
+                    if (iBits + NEAR_RUN_BITS < aiBits[iSrcPos + iLen]) {
+                        aiBits[iSrcPos + iLen] = iBits + NEAR_RUN_BITS;
+                        aiRunLen[iSrcPos + iLen] = iLen;
+                        aiRunDistance[iSrcPos + iLen] = iSrcPos - match.iNearPos;
+                    }
+                }
+                // far runs are only useful when longer than the near run
+                for (int iLen = Math.max(MIN_FAR_RUN, match.iNearLen + 1); iLen <= match.iFarLen; iLen++) {
+                    if (iBits + FAR_RUN_BITS < aiBits[iSrcPos + iLen]) {
+                        aiBits[iSrcPos + iLen] = iBits + FAR_RUN_BITS;
+                        aiRunLen[iSrcPos + iLen] = iLen;
+                        aiRunDistance[iSrcPos + iLen] = iSrcPos - match.iFarPos;
+                    }
+                }
+                addToHashChain(abSrcData, iSrcPos);
+            }
+
+            // walk back from the end to find the path, then write it forward
+            int iTokenCount = 0;
+            for (int iPos = iLength; iPos > 0; iPos -= aiRunLen[iPos])
+                iTokenCount++;
+            int[] aiTokenEnds = new int[iTokenCount];
+            for (int iPos = iLength, i = iTokenCount - 1; iPos > 0; iPos -= aiRunLen[iPos], i--)
+                aiTokenEnds[i] = iPos;
+
+            int iSrcPos = 0;
+            for (int iEnd : aiTokenEnds) {
+                if (BitStreamDebugging.DEBUG)
+                    _logger.format("[InPos: %d OutPos: %d]: bit %02x: ",
+                                      out.size()+1+_buffer.size(), iSrcPos, 1 << _iFlagBit );
+                if (aiRunDistance[iEnd] == 0) {
+                    if (BitStreamDebugging.DEBUG) _logger.format("{Byte %02x}", abSrcData[iSrcPos]&0xff).println();
+                    addCopy(abSrcData[iSrcPos]);
+                } else {
+                    addRun(aiRunDistance[iEnd], aiRunLen[iEnd], iSrcPos);
+                }
+                iSrcPos = iEnd;
+                incFlag(out);
             }
+        }
 
+        /** Longest usable runs that start within 1-byte offset range (near)
+         * and beyond it (far). When runs are the same length, the nearest
+         * position is kept. Lengths are 0 if there is no usable run. */
+        private static class Match {
+            public int iNearPos, iNearLen, iFarPos, iFarLen;
         }
-        
+
+        private void findMatches(@Nonnull byte[] abSrcData, int iSrcPos, @Nonnull Match match) {
+            match.iNearLen = match.iFarLen = 0;
+            // iki is weird because it won't compress the last 3 bytes
+            // with a run even if it would save space
+            if (iSrcPos >= abSrcData.length - 3)
+                return;
+
+            int iMaxLen = Math.min(MAX_RUN, abSrcData.length - iSrcPos);
+            int iFarthestBack = iSrcPos - MAX_DISTANCE;
+            int iDepth = 0;
+            for (int iMatchStart = _aiHashHead[hash(abSrcData, iSrcPos)];
+                 iMatchStart >= 0 && iMatchStart >= iFarthestBack;
+                 iMatchStart = _aiHashPrev[iMatchStart])
+            {
+                int iMatchLen = matchLength(abSrcData, iMatchStart, iSrcPos);
+                if (iSrcPos - iMatchStart <= MAX_NEAR_DISTANCE) {
+                    if (iMatchLen >= MIN_NEAR_RUN && iMatchLen > match.iNearLen) {
+                        match.iNearLen = iMatchLen;
+                        match.iNearPos = iMatchStart;
+                    }
+                } else if (iMatchLen >= MIN_FAR_RUN && iMatchLen > match.iFarLen) {
+                    match.iFarLen = iMatchLen;
+                    match.iFarPos = iMatchStart;
+                }
+                if (match.iNearLen == iMaxLen || match.iFarLen == iMaxLen)
+                    break; // can't do any better
+                if (++iDepth == _iMaxChainDepth)
+                    break;
+            }
+        }
+
+        private void resetHashChains(int iLength) {
+            Arrays.fill(_aiHashHead, -1);
+            if (_aiHashPrev.length < iLength)
+                _aiHashPrev = new int[iLength];
+        }
+
+        private void addToHashChain(@Nonnull byte[] abSrcData, int iSrcPos) {
+            if (iSrcPos + 3 > abSrcData.length)
+                return; // can't be the start of a run
+            int iHash = hash(abSrcData, iSrcPos);
+            _aiHashPrev[iSrcPos] = _aiHashHead[iHash];
+            _aiHashHead[iHash] = iSrcPos;
+        }
+
+        private static int hash(@Nonnull byte[] abData, int iPos) {
+            int i = ((abData[iPos] & 0xff) << 16) |
+                    ((abData[iPos+1] & 0xff) << 8) |
+                     (abData[iPos+2] & 0xff);
+            return (i * 0x9E3779B1) >>> (32 - HASH_BITS);
+        }
+
         private void addRun(int iPosition, int iLength, int iSrcPos) {
             assert iPosition > 0;
             if (BitStreamDebugging.DEBUG) _logger.format("Copy %d bytes from %d(%d)", iLength, iSrcPos-iPosition, -iPosition).println();
@@ -431,6 +602,32 @@ public class BitStreamUncompressor_Iki extends BitStreamUncompressor {
             _iHeight = iHeight;
         }
 
+        /** Compresses the frame as it is currently set in the encoder.
+         * If it doesn't fit, but is close, tries again with max LZSS
+         * compression before giving up. Max compression only saves a
+         * little of the qscale/DC table, so it isn't worth the much slower
+         * search when the frame is too big by more than that. */
+        private @Nonnull byte[] compressToFit(@Nonnull MdecEncoder encoder, int iMaxSize)
+                throws MdecException.EndOfStream, MdecException.ReadCorruption
+        {
+            try {
+                byte[] abNewDemux = compress(encoder.getStream());
+                if (abNewDemux.length > iMaxSize &&
+                    abNewDemux.length - iMaxSize <= _iLastLzssSize / MAX_COMPRESSION_SAVES_DIVISOR)
+                {
+                    IkiLzssCompressor normalLzs = _lzs;
+                    _lzs = _maxLzs;
+                    try {
+                        abNewDemux = compress(encoder.getStream());
+                    } finally {
+                        _lzs = normalLzs;
+                    }
+                }
+                return abNewDemux;
+            } catch (IncompatibleException ex) {
+                throw new RuntimeException("The encoder should be compatible here", ex);
+            }
+        }
 
         @Override
         public @CheckForNull byte[] compressFull(@Nonnull byte[] abOriginal,
@@ -454,11 +651,7 @@ public class BitStreamUncompressor_Iki extends BitStreamUncompressor {
                     macblk.setToFullEncode(aiNewQscale);
                 }
 
-                try {
-                    abNewDemux = compress(encoder.getStream());
-                } catch (IncompatibleException ex) {
-                    throw new RuntimeException("The encoder should be compatible here", ex);
-                }
+                abNewDemux = compressToFit(encoder, abOriginal.length);
                 int iNewDemuxSize = abNewDemux.length;
                 if (iNewDemuxSize <= abOriginal.length) {
                     log.log(Level.INFO, I.NEW_FRAME_FITS(sFrameDescription, iNewDemuxSize, abOriginal.length));
@@ -525,12 +718,7 @@ public class BitStreamUncompressor_Iki extends BitStreamUncompressor {
             for (MacroBlockEncoder macblk : macblocks) {
                 log.log(Level.INFO, I.IKI_REDUCING_QSCALE_OF_MB_TO_VAL(macblk.X, macblk.Y, iNewQscale));
                 macblk.setToFullEncode(aiNewQscale);
-                byte[] abNewDemux;
-                try {
-                    abNewDemux = compress(encoder.getStream());
-                } catch (IncompatibleException ex) {
-                    throw new RuntimeException("The encoder should be compatible here", ex);
-                }
+                byte[] abNewDemux = compressToFit(encoder, iOriginalLength);
                 int iNewDemuxSize = abNewDemux.length;
                 if (iNewDemuxSize <= iOriginalLength) {
                     log.log(Level.INFO, I.NEW_FRAME_FITS(sFrameDescription, iNewDemuxSize, iOriginalLength));
@@ -560,7 +748,17 @@ public class BitStreamUncompressor_Iki extends BitStreamUncompressor {
         private final ByteArrayOutputStream _top8 = new ByteArrayOutputStream();
         private final ByteArrayOutputStream _bottom8 = new ByteArrayOutputStream();
         private final MdecCode _currentBlockQscaleDc = new MdecCode();
-        private final IkiLzssCompressor _lzs = new IkiLzssCompressor();
+        @Nonnull
+        private IkiLzssCompressor _lzs = new IkiLzssCompressor();
+        /** Swapped in for {@link #_lzs} when a frame almost fits. */
+        @Nonnull
+        private final IkiLzssCompressor _maxLzs = new IkiLzssCompressor(0, true);
+        /** Size of the last compressed qscale/DC table. */
+        private int _iLastLzssSize;
+        /** Max compression is only tried when the frame is too big by
+         * at most this fraction of the compressed qscale/DC table
+         * (a generous bound on what it saves over the greedy search). */
+        private static final int MAX_COMPRESSION_SAVES_DIVISOR = 16;
 
         @Override
         public @Nonnull byte[] compress(@Nonnull MdecInputStream inStream)
@@ -601,6 +799,7 @@ public class BitStreamUncompressor_Iki extends BitStreamUncompressor {
             _top8.reset();
             _bottom8.reset();
             _lzs.compress(ab, _bottom8);
+            _iLastLzssSize = _bottom8.size();
             if (_bottom8.size() % 2 != 0)
                 _bottom8.write(0);
             ab = _bottom8.toByteArray();
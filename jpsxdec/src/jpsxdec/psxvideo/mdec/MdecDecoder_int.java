@@ -40,6 +40,7 @@ package jpsxdec.psxvideo.mdec;
 import java.util.Arrays;
 import javax.annotation.Nonnull;
 import jpsxdec.formats.RGB;
+import jpsxdec.formats.YCbCrImage;
 import jpsxdec.psxvideo.PsxYCbCr_int;
 import jpsxdec.psxvideo.mdec.idct.IDCT_int;
 
@@ -326,4 +327,64 @@ public class MdecDecoder_int extends MdecDecoder {
         }
     }
 
+    /** Converts the decoded image to Rec.601 YCbCr with fixed-point math,
+     * writing directly into the image's planes.
+     * Values are within 1 of
+     * {@link jpsxdec.psxvideo.PsxYCbCr#toRec_601_YCbCr(jpsxdec.formats.Rec601YCbCr)}.
+     * @see MdecDecoder_double#readDecoded_Rec601_YCbCr420(YCbCrImage) */
+    public void readDecoded_Rec601_YCbCr420(@Nonnull YCbCrImage ycc) {
+
+        final int WIDTH = ycc.getWidth(), HEIGHT = ycc.getHeight();
+
+        if ((WIDTH % 2) != 0)
+            throw new IllegalArgumentException("Image width must be multiple of 2.");
+        if ((HEIGHT % 2) != 0)
+            throw new IllegalArgumentException("Image height must be multiple of 2.");
+
+        final byte[] abY = ycc.getY(), abCb = ycc.getCb(), abCr = ycc.getCr();
+
+        // 16 and 128 offsets, plus 0.5 for rounding
+        final long HALF = 1L << (PsxYCbCr_int.FIXED_BITS - 1);
+        final long Y_ADD = (16L << PsxYCbCr_int.FIXED_BITS) + HALF +
+                           128 * PsxYCbCr_int.REC601_Y;
+        final long C_ADD = (128L << PsxYCbCr_int.FIXED_BITS) + HALF;
+
+        final int W_x2 = W*2, WIDTH_x2 = WIDTH*2;
+        int iLumaLineOfsStart = 0, iChromaLineOfsStart = 0;
+        int iDestLumaLineOfsStart = 0, iDestChromaOfs = 0;
+        for (int iY=0; iY < HEIGHT; iY+=2,
+             iLumaLineOfsStart+=W_x2, iChromaLineOfsStart+=CW, iDestLumaLineOfsStart+=WIDTH_x2)
+        {
+            int iSrcLumaOfs1 = iLumaLineOfsStart,
+                iSrcLumaOfs2 = iLumaLineOfsStart + W,
+                iSrcChromaOfs = iChromaLineOfsStart,
+                iDestOfs1 = iDestLumaLineOfsStart,
+                iDestOfs2 = iDestLumaLineOfsStart + WIDTH;
+            for (int iX=0; iX < WIDTH; iX+=2, iSrcChromaOfs++, iDestChromaOfs++) {
+                long cb = _aiCbBuffer[iSrcChromaOfs];
+                long cr = _aiCrBuffer[iSrcChromaOfs];
+
+                long lngYChroma = cb * PsxYCbCr_int.REC601_Y_CB + cr * PsxYCbCr_int.REC601_Y_CR + Y_ADD;
+                abY[iDestOfs1++] = clamp(_aiLumaBuffer[iSrcLumaOfs1++] * PsxYCbCr_int.REC601_Y + lngYChroma);
+                abY[iDestOfs1++] = clamp(_aiLumaBuffer[iSrcLumaOfs1++] * PsxYCbCr_int.REC601_Y + lngYChroma);
+                abY[iDestOfs2++] = clamp(_aiLumaBuffer[iSrcLumaOfs2++] * PsxYCbCr_int.REC601_Y + lngYChroma);
+                abY[iDestOfs2++] = clamp(_aiLumaBuffer[iSrcLumaOfs2++] * PsxYCbCr_int.REC601_Y + lngYChroma);
+
+                abCb[iDestChromaOfs] = clamp(cb * PsxYCbCr_int.REC601_CB_CB + cr * PsxYCbCr_int.REC601_CB_CR + C_ADD);
+                abCr[iDestChromaOfs] = clamp(cb * PsxYCbCr_int.REC601_CR_CB + cr * PsxYCbCr_int.REC601_CR_CR + C_ADD);
+            }
+        }
+    }
+
+    /** Shifts out the fixed-point fraction and clamps to 0-255. */
+    private static byte clamp(long lngFixed) {
+        long lng = lngFixed >> PsxYCbCr_int.FIXED_BITS;
+        if (lng < 0)
+            return (byte)0;
+        else if (lng > 255)
+            return (byte)255;
+        else
+            return (byte)lng;
+    }
+
 }
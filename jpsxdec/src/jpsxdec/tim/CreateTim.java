@@ -49,6 +49,7 @@ import java.util.logging.Logger;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import jpsxdec.util.BinaryDataNotRecognized;
+import jpsxdec.util.DemuxByteSource;
 import jpsxdec.util.IO;
 
 /** Private functions to generate a {@link Tim} image. */
@@ -65,18 +66,11 @@ class CreateTim {
         // tag
         if (IO.readUInt8(inStream) != Tim.TAG_MAGIC)
             return null;
-        // version
-        if (IO.readUInt8(inStream) != Tim.VERSION_0)
-            return null;
-        // unkn 1
-        if (IO.readUInt16LE(inStream) != 0)
-            return null;
-
+        int iVersion = IO.readUInt8(inStream);
+        int iUnknown1 = IO.readUInt16LE(inStream);
         int iBpp_blnHasColorLookupTbl = IO.readUInt16LE(inStream);
-        if ((iBpp_blnHasColorLookupTbl & 0xFFF4) != 0)
-            return null;
-        // unkn 2
-        if (IO.readUInt16LE(inStream) != 0)
+        int iUnknown2 = IO.readUInt16LE(inStream);
+        if (!isTimHeader(iVersion, iUnknown1, iBpp_blnHasColorLookupTbl, iUnknown2))
             return null;
 
         //-------------------------------------------------
@@ -84,79 +78,141 @@ class CreateTim {
         int iBitsPerPixel = Tim.BITS_PER_PIX[iBpp_blnHasColorLookupTbl & 3];
 
         final int iPaletteCount;
+        int iClutByteSize = 0;
         // has CLUT
         if ((iBpp_blnHasColorLookupTbl & 8) != 0) {
 
             long lngLength = IO.readUInt32LE(inStream);
-            if (lngLength <= 0)
-                return null;
-
             // clut x,y
             IO.skip(inStream, 4);
-
             int iClutWidth = IO.readUInt16LE(inStream);
-            if (iClutWidth == 0)
-                return null;
-
             int iClutHeight = IO.readUInt16LE(inStream);
-            if (iClutHeight == 0)
-                return null;
-
-            if (lngLength != (iClutWidth * iClutHeight * 2 + 12))
+            if (!isBlockHeader(lngLength, iClutWidth, iClutHeight))
                 return null;
 
-            // User CUE reported an issue with some strange TIM images from
-            // "Guardian's Crusade" that report 16 bits-per-pixel, but also
-            // have a CLUT (bug "JPSXDEC-4").
-            // See read() for more details.
-            if (iBitsPerPixel == 16) {
-                if (iClutWidth < 256)
-                    iBitsPerPixel = 4;
-                else
-                    iBitsPerPixel = 8;
-                LOG.log(Level.WARNING, "TIM reports 16 bits/pixel, but it also has a CLUT. Assuming {0,number,#} bits/pixel", iBitsPerPixel);
-            } else if (iBitsPerPixel == 24) {
-                LOG.log(Level.WARNING, "TIM reports 24 bits/pixel, but it also has a CLUT. Assuming 8 bits/pixel");
-                iBitsPerPixel = 8;
-            }
-
+            iBitsPerPixel = clutBitsPerPixel(iBitsPerPixel, iClutWidth);
             iPaletteCount = (iClutWidth * iClutHeight) / (1 << iBitsPerPixel);
 
             IO.skip(inStream, iClutWidth * iClutHeight * 2);
+            iClutByteSize = (int)lngLength;
         } else {
             iPaletteCount = 1;
         }
 
         long lngImageLength = IO.readUInt32LE(inStream);
-        if (lngImageLength == 0)
-            return null;
-
         // image x,y
         IO.skip(inStream, 4);
-
         int iImageWordWidth = IO.readUInt16LE(inStream);
-        if (iImageWordWidth == 0)
+        int iImageHeight = IO.readUInt16LE(inStream);
+        if (!isBlockHeader(lngImageLength, iImageWordWidth, iImageHeight))
             return null;
 
-        int iImageHeight = IO.readUInt16LE(inStream);
-        if (iImageHeight == 0)
+        IO.skip(inStream, (iImageWordWidth * iImageHeight) * 2);
+
+        int iByteSize = 8 + iClutByteSize + (int)lngImageLength;
+        return new TimInfo(iPaletteCount, iBitsPerPixel,
+                           pixelWidth(iBitsPerPixel, iImageWordWidth), iImageHeight, iByteSize);
+    }
+
+    /** Same checks as {@link #isTim(java.io.InputStream)}, but reading
+     * directly from the absolute position in the source. */
+    public static @CheckForNull TimInfo isTim(@Nonnull DemuxByteSource<?> source, int iPos)
+            throws EOFException, DemuxByteSource.NeedsMoreData
+    {
+        final int iStart = iPos;
+        // tag, which rules out nearly every position
+        if (source.readUInt8(iPos) != Tim.TAG_MAGIC)
+            return null;
+        int iBpp_blnHasColorLookupTbl = source.readUInt16LE(iPos + 4);
+        if (!isTimHeader(source.readUInt8(iPos + 1), source.readUInt16LE(iPos + 2),
+                         iBpp_blnHasColorLookupTbl, source.readUInt16LE(iPos + 6)))
             return null;
+        iPos += 8;
+
+        //-------------------------------------------------
+
+        int iBitsPerPixel = Tim.BITS_PER_PIX[iBpp_blnHasColorLookupTbl & 3];
+
+        final int iPaletteCount;
+        // has CLUT
+        if ((iBpp_blnHasColorLookupTbl & 8) != 0) {
 
-        if (lngImageLength != iImageWordWidth * iImageHeight * 2 + 12)
+            long lngLength = source.readUInt32LE(iPos);
+            int iClutWidth = source.readUInt16LE(iPos + 8);
+            int iClutHeight = source.readUInt16LE(iPos + 10);
+            if (!isBlockHeader(lngLength, iClutWidth, iClutHeight))
+                return null;
+
+            iBitsPerPixel = clutBitsPerPixel(iBitsPerPixel, iClutWidth);
+            iPaletteCount = (iClutWidth * iClutHeight) / (1 << iBitsPerPixel);
+
+            source.requireAvailable(iPos + 12, iClutWidth * iClutHeight * 2);
+            iPos += (int)lngLength;
+        } else {
+            iPaletteCount = 1;
+        }
+
+        long lngImageLength = source.readUInt32LE(iPos);
+        int iImageWordWidth = source.readUInt16LE(iPos + 8);
+        int iImageHeight = source.readUInt16LE(iPos + 10);
+        if (!isBlockHeader(lngImageLength, iImageWordWidth, iImageHeight))
             return null;
 
-        IO.skip(inStream, (iImageWordWidth * iImageHeight) * 2);
+        source.requireAvailable(iPos + 12, (iImageWordWidth * iImageHeight) * 2);
+        iPos += (int)lngImageLength;
 
-        int iPixelWidth;
+        return new TimInfo(iPaletteCount, iBitsPerPixel,
+                           pixelWidth(iBitsPerPixel, iImageWordWidth), iImageHeight, iPos - iStart);
+    }
+
+    /** Checks the rest of the 8 byte header after the tag. */
+    private static boolean isTimHeader(int iVersion, int iUnknown1,
+                                       int iBpp_blnHasColorLookupTbl, int iUnknown2)
+    {
+        return iVersion == Tim.VERSION_0 &&
+               iUnknown1 == 0 &&
+               (iBpp_blnHasColorLookupTbl & 0xFFF4) == 0 &&
+               iUnknown2 == 0;
+    }
+
+    /** Checks the header of the CLUT or image block.
+     * @param iWidth Width in 16-bit units. */
+    private static boolean isBlockHeader(long lngLength, int iWidth, int iHeight) {
+        if (lngLength == 0 || iWidth == 0 || iHeight == 0)
+            return false;
+        if (lngLength != iWidth * iHeight * 2 + 12)
+            return false;
+        // the size calculation can overflow with garbage data
+        return lngLength >= 12;
+    }
+
+    /** Bits-per-pixel to use for a Tim with a CLUT. */
+    private static int clutBitsPerPixel(int iBitsPerPixel, int iClutWidth) {
+        // User CUE reported an issue with some strange TIM images from
+        // "Guardian's Crusade" that report 16 bits-per-pixel, but also
+        // have a CLUT (bug "JPSXDEC-4").
+        // See read() for more details.
+        if (iBitsPerPixel == 16) {
+            if (iClutWidth < 256)
+                iBitsPerPixel = 4;
+            else
+                iBitsPerPixel = 8;
+            LOG.log(Level.WARNING, "TIM reports 16 bits/pixel, but it also has a CLUT. Assuming {0,number,#} bits/pixel", iBitsPerPixel);
+        } else if (iBitsPerPixel == 24) {
+            LOG.log(Level.WARNING, "TIM reports 24 bits/pixel, but it also has a CLUT. Assuming 8 bits/pixel");
+            iBitsPerPixel = 8;
+        }
+        return iBitsPerPixel;
+    }
+
+    private static int pixelWidth(int iBitsPerPixel, int iImageWordWidth) {
         switch (iBitsPerPixel) {
-            case 4:  iPixelWidth = iImageWordWidth * 2 * 2; break;
-            case 8:  iPixelWidth = iImageWordWidth * 2    ; break;
-            case 16: iPixelWidth = iImageWordWidth        ; break;
-            case 24: iPixelWidth = iImageWordWidth * 2 / 3; break;
+            case 4:  return iImageWordWidth * 2 * 2;
+            case 8:  return iImageWordWidth * 2;
+            case 16: return iImageWordWidth;
+            case 24: return iImageWordWidth * 2 / 3;
             default: throw new RuntimeException("Impossible Tim BPP " + iBitsPerPixel);
         }
-
-        return new TimInfo(iPaletteCount, iBitsPerPixel, iPixelWidth, iImageHeight);
     }
 
     /** Parse and deserialize a TIM file from a stream. */
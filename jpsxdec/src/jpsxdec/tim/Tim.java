@@ -57,6 +57,7 @@ import java.io.OutputStream;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import jpsxdec.util.BinaryDataNotRecognized;
+import jpsxdec.util.DemuxByteSource;
 import jpsxdec.util.IO;
 
 /** The PlayStation 1 TIM image. Used in many PlayStation games.
@@ -84,6 +85,16 @@ public class Tim {
         return CreateTim.isTim(inStream);
     }
 
+    /** Quickly checks if the data at the position is a Tim image.
+     * Nothing is read beyond the end of the Tim, and the source's read
+     * position is left unchanged.
+     * @return info about the Tim image, otherwise null. */
+    public static @CheckForNull TimInfo isTim(@Nonnull DemuxByteSource<?> source, int iPosition)
+            throws EOFException, DemuxByteSource.NeedsMoreData
+    {
+        return CreateTim.isTim(source, iPosition);
+    }
+
     /** Parse and deserialize a TIM file from a stream. */
     public static @Nonnull Tim read(@Nonnull InputStream inStream)
             throws EOFException, IOException, BinaryDataNotRecognized
@@ -293,8 +304,8 @@ public class Tim {
             throw new IllegalArgumentException("Palette index "+iPalette+" out of bounds");
 
         switch (_iBitsPerPixel) {
-            case 4: return toBi4(iPalette);
-            case 8: return toBi8(iPalette);
+            case 4:
+            case 8: return toBiIndexed(iPalette);
             case 16: return toBi16();
             case 24: return toBi24();
             default:
@@ -302,6 +313,109 @@ public class Tim {
         }
     }
 
+    /** Converts the image for several palettes at once.
+     * The pixel data is only unpacked once, and all the paletted images
+     * share the same raster, each with its own color model. So the
+     * returned images should not be modified.
+     * @param ablnPalettes  Which palettes to convert, or null for all of them.
+     *                      Must be {@link #getPaletteCount()} long.
+     * @return Array of {@link #getPaletteCount()} images.
+     *         Palettes that were not selected will be null.
+     * @see #toBufferedImage(int) */
+    public @Nonnull BufferedImage[] toBufferedImages(@CheckForNull boolean[] ablnPalettes) {
+        int iPaletteCount = getPaletteCount();
+        if (ablnPalettes != null && ablnPalettes.length != iPaletteCount)
+            throw new IllegalArgumentException("Palette selection length " + ablnPalettes.length +
+                                               " != palette count " + iPaletteCount);
+        BufferedImage[] aoImages = new BufferedImage[iPaletteCount];
+        WritableRaster sharedRaster = null;
+        for (int i = 0; i < iPaletteCount; i++) {
+            if (ablnPalettes != null && !ablnPalettes[i])
+                continue;
+            if (_iBitsPerPixel > 8) {
+                aoImages[i] = toBufferedImage(i);
+            } else {
+                if (sharedRaster == null)
+                    sharedRaster = toIndexedRaster();
+                aoImages[i] = new BufferedImage(toIndexColorModel(i), sharedRaster, false, null);
+            }
+        }
+        return aoImages;
+    }
+
+    /** Creates a single true-color image with the image converted using
+     * every selected palette, laid out in a grid (a "sprite sheet").
+     * Palettes are placed left to right, top to bottom in palette order.
+     * The grid is as square as possible.
+     * Only available for 4 and 8 bpp Tims.
+     * @param ablnPalettes  Which palettes to include, or null for all of them.
+     *                      Must be {@link #getPaletteCount()} long.
+     * @param blnAlpha      If the image should have an alpha channel.
+     * @throws IllegalStateException if this Tim is not 4 or 8 bpp.
+     * @throws IllegalArgumentException if no palettes are selected. */
+    public @Nonnull BufferedImage toPaletteAtlas(@CheckForNull boolean[] ablnPalettes, boolean blnAlpha) {
+        if (_iBitsPerPixel > 8)
+            throw new IllegalStateException("Palette atlas requires a 4 or 8 bpp Tim");
+        int iPaletteCount = getPaletteCount();
+        if (ablnPalettes != null && ablnPalettes.length != iPaletteCount)
+            throw new IllegalArgumentException("Palette selection length " + ablnPalettes.length +
+                                               " != palette count " + iPaletteCount);
+        int iSelectedCount = 0;
+        for (int i = 0; i < iPaletteCount; i++) {
+            if (ablnPalettes == null || ablnPalettes[i])
+                iSelectedCount++;
+        }
+        if (iSelectedCount == 0)
+            throw new IllegalArgumentException("No palettes selected");
+
+        int iColumns = (int)Math.ceil(Math.sqrt(iSelectedCount));
+        int iRows = (iSelectedCount + iColumns - 1) / iColumns;
+        int iAtlasWidth = iColumns * _iPixelWidth;
+        BufferedImage atlas = new BufferedImage(iAtlasWidth, iRows * _iPixelHeight,
+                blnAlpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        int[] aiAtlas = ((DataBufferInt)atlas.getRaster().getDataBuffer()).getData();
+
+        // unpack the pixel indexes once
+        int iPixelCount = _iPixelWidth * _iPixelHeight;
+        int[] aiIndexes = new int[iPixelCount];
+        if (_iBitsPerPixel == 4) {
+            for (int i = 0; i < iPixelCount; i+=2) {
+                int b = _abImageData[i / 2];
+                aiIndexes[i  ] = b & 0x0f;
+                aiIndexes[i+1] = (b >> 4) & 0x0f;
+            }
+        } else {
+            for (int i = 0; i < iPixelCount; i++) {
+                aiIndexes[i] = _abImageData[i] & 0xff;
+            }
+        }
+
+        int iColorCount = _iBitsPerPixel == 4 ? 16 : 256;
+        int[] aiArgbPalette = new int[iColorCount];
+        int iCell = 0;
+        for (int iPalette = 0; iPalette < iPaletteCount; iPalette++) {
+            if (ablnPalettes != null && !ablnPalettes[iPalette])
+                continue;
+            byte[] abRgbaPalette = toRgbaPalette(iPalette);
+            for (int i = 0, o = 0; i < iColorCount; i++, o+=4) {
+                aiArgbPalette[i] = ((abRgbaPalette[o+3] & 0xff) << 24) |
+                                   ((abRgbaPalette[o+0] & 0xff) << 16) |
+                                   ((abRgbaPalette[o+1] & 0xff) <<  8) |
+                                   ((abRgbaPalette[o+2] & 0xff)      );
+            }
+            int iCellX = (iCell % iColumns) * _iPixelWidth;
+            int iCellY = (iCell / iColumns) * _iPixelHeight;
+            for (int y = 0, i = 0; y < _iPixelHeight; y++) {
+                int o = (iCellY + y) * iAtlasWidth + iCellX;
+                for (int x = 0; x < _iPixelWidth; x++, i++, o++) {
+                    aiAtlas[o] = aiArgbPalette[aiIndexes[i]];
+                }
+            }
+            iCell++;
+        }
+        return atlas;
+    }
+
     /** Converts the CLUT (color lookup table) to a {@link BufferedImage}.
      * @return null if image has no CLUT. */
     public @CheckForNull BufferedImage getClutImage() {
@@ -490,15 +604,19 @@ public class Tim {
         }
     }
 
-    /** Convert this 4 bpp Tim to a BufferedImage. */
-    private @Nonnull BufferedImage toBi4(int iPalette) {
-
-        byte[] abRgbaPalette = new byte[16 * 4];
+    /** Converts a palette from the CLUT to an array of RGBA bytes.
+     * If there is no CLUT, returns a grayscale palette. */
+    private @Nonnull byte[] toRgbaPalette(int iPalette) {
+        int iColorCount = _iBitsPerPixel == 4 ? 16 : 256;
+        byte[] abRgbaPalette = new byte[iColorCount * 4];
         if (_clut == null) {
-            build16GrayRgbaPalette(abRgbaPalette);
+            if (iColorCount == 16)
+                build16GrayRgbaPalette(abRgbaPalette);
+            else
+                build256GrayRgbaPalette(abRgbaPalette);
         } else {
             // convert CLUT to array of RGBA bytes
-            for (int i = iPalette * 16, o = 0; o < abRgbaPalette.length; i++, o+=4) {
+            for (int i = iPalette * iColorCount, o = 0; o < abRgbaPalette.length; i++, o+=4) {
                 int iArgb = color16toColor32(_clut.getColor(i));
                 abRgbaPalette[o+0] = (byte)(iArgb >> 16);
                 abRgbaPalette[o+1] = (byte)(iArgb >>  8);
@@ -506,47 +624,47 @@ public class Tim {
                 abRgbaPalette[o+3] = (byte)(iArgb >> 24);
             }
         }
+        return abRgbaPalette;
+    }
 
-        IndexColorModel cm = new IndexColorModel(4, 16, abRgbaPalette, 0, true);
-
-        WritableRaster raster = Raster.createPackedRaster(DataBuffer.TYPE_BYTE,
-                                                          _iPixelWidth, _iPixelHeight,
-                                                          1, 4, null);
-        byte[] abBufferPackedIndexes = ((DataBufferByte)raster.getDataBuffer()).getData();
-        for (int i = 0; i < abBufferPackedIndexes.length; i++) {
-            int b = _abImageData[i];
-            // swap the nibbles
-            abBufferPackedIndexes[i] = (byte)(((b >> 4) & 0x0f) | ((b << 4) & 0xf0));
-        }
-        return new BufferedImage(cm, raster, false, null);
+    /** Creates the color model of a 4 or 8 bpp Tim for a palette. */
+    private @Nonnull IndexColorModel toIndexColorModel(int iPalette) {
+        if (_iBitsPerPixel == 4)
+            return new IndexColorModel(4, 16, toRgbaPalette(iPalette), 0, true);
+        else
+            return new IndexColorModel(8, 256, toRgbaPalette(iPalette), 0, true);
     }
 
-    /** Convert this 8 bpp Tim to a BufferedImage. */
-    private @Nonnull BufferedImage toBi8(int iPalette) {
-        byte[] abRgbaPalette = new byte[256 * 4];
-        if (_clut == null) {
-            build256GrayRgbaPalette(abRgbaPalette);
-        } else {
-            // convert CLUT to array of RGBA bytes
-            for (int i = iPalette * 256, o = 0; o < abRgbaPalette.length; i++, o+=4) {
-                int iArgb = color16toColor32(_clut.getColor(i));
-                abRgbaPalette[o+0] = (byte)(iArgb >> 16);
-                abRgbaPalette[o+1] = (byte)(iArgb >>  8);
-                abRgbaPalette[o+2] = (byte)(iArgb      );
-                abRgbaPalette[o+3] = (byte)(iArgb >> 24);
+    /** Unpacks the pixel indexes of a 4 or 8 bpp Tim into a raster
+     * compatible with {@link #toIndexColorModel(int)}. */
+    private @Nonnull WritableRaster toIndexedRaster() {
+        if (_iBitsPerPixel == 4) {
+            WritableRaster raster = Raster.createPackedRaster(DataBuffer.TYPE_BYTE,
+                                                              _iPixelWidth, _iPixelHeight,
+                                                              1, 4, null);
+            byte[] abBufferPackedIndexes = ((DataBufferByte)raster.getDataBuffer()).getData();
+            for (int i = 0; i < abBufferPackedIndexes.length; i++) {
+                int b = _abImageData[i];
+                // swap the nibbles
+                abBufferPackedIndexes[i] = (byte)(((b >> 4) & 0x0f) | ((b << 4) & 0xf0));
             }
+            return raster;
+        } else {
+            SampleModel sm = new PixelInterleavedSampleModel(DataBuffer.TYPE_BYTE,
+                                                             _iPixelWidth, _iPixelHeight,
+                                                             1, _iPixelWidth,
+                                                             new int[] {0});
+
+            WritableRaster raster = Raster.createWritableRaster(sm, null);
+            byte[] abBufferIndexes = ((DataBufferByte)raster.getDataBuffer()).getData();
+            System.arraycopy(_abImageData, 0, abBufferIndexes, 0, abBufferIndexes.length);
+            return raster;
         }
+    }
 
-        IndexColorModel cm = new IndexColorModel(8, 256, abRgbaPalette, 0, true);
-        SampleModel sm = new PixelInterleavedSampleModel(DataBuffer.TYPE_BYTE,
-                                                         _iPixelWidth, _iPixelHeight,
-                                                         1, _iPixelWidth,
-                                                         new int[] {0});
-
-        WritableRaster raster = Raster.createWritableRaster(sm, null);
-        byte[] abBufferIndexes = ((DataBufferByte)raster.getDataBuffer()).getData();
-        System.arraycopy(_abImageData, 0, abBufferIndexes, 0, abBufferIndexes.length);
-        return new BufferedImage(cm, raster, false, null);
+    /** Convert this 4 or 8 bpp Tim to a BufferedImage. */
+    private @Nonnull BufferedImage toBiIndexed(int iPalette) {
+        return new BufferedImage(toIndexColorModel(iPalette), toIndexedRaster(), false, null);
     }
 
     /** Convert this 24 bpp Tim to a BufferedImage. */
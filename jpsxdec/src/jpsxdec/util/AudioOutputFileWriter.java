@@ -159,6 +159,7 @@ public class AudioOutputFileWriter implements Runnable, Closeable {
         }
 
         _feedStream.write(abData, iOffset, iLength);
+        RunStats.bytesWritten(iLength);
 
         // again check if there has been an error in the writing thread
         synchronized (_threadInputStream) {
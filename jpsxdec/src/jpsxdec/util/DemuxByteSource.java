@@ -0,0 +1,414 @@
+/*
+ * jPSXdec: PlayStation 1 Media Decoder/Converter in Java
+ * Copyright (C) 2017-2019  Michael Sabin
+ * All rights reserved.
+ *
+ * Redistribution and use of the jPSXdec code or any derivative works are
+ * permitted provided that the following conditions are met:
+ *
+ *  * Redistributions may not be sold, nor may they be used in commercial
+ *    or revenue-generating business activities.
+ *
+ *  * Redistributions that are modified from the original source must
+ *    include the complete source code, including the source code for all
+ *    components used by a binary built from the modified sources. However, as
+ *    a special exception, the source code distributed need not include
+ *    anything that is normally distributed (in either source or binary form)
+ *    with the major components (compiler, kernel, and so on) of the operating
+ *    system on which the executable runs, unless that component itself
+ *    accompanies the executable.
+ *
+ *  * Redistributions must reproduce the above copyright notice, this list
+ *    of conditions and the following disclaimer in the documentation and/or
+ *    other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package jpsxdec.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import javax.annotation.Nonnull;
+
+/** A growing sequence of bytes built by pushing pieces of data into it,
+ * with random access by absolute position.
+ *<p>
+ * Each piece's bytes are copied out once when the piece is added, and kept
+ * as a list of slices (a scatter list). Values are read at absolute positions
+ * (position 0 is the first byte of the first piece ever added), even when
+ * they cross from one piece into the next. There is a read position for
+ * convenience, but marking is just remembering a position and resetting is
+ * setting it again.
+ *<p>
+ * Reading beyond the data currently available throws {@link NeedsMoreData}
+ * while the source is open, or {@link EOFException} once it is closed.
+ * Pieces that are no longer needed should be released with
+ * {@link #release(int)} so they can be garbage collected.
+ */
+public class DemuxByteSource<T extends DemuxedData.Piece> {
+
+    /** Thrown when the source is still open but the available data has
+     * been exhausted. */
+    public static class NeedsMoreData extends IOException {
+    }
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** Pieces [_iFirstPiece, _iPieceEnd) are live. */
+    @Nonnull
+    private Object[] _aoPieces = new Object[INITIAL_CAPACITY];
+    @Nonnull
+    private byte[][] _aabPieceData = new byte[INITIAL_CAPACITY][];
+    /** Absolute position of the first byte of each piece. */
+    @Nonnull
+    private int[] _aiPieceStart = new int[INITIAL_CAPACITY];
+    private int _iFirstPiece = 0;
+    private int _iPieceEnd = 0;
+
+    /** Absolute position just past the last byte added. */
+    private int _iEnd = 0;
+    /** Read position. */
+    private int _iPosition = 0;
+    /** Last piece found, since reads are usually near each other. */
+    private int _iCachedPiece = 0;
+
+    private boolean _blnClosed = false;
+
+    public DemuxByteSource() {
+    }
+
+    public DemuxByteSource(@Nonnull T firstPiece) {
+        addPiece(firstPiece);
+    }
+
+    /** @throws IllegalStateException if the source is closed. */
+    public void addPiece(@Nonnull T piece) throws IllegalStateException {
+        if (_blnClosed)
+            throw new IllegalStateException("Source is closed.");
+        if (_iPieceEnd == _aoPieces.length)
+            makeRoom();
+        byte[] abData = new byte[piece.getDemuxPieceSize()];
+        piece.copyDemuxPieceData(abData, 0);
+        _aoPieces[_iPieceEnd] = piece;
+        _aabPieceData[_iPieceEnd] = abData;
+        _aiPieceStart[_iPieceEnd] = _iEnd;
+        _iPieceEnd++;
+        _iEnd += abData.length;
+    }
+
+    /** Drops released pieces from the front of the arrays, and grows them
+     * if that doesn't free up enough room. */
+    private void makeRoom() {
+        int iLiveCount = _iPieceEnd - _iFirstPiece;
+        if (iLiveCount > _aoPieces.length / 2) {
+            int iNewCapacity = _aoPieces.length * 2;
+            Object[] aoPieces = new Object[iNewCapacity];
+            byte[][] aabPieceData = new byte[iNewCapacity][];
+            int[] aiPieceStart = new int[iNewCapacity];
+            System.arraycopy(_aoPieces, _iFirstPiece, aoPieces, 0, iLiveCount);
+            System.arraycopy(_aabPieceData, _iFirstPiece, aabPieceData, 0, iLiveCount);
+            System.arraycopy(_aiPieceStart, _iFirstPiece, aiPieceStart, 0, iLiveCount);
+            _aoPieces = aoPieces;
+            _aabPieceData = aabPieceData;
+            _aiPieceStart = aiPieceStart;
+        } else {
+            System.arraycopy(_aoPieces, _iFirstPiece, _aoPieces, 0, iLiveCount);
+            System.arraycopy(_aabPieceData, _iFirstPiece, _aabPieceData, 0, iLiveCount);
+            System.arraycopy(_aiPieceStart, _iFirstPiece, _aiPieceStart, 0, iLiveCount);
+            for (int i = iLiveCount; i < _iPieceEnd; i++) {
+                _aoPieces[i] = null;
+                _aabPieceData[i] = null;
+            }
+        }
+        _iCachedPiece = Math.max(0, _iCachedPiece - _iFirstPiece);
+        _iPieceEnd = iLiveCount;
+        _iFirstPiece = 0;
+    }
+
+    /** No more data can be added, and any reads beyond the data available
+     * will throw {@link EOFException}. */
+    public void close() {
+        _blnClosed = true;
+    }
+
+    public boolean isClosed() {
+        return _blnClosed;
+    }
+
+    // -------------------------------------------------------------------------
+    // Positions
+
+    public int getPosition() {
+        return _iPosition;
+    }
+
+    /** @throws IndexOutOfBoundsException if the position has been released
+     *                                    or is beyond the end. */
+    public void setPosition(int iPosition) {
+        if (iPosition < getStart() || iPosition > _iEnd)
+            throw new IndexOutOfBoundsException("Position " + iPosition + " outside of " + this);
+        _iPosition = iPosition;
+    }
+
+    /** Moves the read position forward.
+     * @throws NeedsMoreData if not enough data is available and the source is still open.
+     * @throws EOFException if not enough data is available and the source is closed. */
+    public void skip(int iBytes) throws NeedsMoreData, EOFException {
+        checkAvailable(_iPosition, iBytes);
+        _iPosition += iBytes;
+    }
+
+    /** Bytes available from the read position. */
+    public int available() {
+        return _iEnd - _iPosition;
+    }
+
+    /** Absolute position of the first byte that has not been released. */
+    public int getStart() {
+        return _iFirstPiece < _iPieceEnd ? _aiPieceStart[_iFirstPiece] : _iEnd;
+    }
+
+    /** Absolute position just past the last byte available. */
+    public int getEnd() {
+        return _iEnd;
+    }
+
+    /** Releases all pieces that end at or before the given position.
+     * Nothing before that position can be read after this. */
+    public void release(int iPosition) {
+        while (_iFirstPiece < _iPieceEnd - 1 &&
+               _aiPieceStart[_iFirstPiece + 1] <= iPosition &&
+               _aiPieceStart[_iFirstPiece] + _aabPieceData[_iFirstPiece].length <= iPosition)
+        {
+            _aoPieces[_iFirstPiece] = null;
+            _aabPieceData[_iFirstPiece] = null;
+            _iFirstPiece++;
+        }
+        if (_iCachedPiece < _iFirstPiece)
+            _iCachedPiece = _iFirstPiece;
+    }
+
+    // -------------------------------------------------------------------------
+    // Reading
+
+    /** Checks that the bytes are available without reading them.
+     * @throws NeedsMoreData if not all the bytes are available and the source is still open.
+     * @throws EOFException if not all the bytes are available and the source is closed. */
+    public void requireAvailable(int iPosition, int iLength) throws NeedsMoreData, EOFException {
+        checkAvailable(iPosition, iLength);
+    }
+
+    private void checkAvailable(int iPosition, int iLength) throws NeedsMoreData, EOFException {
+        if (iPosition < getStart())
+            throw new IndexOutOfBoundsException("Position " + iPosition + " has been released " + this);
+        if (iLength < 0)
+            throw new IllegalArgumentException("Negative length " + iLength);
+        if (iPosition > _iEnd - iLength) {
+            if (_blnClosed)
+                throw new EOFException();
+            else
+                throw new NeedsMoreData();
+        }
+    }
+
+    /** Finds the index of the piece containing the byte at the position.
+     * Assumes the position is available. */
+    private int findPiece(int iPosition) {
+        int i = _iCachedPiece;
+        if (i < _iFirstPiece || i >= _iPieceEnd)
+            i = _iFirstPiece;
+        // check the cached piece and the next one before searching
+        if (_aiPieceStart[i] <= iPosition) {
+            if (iPosition < _aiPieceStart[i] + _aabPieceData[i].length)
+                return i;
+            i++;
+            if (i < _iPieceEnd && iPosition < _aiPieceStart[i] + _aabPieceData[i].length) {
+                _iCachedPiece = i;
+                return i;
+            }
+        }
+        // find the last piece starting at or before the position
+        // (it will never be an empty piece)
+        int iLow = _iFirstPiece, iHigh = _iPieceEnd - 1;
+        while (iLow < iHigh) {
+            int iMid = (iLow + iHigh + 1) >>> 1;
+            if (_aiPieceStart[iMid] <= iPosition)
+                iLow = iMid;
+            else
+                iHigh = iMid - 1;
+        }
+        _iCachedPiece = iLow;
+        return iLow;
+    }
+
+    public int readUInt8(int iPosition) throws NeedsMoreData, EOFException {
+        checkAvailable(iPosition, 1);
+        int i = findPiece(iPosition);
+        return _aabPieceData[i][iPosition - _aiPieceStart[i]] & 0xff;
+    }
+
+    /** Reads bytes into a big-endian int.
+     * Most reads are within a single piece, so that is handled directly. */
+    private int readBE(int iPosition, int iBytes) throws NeedsMoreData, EOFException {
+        checkAvailable(iPosition, iBytes);
+        int iPiece = findPiece(iPosition);
+        byte[] abData = _aabPieceData[iPiece];
+        int iOfs = iPosition - _aiPieceStart[iPiece];
+        int iValue = 0;
+        if (iOfs + iBytes <= abData.length) {
+            for (int i = 0; i < iBytes; i++) {
+                iValue = (iValue << 8) | (abData[iOfs + i] & 0xff);
+            }
+        } else {
+            for (int i = 0; i < iBytes; i++, iOfs++) {
+                while (iOfs >= abData.length) {
+                    iOfs -= abData.length;
+                    abData = _aabPieceData[++iPiece];
+                }
+                iValue = (iValue << 8) | (abData[iOfs] & 0xff);
+            }
+        }
+        return iValue;
+    }
+
+    private static int swap16(int i) {
+        return ((i & 0xff) << 8) | ((i >> 8) & 0xff);
+    }
+
+    public int readUInt16LE(int iPosition) throws NeedsMoreData, EOFException {
+        return swap16(readBE(iPosition, 2));
+    }
+
+    public short readSInt16LE(int iPosition) throws NeedsMoreData, EOFException {
+        return (short)swap16(readBE(iPosition, 2));
+    }
+
+    public int readUInt16BE(int iPosition) throws NeedsMoreData, EOFException {
+        return readBE(iPosition, 2);
+    }
+
+    public short readSInt16BE(int iPosition) throws NeedsMoreData, EOFException {
+        return (short)readBE(iPosition, 2);
+    }
+
+    public int readSInt32LE(int iPosition) throws NeedsMoreData, EOFException {
+        return Integer.reverseBytes(readBE(iPosition, 4));
+    }
+
+    public long readUInt32LE(int iPosition) throws NeedsMoreData, EOFException {
+        return readSInt32LE(iPosition) & 0xffffffffL;
+    }
+
+    public int readSInt32BE(int iPosition) throws NeedsMoreData, EOFException {
+        return readBE(iPosition, 4);
+    }
+
+    public long readUInt32BE(int iPosition) throws NeedsMoreData, EOFException {
+        return readBE(iPosition, 4) & 0xffffffffL;
+    }
+
+    /** Copies bytes out of the source. */
+    public void copy(int iPosition, @Nonnull byte[] abOut, int iOutPos, int iLength)
+            throws NeedsMoreData, EOFException
+    {
+        checkAvailable(iPosition, iLength);
+        if (iLength == 0)
+            return;
+        int iPiece = findPiece(iPosition);
+        int iOfs = iPosition - _aiPieceStart[iPiece];
+        while (iLength > 0) {
+            byte[] abData = _aabPieceData[iPiece];
+            int iCopy = Math.min(iLength, abData.length - iOfs);
+            System.arraycopy(abData, iOfs, abOut, iOutPos, iCopy);
+            iOutPos += iCopy;
+            iLength -= iCopy;
+            iOfs = 0;
+            iPiece++;
+        }
+    }
+
+    public @Nonnull byte[] readByteArray(int iPosition, int iLength)
+            throws NeedsMoreData, EOFException
+    {
+        byte[] ab = new byte[iLength];
+        copy(iPosition, ab, 0, iLength);
+        return ab;
+    }
+
+    // -------------------------------------------------------------------------
+    // Pieces
+
+    /** Returns the piece that the read position is in. When the read position
+     * is at the boundary between two pieces, it is considered to still be at
+     * the end of the earlier piece (the end of one piece = the start of the next).
+     * @throws IllegalStateException if there are no pieces. */
+    public @Nonnull T getCurrentPiece() {
+        if (_iFirstPiece == _iPieceEnd)
+            throw new IllegalStateException("No pieces");
+        int iPosition = _iPosition;
+        if (iPosition > getStart())
+            iPosition--;
+        return getPiece(findPiece(Math.min(iPosition, _iEnd - 1)));
+    }
+
+    /** Offset of the read position in {@link #getCurrentPiece()}. */
+    public int getOffsetInCurrentPiece() {
+        int iPosition = _iPosition;
+        if (iPosition > getStart())
+            iPosition--;
+        int iPiece = findPiece(Math.min(iPosition, _iEnd - 1));
+        return _iPosition - _aiPieceStart[iPiece];
+    }
+
+    @SuppressWarnings("unchecked")
+    private @Nonnull T getPiece(int iIndex) {
+        return (T)_aoPieces[iIndex];
+    }
+
+    /** Returns the pieces holding the data between the positions.
+     * @param iStartPosition  Absolute position of the first byte.
+     * @param iEndPosition    Absolute position just past the last byte. */
+    public @Nonnull DemuxedData<T> getDemux(int iStartPosition, int iEndPosition) {
+        if (iStartPosition < getStart() || iEndPosition > _iEnd || iStartPosition > iEndPosition)
+            throw new IndexOutOfBoundsException("Range " + iStartPosition + "-" + iEndPosition + " outside of " + this);
+        if (_iFirstPiece == _iPieceEnd)
+            throw new IllegalStateException("No pieces");
+
+        if (iStartPosition == iEndPosition) {
+            int iPiece = iStartPosition < _iEnd ? findPiece(iStartPosition) : _iPieceEnd - 1;
+            int iOfs = iStartPosition - _aiPieceStart[iPiece];
+            return new DemuxedData<T>(Collections.singletonList(getPiece(iPiece)), iOfs, iOfs);
+        }
+
+        int iStartPiece = findPiece(iStartPosition);
+        int iEndPiece = findPiece(iEndPosition - 1);
+        ArrayList<T> pieces = new ArrayList<T>(iEndPiece - iStartPiece + 1);
+        for (int i = iStartPiece; i <= iEndPiece; i++) {
+            pieces.add(getPiece(i));
+        }
+        return new DemuxedData<T>(pieces,
+                                  iStartPosition - _aiPieceStart[iStartPiece],
+                                  iEndPosition - _aiPieceStart[iEndPiece]);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("position %d of [%d-%d) %d pieces %s",
+                             _iPosition, getStart(), _iEnd, _iPieceEnd - _iFirstPiece,
+                             _blnClosed ? "closed" : "open");
+    }
+
+}
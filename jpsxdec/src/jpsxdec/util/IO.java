@@ -689,6 +689,16 @@ public final class IO {
         makeDirs(f.getParentFile());
     }
 
+    /** If the two names refer to the same file. Compares the canonical paths,
+     * or the absolute paths if either can't be made canonical. */
+    public static boolean isSameFile(@Nonnull File a, @Nonnull File b) {
+        try {
+            return a.getCanonicalFile().equals(b.getCanonicalFile());
+        } catch (IOException ex) {
+            return a.getAbsoluteFile().equals(b.getAbsoluteFile());
+        }
+    }
+
     private static final byte[] ZEROS = new byte[1024];
     public static void writeZeros(@Nonnull OutputStream stream, int iCount) throws IOException
     {
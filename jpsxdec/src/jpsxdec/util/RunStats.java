@@ -0,0 +1,266 @@
+/*
+ * jPSXdec: PlayStation 1 Media Decoder/Converter in Java
+ * Copyright (C) 2019  Michael Sabin
+ * All rights reserved.
+ *
+ * Redistribution and use of the jPSXdec code or any derivative works are
+ * permitted provided that the following conditions are met:
+ *
+ *  * Redistributions may not be sold, nor may they be used in commercial
+ *    or revenue-generating business activities.
+ *
+ *  * Redistributions that are modified from the original source must
+ *    include the complete source code, including the source code for all
+ *    components used by a binary built from the modified sources. However, as
+ *    a special exception, the source code distributed need not include
+ *    anything that is normally distributed (in either source or binary form)
+ *    with the major components (compiler, kernel, and so on) of the operating
+ *    system on which the executable runs, unless that component itself
+ *    accompanies the executable.
+ *
+ *  * Redistributions must reproduce the above copyright notice, this list
+ *    of conditions and the following disclaimer in the documentation and/or
+ *    other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package jpsxdec.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nonnull;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/** Counters and timers for where the time goes during a run.
+ * <p>
+ * Disabled by default, in which case every instrumentation point is a
+ * single static field check. Once {@link #enable()}d, the counters are also
+ * available through JMX as {@value #MBEAN_NAME}. */
+public class RunStats implements RunStatsMBean {
+
+    private static final Logger LOG = Logger.getLogger(RunStats.class.getName());
+
+    public static final String MBEAN_NAME = "jpsxdec:type=RunStats";
+
+    private static volatile boolean _blnEnabled = false;
+    private static final RunStats INSTANCE = new RunStats();
+
+    public static boolean enabled() {
+        return _blnEnabled;
+    }
+
+    /** Resets all counters, starts counting, and registers the MBean. */
+    public static synchronized void enable() {
+        INSTANCE.reset();
+        if (_blnEnabled)
+            return;
+        _blnEnabled = true;
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(MBEAN_NAME);
+            if (!server.isRegistered(name))
+                server.registerMBean(INSTANCE, name);
+        } catch (JMException ex) {
+            // the counters still work without JMX
+            LOG.log(Level.WARNING, "Unable to register " + MBEAN_NAME, ex);
+        }
+    }
+
+    public static @Nonnull RunStats get() {
+        return INSTANCE;
+    }
+
+    // -------------------------------------------------------------------------
+    // Instrumentation points
+
+    /** Sectors handed out by a disc reader. */
+    public static void sectorsRead(int iCount) {
+        if (_blnEnabled)
+            INSTANCE._sectorsRead.addAndGet(iCount);
+    }
+
+    /** Time spent reading from the disc image.
+     * @param lngTimerStart from {@link #startTimer()} */
+    public static void discRead(long lngTimerStart) {
+        if (_blnEnabled)
+            INSTANCE._discReadNanos.addAndGet(System.nanoTime() - lngTimerStart);
+    }
+
+    /** A sector finished going through all the sector claimers.
+     * Callers should check {@link #enabled()} before building the type name. */
+    public static void sectorIdentified(@Nonnull String sType) {
+        if (_blnEnabled)
+            INSTANCE.increment(sType);
+    }
+
+    public static void frameDemuxed() {
+        if (_blnEnabled)
+            INSTANCE._framesDemuxed.incrementAndGet();
+    }
+
+    /** @param lngTimerStart from {@link #startTimer()} */
+    public static void frameDecoded(long lngTimerStart) {
+        if (_blnEnabled) {
+            INSTANCE._framesDecoded.incrementAndGet();
+            INSTANCE._decodeNanos.addAndGet(System.nanoTime() - lngTimerStart);
+        }
+    }
+
+    /** A frame was written, either to its own file or into a video. */
+    public static void frameWritten(long lngBytes) {
+        if (_blnEnabled) {
+            INSTANCE._framesWritten.incrementAndGet();
+            INSTANCE._bytesWritten.addAndGet(lngBytes);
+        }
+    }
+
+    public static void audioDecoded(int iSampleFrames) {
+        if (_blnEnabled)
+            INSTANCE._audioSampleFrames.addAndGet(iSampleFrames);
+    }
+
+    /** Any other data written to output files. */
+    public static void bytesWritten(long lngBytes) {
+        if (_blnEnabled)
+            INSTANCE._bytesWritten.addAndGet(lngBytes);
+    }
+
+    /** Convenience for timing only when enabled.
+     * @return {@link System#nanoTime()} if enabled, otherwise 0. */
+    public static long startTimer() {
+        return _blnEnabled ? System.nanoTime() : 0;
+    }
+
+    // -------------------------------------------------------------------------
+
+    private volatile long _lngStartNanos = System.nanoTime();
+    private final AtomicLong _sectorsRead = new AtomicLong();
+    private final AtomicLong _discReadNanos = new AtomicLong();
+    private final ConcurrentMap<String, AtomicLong> _sectorsIdentified = new ConcurrentHashMap<String, AtomicLong>();
+    private final AtomicLong _framesDemuxed = new AtomicLong();
+    private final AtomicLong _framesDecoded = new AtomicLong();
+    private final AtomicLong _decodeNanos = new AtomicLong();
+    private final AtomicLong _framesWritten = new AtomicLong();
+    private final AtomicLong _audioSampleFrames = new AtomicLong();
+    private final AtomicLong _bytesWritten = new AtomicLong();
+
+    private RunStats() {
+    }
+
+    private void increment(@Nonnull String sKey) {
+        AtomicLong counter = _sectorsIdentified.get(sKey);
+        if (counter == null) {
+            AtomicLong newCounter = new AtomicLong();
+            counter = _sectorsIdentified.putIfAbsent(sKey, newCounter);
+            if (counter == null)
+                counter = newCounter;
+        }
+        counter.incrementAndGet();
+    }
+
+    private double perSecond(long lngCount) {
+        long lngElapsed = System.nanoTime() - _lngStartNanos;
+        if (lngElapsed <= 0)
+            return 0;
+        return lngCount * 1e9 / lngElapsed;
+    }
+
+    public boolean isEnabled() {
+        return _blnEnabled;
+    }
+
+    public long getElapsedMillis() {
+        return (System.nanoTime() - _lngStartNanos) / 1000000;
+    }
+
+    public long getSectorsRead() {
+        return _sectorsRead.get();
+    }
+
+    public double getSectorsReadPerSecond() {
+        return perSecond(_sectorsRead.get());
+    }
+
+    public long getDiscReadMillis() {
+        return _discReadNanos.get() / 1000000;
+    }
+
+    /** Sector type to number of sectors identified as that type, sorted by type. */
+    public @Nonnull Map<String, Long> getSectorsIdentifiedMap() {
+        TreeMap<String, Long> copy = new TreeMap<String, Long>();
+        for (Map.Entry<String, AtomicLong> entry : _sectorsIdentified.entrySet()) {
+            copy.put(entry.getKey(), entry.getValue().get());
+        }
+        return copy;
+    }
+
+    public @Nonnull String[] getSectorsIdentified() {
+        ArrayList<String> list = new ArrayList<String>();
+        for (Map.Entry<String, Long> entry : getSectorsIdentifiedMap().entrySet()) {
+            list.add(entry.getKey() + "=" + entry.getValue());
+        }
+        return list.toArray(new String[list.size()]);
+    }
+
+    public long getFramesDemuxed() {
+        return _framesDemuxed.get();
+    }
+
+    public long getFramesDecoded() {
+        return _framesDecoded.get();
+    }
+
+    public long getDecodeMillis() {
+        return _decodeNanos.get() / 1000000;
+    }
+
+    public long getFramesWritten() {
+        return _framesWritten.get();
+    }
+
+    public double getFramesWrittenPerSecond() {
+        return perSecond(_framesWritten.get());
+    }
+
+    public long getAudioSampleFramesDecoded() {
+        return _audioSampleFrames.get();
+    }
+
+    public long getBytesWritten() {
+        return _bytesWritten.get();
+    }
+
+    public void reset() {
+        _sectorsRead.set(0);
+        _discReadNanos.set(0);
+        _sectorsIdentified.clear();
+        _framesDemuxed.set(0);
+        _framesDecoded.set(0);
+        _decodeNanos.set(0);
+        _framesWritten.set(0);
+        _audioSampleFrames.set(0);
+        _bytesWritten.set(0);
+        _lngStartNanos = System.nanoTime();
+    }
+}
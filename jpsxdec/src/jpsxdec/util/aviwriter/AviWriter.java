@@ -55,6 +55,7 @@ import javax.sound.sampled.AudioSystem;
 import jpsxdec.Version;
 import jpsxdec.util.IO;
 import jpsxdec.util.Misc;
+import jpsxdec.util.RunStats;
 import jpsxdec.util.aviwriter.AVIOLDINDEX.AVIOLDINDEXENTRY;
 
 /**
@@ -409,6 +410,7 @@ public abstract class AviWriter implements Closeable {
                 _lngSampleCount += i / _audioFormat.getFrameSize();
                 _aviFile.write(_abWriteBuffer, 0, i);
             }
+            RunStats.bytesWritten(iTotal);
             if (iTotal % _audioFormat.getFrameSize() != 0)
                 throw new RuntimeException("Read and wrote partial sample.");
 
@@ -455,6 +457,7 @@ public abstract class AviWriter implements Closeable {
 
         // end the chunk
         data_size.endChunk(_aviFile);
+        RunStats.bytesWritten(iLen);
 
         _lngSampleCount += iLen / _audioFormat.getFrameSize();
 
@@ -472,10 +475,18 @@ public abstract class AviWriter implements Closeable {
 
     /** Subclasses will use this method to write each frame's data. */
     protected void writeFrameChunk(@Nonnull byte[] abData, int iOfs, int iLen) throws AviIsClosedException, IOException {
+        writeFrameChunk(new byte[][] {abData}, new int[] {iOfs}, new int[] {iLen});
+    }
+
+    /** Writes a frame whose data is split across several buffers, one after
+     * the other, so it doesn't need to be copied into a single buffer first. */
+    protected void writeFrameChunk(@Nonnull byte[][] aabData, @Nonnull int[] aiOfs, @Nonnull int[] aiLen)
+            throws AviIsClosedException, IOException
+    {
         if (_aviFile == null) throw new AviIsClosedException();
 
         if (DEBUG) {
-            System.out.println("Frame " + _lngFrameCount + " @" + _aviFile.getFilePointer() + " " + md5(abData, iOfs, iLen));
+            System.out.println("Frame " + _lngFrameCount + " @" + _aviFile.getFilePointer() + " " + md5(aabData, aiOfs, aiLen));
         }
 
         AVIOLDINDEXENTRY idxentry = new AVIOLDINDEXENTRY();
@@ -492,12 +503,17 @@ public abstract class AviWriter implements Closeable {
         Chunk data_size = new Chunk(_aviFile, sChunkId);
 
             // write the data
-            _aviFile.write(abData, iOfs, iLen);
+            int iLen = 0;
+            for (int i = 0; i < aabData.length; i++) {
+                _aviFile.write(aabData[i], aiOfs[i], aiLen[i]);
+                iLen += aiLen[i];
+            }
 
         // end the chunk
         data_size.endChunk(_aviFile);
         
         _lngFrameCount++;
+        RunStats.frameWritten(iLen);
 
         // add the index to the list
         idxentry.dwSize = data_size.getSize();
@@ -770,9 +786,14 @@ public abstract class AviWriter implements Closeable {
      * @see #DEBUG
      */
     private static @Nonnull String md5(@Nonnull byte[] abData, int iOfs, int iLen) {
+        return md5(new byte[][] {abData}, new int[] {iOfs}, new int[] {iLen});
+    }
+
+    private static @Nonnull String md5(@Nonnull byte[][] aabData, @Nonnull int[] aiOfs, @Nonnull int[] aiLen) {
         try {
             MessageDigest md = MessageDigest.getInstance("md5");
-            md.update(abData, iOfs, iLen);
+            for (int i = 0; i < aabData.length; i++)
+                md.update(aabData[i], aiOfs[i], aiLen[i]);
             BigInteger number = new BigInteger(1, md.digest());
             String sHashText = number.toString(16);
             sHashText = Misc.zeroPadString(sHashText, 32, false);
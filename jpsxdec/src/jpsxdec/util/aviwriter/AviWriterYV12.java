@@ -85,6 +85,9 @@ public class AviWriterYV12 extends AviWriter {
         _iFrameByteSize = _iFrameYByteSize + _iFrameCByteSize * 2;
     }
 
+    /** Writes a frame from separate Y, Cb, and Cr planes (each with no
+     * padding between lines). The planes are written as they are, without
+     * being copied into a frame buffer first. */
     public void write(@Nonnull byte[] abY, @Nonnull byte[] abCb, @Nonnull byte[] abCr)
             throws IOException
     {
@@ -96,14 +99,10 @@ public class AviWriterYV12 extends AviWriter {
         if (abCr.length < _iFrameCByteSize)
             throw new IllegalArgumentException("Cr data wrong size.");
 
-        if (_abWriteBuffer == null || _abWriteBuffer.length < _iFrameByteSize)
-            _abWriteBuffer = new byte[_iFrameByteSize];
-        
-        System.arraycopy(abY, 0, _abWriteBuffer, 0, _iFrameYByteSize);
-        System.arraycopy(abCr, 0, _abWriteBuffer, _iFrameYByteSize, _iFrameCByteSize);
-        System.arraycopy(abCb, 0, _abWriteBuffer, _iFrameYByteSize+_iFrameCByteSize, _iFrameCByteSize);
-
-        writeFrameChunk(_abWriteBuffer, 0, _iFrameByteSize);
+        // YV12 is Y, then Cr, then Cb
+        writeFrameChunk(new byte[][] {abY, abCr, abCb},
+                        new int[] {0, 0, 0},
+                        new int[] {_iFrameYByteSize, _iFrameCByteSize, _iFrameCByteSize});
     }
     
     @Override
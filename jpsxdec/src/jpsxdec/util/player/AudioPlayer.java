@@ -97,6 +97,13 @@ class AudioPlayer extends VideoTimer implements Runnable, LineListener {
 
     private SourceDataLine _dataLine;
 
+    /** Added to the line position to get the play time. The line position
+     * keeps counting after seeking, so this is moved instead. */
+    private long _lngSeekOffsetNanos = 0;
+    /** If the audio thread is holding audio that hasn't been written to the
+     * line yet. */
+    private volatile boolean _blnHoldingAudio = false;
+
     // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
     // Experiment with using the system clock and intermittently sync with the audio time
     private boolean _blnUseAudioAndSystemClockTogether = false;
@@ -192,11 +199,17 @@ class AudioPlayer extends VideoTimer implements Runnable, LineListener {
         try {
             byte[] abCopyBuffer = new byte[_iCopyBufferSize];
             int iBytesToWrite = 0, iBytesWritten = 0;
+            int iBufferSeekGeneration = getSeekGeneration();
             while (true) {
                 if (!_dataLine.isOpen()) {
                     break;
                 }
 
+                if (iBufferSeekGeneration != getSeekGeneration()) {
+                    // playback moved, drop audio read before the seek
+                    iBytesWritten = iBytesToWrite;
+                }
+
                 if (iBytesWritten < iBytesToWrite) {
                     int iToWrite = iBytesToWrite - iBytesWritten;
                     int iFrameRemainder = iToWrite % _format.getFrameSize();
@@ -226,7 +239,10 @@ class AudioPlayer extends VideoTimer implements Runnable, LineListener {
 
                     }
                 } else {
+                    _blnHoldingAudio = false;
                     iBytesToWrite = _pipedInputStream.read(abCopyBuffer);
+                    iBufferSeekGeneration = getSeekGeneration();
+                    _blnHoldingAudio = iBytesToWrite > 0;
                     if (DEBUG) System.out.println("Got " + iBytesToWrite + " byts of audio");
                     iBytesWritten = 0;
                     if (iBytesToWrite < 0) {
@@ -263,12 +279,55 @@ class AudioPlayer extends VideoTimer implements Runnable, LineListener {
         if (_dataLine != null) {
             long lngNow = System.nanoTime();
             _lngLastSync = lngNow;
-            _lngStartTime = lngNow - (long)(_dataLine.getLongFramePosition() * _dblSamplesPerNano);
+            _lngStartTime = lngNow - getLineNanoTime();
             _dataLine.start();
         }
         super.go();
     }
 
+    @Override
+    public synchronized void seek(long lngNanos) {
+        if (_dataLine != null) {
+            // stopping also frees the audio thread if it is blocked writing
+            _dataLine.stop();
+            _dataLine.flush();
+            _lngSeekOffsetNanos = lngNanos - (long)(_dataLine.getLongFramePosition() * _dblSamplesPerNano);
+            if (!isPaused()) {
+                long lngNow = System.nanoTime();
+                _lngLastSync = lngNow;
+                _lngStartTime = lngNow - lngNanos;
+                _dataLine.start();
+            }
+        } else {
+            _lngSeekOffsetNanos = lngNanos;
+        }
+        super.seek(lngNanos);
+    }
+
+    /** Throws away any audio waiting to be written to the line.
+     * Should only be called when nothing is writing audio, or to free up
+     * a writer that is blocked. */
+    public void discardBuffered() {
+        try {
+            int iAvailable;
+            while ((iAvailable = _pipedInputStream.available()) > 0) {
+                _pipedInputStream.skip(iAvailable);
+            }
+        } catch (IOException ex) {
+            // the pipe was closed, so there is nothing to discard
+        }
+    }
+
+    /** If all audio has been written to the line. */
+    public boolean isBufferEmpty() {
+        try {
+            return !_blnHoldingAudio && _pipedInputStream.available() == 0;
+        } catch (IOException ex) {
+            // the pipe was closed
+            return true;
+        }
+    }
+
     @Override
     public synchronized void pause() {
         // synchronized to keep the dataline state in sync with the VideoTimer state
@@ -304,13 +363,20 @@ class AudioPlayer extends VideoTimer implements Runnable, LineListener {
         super.terminate();
     }
 
+    /** Play time according to the audio line. */
+    private long getLineNanoTime() {
+        return (long)(_dataLine.getLongFramePosition() * _dblSamplesPerNano) + _lngSeekOffsetNanos;
+    }
+
     public synchronized long getNanoTime() {
-        if (!_blnUseAudioAndSystemClockTogether || isPaused() || isTerminated()) {
-            return (long)(_dataLine.getLongFramePosition() * _dblSamplesPerNano);
+        if (_dataLine == null) {
+            return _lngSeekOffsetNanos;
+        } else if (!_blnUseAudioAndSystemClockTogether || isPaused() || isTerminated()) {
+            return getLineNanoTime();
         } else {
             long lngNow = System.nanoTime();
             if (lngNow - _lngLastSync > RESYNC_EVERY_NANOS) {
-                long lngPlayTime = (long)(_dataLine.getLongFramePosition() * _dblSamplesPerNano);
+                long lngPlayTime = getLineNanoTime();
                 long lngOldStartTime = _lngStartTime;
                 _lngStartTime = lngNow - lngPlayTime;
                 _lngLastSync = lngNow;
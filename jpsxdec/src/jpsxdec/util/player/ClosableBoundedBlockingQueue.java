@@ -158,7 +158,7 @@ public class ClosableBoundedBlockingQueue<T> {
 
                         // all else failed, now wait for room in the queue
                         // but don't wait forever, and do all checks again in case the other thread died
-                        boolean dontCareWhy = _notEmpty.await(1, TimeUnit.SECONDS);
+                        boolean dontCareWhy = _notFull.await(1, TimeUnit.SECONDS);
                     }
                 }
             }
@@ -264,6 +264,34 @@ public class ClosableBoundedBlockingQueue<T> {
         }
     }
 
+    /**
+     * Discards everything in the queue and wakes any threads waiting to add.
+     * Does nothing if the queue is closed or has been marked to close when
+     * empty, since the end of the data must not be lost.
+     * @return if the queue was cleared
+     */
+    public boolean clear() {
+        _lock.lock();
+        try {
+            if (_blnIsClosed || _blnIsPoisoned)
+                return false;
+            _queue.clear();
+            _notFull.signalAll();
+            return true;
+        } finally {
+            _lock.unlock();
+        }
+    }
+
+    public boolean isEmpty() {
+        _lock.lock();
+        try {
+            return _queue.isEmpty();
+        } finally {
+            _lock.unlock();
+        }
+    }
+
     public boolean isClosed() {
         return _blnIsClosed;
     }
@@ -46,10 +46,13 @@ class DecodableFrame<T> {
     /** Returns the time the frame should be displayed, in nano-seconds
      *  from the beginning of the movie. */
     public final long lngPresentationNanos;
+    /** {@link VideoTimer#getSeekGeneration()} when the frame was read. */
+    public final int iSeekGeneration;
 
-    public DecodableFrame(@Nonnull T frame, long lngPresentationNanos) {
+    public DecodableFrame(@Nonnull T frame, long lngPresentationNanos, int iSeekGeneration) {
         this.frame = frame;
         this.lngPresentationNanos = lngPresentationNanos;
+        this.iSeekGeneration = iSeekGeneration;
     }
 
 }
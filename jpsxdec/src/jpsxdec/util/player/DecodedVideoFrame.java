@@ -49,6 +49,8 @@ class DecodedVideoFrame {
     @Nonnull
     public final BufferedImage image;
     public long lngPresentationNanos = -1;
+    /** {@link VideoTimer#getSeekGeneration()} when the frame was read. */
+    public int iSeekGeneration = -1;
 
     public DecodedVideoFrame(int iWidth, int iHeight) {
         // TODO experiment with how much time it takes to create this
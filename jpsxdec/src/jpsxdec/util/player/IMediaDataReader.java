@@ -56,6 +56,9 @@ import javax.annotation.Nonnull;
  * pending audio/video to finish playing, or throw {@link StopPlayingException}
  * to immediately terminate all playback and discard any buffered data.
  *
+ * Readers that can start reading in the middle of the media should
+ * implement {@link ISeekableMediaDataReader}.
+ *
  * Note that the {@link PlayController} given in the
  * {@link #demuxThread(PlayController)} is the same one that this reader is set
  * in {@link PlayController#setReader(IMediaDataReader)}, so use it either way.
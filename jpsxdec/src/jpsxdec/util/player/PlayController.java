@@ -60,6 +60,9 @@ import jpsxdec.util.Fraction;
 *
 * After that is complete call {@link #activate()} to initialize and start the
 * player, but paused. Run {@link #unpause()} to start the playback.
+*
+* If the reader implements {@link ISeekableMediaDataReader}, the playback
+* can also jump around with {@link #seek(long)}.
 */
 public class PlayController {
 
@@ -167,6 +170,72 @@ public class PlayController {
         return _videoTimer.isPaused();
     }
 
+    public boolean canSeek() {
+        return _readerThread.canSeek();
+    }
+
+    /**
+     * Jump the playback to the time, in nano-seconds from the start.
+     * The playback will stay paused or playing. The reader may choose to
+     * start at a slightly different time.
+     * @return false if seeking isn't possible, either because the reader
+     *         isn't seekable, or the playback is ending or closed.
+     */
+    public boolean seek(long lngPresentationNanos) {
+        if (!_readerThread.requestSeek(lngPresentationNanos))
+            return false;
+        // the reader may be blocked writing to a full buffer
+        // so free it up to see the request
+        discardBuffered();
+        return true;
+    }
+
+    /**
+     * Should only be called by the {@link IMediaDataReader}.
+     * If a seek was requested so the reader should stop reading and return.
+     */
+    public boolean isSeekRequested() {
+        return _readerThread.isSeekRequested();
+    }
+
+    /**
+     * Current play time, in nano-seconds from the start.
+     */
+    public long getPlayTimeNanos() {
+        return _videoTimer.getNanoTime();
+    }
+
+    /**
+     * Length of the playback in nano-seconds, or -1 if unknown.
+     * Only known if the reader is seekable.
+     */
+    public long getDurationNanos() {
+        if (_readerThread.canSeek())
+            return ((ISeekableMediaDataReader)_readerThread.getReader()).getDurationNanos();
+        else
+            return -1;
+    }
+
+    /** Called by the {@link ReaderThread} once the reader is ready to start
+     * reading at the new time. */
+    void resync(long lngPresentationNanos) {
+        discardBuffered();
+        _videoTimer.seek(lngPresentationNanos);
+    }
+
+    private void discardBuffered() {
+        if (_videoProcessorThread != null)
+            _videoProcessorThread.discardBuffered();
+        if (_audPlayer != null)
+            _audPlayer.discardBuffered();
+    }
+
+    /** If everything that was read has been presented. */
+    boolean isDrained() {
+        return (_videoProcessorThread == null || _videoProcessorThread.isEmpty()) &&
+               (_audPlayer == null || _audPlayer.isBufferEmpty());
+    }
+
     public boolean hasAudio() {
         return (_audPlayer != null);
     }
@@ -40,9 +40,15 @@ package jpsxdec.util.player;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 
-/** Handles the running the reader supplied by the user. */
+/** Handles the running the reader supplied by the user.
+ * If the reader is seekable, the thread stays alive after the reader runs out
+ * of data until everything has been presented, in case there is a seek
+ * request. */
 class ReaderThread implements Runnable {
 
+    /** How often to check if everything has been presented. */
+    private static final long WAIT_FOR_END_MILLIS = 100;
+
     @CheckForNull
     private final AudioPlayer _audioPlayer;
     @CheckForNull
@@ -54,6 +60,12 @@ class ReaderThread implements Runnable {
 
     private IMediaDataReader _reader;
 
+    /** Time of a pending seek request, or -1 if there is none. */
+    private volatile long _lngSeekRequestNanos = -1;
+    /** Once the end of the data has been sent on, seeking is no longer
+     * possible. */
+    private boolean _blnFinished = false;
+
     public ReaderThread(@CheckForNull AudioPlayer audioPlayer, 
                         @CheckForNull VideoProcessor videoProcessor,
                         @Nonnull PlayController controller)
@@ -68,15 +80,46 @@ class ReaderThread implements Runnable {
         _reader = reader;
     }
 
+    public @CheckForNull IMediaDataReader getReader() {
+        return _reader;
+    }
+
     public void start() {
         if (_reader == null)
             throw new IllegalStateException();
         _thread.start();
     }
 
+    public boolean canSeek() {
+        return _reader instanceof ISeekableMediaDataReader &&
+               ((ISeekableMediaDataReader)_reader).canSeek();
+    }
+
+    /** @return false if seeking isn't possible. */
+    public synchronized boolean requestSeek(long lngNanos) {
+        if (lngNanos < 0)
+            throw new IllegalArgumentException();
+        if (!canSeek() || _blnFinished || _controller.isClosed())
+            return false;
+        _lngSeekRequestNanos = lngNanos;
+        this.notifyAll();
+        return true;
+    }
+
+    public boolean isSeekRequested() {
+        return _lngSeekRequestNanos >= 0;
+    }
+
     public void run() {
         try {
-            _reader.demuxThread(_controller);
+            while (true) {
+                _reader.demuxThread(_controller);
+                long lngSeekNanos = waitForSeekOrEnd();
+                if (lngSeekNanos < 0)
+                    break;
+                long lngStartNanos = ((ISeekableMediaDataReader)_reader).seekTo(lngSeekNanos);
+                _controller.resync(lngStartNanos);
+            }
         } catch (StopPlayingException ex) {
             // ok
             // immediately terminate
@@ -89,10 +132,29 @@ class ReaderThread implements Runnable {
             _controller.terminate();
             return;
         } 
+        // the end is only sent on after there is no going back
         if (_audioPlayer != null)
             _audioPlayer.finish();
         if (_videoProcessor != null)
             _videoProcessor.finish();
     }
 
+    /** After the reader returns, waits until either a seek is requested, or
+     * everything has been presented.
+     * @return the requested seek time, or -1 if playback should finish. */
+    private synchronized long waitForSeekOrEnd() throws InterruptedException {
+        while (true) {
+            if (_lngSeekRequestNanos >= 0) {
+                long lngSeekNanos = _lngSeekRequestNanos;
+                _lngSeekRequestNanos = -1;
+                return lngSeekNanos;
+            }
+            if (!canSeek() || _controller.isClosed() || _controller.isDrained()) {
+                _blnFinished = true;
+                return -1;
+            }
+            this.wait(WAIT_FOR_END_MILLIS);
+        }
+    }
+
 }
@@ -45,6 +45,9 @@ class VideoClock extends VideoTimer implements Runnable {
 
     private long _lngStartTime = -1;
     private long _lngPausedTime = -1;
+    /** Where the clock will start when first played.
+     * Only changes if seeking before playing. */
+    private long _lngInitialTime = 0;
     @Nonnull
     private final Thread _eventThread;
     // TODO want unbounded queue
@@ -64,7 +67,7 @@ class VideoClock extends VideoTimer implements Runnable {
     public synchronized void go() {
         if (_lngStartTime < 0) {
             // initial start
-            _lngStartTime = System.nanoTime();
+            _lngStartTime = System.nanoTime() - _lngInitialTime;
         } else if (_lngPausedTime >= 0) {
             // unpause
             // removed the amount of time paused from the start time
@@ -87,9 +90,20 @@ class VideoClock extends VideoTimer implements Runnable {
         _eventQueue.addWithCapacityCheck(PlayController.Event.Play);
     }
 
+    @Override
+    public synchronized void seek(long lngNanos) {
+        if (_lngStartTime < 0)
+            _lngInitialTime = lngNanos;
+        else if (_lngPausedTime >= 0)
+            _lngStartTime = _lngPausedTime - lngNanos;
+        else
+            _lngStartTime = System.nanoTime() - lngNanos;
+        super.seek(lngNanos);
+    }
+
     public synchronized long getNanoTime() {
         if (_lngStartTime < 0)
-            return 0;
+            return _lngInitialTime;
         else if (_lngPausedTime >= 0)
             return _lngPausedTime - _lngStartTime;
         else
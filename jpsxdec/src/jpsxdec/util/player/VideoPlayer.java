@@ -77,7 +77,9 @@ class VideoPlayer implements Runnable {
         try {
             DecodedVideoFrame frame;
             while ((frame = _frameDisplayQueue.take()) != null) {
-                VideoTimer.ShowFrame showFrame = _vidTimer.waitToPresentFrame(frame.lngPresentationNanos);
+                if (frame.iSeekGeneration != _vidTimer.getSeekGeneration())
+                    continue; // read before the last seek
+                VideoTimer.ShowFrame showFrame = _vidTimer.waitToPresentFrame(frame.lngPresentationNanos, frame.iSeekGeneration);
                 if (showFrame == VideoTimer.ShowFrame.CLOSED) {
                     break;
                 } else if (showFrame == VideoTimer.ShowFrame.NO) {
@@ -108,6 +110,14 @@ class VideoPlayer implements Runnable {
         return _screen;
     }
 
+    public void discardBuffered() {
+        _frameDisplayQueue.clear();
+    }
+
+    public boolean isEmpty() {
+        return _frameDisplayQueue.isEmpty();
+    }
+
     public void terminate() {
         _frameDisplayQueue.closeNow();
         _vidTimer.terminate();
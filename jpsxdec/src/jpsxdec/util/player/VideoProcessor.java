@@ -83,6 +83,8 @@ class VideoProcessor implements Runnable, IPreprocessedFrameWriter {
         int[] aiImage = new int[_vidPlayer.getWidth() * _vidPlayer.getHeight()];
         try {
             while ((decodeFrame = _framesProcessingQueue.take()) != null) {
+                if (decodeFrame.iSeekGeneration != _vidTimer.getSeekGeneration())
+                    continue; // read before the last seek
                 // check that we haven't passed presentation time
                 //System.out.println("Checking if to process frame at " + decodeFrame.lngPresentationNanos);
                 if (_vidTimer.shouldBeProcessed(decodeFrame.lngPresentationNanos))
@@ -90,6 +92,7 @@ class VideoProcessor implements Runnable, IPreprocessedFrameWriter {
                     if (DEBUG) System.out.println("Processor processing frame :)");
                     DecodedVideoFrame frame = new DecodedVideoFrame(_vidPlayer.getWidth(), _vidPlayer.getHeight());
                     frame.lngPresentationNanos = decodeFrame.lngPresentationNanos;
+                    frame.iSeekGeneration = decodeFrame.iSeekGeneration;
                     // decode frame
                     _processor.processFrame(decodeFrame.frame, aiImage);
                     frame.image.setRGB(0, 0,
@@ -115,7 +118,7 @@ class VideoProcessor implements Runnable, IPreprocessedFrameWriter {
     public void writeFrame(@Nonnull Object frame, long lngPresentationNanos) throws StopPlayingException {
         if (DEBUG) System.out.println("Frame submitted for processing, present at " + lngPresentationNanos);
         try {
-            if (!_framesProcessingQueue.add(new DecodableFrame(frame, lngPresentationNanos)))
+            if (!_framesProcessingQueue.add(new DecodableFrame(frame, lngPresentationNanos, _vidTimer.getSeekGeneration())))
                 throw new StopPlayingException();
         } catch (InterruptedException ex) {
             throw new StopPlayingException(ex);
@@ -127,6 +130,17 @@ class VideoProcessor implements Runnable, IPreprocessedFrameWriter {
         _framesProcessingQueue.closeWhenEmpty();
     }
 
+    /** Throws away all frames waiting to be processed or presented. */
+    public void discardBuffered() {
+        _framesProcessingQueue.clear();
+        _vidPlayer.discardBuffered();
+    }
+
+    /** If there are no frames waiting to be processed or presented. */
+    public boolean isEmpty() {
+        return _framesProcessingQueue.isEmpty() && _vidPlayer.isEmpty();
+    }
+
     public void terminate() {
         _framesProcessingQueue.closeNow();
         _vidPlayer.terminate();
@@ -64,11 +64,32 @@ abstract class VideoTimer {
     private State _state = State.PAUSED;
     private final ThreadSafeEventListeners _listeners = new ThreadSafeEventListeners();
 
+    /** Incremented every time the playback seeks, so frames that were
+     * buffered before the seek can be recognized and dropped. */
+    private int _iSeekGeneration = 0;
+    /** After seeking while paused, the first frame from the new position is
+     * presented anyway so it's possible to see where the playback is. */
+    private boolean _blnPresentNextFrameWhilePaused = false;
+
     public synchronized void go() {
         _state = State.RUNNING;
+        _blnPresentNextFrameWhilePaused = false;
+        this.notifyAll();
+    }
+
+    /** Moves the play time to the given time.
+     * Subclasses should move their clock, then call this. */
+    public synchronized void seek(long lngNanos) {
+        _iSeekGeneration++;
+        if (_state == State.PAUSED)
+            _blnPresentNextFrameWhilePaused = true;
         this.notifyAll();
     }
 
+    public synchronized int getSeekGeneration() {
+        return _iSeekGeneration;
+    }
+
     public void pause() {
         // (hopefully) single instruction so thread safty is not needed
         _state = State.PAUSED;
@@ -102,13 +123,21 @@ abstract class VideoTimer {
     }
 
     // TODO also wait for the video frame blocking queue if we want to pause if we're blocked because we're waiting for frames to be read?
-    /** Returns if the frame should be displayed. */
-    final public synchronized @Nonnull ShowFrame waitToPresentFrame(long lngPresentationNanos) throws InterruptedException {
+    /** Returns if the frame should be displayed.
+     * @param iSeekGeneration {@link #getSeekGeneration()} when the frame was read */
+    final public synchronized @Nonnull ShowFrame waitToPresentFrame(long lngPresentationNanos, int iSeekGeneration) throws InterruptedException {
         while (true) {
             if (_state == State.TERMINATED) {
                 return ShowFrame.CLOSED;
+            } else if (iSeekGeneration != _iSeekGeneration) {
+                // the playback has moved since this frame was read
+                return ShowFrame.NO;
             } else if (_state == State.PAUSED) {
-                // this MUST be interrupted by terminate or go
+                if (_blnPresentNextFrameWhilePaused) {
+                    _blnPresentNextFrameWhilePaused = false;
+                    return ShowFrame.YES;
+                }
+                // this MUST be interrupted by terminate, go, or seek
                 this.wait();
                 // TODO is there a way to regularly check if this thread is blocked forever
                 // like I do in other places?
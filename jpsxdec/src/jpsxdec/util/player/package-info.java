@@ -174,6 +174,24 @@ While it's doable, it was more effort than I wanted to spend and settled with
 just using what the system/hardware provides.
 </p>
 
+<h2>Seeking</h2>
+
+<p>
+If the reader implements {@link jpsxdec.util.player.ISeekableMediaDataReader},
+{@link jpsxdec.util.player.PlayController#seek(long)} will ask the reader
+to stop, throw away everything in the queues, then have the reader start
+again from the new time. The timer is moved to the new time and bumps
+a "seek generation" number. Every frame is tagged with the generation it
+was read in, so any frames that were already in the middle of being
+processed when the seek happened are dropped instead of shown.
+</p>
+
+<p>
+Since the end of the data can't be taken back once it's sent
+to the queues, the reader thread holds onto it until everything
+has been presented, in case there is a seek before then.
+</p>
+
 <h2>Video display</h2>
 
 <p>See {@link jpsxdec.util.player.VideoScreen}.</p>
@@ -45,22 +45,38 @@ import org.junit.runners.Suite;
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
     jpsxdec.TestLog.class,
+    jpsxdec.adpcm.SoundUnitEncoderTest.class,
     jpsxdec.adpcm.SpuDecodeCorruption.class,
     jpsxdec.adpcm.XaDecodeCorruption.class,
+    jpsxdec.cdreaders.CdFileSectorReaderTest.class,
+    jpsxdec.cdreaders.DeflateImageContainerTest.class,
+    jpsxdec.cdreaders.EcmImageContainerTest.class,
+    jpsxdec.cdreaders.SectorOverlayTest.class,
+    jpsxdec.cmdline.Command_BatchIndexTest.class,
     jpsxdec.cmdline.Command_StaticTest.class,
+    jpsxdec.cmdline.JobServerTest.class,
     jpsxdec.discitems.DiscItemTest.class,
     jpsxdec.discitems.SerializedDiscItemTest.class,
+    jpsxdec.formats.Yuv4mpeg2WriterTest.class,
+    jpsxdec.indexing.DiscIndexTest.class,
     jpsxdec.indexing.DiscIndexerXaAudioTest.class,
+    jpsxdec.indexing.DiscItemLookupTest.class,
+    jpsxdec.indexing.SectorIntervalIndexTest.class,
+    jpsxdec.modules.SectorClaimRunsTest.class,
     jpsxdec.modules.crusader.DiscIndexerCrusaderTest.class,
+    jpsxdec.modules.video.framenumber.FrameTableTest.class,
+    jpsxdec.modules.video.sectorbased.VideoSectorIdentifierTest.class,
     jpsxdec.modules.video.sectorbased.fps.Fps.class,
     jpsxdec.psxvideo.PsxYCbCr_intTest.class,
     jpsxdec.psxvideo.bitstreams.BitReader.class,
     jpsxdec.psxvideo.bitstreams.Iki.class,
     jpsxdec.psxvideo.bitstreams.STRv2.class,
     jpsxdec.psxvideo.bitstreams.STRv3.class,
+    jpsxdec.psxvideo.mdec.MdecDecoder_intTest.class,
     jpsxdec.psxvideo.mdec.tojpeg.Mdec2JpegTest.class,
+    jpsxdec.tim.TimTest.class,
     jpsxdec.util.ArgParserTest.class,
-    jpsxdec.util.DemuxPushInputStreamTest.class,
+    jpsxdec.util.DemuxByteSourceTest.class,
     jpsxdec.util.DemuxedDataTest.class,
     jpsxdec.util.IOTest.class,
     jpsxdec.util.MiscTest.class,
@@ -0,0 +1,208 @@
+/*
+ * jPSXdec: PlayStation 1 Media Decoder/Converter in Java
+ * Copyright (C) 2019  Michael Sabin
+ * All rights reserved.
+ *
+ * Redistribution and use of the jPSXdec code or any derivative works are
+ * permitted provided that the following conditions are met:
+ *
+ *  * Redistributions may not be sold, nor may they be used in commercial
+ *    or revenue-generating business activities.
+ *
+ *  * Redistributions that are modified from the original source must
+ *    include the complete source code, including the source code for all
+ *    components used by a binary built from the modified sources. However, as
+ *    a special exception, the source code distributed need not include
+ *    anything that is normally distributed (in either source or binary form)
+ *    with the major components (compiler, kernel, and so on) of the operating
+ *    system on which the executable runs, unless that component itself
+ *    accompanies the executable.
+ *
+ *  * Redistributions must reproduce the above copyright notice, this list
+ *    of conditions and the following disclaimer in the documentation and/or
+ *    other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package jpsxdec.adpcm;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+/** The pruned parameter search must choose exactly what the full search
+ * chooses, and encoding channels in parallel must not change the output.
+ * Setting a {@link SoundUnitEncoder#TELEMETRY_LISTENER} switches the
+ * encoder back to the full search, one channel at a time. */
+public class SoundUnitEncoderTest {
+
+    private static final int SOUND_UNITS = 300;
+
+    public SoundUnitEncoderTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+        SoundUnitEncoder.TELEMETRY_LISTENER = null;
+    }
+
+    /** Collects the result of every parameter the full search tries. */
+    private static class AllCandidates implements SoundUnitEncoder.TelemetryListener {
+        public final ArrayList<SoundUnitEncoder.Telemetry> tried = new ArrayList<SoundUnitEncoder.Telemetry>();
+        public void soundUnitEncoded(SoundUnitEncoder.Telemetry telemetry) {
+            tried.add(telemetry);
+        }
+    }
+
+    private static final IContextCopier NO_CONTEXT = new IContextCopier() {
+        public Object copy() {
+            return this;
+        }
+    };
+
+    @Test
+    public void xa4Bit() throws Exception {
+        testSearch(4, K0K1Filter.XA);
+    }
+
+    @Test
+    public void xa8Bit() throws Exception {
+        testSearch(8, K0K1Filter.XA);
+    }
+
+    @Test
+    public void spu() throws Exception {
+        testSearch(4, K0K1Filter.SPU);
+    }
+
+    private static void testSearch(int iBitsPerSample, K0K1Filter filters) throws Exception {
+        for (short[] asiPcm : testInputs()) {
+            SoundUnitEncoder full = new SoundUnitEncoder(iBitsPerSample, filters);
+            SoundUnitEncoder pruned = new SoundUnitEncoder(iBitsPerSample, filters);
+            int iCandidates = (16 - iBitsPerSample + 1) * filters.getCount();
+            short[] asiUnit = new short[SoundUnitDecoder.SAMPLES_PER_SOUND_UNIT];
+            for (int iUnit = 0; iUnit < SOUND_UNITS; iUnit++) {
+                System.arraycopy(asiPcm, iUnit * asiUnit.length, asiUnit, 0, asiUnit.length);
+
+                AllCandidates all = new AllCandidates();
+                SoundUnitEncoder.TELEMETRY_LISTENER = all;
+                SoundUnitEncoder.EncodedUnit expected = full.encodeSoundUnit(asiUnit, NO_CONTEXT);
+                SoundUnitEncoder.TELEMETRY_LISTENER = null;
+                SoundUnitEncoder.EncodedUnit actual = pruned.encodeSoundUnit(asiUnit, NO_CONTEXT);
+
+                // the smallest error without clamping, earliest on ties,
+                // or filter 0 range 0 if everything clamped
+                assertTrue(all.tried.size() >= iCandidates);
+                SoundUnitEncoder.Telemetry best = null;
+                for (SoundUnitEncoder.Telemetry tried : all.tried.subList(0, iCandidates)) {
+                    if (tried.sFailure == null && (best == null || tried.dblMaxDelta < best.dblMaxDelta))
+                        best = tried;
+                }
+                String sMsg = "Sound unit " + iUnit;
+                assertEquals(sMsg, best == null ? 0 : best.iFilter, expected.iFilterIndex);
+                assertEquals(sMsg, best == null ? 0 : best.iRange, expected.iRange);
+
+                assertEquals(sMsg, expected.iFilterIndex, actual.iFilterIndex);
+                assertEquals(sMsg, expected.iRange, actual.iRange);
+                assertEquals(sMsg, expected.blnHadToClamp, actual.blnHadToClamp);
+                assertArrayEquals(sMsg, expected.abEncodedAdpcm, actual.abEncodedAdpcm);
+            }
+        }
+    }
+
+    @Test
+    public void parallelStereoXa() throws Exception {
+        for (int iBitsPerSample = 4; iBitsPerSample <= 8; iBitsPerSample += 4) {
+            short[] asiLeft = testInputs().get(0), asiRight = testInputs().get(2);
+            byte[] abPcm = new byte[asiLeft.length * 4];
+            for (int i = 0; i < asiLeft.length; i++) {
+                abPcm[i*4  ] = (byte)asiLeft[i];
+                abPcm[i*4+1] = (byte)(asiLeft[i] >> 8);
+                abPcm[i*4+2] = (byte)asiRight[i];
+                abPcm[i*4+3] = (byte)(asiRight[i] >> 8);
+            }
+
+            SoundUnitEncoder.TELEMETRY_LISTENER = new AllCandidates();
+            byte[] abSerial = encodeXa(abPcm, iBitsPerSample);
+            SoundUnitEncoder.TELEMETRY_LISTENER = null;
+            byte[] abParallel = encodeXa(abPcm, iBitsPerSample);
+            assertArrayEquals(abSerial, abParallel);
+        }
+    }
+
+    private static byte[] encodeXa(byte[] abPcm, int iBitsPerSample) throws Exception {
+        AudioFormat fmt = new AudioFormat(37800, 16, 2, true, false);
+        AudioInputStream ais = new AudioInputStream(new ByteArrayInputStream(abPcm), fmt, abPcm.length / 4);
+        XaAdpcmEncoder encoder = new XaAdpcmEncoder(ais, iBitsPerSample);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            while (!encoder.isEof())
+                encoder.encode1Sector(out);
+        } finally {
+            encoder.close();
+        }
+        return out.toByteArray();
+    }
+
+    /** Noise, quiet noise, a rising sine sweep, silence and a full
+     * scale square wave that can't be encoded without clamping. */
+    private static ArrayList<short[]> testInputs() {
+        int iLength = SOUND_UNITS * SoundUnitDecoder.SAMPLES_PER_SOUND_UNIT;
+        ArrayList<short[]> inputs = new ArrayList<short[]>();
+        Random rand = new Random(33);
+
+        short[] asi = new short[iLength];
+        for (int i = 0; i < iLength; i++)
+            asi[i] = (short)rand.nextInt();
+        inputs.add(asi);
+
+        asi = new short[iLength];
+        for (int i = 0; i < iLength; i++)
+            asi[i] = (short)(rand.nextInt(201) - 100);
+        inputs.add(asi);
+
+        asi = new short[iLength];
+        for (int i = 0; i < iLength; i++)
+            asi[i] = (short)Math.round(20000 * Math.sin(i * i * 0.00002));
+        inputs.add(asi);
+
+        inputs.add(new short[iLength]);
+
+        asi = new short[iLength];
+        for (int i = 0; i < iLength; i++)
+            asi[i] = (i & 1) == 0 ? Short.MAX_VALUE : Short.MIN_VALUE;
+        inputs.add(asi);
+
+        return inputs;
+    }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * jPSXdec: PlayStation 1 Media Decoder/Converter in Java
+ * Copyright (C) 2019  Michael Sabin
+ * All rights reserved.
+ *
+ * Redistribution and use of the jPSXdec code or any derivative works are
+ * permitted provided that the following conditions are met:
+ *
+ *  * Redistributions may not be sold, nor may they be used in commercial
+ *    or revenue-generating business activities.
+ *
+ *  * Redistributions that are modified from the original source must
+ *    include the complete source code, including the source code for all
+ *    components used by a binary built from the modified sources. However, as
+ *    a special exception, the source code distributed need not include
+ *    anything that is normally distributed (in either source or binary form)
+ *    with the major components (compiler, kernel, and so on) of the operating
+ *    system on which the executable runs, unless that component itself
+ *    accompanies the executable.
+ *
+ *  * Redistributions must reproduce the above copyright notice, this list
+ *    of conditions and the following disclaimer in the documentation and/or
+ *    other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package jpsxdec.cdreaders;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.Arrays;
+import java.util.Random;
+import jpsxdec.util.IO;
+import org.junit.*;
+import static org.junit.Assert.*;
+import org.junit.rules.TemporaryFolder;
+
+
+public class CdFileSectorReaderTest {
+
+    private static final int SECTOR_COUNT = 600;
+
+    @Rule
+    public TemporaryFolder _folder = new TemporaryFolder();
+
+    private File _plainFile;
+
+    @Before
+    public void setUp() throws Exception {
+        _plainFile = TestDiscImage.newFile(_folder, "plain.bin",
+                TestDiscImage.mode2Image(SECTOR_COUNT, 0, new Random(4321)));
+    }
+
+    private byte[] copy(CdFileSectorReader cd, int iStart, int iEnd, boolean blnRaw) throws Exception {
+        File f = _folder.newFile();
+        FileOutputStream fos = new FileOutputStream(f);
+        try {
+            cd.copySectorsTo(iStart, iEnd, blnRaw, fos.getChannel());
+        } finally {
+            fos.close();
+        }
+        return IO.readFile(f);
+    }
+
+    private static byte[] expected(CdFileSectorReader cd, int iStart, int iEnd, boolean blnRaw) throws Exception {
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        for (int i = iStart; i <= iEnd; i++) {
+            CdSector sector = cd.getSector(i);
+            expected.write(blnRaw ? sector.getRawSectorDataCopy() : sector.getCdUserDataCopy());
+        }
+        return expected.toByteArray();
+    }
+
+    @Test
+    public void copySectorsMatchGetSector() throws Exception {
+        CdFileSectorReader cd = new CdFileSectorReader(_plainFile);
+        try {
+            for (boolean blnRaw : new boolean[] {true, false}) {
+                assertArrayEquals(expected(cd, 0, SECTOR_COUNT - 1, blnRaw),
+                                  copy(cd, 0, SECTOR_COUNT - 1, blnRaw));
+                assertArrayEquals(expected(cd, 7, 7, blnRaw), copy(cd, 7, 7, blnRaw));
+            }
+        } finally {
+            cd.close();
+        }
+    }
+
+    @Test
+    public void copySectorsIncludeOverlay() throws Exception {
+        CdFileSectorReader cd = new CdFileSectorReader(_plainFile);
+        try {
+            cd.setOverlay(new SectorOverlay(new File(_folder.getRoot(), "plain.ovl"), cd));
+            for (int iSector : new int[] {3, 10, 11, 300, 590}) {
+                byte[] abUserData = new byte[cd.getSector(iSector).getCdUserDataSize()];
+                Arrays.fill(abUserData, (byte)iSector);
+                cd.writeSector(iSector, abUserData);
+            }
+            for (boolean blnRaw : new boolean[] {true, false}) {
+                // range crosses patched sectors and several copy blocks
+                byte[] abCopy = copy(cd, 2, SECTOR_COUNT - 1, blnRaw);
+                assertArrayEquals(expected(cd, 2, SECTOR_COUNT - 1, blnRaw), abCopy);
+                // only unpatched sectors
+                assertArrayEquals(expected(cd, 4, 9, blnRaw), copy(cd, 4, 9, blnRaw));
+            }
+            assertEquals((byte)10, cd.getSector(10).getCdUserDataCopy()[0]);
+        } finally {
+            cd.close();
+        }
+    }
+
+}
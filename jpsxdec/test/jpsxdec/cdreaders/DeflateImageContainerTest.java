@@ -0,0 +1,124 @@
+/*
+ * jPSXdec: PlayStation 1 Media Decoder/Converter in Java
+ * Copyright (C) 2017-2019  Michael Sabin
+ * All rights reserved.
+ *
+ * Redistribution and use of the jPSXdec code or any derivative works are
+ * permitted provided that the following conditions are met:
+ *
+ *  * Redistributions may not be sold, nor may they be used in commercial
+ *    or revenue-generating business activities.
+ *
+ *  * Redistributions that are modified from the original source must
+ *    include the complete source code, including the source code for all
+ *    components used by a binary built from the modified sources. However, as
+ *    a special exception, the source code distributed need not include
+ *    anything that is normally distributed (in either source or binary form)
+ *    with the major components (compiler, kernel, and so on) of the operating
+ *    system on which the executable runs, unless that component itself
+ *    accompanies the executable.
+ *
+ *  * Redistributions must reproduce the above copyright notice, this list
+ *    of conditions and the following disclaimer in the documentation and/or
+ *    other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jpsxdec.cdreaders;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.Random;
+import jpsxdec.i18n.log.ConsoleProgressLogger;
+import org.junit.*;
+import static org.junit.Assert.*;
+import org.junit.rules.TemporaryFolder;
+
+
+public class DeflateImageContainerTest {
+
+    private static final int SECTOR_COUNT = 100;
+
+    @Rule
+    public TemporaryFolder _folder = new TemporaryFolder();
+
+    private byte[] _abPlain;
+    private File _plainFile;
+    private File _compressedFile;
+
+    /** Mode 2 sectors, the first half with compressible data, the second
+     * half random, with a trailing partial sector. */
+    @Before
+    public void setUp() throws Exception {
+        Random rand = new Random(4321);
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        for (int i = 0; i < SECTOR_COUNT; i++) {
+            byte[] abSector;
+            if (i < SECTOR_COUNT / 2) {
+                abSector = TestDiscImage.compressibleMode2Sector(i);
+            } else {
+                abSector = TestDiscImage.mode2Sector(i, false, rand);
+            }
+            plain.write(abSector, 0, abSector.length);
+        }
+        byte[] abTail = TestDiscImage.randomBytes(rand, 100);
+        plain.write(abTail, 0, abTail.length);
+        _abPlain = plain.toByteArray();
+
+        _plainFile = TestDiscImage.newFile(_folder, "plain.bin", _abPlain);
+        _compressedFile = _folder.newFile("image.jcdz");
+        ConsoleProgressLogger pl = TestDiscImage.quietLogger();
+        try {
+            DeflateImageContainer.create(_plainFile, _compressedFile,
+                    DeflateImageContainer.SECTORS_PER_BLOCK * CdSector.SECTOR_SIZE_2352_BIN, pl);
+        } finally {
+            pl.close();
+        }
+    }
+
+    @Test
+    public void containerRead() throws Exception {
+        assertTrue(_compressedFile.length() < _plainFile.length());
+        TestDiscImage.assertRandomReadsMatch(_compressedFile, DeflateImageContainer.class,
+                                             _abPlain, 100000, false);
+    }
+
+    @Test
+    public void sectorsMatchPlainImage() throws Exception {
+        TestDiscImage.assertSectorsMatch(_plainFile, _compressedFile);
+    }
+
+    @Test
+    public void recompress() throws Exception {
+        // a compressed image of a compressed image is the same plain image
+        File again = _folder.newFile("again.jcdz");
+        ConsoleProgressLogger pl = TestDiscImage.quietLogger();
+        try {
+            DeflateImageContainer.create(_compressedFile, again, 5000, pl);
+        } finally {
+            pl.close();
+        }
+        RandomAccessFile raf = new RandomAccessFile(again, "r");
+        try {
+            DiscImageContainer container = DiscImageContainer.open(raf);
+            assertNotNull(container);
+            byte[] ab = new byte[_abPlain.length];
+            container.read(0, ab, 0, ab.length, false);
+            assertArrayEquals(_abPlain, ab);
+        } finally {
+            raf.close();
+        }
+    }
+
+}
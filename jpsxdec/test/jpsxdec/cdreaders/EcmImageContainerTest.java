@@ -0,0 +1,216 @@
+/*
+ * jPSXdec: PlayStation 1 Media Decoder/Converter in Java
+ * Copyright (C) 2017-2019  Michael Sabin
+ * All rights reserved.
+ *
+ * Redistribution and use of the jPSXdec code or any derivative works are
+ * permitted provided that the following conditions are met:
+ *
+ *  * Redistributions may not be sold, nor may they be used in commercial
+ *    or revenue-generating business activities.
+ *
+ *  * Redistributions that are modified from the original source must
+ *    include the complete source code, including the source code for all
+ *    components used by a binary built from the modified sources. However, as
+ *    a special exception, the source code distributed need not include
+ *    anything that is normally distributed (in either source or binary form)
+ *    with the major components (compiler, kernel, and so on) of the operating
+ *    system on which the executable runs, unless that component itself
+ *    accompanies the executable.
+ *
+ *  * Redistributions must reproduce the above copyright notice, this list
+ *    of conditions and the following disclaimer in the documentation and/or
+ *    other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jpsxdec.cdreaders;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Random;
+import jpsxdec.util.IO;
+import org.junit.*;
+import static org.junit.Assert.*;
+import org.junit.rules.TemporaryFolder;
+
+
+public class EcmImageContainerTest {
+
+    private static final int SECTOR_COUNT = 200;
+
+    @Rule
+    public TemporaryFolder _folder = new TemporaryFolder();
+
+    private byte[] _abPlain;
+    private File _plainFile;
+    private File _ecmFile;
+
+    /** 40 mode 1 sectors followed by alternating mode 2 form 1 and form 2
+     * sectors, with a trailing partial sector. */
+    @Before
+    public void setUp() throws Exception {
+        Random rand = new Random(4321);
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        ByteArrayOutputStream ecm = new ByteArrayOutputStream();
+        ecm.write(new byte[] {'E', 'C', 'M', 0});
+
+        writeRecordHeader(ecm, 1, 40);
+        for (int i = 0; i < SECTOR_COUNT; i++) {
+            byte[] abSector;
+            if (i < 40) {
+                abSector = TestDiscImage.mode1Sector(i, rand);
+                ecm.write(abSector, 12, 3);
+                ecm.write(abSector, 0x10, 2048);
+            } else {
+                boolean blnForm2 = (i % 2) == 1;
+                abSector = TestDiscImage.mode2Sector(i, blnForm2, rand);
+                writeRecordHeader(ecm, 0, 16);
+                ecm.write(abSector, 0, 16);
+                if (blnForm2) {
+                    writeRecordHeader(ecm, 3, 1);
+                    ecm.write(abSector, 0x14, 4 + 2324);
+                } else {
+                    writeRecordHeader(ecm, 2, 1);
+                    ecm.write(abSector, 0x14, 4 + 2048);
+                }
+            }
+            plain.write(abSector);
+        }
+        byte[] abTail = TestDiscImage.randomBytes(rand, 100);
+        plain.write(abTail);
+        writeRecordHeader(ecm, 0, abTail.length);
+        ecm.write(abTail);
+        writeRecordHeader(ecm, 0, 0x100000000L);
+        ecm.write(new byte[4]); // EDC of the whole image
+
+        _abPlain = plain.toByteArray();
+        _plainFile = TestDiscImage.newFile(_folder, "plain.bin", _abPlain);
+        _ecmFile = TestDiscImage.newFile(_folder, "image.bin.ecm", ecm.toByteArray());
+    }
+
+    private static void writeRecordHeader(ByteArrayOutputStream ecm, int iType, long lngCount) {
+        lngCount--;
+        int iByte = (int)(((lngCount & 0x1f) << 2) | iType);
+        lngCount >>= 5;
+        while (lngCount != 0) {
+            ecm.write(iByte | 0x80);
+            iByte = (int)(lngCount & 0x7f);
+            lngCount >>= 7;
+        }
+        ecm.write(iByte);
+    }
+
+    @Test
+    public void containerRead() throws Exception {
+        TestDiscImage.assertRandomReadsMatch(_ecmFile, EcmImageContainer.class,
+                                             _abPlain, 10000, true);
+    }
+
+    /** Without error correction, the error correction ECM doesn't store
+     * is left as 0 instead of being rebuilt. */
+    @Test
+    public void readWithoutErrorCorrection() throws Exception {
+        RandomAccessFile raf = new RandomAccessFile(_ecmFile, "r");
+        try {
+            DiscImageContainer container = DiscImageContainer.open(raf);
+            assertNotNull(container);
+            byte[] abSector = new byte[CdSector.SECTOR_SIZE_2352_BIN];
+            for (int i = 0; i < SECTOR_COUNT; i++) {
+                int iStart = i * CdSector.SECTOR_SIZE_2352_BIN;
+                container.read(iStart, abSector, 0, abSector.length, false);
+
+                byte[] abExpected = Arrays.copyOfRange(_abPlain, iStart, iStart + abSector.length);
+                CdSector.Type type = container.getSkippedErrorCorrection(iStart, abSector.length);
+                int iEccStart;
+                if (i < 40) {
+                    assertEquals(CdSector.Type.MODE1, type);
+                    iEccStart = 0x810;
+                } else if ((i % 2) == 1) {
+                    assertEquals(CdSector.Type.MODE2FORM2, type);
+                    iEccStart = 0x92C;
+                } else {
+                    assertEquals(CdSector.Type.MODE2FORM1, type);
+                    iEccStart = 0x818;
+                }
+                assertFalse(isZero(abExpected, iEccStart));
+                Arrays.fill(abExpected, iEccStart, abExpected.length, (byte)0);
+                assertArrayEquals("Sector " + i, abExpected, abSector);
+            }
+        } finally {
+            raf.close();
+        }
+    }
+
+    private static boolean isZero(byte[] ab, int iStart) {
+        for (int i = iStart; i < ab.length; i++) {
+            if (ab[i] != 0)
+                return false;
+        }
+        return true;
+    }
+
+    @Test
+    public void notEcm() throws Exception {
+        RandomAccessFile raf = new RandomAccessFile(_plainFile, "r");
+        try {
+            assertNull(DiscImageContainer.open(raf));
+        } finally {
+            raf.close();
+        }
+    }
+
+    @Test
+    public void sectorsMatchPlainImage() throws Exception {
+        TestDiscImage.assertSectorsMatch(_plainFile, _ecmFile);
+    }
+
+    @Test
+    public void copySectorsMatchPlainImage() throws Exception {
+        CdFileSectorReader plainCd = new CdFileSectorReader(_plainFile);
+        CdFileSectorReader ecmCd = new CdFileSectorReader(_ecmFile);
+        try {
+            for (boolean blnRaw : new boolean[] {true, false}) {
+                assertArrayEquals(copy(plainCd, 10, 150, blnRaw), copy(ecmCd, 10, 150, blnRaw));
+            }
+        } finally {
+            plainCd.close();
+            ecmCd.close();
+        }
+    }
+
+    private byte[] copy(CdFileSectorReader cd, int iStart, int iEnd, boolean blnRaw) throws Exception {
+        File f = _folder.newFile();
+        FileOutputStream fos = new FileOutputStream(f);
+        try {
+            cd.copySectorsTo(iStart, iEnd, blnRaw, fos.getChannel());
+        } finally {
+            fos.close();
+        }
+        return IO.readFile(f);
+    }
+
+    @Test(expected = CdFileSectorReader.CdWriteException.class)
+    public void readOnly() throws Exception {
+        CdFileSectorReader ecmCd = new CdFileSectorReader(_ecmFile);
+        try {
+            ecmCd.writeSector(50, new byte[ecmCd.getSector(50).getCdUserDataSize()]);
+        } finally {
+            ecmCd.close();
+        }
+    }
+
+}
@@ -0,0 +1,219 @@
+/*
+ * jPSXdec: PlayStation 1 Media Decoder/Converter in Java
+ * Copyright (C) 2019  Michael Sabin
+ * All rights reserved.
+ *
+ * Redistribution and use of the jPSXdec code or any derivative works are
+ * permitted provided that the following conditions are met:
+ *
+ *  * Redistributions may not be sold, nor may they be used in commercial
+ *    or revenue-generating business activities.
+ *
+ *  * Redistributions that are modified from the original source must
+ *    include the complete source code, including the source code for all
+ *    components used by a binary built from the modified sources. However, as
+ *    a special exception, the source code distributed need not include
+ *    anything that is normally distributed (in either source or binary form)
+ *    with the major components (compiler, kernel, and so on) of the operating
+ *    system on which the executable runs, unless that component itself
+ *    accompanies the executable.
+ *
+ *  * Redistributions must reproduce the above copyright notice, this list
+ *    of conditions and the following disclaimer in the documentation and/or
+ *    other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package jpsxdec.cdreaders;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Random;
+import jpsxdec.i18n.exception.LocalizedDeserializationFail;
+import jpsxdec.i18n.log.ConsoleProgressLogger;
+import jpsxdec.util.IO;
+import org.junit.*;
+import static org.junit.Assert.*;
+import org.junit.rules.TemporaryFolder;
+
+
+public class SectorOverlayTest {
+
+    private static final int SECTOR_COUNT = 60;
+    private static final int[] PATCHED_SECTORS = {0, 5, 6, 31, SECTOR_COUNT - 1};
+
+    @Rule
+    public TemporaryFolder _folder = new TemporaryFolder();
+
+    private byte[] _abPlain;
+    private File _plainFile;
+    private File _overlayFile;
+
+    @Before
+    public void setUp() throws Exception {
+        _abPlain = TestDiscImage.mode2Image(SECTOR_COUNT, 100, new Random(4321));
+        _plainFile = TestDiscImage.newFile(_folder, "plain.bin", _abPlain);
+        _overlayFile = new File(_folder.getRoot(), "plain.ovl");
+    }
+
+    private CdFileSectorReader openWithOverlay() throws Exception {
+        CdFileSectorReader cd = new CdFileSectorReader(_plainFile);
+        cd.setOverlay(new SectorOverlay(_overlayFile, cd));
+        return cd;
+    }
+
+    /** New user data for the sector that is different from the original. */
+    private static byte[] newUserData(CdSector sector) {
+        byte[] abUserData = new byte[sector.getCdUserDataSize()];
+        Arrays.fill(abUserData, (byte)sector.getSectorIndexFromStart());
+        return abUserData;
+    }
+
+    /** Patches every sector in {@link #PATCHED_SECTORS}, the first one twice. */
+    private void patch(CdFileSectorReader cd) throws Exception {
+        cd.writeSector(PATCHED_SECTORS[0], new byte[cd.getSector(PATCHED_SECTORS[0]).getCdUserDataSize()]);
+        for (int iSector : PATCHED_SECTORS) {
+            cd.writeSector(iSector, newUserData(cd.getSector(iSector)));
+        }
+    }
+
+    private static boolean isPatched(int iSector) {
+        for (int iPatched : PATCHED_SECTORS) {
+            if (iPatched == iSector)
+                return true;
+        }
+        return false;
+    }
+
+    private void assertPatchedSectors(CdFileSectorReader cd) throws Exception {
+        CdFileSectorReader plainCd = new CdFileSectorReader(_plainFile);
+        try {
+            assertEquals(plainCd.getSectorCount(), cd.getSectorCount());
+            for (int i = 0; i < cd.getSectorCount(); i++) {
+                CdSector sector = cd.getSector(i);
+                CdSector plainSector = plainCd.getSector(i);
+                assertEquals(plainSector.getType(), sector.getType());
+                if (isPatched(i)) {
+                    assertArrayEquals("Sector " + i, newUserData(plainSector), sector.getCdUserDataCopy());
+                    assertArrayEquals("Sector " + i,
+                            plainSector.rebuildRawSector(newUserData(plainSector)),
+                            sector.getRawSectorDataCopy());
+                } else {
+                    assertArrayEquals("Sector " + i,
+                            plainSector.getRawSectorDataCopy(), sector.getRawSectorDataCopy());
+                }
+            }
+        } finally {
+            plainCd.close();
+        }
+    }
+
+    @Test
+    public void writeAndReadBack() throws Exception {
+        CdFileSectorReader cd = openWithOverlay();
+        try {
+            patch(cd);
+            assertEquals(PATCHED_SECTORS.length, cd.getOverlay().getPatchedSectorCount());
+            assertPatchedSectors(cd);
+        } finally {
+            cd.close();
+        }
+        // the source disc image is never touched
+        assertArrayEquals(_abPlain, IO.readFile(_plainFile));
+        assertEquals(PATCHED_SECTORS.length, (_overlayFile.length() - 24) / (4 + CdSector.SECTOR_SIZE_2352_BIN));
+
+        // the patches are still there when the overlay is opened again
+        cd = openWithOverlay();
+        try {
+            assertEquals(PATCHED_SECTORS.length, cd.getOverlay().getPatchedSectorCount());
+            assertPatchedSectors(cd);
+        } finally {
+            cd.close();
+        }
+    }
+
+    @Test
+    public void materialize() throws Exception {
+        File outFile = new File(_folder.getRoot(), "patched.bin");
+        CdFileSectorReader cd = openWithOverlay();
+        try {
+            patch(cd);
+            ConsoleProgressLogger pl = TestDiscImage.quietLogger();
+            try {
+                cd.getOverlay().materialize(cd, outFile, pl);
+            } finally {
+                pl.close();
+            }
+
+            byte[] abExpected = _abPlain.clone();
+            for (int iSector : PATCHED_SECTORS) {
+                System.arraycopy(cd.getSector(iSector).getRawSectorDataCopy(), 0,
+                                 abExpected, iSector * CdSector.SECTOR_SIZE_2352_BIN,
+                                 CdSector.SECTOR_SIZE_2352_BIN);
+            }
+            assertArrayEquals(abExpected, IO.readFile(outFile));
+        } finally {
+            cd.close();
+        }
+
+        CdFileSectorReader patchedCd = new CdFileSectorReader(outFile);
+        try {
+            assertNull(patchedCd.getOverlay());
+            assertPatchedSectors(patchedCd);
+        } finally {
+            patchedCd.close();
+        }
+    }
+
+    @Test
+    public void materializeRefusesInputFiles() throws Exception {
+        CdFileSectorReader cd = openWithOverlay();
+        try {
+            patch(cd);
+            long lngOverlayLength = _overlayFile.length();
+            File sameSource = new File(new File(_folder.getRoot(), "."), _plainFile.getName());
+            for (File output : new File[] {sameSource, _overlayFile}) {
+                ConsoleProgressLogger pl = TestDiscImage.quietLogger();
+                try {
+                    cd.getOverlay().materialize(cd, output, pl);
+                    fail("Should have refused to write to " + output);
+                } catch (IllegalArgumentException ex) {
+                    // expected
+                } finally {
+                    pl.close();
+                }
+            }
+            assertEquals(lngOverlayLength, _overlayFile.length());
+        } finally {
+            cd.close();
+        }
+        assertArrayEquals(_abPlain, IO.readFile(_plainFile));
+    }
+
+    @Test(expected = LocalizedDeserializationFail.class)
+    public void overlayForDifferentDisc() throws Exception {
+        CdFileSectorReader cd = openWithOverlay();
+        cd.close();
+
+        byte[] abOther = TestDiscImage.mode2Image(SECTOR_COUNT + 1, 0, new Random(1));
+        File otherFile = TestDiscImage.newFile(_folder, "other.bin", abOther);
+        CdFileSectorReader otherCd = new CdFileSectorReader(otherFile);
+        try {
+            new SectorOverlay(_overlayFile, otherCd);
+        } finally {
+            otherCd.close();
+        }
+    }
+
+}
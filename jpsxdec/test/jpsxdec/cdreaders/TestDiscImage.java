@@ -0,0 +1,192 @@
+/*
+ * jPSXdec: PlayStation 1 Media Decoder/Converter in Java
+ * Copyright (C) 2019  Michael Sabin
+ * All rights reserved.
+ *
+ * Redistribution and use of the jPSXdec code or any derivative works are
+ * permitted provided that the following conditions are met:
+ *
+ *  * Redistributions may not be sold, nor may they be used in commercial
+ *    or revenue-generating business activities.
+ *
+ *  * Redistributions that are modified from the original source must
+ *    include the complete source code, including the source code for all
+ *    components used by a binary built from the modified sources. However, as
+ *    a special exception, the source code distributed need not include
+ *    anything that is normally distributed (in either source or binary form)
+ *    with the major components (compiler, kernel, and so on) of the operating
+ *    system on which the executable runs, unless that component itself
+ *    accompanies the executable.
+ *
+ *  * Redistributions must reproduce the above copyright notice, this list
+ *    of conditions and the following disclaimer in the documentation and/or
+ *    other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package jpsxdec.cdreaders;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Random;
+import jpsxdec.i18n.log.ConsoleProgressLogger;
+import jpsxdec.util.IO;
+import static org.junit.Assert.*;
+import org.junit.rules.TemporaryFolder;
+
+/** Builds small disc images for the disc reader tests. */
+class TestDiscImage {
+
+    static byte toBcd(int i) {
+        return (byte)(((i / 10) << 4) | (i % 10));
+    }
+
+    static void fill(Random rand, byte[] ab, int iStart, int iLength) {
+        for (int i = iStart; i < iStart + iLength; i++)
+            ab[i] = (byte)rand.nextInt();
+    }
+
+    /** A raw sector with only the sync header, address, and mode filled in. */
+    static byte[] sectorHeader(int iSector, int iMode) {
+        byte[] abSector = new byte[CdSector.SECTOR_SIZE_2352_BIN];
+        System.arraycopy(CdSectorHeader.SECTOR_SYNC_HEADER, 0, abSector, 0,
+                         CdSectorHeader.SECTOR_SYNC_HEADER.length);
+        int iFrame = iSector + 150;
+        abSector[12] = toBcd(iFrame / 75 / 60);
+        abSector[13] = toBcd(iFrame / 75 % 60);
+        abSector[14] = toBcd(iFrame % 75);
+        abSector[15] = (byte)iMode;
+        return abSector;
+    }
+
+    /** A mode 2 form 1 sector with very compressible user data and
+     * no error correction. */
+    static byte[] compressibleMode2Sector(int iSector) {
+        byte[] abSector = sectorHeader(iSector, 2);
+        abSector[18] = abSector[22] = 0x08;
+        for (int j = 0x18; j < CdSector.SECTOR_SIZE_2352_BIN; j++)
+            abSector[j] = (byte)(j / 64);
+        return abSector;
+    }
+
+    /** A mode 1 sector with random user data and valid error correction. */
+    static byte[] mode1Sector(int iSector, Random rand) {
+        byte[] abSector = sectorHeader(iSector, 1);
+        fill(rand, abSector, 0x10, CdSector.SECTOR_USER_DATA_SIZE_MODE1_MODE2FORM1);
+        SectorErrorCorrection.rebuildMode1ErrorCorrection(abSector);
+        return abSector;
+    }
+
+    /** A mode 2 sector with random user data and valid error correction. */
+    static byte[] mode2Sector(int iSector, boolean blnForm2, Random rand) {
+        byte[] abSector = sectorHeader(iSector, 2);
+        byte[] abSubHeader = {1, 1, (byte)(blnForm2 ? 0x24 : 0x08), 0};
+        System.arraycopy(abSubHeader, 0, abSector, 0x10, 4);
+        System.arraycopy(abSubHeader, 0, abSector, 0x14, 4);
+        if (blnForm2) {
+            fill(rand, abSector, 0x18, CdSector.SECTOR_USER_DATA_SIZE_MODE2FORM2);
+            SectorErrorCorrection.rebuildErrorCorrection(abSector, 2);
+        } else {
+            fill(rand, abSector, 0x18, CdSector.SECTOR_USER_DATA_SIZE_MODE1_MODE2FORM1);
+            SectorErrorCorrection.rebuildErrorCorrection(abSector, 1);
+        }
+        return abSector;
+    }
+
+    /** Alternating mode 2 form 1 and form 2 sectors, followed by
+     * some bytes that aren't a full sector. */
+    static byte[] mode2Image(int iSectorCount, int iTrailingBytes, Random rand) {
+        ByteArrayOutputStream image = new ByteArrayOutputStream();
+        for (int i = 0; i < iSectorCount; i++) {
+            byte[] abSector = mode2Sector(i, (i % 2) == 1, rand);
+            image.write(abSector, 0, abSector.length);
+        }
+        byte[] abTail = new byte[iTrailingBytes];
+        fill(rand, abTail, 0, abTail.length);
+        image.write(abTail, 0, abTail.length);
+        return image.toByteArray();
+    }
+
+    static byte[] randomBytes(Random rand, int iLength) {
+        byte[] ab = new byte[iLength];
+        fill(rand, ab, 0, iLength);
+        return ab;
+    }
+
+    /** Opens the container and checks that random reads of it match
+     * the plain image. */
+    static void assertRandomReadsMatch(File containerFile,
+                                       Class<? extends DiscImageContainer> containerType,
+                                       byte[] abPlain, int iMaxReadLength,
+                                       boolean blnErrorCorrection)
+            throws IOException
+    {
+        RandomAccessFile raf = new RandomAccessFile(containerFile, "r");
+        try {
+            DiscImageContainer container = DiscImageContainer.open(raf);
+            assertTrue(containerType.isInstance(container));
+            assertEquals(abPlain.length, container.getLength());
+
+            Random rand = new Random(1234);
+            for (int i = 0; i < 200; i++) {
+                int iStart = rand.nextInt(abPlain.length);
+                int iLength = rand.nextInt(Math.min(abPlain.length - iStart, iMaxReadLength) + 1);
+                byte[] ab = new byte[iLength];
+                container.read(iStart, ab, 0, iLength, blnErrorCorrection);
+                assertArrayEquals(Arrays.copyOfRange(abPlain, iStart, iStart + iLength), ab);
+            }
+        } finally {
+            raf.close();
+        }
+    }
+
+    /** Checks every sector read through the container matches the
+     * plain image. */
+    static void assertSectorsMatch(File plainFile, File containerFile) throws Exception {
+        CdFileSectorReader plainCd = new CdFileSectorReader(plainFile);
+        CdFileSectorReader containerCd = new CdFileSectorReader(containerFile);
+        try {
+            assertTrue(containerCd.isContainer());
+            assertEquals(plainCd.getRawSectorSize(), containerCd.getRawSectorSize());
+            assertEquals(plainCd.getSectorCount(), containerCd.getSectorCount());
+            for (int i = 0; i < plainCd.getSectorCount(); i++) {
+                CdSector plainSector = plainCd.getSector(i);
+                CdSector containerSector = containerCd.getSector(i);
+                assertEquals(plainSector.getType(), containerSector.getType());
+                assertArrayEquals(plainSector.getCdUserDataCopy(), containerSector.getCdUserDataCopy());
+                assertArrayEquals("Sector " + i,
+                                  plainSector.getRawSectorDataCopy(), containerSector.getRawSectorDataCopy());
+            }
+        } finally {
+            plainCd.close();
+            containerCd.close();
+        }
+    }
+
+    /** Progress logger that doesn't print anything. */
+    static ConsoleProgressLogger quietLogger() {
+        return new ConsoleProgressLogger("test", new PrintStream(new ByteArrayOutputStream()));
+    }
+
+    static File newFile(TemporaryFolder folder, String sName, byte[] abData) throws IOException {
+        File f = folder.newFile(sName);
+        IO.writeFile(f, abData);
+        return f;
+    }
+
+}
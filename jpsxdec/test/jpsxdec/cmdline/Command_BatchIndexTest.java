@@ -0,0 +1,126 @@
+/*
+ * jPSXdec: PlayStation 1 Media Decoder/Converter in Java
+ * Copyright (C) 2019  Michael Sabin
+ * All rights reserved.
+ *
+ * Redistribution and use of the jPSXdec code or any derivative works are
+ * permitted provided that the following conditions are met:
+ *
+ *  * Redistributions may not be sold, nor may they be used in commercial
+ *    or revenue-generating business activities.
+ *
+ *  * Redistributions that are modified from the original source must
+ *    include the complete source code, including the source code for all
+ *    components used by a binary built from the modified sources. However, as
+ *    a special exception, the source code distributed need not include
+ *    anything that is normally distributed (in either source or binary form)
+ *    with the major components (compiler, kernel, and so on) of the operating
+ *    system on which the executable runs, unless that component itself
+ *    accompanies the executable.
+ *
+ *  * Redistributions must reproduce the above copyright notice, this list
+ *    of conditions and the following disclaimer in the documentation and/or
+ *    other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package jpsxdec.cmdline;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import jpsxdec.util.ArgParser;
+import static org.junit.Assert.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+
+public class Command_BatchIndexTest {
+
+    @Rule
+    public TemporaryFolder _tmp = new TemporaryFolder();
+
+    private File newDisc(File dir, String sName) throws Exception {
+        File disc = new File(dir, sName);
+        RandomAccessFile raf = new RandomAccessFile(disc, "rw");
+        raf.setLength(2048 * 20);
+        raf.close();
+        return disc;
+    }
+
+    @Test
+    public void findDiscsInDirectory() throws Exception {
+        File root = _tmp.getRoot();
+        File sub = _tmp.newFolder("sub");
+        File a = newDisc(root, "a.bin");
+        File b = newDisc(root, "a.iso");
+        File c = newDisc(sub, "c.IMG");
+        File d = newDisc(root, "d.jcdz");
+        newDisc(root, "a.bin.idx");
+        newDisc(root, "notes.txt");
+        newDisc(root, "noext");
+
+        assertEquals(Arrays.asList(a, b, d, c), Command_BatchIndex.findDiscs(root));
+        assertEquals(Arrays.asList(c), Command_BatchIndex.findDiscs(sub));
+        assertTrue(Command_BatchIndex.findDiscs(_tmp.newFolder("empty")).isEmpty());
+    }
+
+    @Test
+    public void findDiscsInList() throws Exception {
+        File sub = _tmp.newFolder("sub");
+        File absolute = newDisc(_tmp.newFolder("other"), "x.bin");
+        File list = new File(sub, "list.txt");
+        PrintStream ps = new PrintStream(list, "UTF-8");
+        ps.println("# comment");
+        ps.println();
+        ps.println("  game.iso  ");
+        ps.println("more/game.bin");
+        ps.println(absolute.getPath());
+        ps.close();
+
+        assertEquals(Arrays.asList(new File(sub, "game.iso"),
+                                   new File(sub, "more/game.bin"),
+                                   absolute),
+                     Command_BatchIndex.findDiscs(list));
+    }
+
+    @Test
+    public void namesKeepTheDiscExtension() {
+        File bin = new File("dir", "game.bin");
+        File iso = new File("dir", "game.iso");
+        assertEquals(new File("dir", "game.bin.idx"), Command_BatchIndex.indexFileFor(bin));
+        assertEquals(new File("dir", "game.iso.idx"), Command_BatchIndex.indexFileFor(iso));
+        assertFalse(Command_BatchIndex.logFileFor(bin).equals(Command_BatchIndex.logFileFor(iso)));
+        assertTrue(Command_BatchIndex.logFileFor(bin).getName().startsWith("game.bin."));
+        assertTrue(Command_BatchIndex.logFileFor(bin).getName().endsWith(".log"));
+        assertEquals(bin.getParentFile(), Command_BatchIndex.logFileFor(bin).getParentFile());
+    }
+
+    @Test
+    public void sameNameDifferentExtension() throws Exception {
+        File bin = newDisc(_tmp.getRoot(), "game.bin");
+        File iso = newDisc(_tmp.getRoot(), "game.iso");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int iExit = CommandLine.main(new ArgParser(new String[] {"-batchindex", _tmp.getRoot().getPath()}),
+                                     new PrintStream(out, true), null);
+        assertEquals(out.toString(), 0, iExit);
+        assertTrue(Command_BatchIndex.logFileFor(bin).exists());
+        assertTrue(Command_BatchIndex.logFileFor(iso).exists());
+    }
+
+}
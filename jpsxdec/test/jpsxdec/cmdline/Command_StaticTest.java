@@ -83,7 +83,7 @@ public class Command_StaticTest {
         ArgParser ap = new ArgParser(asArgs);
         Command_Static testSubject = new Command_Static();
         assertNull(testSubject.validate("mdec"));
-        testSubject.init(new ArgParser(new String[] {"-static"}), new StringHolder("ignored for this test"), null, new FeedbackStream());
+        testSubject.init(new ArgParser(new String[] {"-static"}), new StringHolder("ignored for this test"), null, null, new FeedbackStream());
 
         try {
             testSubject.execute(ap);
@@ -105,7 +105,7 @@ public class Command_StaticTest {
         // put an input test file in a temp directory
         File inFile = testutil.Util.resourceAsTempFile(Command_StaticTest.class, TEST_BS_FILE);
         // run command
-        testSubject.init(new ArgParser(new String[] {"-static"}), new StringHolder(inFile.getPath()), null, new FeedbackStream());
+        testSubject.init(new ArgParser(new String[] {"-static"}), new StringHolder(inFile.getPath()), null, null, new FeedbackStream());
         testSubject.execute(ap);
         // I guess check the output file
         assertTrue(new File(Command_StaticTest.class.getSimpleName()+"_16x16.mdec").exists());
@@ -120,7 +120,7 @@ public class Command_StaticTest {
         // put an input test file in a temp directory
         File inFile = testutil.Util.resourceAsTempFile(Command_StaticTest.class, TEST_BS_FILE);
         // run command
-        testSubject.init(new ArgParser(new String[] {"-static"}), new StringHolder(inFile.getPath()), null, new FeedbackStream());
+        testSubject.init(new ArgParser(new String[] {"-static"}), new StringHolder(inFile.getPath()), null, null, new FeedbackStream());
         testSubject.execute(ap);
         // I guess check the output file
         assertTrue(new File(Command_StaticTest.class.getSimpleName()+".png").exists());
@@ -136,7 +136,7 @@ public class Command_StaticTest {
         // put an input test file in a temp directory
         File inFile = testutil.Util.resourceAsTempFile(Command_StaticTest.class, TEST_MDEC_FILE);
         // run command
-        testSubject.init(new ArgParser(new String[] {"-static"}), new StringHolder(inFile.getPath()), null, new FeedbackStream());
+        testSubject.init(new ArgParser(new String[] {"-static"}), new StringHolder(inFile.getPath()), null, null, new FeedbackStream());
         testSubject.execute(ap);
         // I guess check the output file
         assertTrue(new File(Command_StaticTest.class.getSimpleName()+".jpg").exists());
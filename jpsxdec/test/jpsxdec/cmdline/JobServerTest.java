@@ -0,0 +1,263 @@
+/*
+ * jPSXdec: PlayStation 1 Media Decoder/Converter in Java
+ * Copyright (C) 2019  Michael Sabin
+ * All rights reserved.
+ *
+ * Redistribution and use of the jPSXdec code or any derivative works are
+ * permitted provided that the following conditions are met:
+ *
+ *  * Redistributions may not be sold, nor may they be used in commercial
+ *    or revenue-generating business activities.
+ *
+ *  * Redistributions that are modified from the original source must
+ *    include the complete source code, including the source code for all
+ *    components used by a binary built from the modified sources. However, as
+ *    a special exception, the source code distributed need not include
+ *    anything that is normally distributed (in either source or binary form)
+ *    with the major components (compiler, kernel, and so on) of the operating
+ *    system on which the executable runs, unless that component itself
+ *    accompanies the executable.
+ *
+ *  * Redistributions must reproduce the above copyright notice, this list
+ *    of conditions and the following disclaimer in the documentation and/or
+ *    other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package jpsxdec.cmdline;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Arrays;
+import javax.annotation.Nonnull;
+import jpsxdec.Version;
+import jpsxdec.cdreaders.CdFileSectorReader;
+import jpsxdec.i18n.I;
+import jpsxdec.i18n.log.ConsoleProgressLogger;
+import jpsxdec.indexing.DiscIndex;
+import static org.junit.Assert.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+
+public class JobServerTest {
+
+    @Rule
+    public TemporaryFolder _tmp = new TemporaryFolder();
+
+    @Test
+    public void splitArgs() {
+        assertArrayEquals(new String[] {"-f", "disc.bin", "-i", "1"},
+                          JobServer.splitArgs("  -f disc.bin\t-i 1 "));
+        assertArrayEquals(new String[] {"-f", "my disc.bin", "-dir", "out"},
+                          JobServer.splitArgs("-f \"my disc.bin\" -dir out"));
+        assertArrayEquals(new String[] {"a\"b\\c", ""},
+                          JobServer.splitArgs("\"a\\\"b\\\\c\" \"\""));
+        assertArrayEquals(new String[] {"C:\\dir\\disc.bin"},
+                          JobServer.splitArgs("C:\\dir\\disc.bin"));
+        assertEquals(0, JobServer.splitArgs("   ").length);
+    }
+
+    @Test
+    public void linePrefix() {
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        JobServer.LinePrefixOutputStream a = new JobServer.LinePrefixOutputStream(target, "[1] ");
+        JobServer.LinePrefixOutputStream b = new JobServer.LinePrefixOutputStream(target, "[2] ");
+        PrintStream psA = new PrintStream(a, true);
+        PrintStream psB = new PrintStream(b, true);
+        psA.print("first ");
+        psB.println("other");
+        psA.println("half");
+        psA.print("two\nlines\nunfinished");
+        a.finishLine();
+        b.writeLine("done 0");
+        assertEquals("[2] other\n" +
+                     "[1] first half\n" +
+                     "[1] two\n" +
+                     "[1] lines\n" +
+                     "[1] unfinished\n" +
+                     "[2] done 0\n",
+                     target.toString().replace(System.getProperty("line.separator"), "\n"));
+    }
+
+    @Test
+    public void sameIndexDifferentDiscs() throws Exception {
+        File discA = newDisc("a.iso", (byte)0xAA);
+        File discB = newDisc("b.iso", (byte)0xBB);
+        File index = newIndex(discA);
+
+        JobServer server = new JobServer();
+        try {
+            // separate runs so the second job finds the first job's cached index
+            String sOut1 = serve(server, "-x \"" + index + "\" -f \"" + discA + "\" -i 99");
+            String sOut2 = serve(server, "-x \"" + index + "\" -f \"" + discB + "\" -i 99");
+            assertTrue(sOut1, sOut1.contains(discA.toString()));
+            assertTrue(sOut2, sOut2.contains(discB.toString()));
+            assertFalse(sOut2, sOut2.contains(discA.toString()));
+        } finally {
+            server.stop();
+            deleteJobLogs(2);
+        }
+    }
+
+    @Test
+    public void builtIndexKeepsGames() throws Exception {
+        File disc = newDisc("a.iso", (byte)0);
+        String sReused = I.CMD_REUSING_LOADED_INDEX(disc).getLocalizedMessage();
+
+        JobServer server = new JobServer();
+        try {
+            String sOut1 = serve(server, "-f \"" + disc + "\" -games ff7 -i 99");
+            String sOut2 = serve(server, "-f \"" + disc + "\" -games ff7 -i 99");
+            String sOut3 = serve(server, "-f \"" + disc + "\" -games ff8 -i 99");
+            String sOut4 = serve(server, "-f \"" + disc + "\" -games ff8 -i 99");
+            assertFalse(sOut1, sOut1.contains(sReused));
+            assertTrue(sOut2, sOut2.contains(sReused));
+            assertFalse(sOut3, sOut3.contains(sReused));
+            assertTrue(sOut4, sOut4.contains(sReused));
+        } finally {
+            server.stop();
+            deleteJobLogs(4);
+        }
+    }
+
+    @Test
+    public void indexSharesOpenDisc() throws Exception {
+        File disc = newDisc("a.iso", (byte)0);
+        File index = newIndex(disc);
+
+        JobServer server = new JobServer();
+        try {
+            serve(server, "-f \"" + disc + "\" -i 99");
+            String sOut = serve(server, "-x \"" + index + "\" -i 99");
+            assertTrue(sOut, sOut.contains(I.CMD_REUSING_OPEN_DISC(disc).getLocalizedMessage()));
+        } finally {
+            server.stop();
+            deleteJobLogs(2);
+        }
+    }
+
+    @Test
+    public void noVideoToStdOut() throws Exception {
+        File disc = newDisc("a.iso", (byte)0);
+
+        JobServer server = new JobServer();
+        try {
+            String sOut = serve(server, "-f \"" + disc + "\" -i 1 -y4mout -");
+            assertTrue(sOut, sOut.contains(I.CMD_Y4MOUT_STDOUT_IN_SERVER().getLocalizedMessage()));
+            assertTrue(sOut, sOut.contains("[1] done 1"));
+        } finally {
+            server.stop();
+            deleteJobLogs(1);
+        }
+    }
+
+    @Test
+    public void runAloneWaitsForOtherSessions() throws Exception {
+        final DiscCache cache = new DiscCache();
+        DiscCache.Session a = cache.openSession(1);
+        DiscCache.Session b = cache.openSession(2);
+        assertFalse(b.runAlone());
+        a.close();
+        assertTrue(b.runAlone());
+
+        Thread other = new Thread() {
+            @Override
+            public void run() {
+                cache.openSession(3).close();
+            }
+        };
+        other.start();
+        other.join(200);
+        assertTrue(other.isAlive());
+        b.close();
+        other.join(5000);
+        assertFalse(other.isAlive());
+        cache.close();
+    }
+
+    @Test
+    public void verbosityPerJob() throws Exception {
+        File disc = newDisc("a.iso", (byte)0);
+        File index = newIndex(disc);
+
+        JobServer server = new JobServer();
+        try {
+            String sOut = serve(server, "-v 0 -x \"" + index + "\" -i 99\n" +
+                                        "-x \"" + index + "\" -i 99");
+            for (String sLine : sOut.split("\n")) {
+                if (sLine.startsWith("[1] "))
+                    assertEquals("[1] done 1", sLine);
+            }
+            assertTrue(sOut, sOut.contains("[2] " + I.JPSXDEC_VERSION_NON_COMMERCIAL(Version.Version).getLocalizedMessage()));
+        } finally {
+            server.stop();
+            deleteJobLogs(2);
+        }
+    }
+
+    /** Returns the output of the jobs without the lines echoing the jobs. */
+    private static @Nonnull String serve(@Nonnull JobServer server, @Nonnull String sJobs) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        server.serve(new ByteArrayInputStream(sJobs.getBytes()), out);
+        String sOut = out.toString().replace(System.getProperty("line.separator"), "\n");
+        return sOut.replaceAll("(?m)^\\[\\d+\\] job .*\n", "");
+    }
+
+    /** Creates a 2048 byte/sector disc image filled with one value. */
+    private @Nonnull File newDisc(@Nonnull String sName, byte bFill) throws IOException {
+        byte[] abDisc = new byte[2048 * 32];
+        Arrays.fill(abDisc, bFill);
+        File disc = _tmp.newFile(sName);
+        FileOutputStream fos = new FileOutputStream(disc);
+        try {
+            fos.write(abDisc);
+        } finally {
+            fos.close();
+        }
+        return disc;
+    }
+
+    private @Nonnull File newIndex(@Nonnull File disc) throws Exception {
+        File index = new File(_tmp.getRoot(), "disc.idx");
+        CdFileSectorReader cd = new CdFileSectorReader(disc);
+        ConsoleProgressLogger log = new ConsoleProgressLogger("JobServerTest",
+                new File(_tmp.getRoot(), "index.log"), new PrintStream(new ByteArrayOutputStream()));
+        try {
+            new DiscIndex(cd, log).serializeIndex(index);
+        } finally {
+            log.close();
+            cd.close();
+        }
+        return index;
+    }
+
+    /** Jobs may log about the index in the current directory. */
+    private static void deleteJobLogs(int iJobCount) {
+        DiscCache cache = new DiscCache();
+        for (int i = 1; i <= iJobCount; i++) {
+            String sLog = I.INDEX_LOG_FILE_BASE_NAME().getLocalizedMessage();
+            DiscCache.Session session = cache.openSession(i);
+            session.getLogFile(sLog).delete();
+            session.close();
+        }
+    }
+
+}
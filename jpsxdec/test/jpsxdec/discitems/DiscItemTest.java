@@ -150,4 +150,20 @@ public class DiscItemTest {
         assertEquals(0, d11.getOverlap(d1));
     }
 
+    @Test
+    public void testSameLineage() {
+        IndexId root = new IndexId(0);
+        IndexId child = root.createChild();
+        IndexId grandChild = child.createChild();
+        IndexId sibling = root.createNext();
+
+        assertTrue(root.isSameLineage(root));
+        assertTrue(root.isSameLineage(grandChild));
+        assertTrue(grandChild.isSameLineage(root));
+        assertTrue(child.isSameLineage(grandChild));
+        assertFalse(sibling.isSameLineage(child));
+        assertFalse(child.isSameLineage(sibling));
+        assertFalse(child.isSameLineage(child.createNext()));
+    }
+
 }
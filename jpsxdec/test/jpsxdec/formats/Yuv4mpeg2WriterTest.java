@@ -0,0 +1,108 @@
+/*
+ * jPSXdec: PlayStation 1 Media Decoder/Converter in Java
+ * Copyright (C) 2019  Michael Sabin
+ * All rights reserved.
+ *
+ * Redistribution and use of the jPSXdec code or any derivative works are
+ * permitted provided that the following conditions are met:
+ *
+ *  * Redistributions may not be sold, nor may they be used in commercial
+ *    or revenue-generating business activities.
+ *
+ *  * Redistributions that are modified from the original source must
+ *    include the complete source code, including the source code for all
+ *    components used by a binary built from the modified sources. However, as
+ *    a special exception, the source code distributed need not include
+ *    anything that is normally distributed (in either source or binary form)
+ *    with the major components (compiler, kernel, and so on) of the operating
+ *    system on which the executable runs, unless that component itself
+ *    accompanies the executable.
+ *
+ *  * Redistributions must reproduce the above copyright notice, this list
+ *    of conditions and the following disclaimer in the documentation and/or
+ *    other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package jpsxdec.formats;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import jpsxdec.util.Misc;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+
+public class Yuv4mpeg2WriterTest {
+
+    public Yuv4mpeg2WriterTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    private static final String HEADER = "YUV4MPEG2 W4 H2 F15:1 Ip A1:1 C420jpeg XCOLORRANGE=LIMITED\n";
+
+    @Test
+    public void framesAndRepeats() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Yuv4mpeg2Writer writer = new Yuv4mpeg2Writer(out, 4, 2, 15, 1);
+        assertEquals(HEADER, Misc.asciiToString(out.toByteArray()));
+
+        writer.writeBlankFrame();
+        byte[] abY = {1, 2, 3, 4, 5, 6, 7, 8};
+        byte[] abCb = {9, 10};
+        byte[] abCr = {11, 12};
+        writer.write(abY, abCb, abCr);
+        writer.repeatPreviousFrame();
+        assertEquals(3, writer.getVideoFramesWritten());
+        writer.close();
+
+        byte[] abBlank = {'F','R','A','M','E','\n',
+                          16, 16, 16, 16, 16, 16, 16, 16, -128, -128, -128, -128};
+        byte[] abFrame = {'F','R','A','M','E','\n',
+                          1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12};
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        expected.write(Misc.stringToAscii(HEADER));
+        expected.write(abBlank);
+        expected.write(abFrame);
+        expected.write(abFrame);
+        assertArrayEquals(expected.toByteArray(), out.toByteArray());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void repeatBeforeFirstFrame() throws IOException {
+        Yuv4mpeg2Writer writer = new Yuv4mpeg2Writer(new ByteArrayOutputStream(), 4, 2, 15, 1);
+        writer.repeatPreviousFrame();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void oddDimensions() throws IOException {
+        new Yuv4mpeg2Writer(new ByteArrayOutputStream(), 3, 2, 15, 1);
+    }
+
+}
@@ -0,0 +1,173 @@
+/*
+ * jPSXdec: PlayStation 1 Media Decoder/Converter in Java
+ * Copyright (C) 2019  Michael Sabin
+ * All rights reserved.
+ *
+ * Redistribution and use of the jPSXdec code or any derivative works are
+ * permitted provided that the following conditions are met:
+ *
+ *  * Redistributions may not be sold, nor may they be used in commercial
+ *    or revenue-generating business activities.
+ *
+ *  * Redistributions that are modified from the original source must
+ *    include the complete source code, including the source code for all
+ *    components used by a binary built from the modified sources. However, as
+ *    a special exception, the source code distributed need not include
+ *    anything that is normally distributed (in either source or binary form)
+ *    with the major components (compiler, kernel, and so on) of the operating
+ *    system on which the executable runs, unless that component itself
+ *    accompanies the executable.
+ *
+ *  * Redistributions must reproduce the above copyright notice, this list
+ *    of conditions and the following disclaimer in the documentation and/or
+ *    other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package jpsxdec.indexing;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import jpsxdec.Version;
+import jpsxdec.cdreaders.CdFileSectorReader;
+import jpsxdec.discitems.DiscItem;
+import jpsxdec.i18n.log.DebugLogger;
+import jpsxdec.modules.iso9660.DiscItemISO9660File;
+import org.junit.*;
+import static org.junit.Assert.*;
+import org.junit.rules.TemporaryFolder;
+
+public class DiscIndexTest {
+
+    private static final int SECTOR_COUNT = 200;
+
+    @Rule
+    public TemporaryFolder _folder = new TemporaryFolder();
+
+    private CdFileSectorReader _cd;
+
+    @Before
+    public void setUp() throws Exception {
+        File cdFile = _folder.newFile("cd.iso");
+        RandomAccessFile raf = new RandomAccessFile(cdFile, "rw");
+        raf.setLength(2048 * SECTOR_COUNT);
+        raf.close();
+        _cd = new CdFileSectorReader(cdFile, 2048);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        _cd.close();
+    }
+
+    /** Saves an index of files with the given start and end sectors,
+     * then reads it back. */
+    private DiscIndex makeIndex(int[][] aaiStartEnd) throws Exception {
+        File indexFile = new File(_folder.getRoot(), "cd.idx");
+        PrintStream ps = new PrintStream(indexFile, "UTF-8");
+        ps.println(Version.IndexHeader);
+        ps.println(_cd.serialize());
+        for (int i = 0; i < aaiStartEnd.length; i++) {
+            int iStart = aaiStartEnd[i][0], iEnd = aaiStartEnd[i][1];
+            DiscItemISO9660File file = new DiscItemISO9660File(_cd, iStart, iEnd,
+                    new File("FILE" + i), (iEnd - iStart + 1) * 2048L, false, false);
+            file.setIndex(i);
+            ps.println(file.serialize().serialize());
+        }
+        ps.close();
+        return new DiscIndex(indexFile.getPath(), _cd, DebugLogger.Log);
+    }
+
+    private static List<Integer> startSectors(List<DiscItem> items) {
+        List<Integer> starts = new ArrayList<Integer>();
+        for (DiscItem item : items)
+            starts.add(item.getStartSector());
+        return starts;
+    }
+
+    private static List<Integer> list(Integer ... ai) {
+        List<Integer> starts = new ArrayList<Integer>();
+        for (Integer i : ai)
+            starts.add(i);
+        return starts;
+    }
+
+    private static final int[][] FILES = {
+        {  0, 100}, // spans most of the others
+        { 10,  19},
+        { 15,  15}, // single sector
+        { 20,  29}, // starts right after the one before ends
+        { 50,  50},
+        {150, 160},
+    };
+
+    @Test
+    public void pointQueries() throws Exception {
+        DiscIndex index = makeIndex(FILES);
+        assertEquals(list(0), startSectors(index.getItemsAtSector(0)));
+        assertEquals(list(0), startSectors(index.getItemsAtSector(5)));
+        assertEquals(list(0, 10, 15), startSectors(index.getItemsAtSector(15)));
+        assertEquals(list(0, 50), startSectors(index.getItemsAtSector(50)));
+        assertEquals(list(150), startSectors(index.getItemsAtSector(160)));
+    }
+
+    @Test
+    public void rangesAtItemEdges() throws Exception {
+        DiscIndex index = makeIndex(FILES);
+        // end sector of one item and start sector of the next
+        assertEquals(list(0, 10), startSectors(index.getItemsAtSector(19)));
+        assertEquals(list(0, 20), startSectors(index.getItemsAtSector(20)));
+        assertEquals(list(0, 10, 20), startSectors(index.getItemsOverlapping(19, 20)));
+        // ranges that only touch the first or last sector of an item
+        assertEquals(list(0, 20), startSectors(index.getItemsOverlapping(29, 49)));
+        assertEquals(list(0, 50), startSectors(index.getItemsOverlapping(30, 50)));
+        assertEquals(list(0), startSectors(index.getItemsOverlapping(100, 149)));
+        assertEquals(list(150), startSectors(index.getItemsOverlapping(101, 150)));
+        assertEquals(list(0, 10, 15, 20, 50, 150),
+                     startSectors(index.getItemsOverlapping(0, SECTOR_COUNT - 1)));
+    }
+
+    @Test
+    public void emptyResults() throws Exception {
+        DiscIndex index = makeIndex(FILES);
+        assertTrue(index.getItemsAtSector(101).isEmpty());
+        assertTrue(index.getItemsAtSector(161).isEmpty());
+        assertTrue(index.getItemsOverlapping(101, 149).isEmpty());
+        assertTrue(index.getItemsOverlapping(161, SECTOR_COUNT - 1).isEmpty());
+
+        DiscIndex empty = makeIndex(new int[0][]);
+        assertTrue(empty.getItemsAtSector(0).isEmpty());
+        assertTrue(empty.getItemsOverlapping(0, SECTOR_COUNT - 1).isEmpty());
+    }
+
+    @Test
+    public void matchesScan() throws Exception {
+        DiscIndex index = makeIndex(FILES);
+        for (int iStart = 0; iStart < SECTOR_COUNT; iStart++) {
+            for (int iEnd = iStart; iEnd < Math.min(iStart + 60, SECTOR_COUNT); iEnd++) {
+                List<DiscItem> expected = new ArrayList<DiscItem>();
+                for (DiscItem item : index) {
+                    if (item.getStartSector() <= iEnd && item.getEndSector() >= iStart)
+                        expected.add(item);
+                }
+                assertEquals(iStart + "-" + iEnd, expected, index.getItemsOverlapping(iStart, iEnd));
+            }
+        }
+    }
+
+}
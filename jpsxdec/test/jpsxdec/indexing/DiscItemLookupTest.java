@@ -0,0 +1,132 @@
+/*
+ * jPSXdec: PlayStation 1 Media Decoder/Converter in Java
+ * Copyright (C) 2019  Michael Sabin
+ * All rights reserved.
+ *
+ * Redistribution and use of the jPSXdec code or any derivative works are
+ * permitted provided that the following conditions are met:
+ *
+ *  * Redistributions may not be sold, nor may they be used in commercial
+ *    or revenue-generating business activities.
+ *
+ *  * Redistributions that are modified from the original source must
+ *    include the complete source code, including the source code for all
+ *    components used by a binary built from the modified sources. However, as
+ *    a special exception, the source code distributed need not include
+ *    anything that is normally distributed (in either source or binary form)
+ *    with the major components (compiler, kernel, and so on) of the operating
+ *    system on which the executable runs, unless that component itself
+ *    accompanies the executable.
+ *
+ *  * Redistributions must reproduce the above copyright notice, this list
+ *    of conditions and the following disclaimer in the documentation and/or
+ *    other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package jpsxdec.indexing;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import jpsxdec.cdreaders.CdFileSectorReader;
+import jpsxdec.discitems.DiscItem;
+import jpsxdec.discitems.DiscItemSaverBuilder;
+import jpsxdec.discitems.IndexId;
+import jpsxdec.i18n.ILocalizedMessage;
+import jpsxdec.i18n.UnlocalizedMessage;
+import org.junit.*;
+import static org.junit.Assert.*;
+import org.junit.rules.TemporaryFolder;
+
+public class DiscItemLookupTest {
+
+    private static class DI extends DiscItem {
+        public DI(CdFileSectorReader cd, int iIndex, IndexId id) {
+            super(cd, 0, 0);
+            setIndex(iIndex);
+            setIndexId(id);
+        }
+        public String getSerializationTypeId() { return "Test"; }
+        public GeneralType getType() { return GeneralType.Video; }
+        public ILocalizedMessage getInterestingDescription() { return new UnlocalizedMessage("test"); }
+        public DiscItemSaverBuilder makeSaverBuilder() { throw new UnsupportedOperationException(); }
+    }
+
+    @Rule
+    public TemporaryFolder _folder = new TemporaryFolder();
+
+    private CdFileSectorReader _cd;
+
+    @Before
+    public void setUp() throws Exception {
+        File cdFile = _folder.newFile("cd.iso");
+        RandomAccessFile raf = new RandomAccessFile(cdFile, "rw");
+        raf.seek(2048 * 10);
+        raf.writeByte(0);
+        raf.close();
+        _cd = new CdFileSectorReader(cdFile, 2048);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        _cd.close();
+    }
+
+    @Test
+    public void lookup() {
+        List<DiscItem> items = new ArrayList<DiscItem>();
+        IndexId id = new IndexId(0);
+        // out of order and with gaps, like a hand edited index
+        int[] aiIndexes = {5, 0, 2, 9, 7};
+        for (int iIndex : aiIndexes) {
+            items.add(new DI(_cd, iIndex, id));
+            id = id.createNext();
+        }
+        DiscItemLookup lookup = new DiscItemLookup(items);
+
+        for (DiscItem item : items) {
+            assertSame(item, lookup.getByIndex(item.getIndex()));
+            assertTrue(lookup.hasIndex(item.getIndex()));
+            assertSame(item, lookup.getById(item.getIndexId().serialize()));
+        }
+        assertNull(lookup.getByIndex(1));
+        assertFalse(lookup.hasIndex(10));
+        assertFalse(lookup.hasIndex(-1));
+        assertNull(lookup.getById(id.serialize()));
+    }
+
+    @Test
+    public void duplicatesLastWins() {
+        List<DiscItem> items = new ArrayList<DiscItem>();
+        IndexId id = new IndexId(0);
+        items.add(new DI(_cd, 1, id));
+        items.add(new DI(_cd, 0, id.createNext()));
+        items.add(new DI(_cd, 1, id));
+        DiscItemLookup lookup = new DiscItemLookup(items);
+
+        assertSame(items.get(2), lookup.getByIndex(1));
+        assertSame(items.get(2), lookup.getById(id.serialize()));
+        assertSame(items.get(1), lookup.getByIndex(0));
+    }
+
+    @Test
+    public void empty() {
+        DiscItemLookup lookup = new DiscItemLookup(new ArrayList<DiscItem>());
+        assertNull(lookup.getByIndex(0));
+        assertNull(lookup.getById("0"));
+    }
+
+}
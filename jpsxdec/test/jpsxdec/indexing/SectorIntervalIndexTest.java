@@ -0,0 +1,115 @@
+/*
+ * jPSXdec: PlayStation 1 Media Decoder/Converter in Java
+ * Copyright (C) 2019  Michael Sabin
+ * All rights reserved.
+ *
+ * Redistribution and use of the jPSXdec code or any derivative works are
+ * permitted provided that the following conditions are met:
+ *
+ *  * Redistributions may not be sold, nor may they be used in commercial
+ *    or revenue-generating business activities.
+ *
+ *  * Redistributions that are modified from the original source must
+ *    include the complete source code, including the source code for all
+ *    components used by a binary built from the modified sources. However, as
+ *    a special exception, the source code distributed need not include
+ *    anything that is normally distributed (in either source or binary form)
+ *    with the major components (compiler, kernel, and so on) of the operating
+ *    system on which the executable runs, unless that component itself
+ *    accompanies the executable.
+ *
+ *  * Redistributions must reproduce the above copyright notice, this list
+ *    of conditions and the following disclaimer in the documentation and/or
+ *    other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package jpsxdec.indexing;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import jpsxdec.cdreaders.CdFileSectorReader;
+import jpsxdec.discitems.DiscItem;
+import jpsxdec.discitems.DiscItemSaverBuilder;
+import jpsxdec.i18n.ILocalizedMessage;
+import jpsxdec.i18n.UnlocalizedMessage;
+import org.junit.*;
+import static org.junit.Assert.*;
+import org.junit.rules.TemporaryFolder;
+
+public class SectorIntervalIndexTest {
+
+    private static class DI extends DiscItem {
+        public DI(CdFileSectorReader cd, int iStartSector, int iEndSector) {
+            super(cd, iStartSector, iEndSector);
+        }
+        public String getSerializationTypeId() { return "Test"; }
+        public GeneralType getType() { return GeneralType.Video; }
+        public ILocalizedMessage getInterestingDescription() { return new UnlocalizedMessage("test"); }
+        public DiscItemSaverBuilder makeSaverBuilder() { throw new UnsupportedOperationException(); }
+    }
+
+    @Rule
+    public TemporaryFolder _folder = new TemporaryFolder();
+
+    @Test
+    public void matchesBruteForce() throws Exception {
+        File cdFile = _folder.newFile("cd.iso");
+        RandomAccessFile raf = new RandomAccessFile(cdFile, "rw");
+        raf.seek(2048 * 1000);
+        raf.writeByte(0);
+        raf.close();
+        CdFileSectorReader cd = new CdFileSectorReader(cdFile, 2048);
+
+        Random rand = new Random(1234);
+        List<DiscItem> items = new ArrayList<DiscItem>();
+        for (int i = 0; i < 500; i++) {
+            int iStart = rand.nextInt(1000);
+            int iLength = rand.nextInt(10) == 0 ? rand.nextInt(500) : rand.nextInt(20);
+            items.add(new DI(cd, iStart, Math.min(iStart + iLength, 999)));
+        }
+
+        SectorIntervalIndex index = new SectorIntervalIndex(items);
+        assertEquals(items.size(), index.size());
+
+        for (int iTry = 0; iTry < 1000; iTry++) {
+            int iStart = rand.nextInt(1000);
+            int iEnd = iTry % 2 == 0 ? iStart : Math.min(iStart + rand.nextInt(50), 999);
+
+            int[] aiExpected = new int[items.size()];
+            int iCount = 0;
+            for (int i = 0; i < items.size(); i++) {
+                DiscItem item = items.get(i);
+                if (item.getStartSector() <= iEnd && item.getEndSector() >= iStart)
+                    aiExpected[iCount++] = i;
+            }
+            aiExpected = Arrays.copyOf(aiExpected, iCount);
+
+            assertArrayEquals(aiExpected, index.findOverlappingPositions(iStart, iEnd));
+        }
+        cd.close();
+    }
+
+    @Test
+    public void empty() {
+        SectorIntervalIndex index = new SectorIntervalIndex(new ArrayList<DiscItem>());
+        assertEquals(0, index.findOverlappingPositions(0, 100).length);
+    }
+
+}
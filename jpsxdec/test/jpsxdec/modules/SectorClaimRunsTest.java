@@ -0,0 +1,98 @@
+/*
+ * jPSXdec: PlayStation 1 Media Decoder/Converter in Java
+ * Copyright (C) 2019  Michael Sabin
+ * All rights reserved.
+ *
+ * Redistribution and use of the jPSXdec code or any derivative works are
+ * permitted provided that the following conditions are met:
+ *
+ *  * Redistributions may not be sold, nor may they be used in commercial
+ *    or revenue-generating business activities.
+ *
+ *  * Redistributions that are modified from the original source must
+ *    include the complete source code, including the source code for all
+ *    components used by a binary built from the modified sources. However, as
+ *    a special exception, the source code distributed need not include
+ *    anything that is normally distributed (in either source or binary form)
+ *    with the major components (compiler, kernel, and so on) of the operating
+ *    system on which the executable runs, unless that component itself
+ *    accompanies the executable.
+ *
+ *  * Redistributions must reproduce the above copyright notice, this list
+ *    of conditions and the following disclaimer in the documentation and/or
+ *    other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package jpsxdec.modules;
+
+import org.junit.*;
+import static org.junit.Assert.*;
+
+
+public class SectorClaimRunsTest {
+
+    @Test
+    public void runs() {
+        SectorClaimRuns.Builder b = new SectorClaimRuns.Builder();
+        b.add(String.class, 3);
+        b.add(String.class);
+        b.add(Integer.class);
+        b.add(UnidentifiedSector.class, 200);
+        b.add(String.class);
+        SectorClaimRuns runs = b.build();
+
+        assertEquals(206, runs.getSectorCount());
+        assertEquals(4, runs.getRunCount());
+        assertEquals(0, runs.getRunStartSector(0));
+        assertEquals(4, runs.getRunEndSector(0));
+        assertEquals(4, runs.getRunStartSector(1));
+        assertEquals(1, runs.getRunLength(1));
+        assertEquals(5, runs.getRunStartSector(2));
+        assertEquals(200, runs.getRunLength(2));
+        assertEquals(205, runs.getRunStartSector(3));
+        assertEquals(206, runs.getRunEndSector(3));
+
+        assertSame(String.class, runs.getClaimerAt(0));
+        assertSame(String.class, runs.getClaimerAt(3));
+        assertSame(Integer.class, runs.getClaimerAt(4));
+        assertSame(UnidentifiedSector.class, runs.getClaimerAt(5));
+        assertSame(UnidentifiedSector.class, runs.getClaimerAt(204));
+        assertSame(String.class, runs.getClaimerAt(205));
+        assertEquals(2, runs.findRun(100));
+    }
+
+    @Test
+    public void manyRuns() {
+        SectorClaimRuns.Builder b = new SectorClaimRuns.Builder();
+        for (int i = 0; i < 1000; i++)
+            b.add((i & 1) == 0 ? String.class : Integer.class, i + 1);
+        SectorClaimRuns runs = b.build();
+        assertEquals(1000, runs.getRunCount());
+        assertEquals(1000 * 1001 / 2, runs.getSectorCount());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, runs.findRun(runs.getRunStartSector(i)));
+            assertEquals(i, runs.findRun(runs.getRunEndSector(i) - 1));
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void outOfRange() {
+        SectorClaimRuns.Builder b = new SectorClaimRuns.Builder();
+        b.add(String.class, 10);
+        b.build().getClaimerAt(10);
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * jPSXdec: PlayStation 1 Media Decoder/Converter in Java
+ * Copyright (C) 2019  Michael Sabin
+ * All rights reserved.
+ *
+ * Redistribution and use of the jPSXdec code or any derivative works are
+ * permitted provided that the following conditions are met:
+ *
+ *  * Redistributions may not be sold, nor may they be used in commercial
+ *    or revenue-generating business activities.
+ *
+ *  * Redistributions that are modified from the original source must
+ *    include the complete source code, including the source code for all
+ *    components used by a binary built from the modified sources. However, as
+ *    a special exception, the source code distributed need not include
+ *    anything that is normally distributed (in either source or binary form)
+ *    with the major components (compiler, kernel, and so on) of the operating
+ *    system on which the executable runs, unless that component itself
+ *    accompanies the executable.
+ *
+ *  * Redistributions must reproduce the above copyright notice, this list
+ *    of conditions and the following disclaimer in the documentation and/or
+ *    other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package jpsxdec.modules.video.framenumber;
+
+import jpsxdec.discitems.SerializedDiscItem;
+import jpsxdec.i18n.log.ShouldNotLog;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+
+public class FrameTableTest {
+
+    // start sectors and header frame numbers of a short video,
+    // including frames that share a sector and a header number
+    private static final int[] SECTORS = {100, 110, 120, 130, 130, 138, 150, 160, 170};
+    private static final int[] HEADERS = {  1,   2,   3,   4,   4,   5,   6,   8,   9};
+
+    private SerializedDiscItem _serial;
+    private IndexSectorFrameNumber.Format _indexFormat;
+    private HeaderFrameNumber.Format _headerFormat;
+
+    @Before
+    public void setUp() throws Exception {
+        IndexSectorFrameNumber.Format.Builder ib = new IndexSectorFrameNumber.Format.Builder(SECTORS[0]);
+        HeaderFrameNumber.Format.Builder hb = new HeaderFrameNumber.Format.Builder(HEADERS[0]);
+        for (int i = 1; i < SECTORS.length; i++) {
+            ib.addFrameStartSector(SECTORS[i]);
+            hb.addHeaderFrameNumber(HEADERS[i]);
+        }
+        _serial = new SerializedDiscItem("Test", 0, "id", SECTORS[0], 180);
+        ib.makeFormat().serialize(_serial);
+        hb.makeFormat().serialize(_serial);
+
+        SerializedDiscItem deserialized = new SerializedDiscItem(_serial.serialize());
+        _indexFormat = new IndexSectorFrameNumber.Format(deserialized);
+        _headerFormat = new HeaderFrameNumber.Format(deserialized);
+    }
+
+    @Test
+    public void serialization() throws Exception {
+        assertTrue(_serial.serialize().contains("100,10*3,0,8,12,10*2"));
+        assertTrue(_headerFormat.hasFrameValues(_indexFormat));
+        for (int i = 0; i < SECTORS.length; i++) {
+            assertEquals(SECTORS[i], _indexFormat.getFrameStartSector(i));
+        }
+    }
+
+    @Test
+    public void olderIndex() throws Exception {
+        SerializedDiscItem old = new SerializedDiscItem("Test", 0, "id", SECTORS[0], 180);
+        new IndexSectorFrameNumber.Format.Builder(SECTORS[0]).makeFormat().serialize(old);
+        SerializedDiscItem oldNoList = new SerializedDiscItem(
+                old.serialize().replaceAll("\\|Frame Start Sectors:[^|]*", ""));
+        IndexSectorFrameNumber.Format format = new IndexSectorFrameNumber.Format(oldNoList);
+        assertFalse(format.hasFrameStartSectors());
+        assertEquals(-1, format.findFrame(new FrameLookup(FrameNumber.Type.Index, 0)));
+    }
+
+    @Test
+    public void findFrame() {
+        assertEquals(0, _headerFormat.findFrame(_indexFormat, new FrameLookup(FrameNumber.Type.Header, 0)));
+        assertEquals(4, _headerFormat.findFrame(_indexFormat, new FrameLookup(FrameNumber.Type.Header, 4, 1)));
+        assertEquals(7, _headerFormat.findFrame(_indexFormat, new FrameLookup(FrameNumber.Type.Header, 7)));
+        assertEquals(-1, _headerFormat.findFrame(_indexFormat, new FrameLookup(FrameNumber.Type.Header, 10)));
+        assertEquals(5, _headerFormat.findFrame(_indexFormat, new FrameLookup(FrameNumber.Type.Sector, 131)));
+        assertEquals(3, _indexFormat.findFrame(new FrameLookup(FrameNumber.Type.Index, 3)));
+        assertEquals(-1, _indexFormat.findFrame(new FrameLookup(FrameNumber.Type.Header, 3)));
+    }
+
+    @Test
+    public void formatterFromMiddle() {
+        ShouldNotLog log = new ShouldNotLog();
+        for (int iStart = 0; iStart < SECTORS.length; iStart++) {
+            IFrameNumberFormatterWithHeader all = _headerFormat.makeFormatter(_indexFormat);
+            IFrameNumberFormatterWithHeader fromMiddle = _headerFormat.makeFormatter(_indexFormat, iStart);
+            for (int i = 0; i < SECTORS.length; i++) {
+                FrameNumber expected = all.next(SECTORS[i], HEADERS[i], log);
+                if (i >= iStart) {
+                    FrameNumber actual = fromMiddle.next(SECTORS[i], HEADERS[i], log);
+                    assertTrue(expected.equalValue(actual));
+                    assertEquals(expected.toString(), actual.toString());
+                }
+            }
+        }
+    }
+
+}
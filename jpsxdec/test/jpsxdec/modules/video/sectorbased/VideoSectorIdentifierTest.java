@@ -0,0 +1,156 @@
+/*
+ * jPSXdec: PlayStation 1 Media Decoder/Converter in Java
+ * Copyright (C) 2019  Michael Sabin
+ * All rights reserved.
+ *
+ * Redistribution and use of the jPSXdec code or any derivative works are
+ * permitted provided that the following conditions are met:
+ *
+ *  * Redistributions may not be sold, nor may they be used in commercial
+ *    or revenue-generating business activities.
+ *
+ *  * Redistributions that are modified from the original source must
+ *    include the complete source code, including the source code for all
+ *    components used by a binary built from the modified sources. However, as
+ *    a special exception, the source code distributed need not include
+ *    anything that is normally distributed (in either source or binary form)
+ *    with the major components (compiler, kernel, and so on) of the operating
+ *    system on which the executable runs, unless that component itself
+ *    accompanies the executable.
+ *
+ *  * Redistributions must reproduce the above copyright notice, this list
+ *    of conditions and the following disclaimer in the documentation and/or
+ *    other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package jpsxdec.modules.video.sectorbased;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.EnumSet;
+import java.util.Random;
+import java.util.Set;
+import jpsxdec.cdreaders.CdFileSectorReader;
+import jpsxdec.i18n.log.DebugLogger;
+import jpsxdec.modules.IIdentifiedSector;
+import jpsxdec.modules.SectorClaimSystem;
+import jpsxdec.modules.square.SectorFF8;
+import jpsxdec.modules.strvideo.SectorClaimToStrVideoSector;
+import jpsxdec.modules.strvideo.SectorStrVideo;
+import jpsxdec.util.IO;
+import org.junit.*;
+import static org.junit.Assert.*;
+import org.junit.rules.TemporaryFolder;
+
+public class VideoSectorIdentifierTest {
+
+    @Rule
+    public TemporaryFolder _folder = new TemporaryFolder();
+
+    private static final int SECTOR_RANDOM = 0;
+    private static final int SECTOR_STR = 1;
+    private static final int SECTOR_FF8 = 2;
+    private static final int SECTOR_ALMOST_STR = 3;
+
+    private CdFileSectorReader _cd;
+
+    @Before
+    public void setUp() throws Exception {
+        byte[] abDisc = new byte[2048 * 4];
+        new Random(1234).nextBytes(abDisc);
+        // keep the random sector from accidentally starting with a magic number
+        abDisc[SECTOR_RANDOM * 2048 + 3] = 0x7f;
+
+        int i = SECTOR_STR * 2048;
+        IO.writeInt32LE(abDisc, i, (int)SectorStrVideo.VIDEO_SECTOR_MAGIC);
+        IO.writeInt16LE(abDisc, i + 4, (short)0);   // chunk number
+        IO.writeInt16LE(abDisc, i + 6, (short)1);   // chunks in frame
+        IO.writeInt32LE(abDisc, i + 8, 1);          // frame number
+        IO.writeInt32LE(abDisc, i + 12, 1000);      // used demux size
+        IO.writeInt16LE(abDisc, i + 16, (short)16); // width
+        IO.writeInt16LE(abDisc, i + 18, (short)16); // height
+        IO.writeInt16LE(abDisc, i + 20, (short)10); // run length codes
+        IO.writeInt16LE(abDisc, i + 22, (short)0x3800);
+        IO.writeInt16LE(abDisc, i + 24, (short)1);  // quantization scale
+        IO.writeInt16LE(abDisc, i + 26, (short)2);  // version
+        IO.writeInt32LE(abDisc, i + 28, 0);
+
+        i = SECTOR_FF8 * 2048;
+        abDisc[i] = 'S';
+        abDisc[i + 1] = 'M';
+        abDisc[i + 2] = 'J';
+        abDisc[i + 3] = 1;
+        abDisc[i + 4] = 2; // sector number
+        abDisc[i + 5] = 9; // sectors in frame
+        IO.writeInt16LE(abDisc, i + 6, (short)5); // frame number
+
+        // right magic number, invalid header
+        i = SECTOR_ALMOST_STR * 2048;
+        IO.writeInt32LE(abDisc, i, (int)SectorStrVideo.VIDEO_SECTOR_MAGIC);
+        IO.writeInt16LE(abDisc, i + 4, (short)-1);
+
+        File cdFile = _folder.newFile("cd.iso");
+        FileOutputStream fos = new FileOutputStream(cdFile);
+        fos.write(abDisc);
+        fos.close();
+        _cd = new CdFileSectorReader(cdFile, 2048);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        _cd.close();
+    }
+
+    private IIdentifiedSector[] identify(Set<VideoSectorIdentifier.Game> games) throws Exception {
+        SectorClaimSystem scs = SectorClaimSystem.create(_cd);
+        scs.getClaimer(SectorClaimToStrVideoSector.class).setGames(games);
+        IIdentifiedSector[] aoClaimers = new IIdentifiedSector[_cd.getSectorCount()];
+        for (int i = 0; scs.hasNext(); i++) {
+            aoClaimers[i] = scs.next(DebugLogger.Log).getClaimer();
+        }
+        return aoClaimers;
+    }
+
+    @Test
+    public void allGames() throws Exception {
+        IIdentifiedSector[] aoClaimers = identify(VideoSectorIdentifier.ALL_GAMES);
+        assertFalse(aoClaimers[SECTOR_RANDOM] instanceof ISelfDemuxingVideoSector);
+        assertTrue(aoClaimers[SECTOR_STR] instanceof SectorStrVideo);
+        assertTrue(aoClaimers[SECTOR_FF8] instanceof SectorFF8.SectorFF8Video);
+        assertFalse(aoClaimers[SECTOR_ALMOST_STR] instanceof ISelfDemuxingVideoSector);
+    }
+
+    @Test
+    public void noGames() throws Exception {
+        IIdentifiedSector[] aoClaimers = identify(EnumSet.noneOf(VideoSectorIdentifier.Game.class));
+        // generic STR is always identified
+        assertTrue(aoClaimers[SECTOR_STR] instanceof SectorStrVideo);
+        assertFalse(aoClaimers[SECTOR_FF8] instanceof ISelfDemuxingVideoSector);
+    }
+
+    @Test
+    public void parseList() {
+        assertEquals(EnumSet.of(VideoSectorIdentifier.Game.FF8, VideoSectorIdentifier.Game.GranTurismo),
+                     VideoSectorIdentifier.Game.parseList("gt, FF8"));
+        assertEquals(EnumSet.noneOf(VideoSectorIdentifier.Game.class),
+                     VideoSectorIdentifier.Game.parseList(""));
+        assertNull(VideoSectorIdentifier.Game.parseList("ff8,ff10"));
+        assertEquals(VideoSectorIdentifier.ALL_GAMES,
+                     VideoSectorIdentifier.Game.parseList(
+                             VideoSectorIdentifier.Game.toList(VideoSectorIdentifier.ALL_GAMES)));
+    }
+
+}
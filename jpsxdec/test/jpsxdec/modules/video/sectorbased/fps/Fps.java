@@ -38,6 +38,9 @@
 package jpsxdec.modules.video.sectorbased.fps;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -105,6 +108,29 @@ public class Fps {
         test("LUNAR2_24FPS_A16(S56).dat", new Fraction(25,4), 0);
     }
     
+    @Test
+    public void compiledTablesMatchText() throws IOException {
+        for (String sName : FrameSequenceTable.FPS_LISTS) {
+            InputStream is = Fps.class.getResourceAsStream(sName + FrameSequenceTable.TEXT_EXTENSION);
+            FrameSequenceTable text = FrameSequenceTable.readText(sName, is);
+            is.close();
+
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            text.writeBinary(new DataOutputStream(baos));
+            FrameSequenceTable binary = FrameSequenceTable.readBinary(sName,
+                    new ByteArrayInputStream(baos.toByteArray()));
+
+            assertEquals(sName, text.getSectors(), binary.getSectors());
+            assertEquals(sName, text.getPerFrame(), binary.getPerFrame());
+            assertEquals(sName, text.getLoopSector(), binary.getLoopSector());
+            assertEquals(sName, text.getFrameCount(), binary.getFrameCount());
+            for (int i = 0; i < text.getFrameCount(); i++) {
+                assertEquals(sName, text.getFrameStartSector(i), binary.getFrameStartSector(i));
+                assertEquals(sName, text.getFrameEndSector(i), binary.getFrameEndSector(i));
+            }
+        }
+    }
+
     private static void test(String sFile, Fraction expected, int iFrameStart) throws IOException {
         System.out.println(sFile);
         System.out.println(expected);
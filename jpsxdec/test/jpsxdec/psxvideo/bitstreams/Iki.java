@@ -37,7 +37,9 @@
 
 package jpsxdec.psxvideo.bitstreams;
 
+import java.io.ByteArrayOutputStream;
 import java.util.Arrays;
+import java.util.Random;
 import org.junit.*;
 import static org.junit.Assert.*;
 
@@ -74,4 +76,103 @@ public class Iki {
         assertArrayEquals(abUncompressed, abReUncompressed);
     }
 
+    @Test
+    public void lzssOptions() {
+        Random rand = new Random(1);
+        byte[] abUncompressed = new byte[20000];
+        for (int i = 0; i < abUncompressed.length; i++) {
+            if (i > 0 && rand.nextInt(3) == 0)
+                abUncompressed[i] = abUncompressed[i - 1 - rand.nextInt(Math.min(i, 1000))];
+            else
+                abUncompressed[i] = (byte)rand.nextInt(16);
+        }
+        byte[] abDefault = lzss(new BitStreamUncompressor_Iki.IkiLzssCompressor(), abUncompressed);
+        byte[] abShallow = lzss(new BitStreamUncompressor_Iki.IkiLzssCompressor(4, false), abUncompressed);
+        byte[] abMax = lzss(new BitStreamUncompressor_Iki.IkiLzssCompressor(0, true), abUncompressed);
+        assertTrue(abMax.length <= abDefault.length);
+        for (byte[] ab : new byte[][] {abDefault, abShallow, abMax}) {
+            assertArrayEquals(abUncompressed,
+                    BitStreamUncompressor_Iki.ikiLzssUncompress(ab, abUncompressed.length));
+        }
+    }
+
+    @Test
+    public void hashChainsMatchBruteForce() {
+        Random rand = new Random(2);
+        byte[] abRandom = new byte[40000];
+        for (int i = 0; i < abRandom.length; i++) {
+            if (i > 0 && rand.nextInt(2) == 0)
+                abRandom[i] = abRandom[i - 1 - rand.nextInt(Math.min(i, 40000))];
+            else
+                abRandom[i] = (byte)rand.nextInt(8);
+        }
+        byte[] abRepeated = new byte[1000];
+        for (int i = 0; i < abRepeated.length; i++)
+            abRepeated[i] = (byte)(i % 300 < 280 ? 7 : i);
+
+        for (byte[] ab : new byte[][] {abRandom, abRepeated, new byte[5], new byte[0]}) {
+            assertArrayEquals(bruteForceLzss(ab),
+                              lzss(new BitStreamUncompressor_Iki.IkiLzssCompressor(), ab));
+        }
+    }
+
+    /** The original compressor that checked every position in the window. */
+    private static byte[] bruteForceLzss(byte[] abSrcData) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        int iFlags = 0, iFlagBit = 0;
+        for (int iSrcPos = 0; iSrcPos < abSrcData.length;) {
+            int iLongestRunPos = 0;
+            int iLongestRunLen = 0;
+            if (iSrcPos < abSrcData.length - 3) {
+                int iFarthestBack = Math.max(0, iSrcPos - (0x7fff + 1));
+                for (int iMatchStart = iSrcPos-1; iMatchStart >= iFarthestBack; iMatchStart--) {
+                    int iMatchLen = 0;
+                    while (iSrcPos + iMatchLen < abSrcData.length && iMatchLen < 255 + 3 &&
+                           abSrcData[iMatchStart+iMatchLen] == abSrcData[iSrcPos+iMatchLen])
+                        iMatchLen++;
+                    if (iMatchLen > iLongestRunLen) {
+                        int iNegOffsetMin1 = iSrcPos - iMatchStart - 1;
+                        if ((iNegOffsetMin1 <  0x80) && (iMatchLen >= 3) ||
+                            (iNegOffsetMin1 >= 0x80) && (iMatchLen >= 4))
+                        {
+                            iLongestRunLen = iMatchLen;
+                            iLongestRunPos = iMatchStart;
+                        }
+                    }
+                }
+            }
+            if (iLongestRunLen > 0) {
+                iFlags |= 1 << iFlagBit;
+                buffer.write(iLongestRunLen - 3);
+                int iNegOffsetMin1 = iSrcPos - iLongestRunPos - 1;
+                if (iNegOffsetMin1 < 0x80) {
+                    buffer.write(iNegOffsetMin1);
+                } else {
+                    buffer.write((iNegOffsetMin1 >> 8) | 0x80);
+                    buffer.write(iNegOffsetMin1 & 0xff);
+                }
+                iSrcPos += iLongestRunLen;
+            } else {
+                buffer.write(abSrcData[iSrcPos]);
+                iSrcPos++;
+            }
+            iFlagBit++;
+            if (iFlagBit == 8 || iSrcPos == abSrcData.length) {
+                out.write(iFlags);
+                byte[] ab = buffer.toByteArray();
+                out.write(ab, 0, ab.length);
+                buffer.reset();
+                iFlags = iFlagBit = 0;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] lzss(BitStreamUncompressor_Iki.IkiLzssCompressor compressor, byte[] ab) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        compressor.compress(ab, baos);
+        return baos.toByteArray();
+    }
+
 }
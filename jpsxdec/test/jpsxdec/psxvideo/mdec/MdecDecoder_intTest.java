@@ -0,0 +1,193 @@
+/*
+ * jPSXdec: PlayStation 1 Media Decoder/Converter in Java
+ * Copyright (C) 2019  Michael Sabin
+ * All rights reserved.
+ *
+ * Redistribution and use of the jPSXdec code or any derivative works are
+ * permitted provided that the following conditions are met:
+ *
+ *  * Redistributions may not be sold, nor may they be used in commercial
+ *    or revenue-generating business activities.
+ *
+ *  * Redistributions that are modified from the original source must
+ *    include the complete source code, including the source code for all
+ *    components used by a binary built from the modified sources. However, as
+ *    a special exception, the source code distributed need not include
+ *    anything that is normally distributed (in either source or binary form)
+ *    with the major components (compiler, kernel, and so on) of the operating
+ *    system on which the executable runs, unless that component itself
+ *    accompanies the executable.
+ *
+ *  * Redistributions must reproduce the above copyright notice, this list
+ *    of conditions and the following disclaimer in the documentation and/or
+ *    other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jpsxdec.psxvideo.mdec;
+
+import java.util.Random;
+import jpsxdec.formats.YCbCrImage;
+import jpsxdec.psxvideo.mdec.idct.IDCT_double;
+import jpsxdec.psxvideo.mdec.idct.IDCT_int;
+import jpsxdec.psxvideo.mdec.idct.PsxMdecIDCT_double;
+import jpsxdec.psxvideo.mdec.idct.PsxMdecIDCT_int;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+
+public class MdecDecoder_intTest {
+
+    public MdecDecoder_intTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+    private static class MStream implements MdecInputStream {
+
+        private final MdecCode[] _codes;
+        private int _i = 0;
+
+        public MStream(MdecCode[] _codes) {
+            this._codes = _codes;
+        }
+
+        @Override
+        public boolean readMdecCode(MdecCode code) {
+            code.setFrom(_codes[_i++]);
+            return code.isEOD();
+        }
+    }
+
+    private static final int WIDTH = 64, HEIGHT = 48;
+
+    /** Every block only has a DC value that both decoders turn into the
+     * same whole number, so any difference is from the YCbCr conversion. */
+    @Test
+    public void rec601WithinOneOfDouble() throws Exception {
+        MdecCode EOD = new MdecCode();
+        EOD.setToEndOfData();
+        int iBlocks = (WIDTH / 16) * (HEIGHT / 16) * 6;
+
+        MdecDecoder_int decoderInt = new MdecDecoder_int(new PsxMdecIDCT_int(), WIDTH, HEIGHT);
+        MdecDecoder_double decoderDouble = new MdecDecoder_double(new PsxMdecIDCT_double(), WIDTH, HEIGHT);
+        YCbCrImage yccInt = new YCbCrImage(WIDTH, HEIGHT);
+        YCbCrImage yccDouble = new YCbCrImage(WIDTH, HEIGHT);
+
+        Random rand = new Random(1234);
+        for (int iFrame = 0; iFrame < 100; iFrame++) {
+            MdecCode[] aoCodes = new MdecCode[iBlocks * 2];
+            for (int i = 0; i < iBlocks; i++) {
+                // DC * 2 (quantization) / 8 (IDCT) is a whole number
+                int iDc = (rand.nextInt(256) - 128) * 4;
+                aoCodes[i * 2] = new MdecCode(1, iDc);
+                aoCodes[i * 2 + 1] = EOD;
+            }
+            decoderInt.decode(new MStream(aoCodes));
+            decoderDouble.decode(new MStream(aoCodes));
+            decoderInt.readDecoded_Rec601_YCbCr420(yccInt);
+            decoderDouble.readDecoded_Rec601_YCbCr420(yccDouble);
+
+            assertWithinOne(yccDouble.getY(), yccInt.getY());
+            assertWithinOne(yccDouble.getCb(), yccInt.getCb());
+            assertWithinOne(yccDouble.getCr(), yccInt.getCr());
+        }
+    }
+
+    /** Ignores the coefficients and outputs random samples from -400 to 400,
+     * the same sequence for both decoders. That covers the full range of
+     * values, including combinations that clamp to 0 and 255. */
+    private static class RandomIdct implements IDCT_int, IDCT_double {
+
+        private final Random _rand = new Random(5678);
+
+        private int next() {
+            return _rand.nextInt(801) - 400;
+        }
+
+        public void IDCT(int[] aiIdctMatrix, int iOutputOffset, int[] aiOutput) {
+            for (int i = 0; i < 64; i++)
+                aiOutput[iOutputOffset + i] = next();
+        }
+        public void IDCT_1NonZero(int[] aiIdctMatrix, int iNonZeroPos, int iOutputOffset, int[] aiOutput) {
+            IDCT(aiIdctMatrix, iOutputOffset, aiOutput);
+        }
+        public void IDCT(double[] adblIdctMatrix, int iOutputOffset, double[] adblOutput) {
+            for (int i = 0; i < 64; i++)
+                adblOutput[iOutputOffset + i] = next();
+        }
+        public void IDCT_1NonZero(double[] adblIdctMatrix, int iNonZeroPos, int iOutputOffset, double[] adblOutput) {
+            IDCT(adblIdctMatrix, iOutputOffset, adblOutput);
+        }
+    }
+
+    @Test
+    public void rec601FullRangeWithinOneOfDouble() throws Exception {
+        MdecCode EOD = new MdecCode();
+        EOD.setToEndOfData();
+        int iBlocks = (WIDTH / 16) * (HEIGHT / 16) * 6;
+        MdecCode[] aoCodes = new MdecCode[iBlocks * 2];
+        for (int i = 0; i < iBlocks; i++) {
+            // any non-zero DC so the IDCT is run
+            aoCodes[i * 2] = new MdecCode(1, 1);
+            aoCodes[i * 2 + 1] = EOD;
+        }
+
+        MdecDecoder_int decoderInt = new MdecDecoder_int(new RandomIdct(), WIDTH, HEIGHT);
+        MdecDecoder_double decoderDouble = new MdecDecoder_double(new RandomIdct(), WIDTH, HEIGHT);
+        YCbCrImage yccInt = new YCbCrImage(WIDTH, HEIGHT);
+        YCbCrImage yccDouble = new YCbCrImage(WIDTH, HEIGHT);
+
+        boolean blnClamped0 = false, blnClamped255 = false;
+        for (int iFrame = 0; iFrame < 100; iFrame++) {
+            decoderInt.decode(new MStream(aoCodes));
+            decoderDouble.decode(new MStream(aoCodes));
+            decoderInt.readDecoded_Rec601_YCbCr420(yccInt);
+            decoderDouble.readDecoded_Rec601_YCbCr420(yccDouble);
+
+            assertWithinOne(yccDouble.getY(), yccInt.getY());
+            assertWithinOne(yccDouble.getCb(), yccInt.getCb());
+            assertWithinOne(yccDouble.getCr(), yccInt.getCr());
+
+            for (byte b : yccInt.getY()) {
+                blnClamped0 |= b == 0;
+                blnClamped255 |= b == (byte)255;
+            }
+        }
+        assertTrue(blnClamped0);
+        assertTrue(blnClamped255);
+    }
+
+    private static void assertWithinOne(byte[] abExpected, byte[] abActual) {
+        assertEquals(abExpected.length, abActual.length);
+        for (int i = 0; i < abExpected.length; i++) {
+            int iDiff = (abExpected[i] & 0xff) - (abActual[i] & 0xff);
+            assertTrue("Index " + i + " differs by " + iDiff, Math.abs(iDiff) <= 1);
+        }
+    }
+
+}
@@ -0,0 +1,206 @@
+/*
+ * jPSXdec: PlayStation 1 Media Decoder/Converter in Java
+ * Copyright (C) 2019  Michael Sabin
+ * All rights reserved.
+ *
+ * Redistribution and use of the jPSXdec code or any derivative works are
+ * permitted provided that the following conditions are met:
+ *
+ *  * Redistributions may not be sold, nor may they be used in commercial
+ *    or revenue-generating business activities.
+ *
+ *  * Redistributions that are modified from the original source must
+ *    include the complete source code, including the source code for all
+ *    components used by a binary built from the modified sources. However, as
+ *    a special exception, the source code distributed need not include
+ *    anything that is normally distributed (in either source or binary form)
+ *    with the major components (compiler, kernel, and so on) of the operating
+ *    system on which the executable runs, unless that component itself
+ *    accompanies the executable.
+ *
+ *  * Redistributions must reproduce the above copyright notice, this list
+ *    of conditions and the following disclaimer in the documentation and/or
+ *    other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package jpsxdec.tim;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.util.Arrays;
+import java.util.Random;
+import jpsxdec.util.DemuxByteSource;
+import jpsxdec.util.DemuxedDataTest.DDPiece;
+import jpsxdec.util.IO;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+public class TimTest {
+
+    private static final int WIDTH = 8, HEIGHT = 4, PALETTES = 3;
+
+    /** Creates a 4bpp Tim with 3 random palettes and random pixels. */
+    private static Tim create4bpp() throws Exception {
+        return Tim.read(new ByteArrayInputStream(create4bppBytes()));
+    }
+
+    /** Creates an 8bpp Tim with 3 random palettes and random pixels. */
+    private static Tim create8bpp() throws Exception {
+        return Tim.read(new ByteArrayInputStream(createPalettedBytes(8)));
+    }
+
+    private static byte[] create4bppBytes() throws Exception {
+        return createPalettedBytes(4);
+    }
+
+    private static byte[] createPalettedBytes(int iBitsPerPixel) throws Exception {
+        Random rand = new Random(45);
+        int iColorCount = 1 << iBitsPerPixel;
+        int iImageByteSize = WIDTH * HEIGHT * iBitsPerPixel / 8;
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        IO.writeInt32LE(baos, Tim.TAG_MAGIC);
+        IO.writeInt32LE(baos, iBitsPerPixel == 4 ? 0x08 : 0x09); // 4 or 8bpp with CLUT
+        // CLUT
+        IO.writeInt32LE(baos, 12 + iColorCount * PALETTES * 2);
+        IO.writeInt16LE(baos, 0);
+        IO.writeInt16LE(baos, 0);
+        IO.writeInt16LE(baos, iColorCount);
+        IO.writeInt16LE(baos, PALETTES);
+        for (int i = 0; i < iColorCount * PALETTES; i++)
+            IO.writeInt16LE(baos, rand.nextInt(0x10000));
+        // image
+        IO.writeInt32LE(baos, 12 + iImageByteSize);
+        IO.writeInt16LE(baos, 0);
+        IO.writeInt16LE(baos, 0);
+        IO.writeInt16LE(baos, iImageByteSize / 2 / HEIGHT);
+        IO.writeInt16LE(baos, HEIGHT);
+        for (int i = 0; i < iImageByteSize; i++)
+            baos.write(rand.nextInt(256));
+        return baos.toByteArray();
+    }
+
+    private static void assertSameInfo(TimInfo expected, TimInfo actual) {
+        assertNotNull(actual);
+        assertEquals(expected.iPaletteCount, actual.iPaletteCount);
+        assertEquals(expected.iBitsPerPixel, actual.iBitsPerPixel);
+        assertEquals(expected.iPixelWidth, actual.iPixelWidth);
+        assertEquals(expected.iPixelHeight, actual.iPixelHeight);
+        assertEquals(expected.iByteSize, actual.iByteSize);
+    }
+
+    private static void assertSameImage(BufferedImage expected, BufferedImage actual,
+                                        int iActualX, int iActualY)
+    {
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                assertEquals(expected.getRGB(x, y), actual.getRGB(iActualX + x, iActualY + y));
+            }
+        }
+    }
+
+    @Test
+    public void sharedRasterImages() throws Exception {
+        Tim tim = create4bpp();
+        assertEquals(PALETTES, tim.getPaletteCount());
+        BufferedImage[] aoImages = tim.toBufferedImages(null);
+        assertEquals(PALETTES, aoImages.length);
+        for (int i = 0; i < PALETTES; i++) {
+            assertSameImage(tim.toBufferedImage(i), aoImages[i], 0, 0);
+        }
+
+        aoImages = tim.toBufferedImages(new boolean[] {false, true, false});
+        assertNull(aoImages[0]);
+        assertSameImage(tim.toBufferedImage(1), aoImages[1], 0, 0);
+        assertNull(aoImages[2]);
+    }
+
+    @Test
+    public void paletteAtlas() throws Exception {
+        Tim tim = create4bpp();
+        BufferedImage atlas = tim.toPaletteAtlas(null, true);
+        // 3 palettes are laid out in a 2x2 grid
+        assertEquals(WIDTH * 2, atlas.getWidth());
+        assertEquals(HEIGHT * 2, atlas.getHeight());
+        assertSameImage(tim.toBufferedImage(0), atlas, 0, 0);
+        assertSameImage(tim.toBufferedImage(1), atlas, WIDTH, 0);
+        assertSameImage(tim.toBufferedImage(2), atlas, 0, HEIGHT);
+
+        atlas = tim.toPaletteAtlas(new boolean[] {false, true, true}, true);
+        assertEquals(WIDTH * 2, atlas.getWidth());
+        assertEquals(HEIGHT, atlas.getHeight());
+        assertSameImage(tim.toBufferedImage(1), atlas, 0, 0);
+        assertSameImage(tim.toBufferedImage(2), atlas, WIDTH, 0);
+    }
+
+    @Test
+    public void paletteAtlas8bpp() throws Exception {
+        Tim tim = create8bpp();
+        assertEquals(8, tim.getBitsPerPixel());
+        assertEquals(WIDTH, tim.getWidth());
+        assertEquals(PALETTES, tim.getPaletteCount());
+        BufferedImage atlas = tim.toPaletteAtlas(null, true);
+        assertEquals(WIDTH * 2, atlas.getWidth());
+        assertEquals(HEIGHT * 2, atlas.getHeight());
+        assertSameImage(tim.toBufferedImage(0), atlas, 0, 0);
+        assertSameImage(tim.toBufferedImage(1), atlas, WIDTH, 0);
+        assertSameImage(tim.toBufferedImage(2), atlas, 0, HEIGHT);
+
+        atlas = tim.toPaletteAtlas(new boolean[] {true, false, false}, true);
+        assertEquals(WIDTH, atlas.getWidth());
+        assertEquals(HEIGHT, atlas.getHeight());
+        assertSameImage(tim.toBufferedImage(0), atlas, 0, 0);
+    }
+
+    @Test
+    public void isTimInByteSource() throws Exception {
+        byte[] abTim = create4bppBytes();
+        TimInfo expected = Tim.isTim(new ByteArrayInputStream(abTim));
+        assertNotNull(expected);
+        assertEquals(abTim.length, expected.iByteSize);
+
+        // Tim after some junk, split across pieces
+        byte[] abJunk = {1, 2, 3, 4, 5};
+        byte[] abFirst = new byte[abJunk.length + 20];
+        System.arraycopy(abJunk, 0, abFirst, 0, abJunk.length);
+        System.arraycopy(abTim, 0, abFirst, abJunk.length, 20);
+        byte[] abRest = Arrays.copyOfRange(abTim, 20, abTim.length);
+
+        DemuxByteSource<DDPiece> source = new DemuxByteSource<DDPiece>(new DDPiece(abFirst));
+        assertNull(Tim.isTim(source, 0));
+        try {
+            Tim.isTim(source, abJunk.length);
+            fail("Expected NeedsMoreData");
+        } catch (DemuxByteSource.NeedsMoreData ex) {
+            // expected
+        }
+        source.addPiece(new DDPiece(abRest));
+        assertSameInfo(expected, Tim.isTim(source, abJunk.length));
+        assertEquals(0, source.getPosition());
+
+        // truncated Tim at the end of the data
+        source = new DemuxByteSource<DDPiece>(new DDPiece(abFirst));
+        source.close();
+        try {
+            Tim.isTim(source, abJunk.length);
+            fail("Expected EOFException");
+        } catch (EOFException ex) {
+            // expected
+        }
+    }
+
+}
@@ -0,0 +1,223 @@
+/*
+ * jPSXdec: PlayStation 1 Media Decoder/Converter in Java
+ * Copyright (C) 2017-2019  Michael Sabin
+ * All rights reserved.
+ *
+ * Redistribution and use of the jPSXdec code or any derivative works are
+ * permitted provided that the following conditions are met:
+ *
+ *  * Redistributions may not be sold, nor may they be used in commercial
+ *    or revenue-generating business activities.
+ *
+ *  * Redistributions that are modified from the original source must
+ *    include the complete source code, including the source code for all
+ *    components used by a binary built from the modified sources. However, as
+ *    a special exception, the source code distributed need not include
+ *    anything that is normally distributed (in either source or binary form)
+ *    with the major components (compiler, kernel, and so on) of the operating
+ *    system on which the executable runs, unless that component itself
+ *    accompanies the executable.
+ *
+ *  * Redistributions must reproduce the above copyright notice, this list
+ *    of conditions and the following disclaimer in the documentation and/or
+ *    other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS
+ * IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER
+ * OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package jpsxdec.util;
+
+import java.io.EOFException;
+import jpsxdec.util.DemuxedDataTest.DDPiece;
+import org.junit.*;
+import static org.junit.Assert.*;
+
+
+public class DemuxByteSourceTest {
+
+    public DemuxByteSourceTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+    }
+
+    @AfterClass
+    public static void tearDownClass() {
+    }
+
+    @Before
+    public void setUp() {
+    }
+
+    @After
+    public void tearDown() {
+    }
+
+
+    @Test
+    public void readAcrossPieces() throws Exception {
+        DDPiece p1 = new DDPiece(1, 3);
+        DDPiece p2 = new DDPiece(new byte[0]);
+        DDPiece p3 = new DDPiece(7, 8);
+        DDPiece p4 = new DDPiece(9, 11);
+        DemuxByteSource<DDPiece> x = new DemuxByteSource<DDPiece>(p1);
+        x.addPiece(p2);
+        x.addPiece(p3);
+        x.addPiece(p4);
+        assertEquals(8, x.available());
+        assertEquals(1, x.readUInt8(0));
+        assertEquals(7, x.readUInt8(3));
+        assertEquals(0x0307, x.readUInt16BE(2));
+        assertEquals(0x0703, x.readUInt16LE(2));
+        assertEquals(0x02030708, x.readSInt32BE(1));
+        assertEquals(0x08070302, x.readSInt32LE(1));
+        assertEquals(0x0708090aL, x.readUInt32BE(3));
+        assertArrayEquals(new byte[] {2, 3, 7, 8, 9, 10}, x.readByteArray(1, 6));
+    }
+
+    @Test
+    public void signedValues() throws Exception {
+        DDPiece p1 = new DDPiece(new byte[] {(byte)0xff});
+        DDPiece p2 = new DDPiece(new byte[] {(byte)0xfe, (byte)0x80, 0});
+        DemuxByteSource<DDPiece> x = new DemuxByteSource<DDPiece>(p1);
+        x.addPiece(p2);
+        assertEquals(0xff, x.readUInt8(0));
+        assertEquals((short)0xfffe, x.readSInt16BE(0));
+        assertEquals((short)0xfeff, x.readSInt16LE(0));
+        assertEquals(0xfffe, x.readUInt16BE(0));
+        assertEquals(0xfffe8000, x.readSInt32BE(0));
+        assertEquals(0x0080feffL, x.readUInt32LE(0));
+    }
+
+    @Test
+    public void needsMoreDataThenEof() throws Exception {
+        DemuxByteSource<DDPiece> x = new DemuxByteSource<DDPiece>(new DDPiece(1, 3));
+        try {
+            x.readUInt16BE(2);
+            fail();
+        } catch (DemuxByteSource.NeedsMoreData ex) {
+        }
+        x.addPiece(new DDPiece(7, 11));
+        assertEquals(0x0307, x.readUInt16BE(2));
+        x.close();
+        try {
+            x.readSInt32LE(5);
+            fail();
+        } catch (EOFException ex) {
+        }
+        try {
+            x.addPiece(new DDPiece(1, 1));
+            fail();
+        } catch (IllegalStateException ex) {
+        }
+    }
+
+    @Test
+    public void positionAndSkip() throws Exception {
+        DemuxByteSource<DDPiece> x = new DemuxByteSource<DDPiece>(new DDPiece(1, 3));
+        x.addPiece(new DDPiece(7, 11));
+        x.skip(4);
+        assertEquals(4, x.getPosition());
+        assertEquals(4, x.available());
+        int iMark = x.getPosition();
+        x.skip(3);
+        assertEquals(1, x.available());
+        try {
+            x.skip(2);
+            fail();
+        } catch (DemuxByteSource.NeedsMoreData ex) {
+        }
+        assertEquals(7, x.getPosition());
+        x.setPosition(iMark);
+        assertEquals(8, x.readUInt8(x.getPosition()));
+    }
+
+    @Test
+    public void demuxWithinPiece() {
+        DDPiece p1 = new DDPiece(1, 10);
+        DDPiece p2 = new DDPiece(20, 29);
+        DemuxByteSource<DDPiece> x = new DemuxByteSource<DDPiece>(p1);
+        x.addPiece(p2);
+
+        DemuxedData<DDPiece> d = x.getDemux(0, 5);
+        assertEquals(1, d.getPieceCount());
+        assertEquals(5, d.getDemuxSize());
+        assertEquals(0, d.getStartDataOffset());
+        assertEquals(5, d.getEndDataOffset());
+        assertEquals(p1.getSectorNumber(), d.getStartSector());
+        assertEquals(p1.getSectorNumber(), d.getEndSector());
+
+        // starting right at the end of one piece is the start of the next
+        d = x.getDemux(10, 12);
+        assertEquals(1, d.getPieceCount());
+        assertEquals(0, d.getStartDataOffset());
+        assertEquals(2, d.getEndDataOffset());
+        assertEquals(p2.getSectorNumber(), d.getStartSector());
+    }
+
+    @Test
+    public void demuxAcrossPieces() {
+        DDPiece p1 = new DDPiece(1, 3);
+        DDPiece p2 = new DDPiece(7, 11);
+        DemuxByteSource<DDPiece> x = new DemuxByteSource<DDPiece>(p1);
+        x.addPiece(p2);
+
+        DemuxedData<DDPiece> d = x.getDemux(1, 5);
+        assertEquals(2, d.getPieceCount());
+        assertEquals(4, d.getDemuxSize());
+        assertEquals(1, d.getStartDataOffset());
+        assertEquals(2, d.getEndDataOffset());
+        assertEquals(p1.getSectorNumber(), d.getStartSector());
+        assertEquals(p2.getSectorNumber(), d.getEndSector());
+
+        // ending right at the end of a piece doesn't include the next
+        d = x.getDemux(1, 3);
+        assertEquals(1, d.getPieceCount());
+        assertEquals(3, d.getEndDataOffset());
+    }
+
+    @Test
+    public void currentPiece() throws Exception {
+        DDPiece p1 = new DDPiece(1, 3);
+        DDPiece p2 = new DDPiece(7, 11);
+        DemuxByteSource<DDPiece> x = new DemuxByteSource<DDPiece>(p1);
+        x.addPiece(p2);
+        assertSame(p1, x.getCurrentPiece());
+        x.skip(3);
+        // the end of one piece = the start of the next
+        assertSame(p1, x.getCurrentPiece());
+        assertEquals(3, x.getOffsetInCurrentPiece());
+        x.skip(1);
+        assertSame(p2, x.getCurrentPiece());
+        assertEquals(1, x.getOffsetInCurrentPiece());
+    }
+
+    @Test
+    public void release() throws Exception {
+        DemuxByteSource<DDPiece> x = new DemuxByteSource<DDPiece>();
+        for (int i = 0; i < 100; i++) {
+            x.addPiece(new DDPiece(i, i + 1));
+            x.release(i * 2);
+        }
+        assertEquals(198, x.getStart());
+        assertEquals(200, x.getEnd());
+        assertEquals(99, x.readUInt8(198));
+        assertEquals(0x6364, x.readUInt16BE(198));
+        try {
+            x.readUInt8(10);
+            fail();
+        } catch (IndexOutOfBoundsException ex) {
+        }
+    }
+
+}
@@ -64,7 +64,9 @@ public class DemuxedDataTest {
     public void tearDown() {
     }
 
-    static class DDPiece implements DemuxedData.Piece {
+    /** Piece with the given data and a sector number that counts up
+     * from 0 for each test. Also used by tests in other packages. */
+    public static class DDPiece implements DemuxedData.Piece {
         private final byte[] _abData;
         private final int _iSector = iSectorCounter++;
         public DDPiece(byte[] ab) {
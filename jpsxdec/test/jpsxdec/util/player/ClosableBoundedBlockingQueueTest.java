@@ -123,6 +123,47 @@ public class ClosableBoundedBlockingQueueTest {
         assertTrue(queue.isClosed());
     }
 
+    @Test
+    public void testClear() throws Exception {
+        ClosableBoundedBlockingQueue<String> queue = new ClosableBoundedBlockingQueue<String>(3);
+
+        assertTrue(queue.add(OBJECT1));
+        assertTrue(queue.add(OBJECT1));
+        assertTrue(queue.clear());
+        assertTrue(queue.isEmpty());
+        assertFalse(queue.isClosed());
+        assertTrue(queue.add(OBJECT1));
+        // the end of the queue can't be cleared
+        queue.closeWhenEmpty();
+        assertFalse(queue.clear());
+        assertSame(OBJECT1, queue.take());
+        assertNull(queue.take());
+    }
+
+    @Test
+    public void testClearUnblocksAdd() throws Exception {
+        ClosableBoundedBlockingQueue<String> queue = new ClosableBoundedBlockingQueue<String>(1);
+        assertTrue(queue.add(OBJECT1));
+
+        OtherAdd otherAdd = new OtherAdd(queue);
+        otherAdd.start();
+        try {
+            while (otherAdd.isAlive() && otherAdd.getState() != Thread.State.TIMED_WAITING) {
+                Thread.sleep(10);
+            }
+            assertTrue(otherAdd.isAlive());
+
+            assertTrue(queue.clear());
+            // should be woken up well before the 1 second sanity check
+            otherAdd.join(500);
+            assertFalse(otherAdd.isAlive());
+            assertNull(otherAdd._ex);
+            assertTrue(otherAdd._blnAdded);
+        } finally {
+            otherAdd.interrupt();
+        }
+    }
+
     @Test
     public void testTakeTakeAdd() throws Exception {
         ClosableBoundedBlockingQueue<String> queue = new ClosableBoundedBlockingQueue<String>(1);
@@ -232,6 +273,23 @@ public class ClosableBoundedBlockingQueueTest {
         }
     }
 
+    private static class OtherAdd extends Thread {
+        private final ClosableBoundedBlockingQueue<String> _otherMine;
+        private transient boolean _blnAdded;
+        private transient Exception _ex;
+        public OtherAdd(ClosableBoundedBlockingQueue<String> otherMine) {
+            _otherMine = otherMine;
+        }
+        @Override
+        public void run() {
+            try {
+                _blnAdded = _otherMine.add(OBJECT1);
+            } catch (Exception ex) {
+                _ex = ex;
+            }
+        }
+    }
+
     private static class OtherTake extends Thread {
         private final ClosableBoundedBlockingQueue<String> _otherMine;
         private transient String _taken;